@@ -0,0 +1,95 @@
+package org.account.bank.benchmark;
+
+import org.account.bank.adapter.secondary.OperationPrinter;
+import org.account.bank.domain.AsyncOperationService;
+import org.account.bank.domain.OperationService;
+import org.account.bank.domain.port.secondary.IAccountRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Débit de {@link AsyncOperationService} : threads virtuels contre un pool fixe de threads de plateforme
+ * (un par cœur). L'écart se creuse lorsque les écritures bloquent (repository = journal-sync).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AsyncBenchmark {
+
+    private static final LocalDate TODAY = LocalDate.of(2023, 8, 10);
+
+    private static final int BATCH = 1_024;
+
+    private static final int ACCOUNTS = 1_024;
+
+    @Param({Repositories.CONCURRENT, Repositories.JOURNAL_SYNC})
+    public String repository;
+
+    @Param({"virtual", "fixed"})
+    public String executor;
+
+    private Path directory;
+
+    private IAccountRepository accountRepository;
+
+    private AsyncOperationService operationService;
+
+    private String[] clientIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("bench-journal");
+        accountRepository = Repositories.create(repository, directory);
+        clientIds = new String[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            clientIds[i] = "client" + i;
+            accountRepository.addClient(clientIds[i]);
+        }
+        ExecutorService executorService = executor.equals("virtual")
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        OperationService direct = new OperationService(() -> TODAY, accountRepository, new OperationPrinter());
+        operationService = new AsyncOperationService(direct, executorService, BATCH, BATCH);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        operationService.close();
+        Repositories.close(accountRepository, directory);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void deposits() {
+        CompletableFuture<?>[] pending = new CompletableFuture<?>[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            pending[i] = operationService.deposit(clientIds[i % ACCOUNTS], BigDecimal.ONE);
+        }
+        CompletableFuture.allOf(pending).join();
+    }
+}
@@ -0,0 +1,89 @@
+package org.account.bank.benchmark;
+
+import org.account.bank.adapter.secondary.ConcurrentAccountRepository;
+import org.account.bank.adapter.secondary.OperationPrinter;
+import org.account.bank.adapter.stream.OperationRingBuffer;
+import org.account.bank.adapter.stream.PublishingAccountRepository;
+import org.account.bank.adapter.stream.WaitStrategy;
+import org.account.bank.domain.OperationResult;
+import org.account.bank.domain.OperationService;
+import org.account.bank.domain.port.secondary.IAccountRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût d'un dépôt publié dans le flux des opérations, pour le producteur (deposit), et délai jusqu'à son traitement
+ * par l'abonné (depositUntilConsumed). « none » : sans flux. Avec -prof gc, l'allocation par dépôt ne doit pas changer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChangeStreamBenchmark {
+
+    private static final String CLIENT_ID = "client01";
+
+    private static final LocalDate TODAY = LocalDate.of(2023, 8, 10);
+
+    @Param({"none", "BUSY_SPIN", "YIELDING", "SLEEPING", "BLOCKING"})
+    public String waitStrategy;
+
+    private OperationRingBuffer ringBuffer;
+
+    private OperationRingBuffer.Subscription subscription;
+
+    private OperationService operationService;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        // un compte neuf à chaque itération : l'historique ne grandit pas au fil de la mesure
+        IAccountRepository accountRepository = new ConcurrentAccountRepository();
+        ringBuffer = new OperationRingBuffer();
+        if (!waitStrategy.equals("none")) {
+            accountRepository = new PublishingAccountRepository(accountRepository, ringBuffer);
+            subscription = ringBuffer.subscribe("benchmark", (clientId, operation, sequence, endOfBatch) -> {
+            }, WaitStrategy.valueOf(waitStrategy));
+        }
+        accountRepository.addClient(CLIENT_ID);
+        operationService = new OperationService(() -> TODAY, accountRepository, new OperationPrinter());
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        ringBuffer.close();
+        subscription = null;
+    }
+
+    @Benchmark
+    public OperationResult deposit() {
+        return operationService.tryDeposit(CLIENT_ID, BigDecimal.ONE);
+    }
+
+    @Benchmark
+    public OperationResult depositUntilConsumed() {
+        OperationResult result = operationService.tryDeposit(CLIENT_ID, BigDecimal.ONE);
+        if (subscription != null) {
+            while (subscription.lag() > 0) {
+                Thread.onSpinWait();
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,108 @@
+package org.account.bank.benchmark;
+
+import org.account.bank.adapter.secondary.OperationPrinter;
+import org.account.bank.domain.OperationResult;
+import org.account.bank.domain.IdempotencyCache;
+import org.account.bank.domain.OperationService;
+import org.account.bank.domain.SerializedOperationService;
+import org.account.bank.domain.SubLedgers;
+import org.account.bank.domain.port.primary.IOperationService;
+import org.account.bank.domain.port.secondary.IAccountRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Débit en accès concurrents : un seul compte chaud (accounts = 1) contre de nombreux comptes froids.
+ * Le nombre de threads se règle avec -t ; deposit avec subLedgers = 8 mesure la répartition des dépôts du compte chaud.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class ContentionBenchmark {
+
+    private static final LocalDate TODAY = LocalDate.of(2023, 8, 10);
+
+    @Param({Repositories.CONCURRENT, Repositories.COLUMNAR, Repositories.JOURNAL})
+    public String repository;
+
+    @Param({"1", "1024"})
+    public int accounts;
+
+    // direct : OperationService seul, protégé par ses verrous par bande ; serialized : files par compte
+    @Param({"direct", "serialized"})
+    public String mode;
+
+    // dépôts de client0 répartis sur autant de sous-comptes (SubLedgers), 0 pour un compte ordinaire
+    @Param({"0", "8"})
+    public int subLedgers;
+
+    private Path directory;
+
+    private IAccountRepository accountRepository;
+
+    private IOperationService operationService;
+
+    private String[] clientIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("bench-journal");
+        accountRepository = Repositories.create(repository, directory);
+        clientIds = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            clientIds[i] = "client" + i;
+            accountRepository.addClient(clientIds[i]);
+        }
+        SubLedgers hot = subLedgers == 0 ? null : new SubLedgers(Set.of(clientIds[0]), subLedgers);
+        OperationService direct = new OperationService(() -> TODAY, accountRepository, new OperationPrinter(), null, new IdempotencyCache(), hot);
+        // les dépôts répartis contournent la file du compte, qui les sérialiserait de nouveau
+        operationService = mode.equals("serialized") ? new SerializedOperationService(direct, ForkJoinPool.commonPool(), hot) : direct;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Repositories.close(accountRepository, directory);
+    }
+
+    @Benchmark
+    public OperationResult deposit() {
+        return operationService.tryDeposit(pickClient(), BigDecimal.ONE);
+    }
+
+    @Benchmark
+    public OperationResult depositThenWithdraw() {
+        String clientId = pickClient();
+        operationService.tryDeposit(clientId, BigDecimal.ONE);
+        return operationService.tryWithdraw(clientId, BigDecimal.ONE);
+    }
+
+    private String pickClient() {
+        return clientIds[ThreadLocalRandom.current().nextInt(clientIds.length)];
+    }
+}
@@ -0,0 +1,99 @@
+package org.account.bank.benchmark;
+
+import org.account.bank.adapter.instrumentation.InstrumentedOperationService;
+import org.account.bank.adapter.instrumentation.LatencyHistogram;
+import org.account.bank.adapter.instrumentation.OperationMetrics;
+import org.account.bank.adapter.secondary.ConcurrentAccountRepository;
+import org.account.bank.adapter.secondary.OperationPrinter;
+import org.account.bank.domain.OperationResult;
+import org.account.bank.domain.OperationService;
+import org.account.bank.domain.port.primary.IOperationService;
+import org.account.bank.domain.port.secondary.IAccountRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Surcoût de l'instrumentation sur le chemin deposit/withdraw : à comparer avec les variantes "plain".
+ * "sampled" ne mesure la latence que d'un appel sur 16.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstrumentationBenchmark {
+
+    private static final String CLIENT_ID = "client01";
+
+    private static final LocalDate TODAY = LocalDate.of(2023, 8, 10);
+
+    private IOperationService plain;
+
+    private IOperationService instrumented;
+
+    private IOperationService sampled;
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    private long value;
+
+    @Setup
+    public void setUp() {
+        IAccountRepository accountRepository = new ConcurrentAccountRepository();
+        accountRepository.addClient(CLIENT_ID);
+        plain = new OperationService(() -> TODAY, accountRepository, new OperationPrinter());
+        instrumented = new InstrumentedOperationService(plain, new OperationMetrics());
+        sampled = new InstrumentedOperationService(plain, new OperationMetrics(16));
+    }
+
+    @Benchmark
+    public OperationResult plainDepositWithdraw() {
+        plain.tryDeposit(CLIENT_ID, BigDecimal.ONE);
+        return plain.tryWithdraw(CLIENT_ID, BigDecimal.ONE);
+    }
+
+    @Benchmark
+    public OperationResult instrumentedDepositWithdraw() {
+        instrumented.tryDeposit(CLIENT_ID, BigDecimal.ONE);
+        return instrumented.tryWithdraw(CLIENT_ID, BigDecimal.ONE);
+    }
+
+    @Benchmark
+    public OperationResult sampledDepositWithdraw() {
+        sampled.tryDeposit(CLIENT_ID, BigDecimal.ONE);
+        return sampled.tryWithdraw(CLIENT_ID, BigDecimal.ONE);
+    }
+
+    @Benchmark
+    public OperationResult plainRejectedWithdraw() {
+        return plain.tryWithdraw(CLIENT_ID, BigDecimal.valueOf(Long.MAX_VALUE));
+    }
+
+    @Benchmark
+    public OperationResult instrumentedRejectedWithdraw() {
+        return instrumented.tryWithdraw(CLIENT_ID, BigDecimal.valueOf(Long.MAX_VALUE));
+    }
+
+    @Benchmark
+    public OperationResult sampledRejectedWithdraw() {
+        return sampled.tryWithdraw(CLIENT_ID, BigDecimal.valueOf(Long.MAX_VALUE));
+    }
+
+    @Benchmark
+    public void recordLatency() {
+        histogram.record(value++ & 0xFFFF);
+    }
+}
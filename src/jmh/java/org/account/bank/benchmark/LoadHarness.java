@@ -0,0 +1,410 @@
+package org.account.bank.benchmark;
+
+import org.account.bank.adapter.instrumentation.LatencyHistogram;
+import org.account.bank.adapter.secondary.OperationPrinter;
+import org.account.bank.adapter.secondary.TimeService;
+import org.account.bank.domain.OperationService;
+import org.account.bank.domain.SerializedOperationService;
+import org.account.bank.domain.exception.InsufficientCreditException;
+import org.account.bank.domain.port.primary.IOperationService;
+import org.account.bank.domain.port.secondary.IAccountRepository;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Tir de charge de longue durée sur {@link IOperationService}, en complément des benchmarks JMH :
+ * dépôts, retraits (dont une part refusée pour solde insuffisant) et relevés, sur des comptes tirés selon une loi de Zipf.
+ * <p>
+ * La charge est en boucle ouverte : chaque worker suit un calendrier d'arrivées poissonnien fixé d'avance, au débit visé,
+ * que le service suive ou non. La latence est mesurée depuis l'instant prévu de la requête et non depuis son départ effectif :
+ * une requête retardée par une pause du service compte ce retard (correction de l'omission coordonnée). Le temps de service
+ * seul, depuis le départ effectif, est relevé à côté ; l'écart entre les deux mesure l'attente.
+ * <p>
+ * Toutes les {@code --interval}, une ligne donne le débit, les quantiles de latence de l'intervalle, le tas occupé,
+ * le tas restant après le dernier GC, le débit d'allocation des workers et l'activité du GC : une fuite se lit sur la colonne
+ * « après GC », une dérive de latence sur les quantiles. Le bilan final, hors chauffe, détaille chaque type de requête.
+ * <p>
+ * Options ({@code --nom=valeur}) : repository (concurrent), service (direct | serialized), accounts (10000), skew (1.0),
+ * rate (10000 requêtes/s), duration (PT1M), warmup (PT10S), interval (PT10S), workers (8), mix (dépôts,retraits,relevés
+ * en pourcentages : 45,45,10), overdraft (part des retraits volontairement refusés : 0.05), statement (full | page), seed (42).
+ * <pre>
+ * mvn -Pbenchmark,load verify -DskipTests -Dload.args="--rate=20000 --duration=PT1H --skew=1.2"
+ * </pre>
+ * Le réveil des workers a la granularité de {@link LockSupport#parkNanos} (quelques dizaines de microsecondes) :
+ * les latences basses sont majorées d'autant.
+ */
+public final class LoadHarness {
+
+    private static final BigDecimal INITIAL_BALANCE = BigDecimal.valueOf(1_000);
+
+    // assez pour qu'aucun solde ne le couvre
+    private static final BigDecimal OVERDRAFT = BigDecimal.valueOf(1_000_000_000L);
+
+    private static final BigDecimal[] AMOUNTS = new BigDecimal[100];
+
+    private static final int PAGE_SIZE = 20;
+
+    static {
+        for (int i = 0; i < AMOUNTS.length; i++) {
+            AMOUNTS[i] = BigDecimal.valueOf(i + 1);
+        }
+    }
+
+    private final Options options;
+
+    private final IOperationService operationService;
+
+    private final String[] clientIds;
+
+    private final ZipfDistribution distribution;
+
+    private final AtomicReference<Window> interval = new AtomicReference<>(new Window());
+
+    private final Window total = new Window();
+
+    private final AtomicReference<Throwable> firstError = new AtomicReference<>();
+
+    private LoadHarness(Options options, IOperationService operationService, String[] clientIds) {
+        this.options = options;
+        this.operationService = operationService;
+        this.clientIds = clientIds;
+        this.distribution = new ZipfDistribution(clientIds.length, options.skew());
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        Path directory = Files.createTempDirectory("load");
+        IAccountRepository accountRepository = Repositories.create(options.repository(), directory);
+        try {
+            OperationService direct = new OperationService(new TimeService(), accountRepository, new OperationPrinter());
+            IOperationService operationService = options.service().equals("serialized") ? new SerializedOperationService(direct) : direct;
+            String[] clientIds = new String[options.accounts()];
+            for (int i = 0; i < clientIds.length; i++) {
+                clientIds[i] = "client" + i;
+                accountRepository.addClient(clientIds[i]);
+                operationService.deposit(clientIds[i], INITIAL_BALANCE);
+            }
+            new LoadHarness(options, operationService, clientIds).run();
+        } finally {
+            Repositories.close(accountRepository, directory);
+        }
+    }
+
+    private void run() throws InterruptedException {
+        System.out.printf(Locale.ROOT, "%s, %s, %d comptes (skew %.2f : 1 %% des comptes reçoit %.1f %% du trafic), %.0f requêtes/s, %s + %s de chauffe%n",
+                options.repository(), options.service(), options.accounts(), options.skew(),
+                100 * distribution.share(Math.max(1, options.accounts() / 100)), options.rate(), options.duration(), options.warmup());
+
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long measureStart = start + options.warmup().toNanos();
+        long end = measureStart + options.duration().toNanos();
+        CountDownLatch done = new CountDownLatch(options.workers());
+        long[] threadIds = new long[options.workers()];
+        for (int worker = 0; worker < options.workers(); worker++) {
+            SplittableRandom random = new SplittableRandom(options.seed() + worker);
+            Thread thread = new Thread(() -> {
+                try {
+                    drive(random, start, measureStart, end);
+                } finally {
+                    done.countDown();
+                }
+            }, "load-worker-" + worker);
+            thread.setDaemon(true);
+            threadIds[worker] = thread.threadId();
+            thread.start();
+        }
+
+        Monitor monitor = new Monitor(threadIds);
+        System.out.println("   temps   req/s   p50 µs   p99 µs  p999 µs   max µs  refus   tas Mo  aprèsGC  alloc Mo/s  GC  GC ms");
+        long intervalNanos = options.interval().toNanos();
+        long tick = start;
+        boolean finished = false;
+        while (!finished) {
+            tick += intervalNanos;
+            finished = done.await(Math.max(0, tick - System.nanoTime()), TimeUnit.NANOSECONDS);
+            long now = System.nanoTime();
+            Window window = interval.getAndSet(new Window());
+            monitor.report(window, now - start, now - measureStart < 0);
+        }
+
+        summarize(options.duration().toNanos());
+    }
+
+    private void drive(SplittableRandom random, long start, long measureStart, long end) {
+        // chaque worker prend sa part du débit : les arrivées de l'ensemble restent poissonniennes
+        double meanIntervalNanos = TimeUnit.SECONDS.toNanos(options.workers()) / options.rate();
+        long intended = start;
+        while (true) {
+            intended += (long) (-Math.log(1 - random.nextDouble()) * meanIntervalNanos);
+            if (intended - end >= 0) {
+                return;
+            }
+            long now;
+            while ((now = System.nanoTime()) - intended < 0) {
+                LockSupport.parkNanos(intended - now);
+            }
+
+            Kind kind = options.pick(random);
+            String clientId = clientIds[distribution.sample(random)];
+            boolean rejected = false;
+            try {
+                switch (kind) {
+                    case DEPOSIT -> operationService.deposit(clientId, AMOUNTS[random.nextInt(AMOUNTS.length)]);
+                    case WITHDRAW -> operationService.withdraw(clientId, random.nextDouble() < options.overdraftShare()
+                            ? OVERDRAFT
+                            : AMOUNTS[random.nextInt(AMOUNTS.length)]);
+                    case PRINT -> {
+                        if (options.statement().equals("page")) {
+                            operationService.printOperationsPage(clientId, 0, PAGE_SIZE);
+                        } else {
+                            operationService.printOperations(clientId);
+                        }
+                    }
+                }
+            } catch (InsufficientCreditException e) {
+                rejected = true;
+            } catch (Exception e) {
+                firstError.compareAndSet(null, e);
+                interval.get().errors.increment();
+                total.errors.increment();
+            }
+            long finished = System.nanoTime();
+
+            interval.get().record(kind, finished - intended, finished - now, rejected);
+            if (intended - measureStart >= 0) {
+                total.record(kind, finished - intended, finished - now, rejected);
+            }
+        }
+    }
+
+    private void summarize(long measuredNanos) {
+        long count = total.all.count();
+        System.out.printf(Locale.ROOT, "%nBilan hors chauffe : %d requêtes, %.0f requêtes/s pour %.0f visées, %d refus, %d erreurs%n",
+                count, count * 1e9 / measuredNanos, options.rate(), total.rejected.sum(), total.errors.sum());
+        System.out.println("              requêtes      p50      p90      p99     p999      max   (µs)");
+        for (Kind kind : Kind.values()) {
+            printQuantiles(kind.label + " latence", total.latency[kind.ordinal()]);
+            printQuantiles(kind.label + " service", total.service[kind.ordinal()]);
+        }
+        printQuantiles("total latence", total.all);
+        Throwable error = firstError.get();
+        if (error != null) {
+            System.out.println("Première erreur : " + error);
+        }
+    }
+
+    private static void printQuantiles(String label, LatencyHistogram histogram) {
+        System.out.printf(Locale.ROOT, "%-16s %9d %8d %8d %8d %8d %8d%n", label, histogram.count(),
+                micros(histogram.valueAt(0.5)), micros(histogram.valueAt(0.9)), micros(histogram.valueAt(0.99)),
+                micros(histogram.valueAt(0.999)), micros(histogram.max()));
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    private enum Kind {
+        DEPOSIT("dépôt"),
+        WITHDRAW("retrait"),
+        PRINT("relevé");
+
+        private final String label;
+
+        Kind(String label) {
+            this.label = label;
+        }
+    }
+
+    /**
+     * Mesures d'un intervalle, ou de toute la durée hors chauffe. La latence court depuis l'instant prévu,
+     * le service depuis le départ effectif.
+     */
+    private static final class Window {
+
+        private final LatencyHistogram[] latency = new LatencyHistogram[Kind.values().length];
+
+        private final LatencyHistogram[] service = new LatencyHistogram[Kind.values().length];
+
+        private final LatencyHistogram all = new LatencyHistogram();
+
+        private final LongAdder rejected = new LongAdder();
+
+        private final LongAdder errors = new LongAdder();
+
+        private Window() {
+            for (int i = 0; i < latency.length; i++) {
+                latency[i] = new LatencyHistogram();
+                service[i] = new LatencyHistogram();
+            }
+        }
+
+        private void record(Kind kind, long latencyNanos, long serviceNanos, boolean rejected) {
+            latency[kind.ordinal()].record(latencyNanos);
+            service[kind.ordinal()].record(serviceNanos);
+            all.record(latencyNanos);
+            if (rejected) {
+                this.rejected.increment();
+            }
+        }
+    }
+
+    /**
+     * Tas, GC et allocations des workers, relevés à chaque intervalle par différence avec le précédent.
+     */
+    private static final class Monitor {
+
+        private final long[] threadIds;
+
+        private final long[] allocatedByThread;
+
+        private final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        private long previousElapsed;
+
+        private long previousAllocated;
+
+        private long previousGcCount;
+
+        private long previousGcMillis;
+
+        private Monitor(long[] threadIds) {
+            this.threadIds = threadIds;
+            this.allocatedByThread = new long[threadIds.length];
+        }
+
+        private void report(Window window, long elapsedNanos, boolean warmingUp) {
+            long[] bytes = threads.getThreadAllocatedBytes(threadIds);
+            long allocated = 0;
+            for (int i = 0; i < bytes.length; i++) {
+                // -1 pour un worker déjà terminé : son dernier relevé reste acquis
+                allocatedByThread[i] = Math.max(allocatedByThread[i], bytes[i]);
+                allocated += allocatedByThread[i];
+            }
+            long gcCount = 0;
+            long gcMillis = 0;
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                gcCount += Math.max(0, collector.getCollectionCount());
+                gcMillis += Math.max(0, collector.getCollectionTime());
+            }
+            long afterGc = 0;
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                MemoryUsage usage = pool.getType() == MemoryType.HEAP ? pool.getCollectionUsage() : null;
+                afterGc += usage == null ? 0 : usage.getUsed();
+            }
+
+            double seconds = Math.max(1, elapsedNanos - previousElapsed) / 1e9;
+            long count = window.all.count();
+            System.out.printf(Locale.ROOT, "%7.0fs %7.0f %8d %8d %8d %8d %5.1f%% %8d %8d %11.0f %3d %6d%s%n",
+                    elapsedNanos / 1e9, count / seconds,
+                    micros(window.all.valueAt(0.5)), micros(window.all.valueAt(0.99)), micros(window.all.valueAt(0.999)),
+                    micros(window.all.max()), count == 0 ? 0 : 100.0 * window.rejected.sum() / count,
+                    ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() >> 20, afterGc >> 20,
+                    Math.max(0, allocated - previousAllocated) / seconds / (1 << 20), gcCount - previousGcCount,
+                    gcMillis - previousGcMillis, warmingUp ? "  (chauffe)" : "");
+            previousElapsed = elapsedNanos;
+            previousAllocated = allocated;
+            previousGcCount = gcCount;
+            previousGcMillis = gcMillis;
+        }
+    }
+
+    /**
+     * Paramètres du tir, lus en {@code --nom=valeur}.
+     */
+    private record Options(String repository, String service, int accounts, double skew, double rate, Duration duration,
+                           Duration warmup, Duration interval, int workers, int[] mix, double overdraftShare,
+                           String statement, long seed) {
+
+        private static Options parse(String[] args) {
+            String repository = Repositories.CONCURRENT;
+            String service = "direct";
+            int accounts = 10_000;
+            double skew = 1.0;
+            double rate = 10_000;
+            Duration duration = Duration.ofMinutes(1);
+            Duration warmup = Duration.ofSeconds(10);
+            Duration interval = Duration.ofSeconds(10);
+            int workers = 8;
+            int[] mix = {45, 45, 10};
+            double overdraftShare = 0.05;
+            String statement = "full";
+            long seed = 42;
+            for (String arg : args) {
+                int separator = arg.indexOf('=');
+                if (!arg.startsWith("--") || separator < 0) {
+                    throw new IllegalArgumentException("Option attendue sous la forme --nom=valeur : " + arg);
+                }
+                String value = arg.substring(separator + 1);
+                switch (arg.substring(2, separator)) {
+                    case "repository" -> repository = value;
+                    case "service" -> service = oneOf(value, "direct", "serialized");
+                    case "accounts" -> accounts = Integer.parseInt(value);
+                    case "skew" -> skew = Double.parseDouble(value);
+                    case "rate" -> rate = Double.parseDouble(value);
+                    case "duration" -> duration = Duration.parse(value);
+                    case "warmup" -> warmup = Duration.parse(value);
+                    case "interval" -> interval = Duration.parse(value);
+                    case "workers" -> workers = Integer.parseInt(value);
+                    case "mix" -> mix = parseMix(value);
+                    case "overdraft" -> overdraftShare = Double.parseDouble(value);
+                    case "statement" -> statement = oneOf(value, "full", "page");
+                    case "seed" -> seed = Long.parseLong(value);
+                    default -> throw new IllegalArgumentException("Option inconnue : " + arg);
+                }
+            }
+            if (accounts <= 0 || rate <= 0 || workers <= 0 || duration.isNegative() || warmup.isNegative()
+                    || interval.isNegative() || interval.isZero()) {
+                throw new IllegalArgumentException("Paramètres de tir invalides : " + String.join(" ", args));
+            }
+            return new Options(repository, service, accounts, skew, rate, duration, warmup, interval, workers, mix,
+                    overdraftShare, statement, seed);
+        }
+
+        private Kind pick(SplittableRandom random) {
+            int draw = random.nextInt(100);
+            if (draw < mix[0]) {
+                return Kind.DEPOSIT;
+            }
+            return draw < mix[0] + mix[1] ? Kind.WITHDRAW : Kind.PRINT;
+        }
+
+        private static int[] parseMix(String value) {
+            String[] parts = value.split(",");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Répartition attendue : dépôts,retraits,relevés en pourcentages : " + value);
+            }
+            int[] mix = new int[3];
+            for (int i = 0; i < mix.length; i++) {
+                mix[i] = Integer.parseInt(parts[i].trim());
+            }
+            if (mix[0] < 0 || mix[1] < 0 || mix[2] < 0 || mix[0] + mix[1] + mix[2] != 100) {
+                throw new IllegalArgumentException("Répartition attendue : dépôts,retraits,relevés en pourcentages : " + value);
+            }
+            return mix;
+        }
+
+        private static String oneOf(String value, String... allowed) {
+            for (String candidate : allowed) {
+                if (candidate.equals(value)) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Valeur inattendue : " + value + ", parmi " + String.join(", ", allowed));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.account.bank.benchmark;
+
+import org.account.bank.adapter.secondary.OperationPrinter;
+import org.account.bank.domain.OperationService;
+import org.account.bank.domain.exception.BankAccountNotFoundException;
+import org.account.bank.domain.exception.InsufficientCreditException;
+import org.account.bank.domain.exception.NegativeAmountException;
+import org.account.bank.domain.port.primary.IOperationService;
+import org.account.bank.domain.port.secondary.IAccountRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût unitaire de deposit, withdraw et printOperations selon le référentiel et la longueur de l'historique.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OperationServiceBenchmark {
+
+    private static final String CLIENT_ID = "client01";
+
+    private static final LocalDate TODAY = LocalDate.of(2023, 8, 10);
+
+    private static final BigDecimal AMOUNT = BigDecimal.ONE;
+
+    @Param({Repositories.CONCURRENT, Repositories.COLUMNAR, Repositories.JOURNAL, Repositories.TIERED})
+    public String repository;
+
+    @Param({"10", "1000", "100000"})
+    public int historyLength;
+
+    private Path directory;
+
+    private IAccountRepository accountRepository;
+
+    private IOperationService operationService;
+
+    private final Writer discard = Writer.nullWriter();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, NegativeAmountException, BankAccountNotFoundException {
+        directory = Files.createTempDirectory("bench-journal");
+        accountRepository = Repositories.create(repository, directory);
+        accountRepository.addClient(CLIENT_ID);
+        operationService = new OperationService(() -> TODAY, accountRepository, new OperationPrinter());
+
+        // solde suffisant pour que les retraits mesurés ne soient jamais rejetés
+        operationService.deposit(CLIENT_ID, BigDecimal.valueOf(Long.MAX_VALUE / 4));
+        for (int i = 1; i < historyLength; i++) {
+            operationService.deposit(CLIENT_ID, AMOUNT);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Repositories.close(accountRepository, directory);
+    }
+
+    @Benchmark
+    public void deposit() throws NegativeAmountException, BankAccountNotFoundException {
+        operationService.deposit(CLIENT_ID, AMOUNT);
+    }
+
+    @Benchmark
+    public void withdraw() throws InsufficientCreditException, NegativeAmountException, BankAccountNotFoundException {
+        operationService.withdraw(CLIENT_ID, AMOUNT);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String printOperations() throws BankAccountNotFoundException {
+        return operationService.printOperations(CLIENT_ID);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void printOperationsStreaming() throws BankAccountNotFoundException, IOException {
+        operationService.printOperations(CLIENT_ID, discard);
+    }
+}
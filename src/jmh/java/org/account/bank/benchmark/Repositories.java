@@ -0,0 +1,57 @@
+package org.account.bank.benchmark;
+
+import org.account.bank.adapter.secondary.ColumnarAccountRepository;
+import org.account.bank.adapter.secondary.ConcurrentAccountRepository;
+import org.account.bank.adapter.secondary.JournalAccountRepository;
+import org.account.bank.adapter.secondary.TieredAccountRepository;
+import org.account.bank.domain.port.secondary.IAccountRepository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Implémentations de {@link IAccountRepository} comparées par les benchmarks, désignées par un paramètre JMH.
+ */
+final class Repositories {
+
+    static final String CONCURRENT = "concurrent";
+
+    static final String COLUMNAR = "columnar";
+
+    static final String JOURNAL = "journal";
+
+    // journal synchronisé sur disque à chaque enregistrement : chaque écriture bloque son thread
+    static final String JOURNAL_SYNC = "journal-sync";
+
+    // historique au-delà de 1024 opérations par compte déversé en segments compressés
+    static final String TIERED = "tiered";
+
+    private Repositories() {
+    }
+
+    static IAccountRepository create(String repository, Path directory) throws IOException {
+        return switch (repository) {
+            case CONCURRENT -> new ConcurrentAccountRepository();
+            case COLUMNAR -> new ColumnarAccountRepository();
+            case JOURNAL -> new JournalAccountRepository(directory);
+            case JOURNAL_SYNC -> new JournalAccountRepository(directory, 1 << 20, 1);
+            case TIERED -> new TieredAccountRepository(directory);
+            default -> throw new IllegalArgumentException("Référentiel inconnu : " + repository);
+        };
+    }
+
+    static void close(IAccountRepository accountRepository, Path directory) throws IOException {
+        if (accountRepository instanceof Closeable closeable) {
+            closeable.close();
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+}
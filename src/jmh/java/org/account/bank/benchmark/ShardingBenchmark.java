@@ -0,0 +1,127 @@
+package org.account.bank.benchmark;
+
+import org.account.bank.adapter.secondary.ConcurrentAccountRepository;
+import org.account.bank.adapter.secondary.OperationPrinter;
+import org.account.bank.adapter.secondary.PartitionServer;
+import org.account.bank.adapter.secondary.RemoteAccountRepository;
+import org.account.bank.adapter.secondary.ShardedAccountRepository;
+import org.account.bank.domain.OperationResult;
+import org.account.bank.domain.OperationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Débit du service sur un référentiel réparti selon le nombre de partitions, tenues dans ce processus (local)
+ * ou chacune par un processus {@link PartitionServer} joint sur l'interface de bouclage (process).
+ * Le nombre de threads se règle avec -t.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class ShardingBenchmark {
+
+    private static final LocalDate TODAY = LocalDate.of(2023, 8, 10);
+
+    private static final int ACCOUNTS = 4096;
+
+    @Param({"1", "2", "4"})
+    public int partitions;
+
+    @Param({"local", "process"})
+    public String transport;
+
+    private final List<Process> processes = new ArrayList<>();
+
+    private ShardedAccountRepository accountRepository;
+
+    private OperationService operationService;
+
+    private String[] clientIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        accountRepository = new ShardedAccountRepository();
+        for (int partition = 0; partition < partitions; partition++) {
+            accountRepository.addPartition("partition" + partition, transport.equals("process")
+                    ? new RemoteAccountRepository(startPartitionProcess())
+                    : new ConcurrentAccountRepository());
+        }
+        clientIds = new String[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            clientIds[i] = "client" + i;
+            accountRepository.addClient(clientIds[i]);
+        }
+        operationService = new OperationService(() -> TODAY, accountRepository, new OperationPrinter());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        accountRepository.close();
+        for (Process process : processes) {
+            // fin de l'entrée standard : le serveur se ferme de lui-même
+            process.getOutputStream().close();
+            process.destroy();
+        }
+    }
+
+    @Benchmark
+    public OperationResult deposit() {
+        return operationService.tryDeposit(pickClient(), BigDecimal.ONE);
+    }
+
+    @Benchmark
+    public OperationResult depositThenWithdraw() {
+        String clientId = pickClient();
+        operationService.tryDeposit(clientId, BigDecimal.ONE);
+        return operationService.tryWithdraw(clientId, BigDecimal.ONE);
+    }
+
+    private String pickClient() {
+        return clientIds[ThreadLocalRandom.current().nextInt(clientIds.length)];
+    }
+
+    /**
+     * @return Le port du serveur de partition lancé dans un nouveau processus, avec le classpath de ce benchmark
+     */
+    private int startPartitionProcess() throws IOException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), PartitionServer.class.getName())
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        processes.add(process);
+        BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        String port = output.readLine();
+        if (port == null) {
+            throw new IOException("Le serveur de partition s'est arrêté au démarrage");
+        }
+        return Integer.parseInt(port.trim());
+    }
+}
@@ -0,0 +1,97 @@
+package org.account.bank.benchmark;
+
+import org.account.bank.adapter.secondary.OperationPrinter;
+import org.account.bank.domain.OperationService;
+import org.account.bank.domain.exception.BankAccountNotFoundException;
+import org.account.bank.domain.exception.InsufficientCreditException;
+import org.account.bank.domain.exception.NegativeAmountException;
+import org.account.bank.domain.port.secondary.IAccountRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Virements entre paires de comptes disjointes, une paire par thread : le débit doit croître avec -t
+ * tant que les paires tombent sur des bandes de verrous différentes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransferBenchmark {
+
+    private static final LocalDate TODAY = LocalDate.of(2023, 8, 10);
+
+    private static final int MAX_PAIRS = 256;
+
+    private static final BigDecimal INITIAL_BALANCE = BigDecimal.valueOf(1_000);
+
+    @Param({Repositories.CONCURRENT, Repositories.COLUMNAR, Repositories.JOURNAL})
+    public String repository;
+
+    private Path directory;
+
+    private IAccountRepository accountRepository;
+
+    private OperationService operationService;
+
+    private final AtomicInteger nextPair = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, NegativeAmountException, BankAccountNotFoundException {
+        directory = Files.createTempDirectory("bench-journal");
+        accountRepository = Repositories.create(repository, directory);
+        operationService = new OperationService(() -> TODAY, accountRepository, new OperationPrinter());
+        for (int i = 0; i < 2 * MAX_PAIRS; i++) {
+            accountRepository.addClient("client" + i);
+            operationService.deposit("client" + i, INITIAL_BALANCE);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Repositories.close(accountRepository, directory);
+    }
+
+    @State(Scope.Thread)
+    public static class Pair {
+
+        String first;
+
+        String second;
+
+        @Setup(Level.Trial)
+        public void setUp(TransferBenchmark benchmark) {
+            int pair = benchmark.nextPair.getAndIncrement() % MAX_PAIRS;
+            first = "client" + 2 * pair;
+            second = "client" + (2 * pair + 1);
+        }
+    }
+
+    @Benchmark
+    public void transferRoundTrip(Pair pair) throws InsufficientCreditException, NegativeAmountException, BankAccountNotFoundException {
+        // aller-retour : les soldes restent stables quelle que soit la durée de la mesure
+        operationService.transfer(pair.first, pair.second, BigDecimal.ONE);
+        operationService.transfer(pair.second, pair.first, BigDecimal.ONE);
+    }
+}
@@ -0,0 +1,45 @@
+package org.account.bank.benchmark;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Tirage de rangs selon une loi de Zipf : le rang k (à partir de 0) sort avec une probabilité proportionnelle
+ * à 1 / (k + 1)^exposant. Avec un exposant de 1 et 10 000 comptes, le premier reçoit environ 10 % du trafic
+ * et les cent premiers la moitié ; un exposant nul donne un tirage uniforme.
+ * <p>
+ * La fonction de répartition est calculée une fois (8 octets par rang), un tirage est une recherche dichotomique.
+ */
+final class ZipfDistribution {
+
+    private final double[] cumulative;
+
+    /**
+     * @param size     : le nombre de rangs
+     * @param exponent : l'asymétrie, positive ou nulle
+     */
+    ZipfDistribution(int size, double exponent) {
+        if (size <= 0 || exponent < 0) {
+            throw new IllegalArgumentException("Loi de Zipf invalide : " + size + " rangs, exposant " + exponent);
+        }
+        cumulative = new double[size];
+        double sum = 0;
+        for (int rank = 0; rank < size; rank++) {
+            sum += 1 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = sum;
+        }
+    }
+
+    int sample(SplittableRandom random) {
+        double target = random.nextDouble() * cumulative[cumulative.length - 1];
+        int index = Arrays.binarySearch(cumulative, target);
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+
+    /**
+     * @return La part du trafic reçue par les {@code ranks} premiers rangs
+     */
+    double share(int ranks) {
+        return cumulative[Math.min(ranks, cumulative.length) - 1] / cumulative[cumulative.length - 1];
+    }
+}
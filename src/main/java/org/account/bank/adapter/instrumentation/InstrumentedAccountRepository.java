@@ -0,0 +1,207 @@
+package org.account.bank.adapter.instrumentation;
+
+import org.account.bank.domain.Operation;
+import org.account.bank.domain.PeriodTotals;
+import org.account.bank.domain.exception.BankAccountNotFoundException;
+import org.account.bank.domain.port.secondary.IAccountRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+public class InstrumentedAccountRepository implements IAccountRepository {
+
+    private static final String COMPONENT = "IAccountRepository";
+
+    private final IAccountRepository accountRepository;
+
+    private final MethodStats findLastOperation;
+
+    private final MethodStats addOperation;
+
+    private final MethodStats addOperations;
+
+    private final MethodStats findOperations;
+
+    private final MethodStats iterateOperations;
+
+    private final MethodStats findOperationsBetween;
+
+    private final MethodStats findOperationsPage;
+
+    private final MethodStats findBalanceAt;
+
+    private final MethodStats findTotalsBetween;
+
+    private final MethodStats addClient;
+
+    private final MethodStats findAllClientIds;
+
+    private final MethodStats removeClient;
+
+    public InstrumentedAccountRepository(IAccountRepository accountRepository, OperationMetrics metrics) {
+        this.accountRepository = accountRepository;
+        this.findLastOperation = metrics.stats(COMPONENT, "findLastOperationByClientId");
+        this.addOperation = metrics.stats(COMPONENT, "addOperation");
+        this.addOperations = metrics.stats(COMPONENT, "addOperations");
+        this.findOperations = metrics.stats(COMPONENT, "findOperationsByClientId");
+        this.iterateOperations = metrics.stats(COMPONENT, "iterateOperationsNewestFirst");
+        this.findOperationsBetween = metrics.stats(COMPONENT, "findOperationsBetween");
+        this.findOperationsPage = metrics.stats(COMPONENT, "findOperationsPage");
+        this.findBalanceAt = metrics.stats(COMPONENT, "findBalanceAt");
+        this.findTotalsBetween = metrics.stats(COMPONENT, "findTotalsBetween");
+        this.addClient = metrics.stats(COMPONENT, "addClient");
+        this.findAllClientIds = metrics.stats(COMPONENT, "findAllClientIds");
+        this.removeClient = metrics.stats(COMPONENT, "removeClient");
+    }
+
+    @Override
+    public Optional<Operation> findLastOperationByClientId(String clientId) throws BankAccountNotFoundException {
+        long start = findLastOperation.start();
+        try {
+            return accountRepository.findLastOperationByClientId(clientId);
+        } catch (BankAccountNotFoundException e) {
+            findLastOperation.recordRejection(e);
+            throw e;
+        } finally {
+            findLastOperation.stop(start);
+        }
+    }
+
+    @Override
+    public void addOperation(String clientId, Operation operation) throws BankAccountNotFoundException {
+        long start = addOperation.start();
+        try {
+            accountRepository.addOperation(clientId, operation);
+        } catch (BankAccountNotFoundException e) {
+            addOperation.recordRejection(e);
+            throw e;
+        } finally {
+            addOperation.stop(start);
+        }
+    }
+
+    @Override
+    public void addOperations(String clientId, List<Operation> operations) throws BankAccountNotFoundException {
+        long start = addOperations.start();
+        try {
+            accountRepository.addOperations(clientId, operations);
+        } catch (BankAccountNotFoundException e) {
+            addOperations.recordRejection(e);
+            throw e;
+        } finally {
+            addOperations.stop(start);
+        }
+    }
+
+    @Override
+    public List<Operation> findOperationsByClientId(String clientId) throws BankAccountNotFoundException {
+        long start = findOperations.start();
+        try {
+            return accountRepository.findOperationsByClientId(clientId);
+        } catch (BankAccountNotFoundException e) {
+            findOperations.recordRejection(e);
+            throw e;
+        } finally {
+            findOperations.stop(start);
+        }
+    }
+
+    @Override
+    public Iterator<Operation> iterateOperationsNewestFirst(String clientId) throws BankAccountNotFoundException {
+        long start = iterateOperations.start();
+        try {
+            return accountRepository.iterateOperationsNewestFirst(clientId);
+        } catch (BankAccountNotFoundException e) {
+            iterateOperations.recordRejection(e);
+            throw e;
+        } finally {
+            iterateOperations.stop(start);
+        }
+    }
+
+    @Override
+    public List<Operation> findOperationsBetween(String clientId, LocalDate from, LocalDate to) throws BankAccountNotFoundException {
+        long start = findOperationsBetween.start();
+        try {
+            return accountRepository.findOperationsBetween(clientId, from, to);
+        } catch (BankAccountNotFoundException e) {
+            findOperationsBetween.recordRejection(e);
+            throw e;
+        } finally {
+            findOperationsBetween.stop(start);
+        }
+    }
+
+    @Override
+    public List<Operation> findOperationsPage(String clientId, int page, int size) throws BankAccountNotFoundException {
+        long start = findOperationsPage.start();
+        try {
+            return accountRepository.findOperationsPage(clientId, page, size);
+        } catch (BankAccountNotFoundException e) {
+            findOperationsPage.recordRejection(e);
+            throw e;
+        } finally {
+            findOperationsPage.stop(start);
+        }
+    }
+
+    @Override
+    public BigDecimal findBalanceAt(String clientId, LocalDate date) throws BankAccountNotFoundException {
+        long start = findBalanceAt.start();
+        try {
+            return accountRepository.findBalanceAt(clientId, date);
+        } catch (BankAccountNotFoundException e) {
+            findBalanceAt.recordRejection(e);
+            throw e;
+        } finally {
+            findBalanceAt.stop(start);
+        }
+    }
+
+    @Override
+    public PeriodTotals findTotalsBetween(String clientId, LocalDate from, LocalDate to) throws BankAccountNotFoundException {
+        long start = findTotalsBetween.start();
+        try {
+            return accountRepository.findTotalsBetween(clientId, from, to);
+        } catch (BankAccountNotFoundException e) {
+            findTotalsBetween.recordRejection(e);
+            throw e;
+        } finally {
+            findTotalsBetween.stop(start);
+        }
+    }
+
+    @Override
+    public void addClient(String clientId) {
+        long start = addClient.start();
+        accountRepository.addClient(clientId);
+        addClient.stop(start);
+    }
+
+    @Override
+    public Set<String> findAllClientIds() {
+        long start = findAllClientIds.start();
+        try {
+            return accountRepository.findAllClientIds();
+        } finally {
+            findAllClientIds.stop(start);
+        }
+    }
+
+    @Override
+    public void removeClient(String clientId) throws BankAccountNotFoundException {
+        long start = removeClient.start();
+        try {
+            accountRepository.removeClient(clientId);
+        } catch (BankAccountNotFoundException e) {
+            removeClient.recordRejection(e);
+            throw e;
+        } finally {
+            removeClient.stop(start);
+        }
+    }
+}
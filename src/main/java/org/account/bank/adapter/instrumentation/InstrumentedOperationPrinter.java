@@ -0,0 +1,59 @@
+package org.account.bank.adapter.instrumentation;
+
+import org.account.bank.domain.Operation;
+import org.account.bank.domain.port.secondary.IOperationPrinter;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+
+public class InstrumentedOperationPrinter implements IOperationPrinter {
+
+    private static final String COMPONENT = "IOperationPrinter";
+
+    private final IOperationPrinter printer;
+
+    private final MethodStats print;
+
+    private final MethodStats printStreaming;
+
+    public InstrumentedOperationPrinter(IOperationPrinter printer, OperationMetrics metrics) {
+        this.printer = printer;
+        this.print = metrics.stats(COMPONENT, "print");
+        this.printStreaming = metrics.stats(COMPONENT, "printStreaming");
+    }
+
+    @Override
+    public String print(List<Operation> operations, String clientId) {
+        long start = print.start();
+        try {
+            return printer.print(operations, clientId);
+        } finally {
+            print.stop(start);
+        }
+    }
+
+    @Override
+    public void print(Iterator<Operation> operations, String clientId, Appendable output) throws IOException {
+        long start = printStreaming.start();
+        try {
+            printer.print(operations, clientId, output);
+        } catch (IOException e) {
+            printStreaming.recordRejection(e);
+            throw e;
+        } finally {
+            printStreaming.stop(start);
+        }
+    }
+
+    @Override
+    public String header(String clientId) {
+        return printer.header(clientId);
+    }
+
+    @Override
+    public void printLine(Operation operation, String clientId, Appendable output) throws IOException {
+        // une ligne coûte moins que la mesure elle-même : elle est comptée dans l'appel qui l'imprime
+        printer.printLine(operation, clientId, output);
+    }
+}
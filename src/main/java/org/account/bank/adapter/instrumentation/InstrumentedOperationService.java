@@ -0,0 +1,272 @@
+package org.account.bank.adapter.instrumentation;
+
+import org.account.bank.domain.OperationCommand;
+import org.account.bank.domain.OperationResult;
+import org.account.bank.domain.PeriodTotals;
+import org.account.bank.domain.exception.BankAccountNotFoundException;
+import org.account.bank.domain.exception.InsufficientCreditException;
+import org.account.bank.domain.exception.NegativeAmountException;
+import org.account.bank.domain.port.primary.IOperationService;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public class InstrumentedOperationService implements IOperationService {
+
+    private static final String COMPONENT = "IOperationService";
+
+    private final IOperationService operationService;
+
+    private final MethodStats deposit;
+
+    private final MethodStats withdraw;
+
+    private final MethodStats transfer;
+
+    private final MethodStats tryDeposit;
+
+    private final MethodStats tryWithdraw;
+
+    private final MethodStats printOperations;
+
+    private final MethodStats printOperationsStreaming;
+
+    private final MethodStats printOperationsBetween;
+
+    private final MethodStats printOperationsPage;
+
+    private final MethodStats getBalanceAt;
+
+    private final MethodStats getTotals;
+
+    private final MethodStats processBatch;
+
+    public InstrumentedOperationService(IOperationService operationService, OperationMetrics metrics) {
+        this.operationService = operationService;
+        this.deposit = metrics.stats(COMPONENT, "deposit");
+        this.withdraw = metrics.stats(COMPONENT, "withdraw");
+        this.transfer = metrics.stats(COMPONENT, "transfer");
+        this.tryDeposit = metrics.stats(COMPONENT, "tryDeposit");
+        this.tryWithdraw = metrics.stats(COMPONENT, "tryWithdraw");
+        this.printOperations = metrics.stats(COMPONENT, "printOperations");
+        this.printOperationsStreaming = metrics.stats(COMPONENT, "printOperationsStreaming");
+        this.printOperationsBetween = metrics.stats(COMPONENT, "printOperationsBetween");
+        this.printOperationsPage = metrics.stats(COMPONENT, "printOperationsPage");
+        this.getBalanceAt = metrics.stats(COMPONENT, "getBalanceAt");
+        this.getTotals = metrics.stats(COMPONENT, "getTotals");
+        this.processBatch = metrics.stats(COMPONENT, "processBatch");
+    }
+
+    @Override
+    public void deposit(String clientId, BigDecimal amount) throws NegativeAmountException, BankAccountNotFoundException {
+        long start = deposit.start();
+        try {
+            operationService.deposit(clientId, amount);
+        } catch (NegativeAmountException | BankAccountNotFoundException e) {
+            deposit.recordRejection(e);
+            throw e;
+        } finally {
+            deposit.stop(start);
+        }
+    }
+
+    @Override
+    public void withdraw(String clientId, BigDecimal amount) throws InsufficientCreditException, NegativeAmountException, BankAccountNotFoundException {
+        long start = withdraw.start();
+        try {
+            operationService.withdraw(clientId, amount);
+        } catch (InsufficientCreditException | NegativeAmountException | BankAccountNotFoundException e) {
+            withdraw.recordRejection(e);
+            throw e;
+        } finally {
+            withdraw.stop(start);
+        }
+    }
+
+    @Override
+    public void transfer(String fromClientId, String toClientId, BigDecimal amount) throws InsufficientCreditException, NegativeAmountException, BankAccountNotFoundException {
+        long start = transfer.start();
+        try {
+            operationService.transfer(fromClientId, toClientId, amount);
+        } catch (InsufficientCreditException | NegativeAmountException | BankAccountNotFoundException e) {
+            transfer.recordRejection(e);
+            throw e;
+        } finally {
+            transfer.stop(start);
+        }
+    }
+
+    @Override
+    public OperationResult tryDeposit(String clientId, BigDecimal amount) {
+        long start = tryDeposit.start();
+        try {
+            OperationResult result = operationService.tryDeposit(clientId, amount);
+            recordRejection(tryDeposit, result);
+            return result;
+        } finally {
+            tryDeposit.stop(start);
+        }
+    }
+
+    @Override
+    public OperationResult tryWithdraw(String clientId, BigDecimal amount) {
+        long start = tryWithdraw.start();
+        try {
+            OperationResult result = operationService.tryWithdraw(clientId, amount);
+            recordRejection(tryWithdraw, result);
+            return result;
+        } finally {
+            tryWithdraw.stop(start);
+        }
+    }
+
+    @Override
+    public void deposit(String clientId, BigDecimal amount, String idempotencyKey) throws NegativeAmountException, BankAccountNotFoundException {
+        long start = deposit.start();
+        try {
+            operationService.deposit(clientId, amount, idempotencyKey);
+        } catch (NegativeAmountException | BankAccountNotFoundException e) {
+            deposit.recordRejection(e);
+            throw e;
+        } finally {
+            deposit.stop(start);
+        }
+    }
+
+    @Override
+    public void withdraw(String clientId, BigDecimal amount, String idempotencyKey) throws InsufficientCreditException, NegativeAmountException, BankAccountNotFoundException {
+        long start = withdraw.start();
+        try {
+            operationService.withdraw(clientId, amount, idempotencyKey);
+        } catch (InsufficientCreditException | NegativeAmountException | BankAccountNotFoundException e) {
+            withdraw.recordRejection(e);
+            throw e;
+        } finally {
+            withdraw.stop(start);
+        }
+    }
+
+    @Override
+    public OperationResult tryDeposit(String clientId, BigDecimal amount, String idempotencyKey) {
+        long start = tryDeposit.start();
+        try {
+            OperationResult result = operationService.tryDeposit(clientId, amount, idempotencyKey);
+            recordRejection(tryDeposit, result);
+            return result;
+        } finally {
+            tryDeposit.stop(start);
+        }
+    }
+
+    @Override
+    public OperationResult tryWithdraw(String clientId, BigDecimal amount, String idempotencyKey) {
+        long start = tryWithdraw.start();
+        try {
+            OperationResult result = operationService.tryWithdraw(clientId, amount, idempotencyKey);
+            recordRejection(tryWithdraw, result);
+            return result;
+        } finally {
+            tryWithdraw.stop(start);
+        }
+    }
+
+    @Override
+    public String printOperations(String clientId) throws BankAccountNotFoundException {
+        long start = printOperations.start();
+        try {
+            return operationService.printOperations(clientId);
+        } catch (BankAccountNotFoundException e) {
+            printOperations.recordRejection(e);
+            throw e;
+        } finally {
+            printOperations.stop(start);
+        }
+    }
+
+    @Override
+    public void printOperations(String clientId, Appendable output) throws BankAccountNotFoundException, IOException {
+        long start = printOperationsStreaming.start();
+        try {
+            operationService.printOperations(clientId, output);
+        } catch (BankAccountNotFoundException | IOException e) {
+            printOperationsStreaming.recordRejection(e);
+            throw e;
+        } finally {
+            printOperationsStreaming.stop(start);
+        }
+    }
+
+    @Override
+    public String printOperations(String clientId, LocalDate from, LocalDate to) throws BankAccountNotFoundException {
+        long start = printOperationsBetween.start();
+        try {
+            return operationService.printOperations(clientId, from, to);
+        } catch (BankAccountNotFoundException e) {
+            printOperationsBetween.recordRejection(e);
+            throw e;
+        } finally {
+            printOperationsBetween.stop(start);
+        }
+    }
+
+    @Override
+    public String printOperationsPage(String clientId, int page, int size) throws BankAccountNotFoundException {
+        long start = printOperationsPage.start();
+        try {
+            return operationService.printOperationsPage(clientId, page, size);
+        } catch (BankAccountNotFoundException e) {
+            printOperationsPage.recordRejection(e);
+            throw e;
+        } finally {
+            printOperationsPage.stop(start);
+        }
+    }
+
+    @Override
+    public BigDecimal getBalanceAt(String clientId, LocalDate date) throws BankAccountNotFoundException {
+        long start = getBalanceAt.start();
+        try {
+            return operationService.getBalanceAt(clientId, date);
+        } catch (BankAccountNotFoundException e) {
+            getBalanceAt.recordRejection(e);
+            throw e;
+        } finally {
+            getBalanceAt.stop(start);
+        }
+    }
+
+    @Override
+    public PeriodTotals getTotals(String clientId, LocalDate from, LocalDate to) throws BankAccountNotFoundException {
+        long start = getTotals.start();
+        try {
+            return operationService.getTotals(clientId, from, to);
+        } catch (BankAccountNotFoundException e) {
+            getTotals.recordRejection(e);
+            throw e;
+        } finally {
+            getTotals.stop(start);
+        }
+    }
+
+    @Override
+    public List<OperationResult> processBatch(List<OperationCommand> commands) {
+        long start = processBatch.start();
+        try {
+            List<OperationResult> results = operationService.processBatch(commands);
+            for (OperationResult result : results) {
+                recordRejection(processBatch, result);
+            }
+            return results;
+        } finally {
+            processBatch.stop(start);
+        }
+    }
+
+    private static void recordRejection(MethodStats stats, OperationResult result) {
+        if (!result.isAccepted()) {
+            stats.recordRejection(result.status());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.account.bank.adapter.instrumentation;
+
+import org.account.bank.domain.port.secondary.ITimeService;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public class InstrumentedTimeService implements ITimeService {
+
+    private static final String COMPONENT = "ITimeService";
+
+    private final ITimeService timeService;
+
+    private final MethodStats utcNow;
+
+    private final MethodStats utcDateTime;
+
+    public InstrumentedTimeService(ITimeService timeService, OperationMetrics metrics) {
+        this.timeService = timeService;
+        this.utcNow = metrics.stats(COMPONENT, "utcNow");
+        this.utcDateTime = metrics.stats(COMPONENT, "utcDateTime");
+    }
+
+    @Override
+    public LocalDate utcNow() {
+        long start = utcNow.start();
+        try {
+            return timeService.utcNow();
+        } finally {
+            utcNow.stop(start);
+        }
+    }
+
+    @Override
+    public LocalDateTime utcDateTime() {
+        long start = utcDateTime.start();
+        try {
+            return timeService.utcDateTime();
+        } finally {
+            utcDateTime.stop(start);
+        }
+    }
+}
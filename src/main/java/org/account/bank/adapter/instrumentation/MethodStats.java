@@ -0,0 +1,127 @@
+package org.account.bank.adapter.instrumentation;
+
+import org.account.bank.domain.OperationStatus;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mesures d'une méthode d'un port : nombre d'appels, rejets par type et histogramme des latences.
+ * Tous les appels sont comptés ; la latence n'est mesurée que sur un appel sur {@code latencySampling}
+ * pour limiter le coût des lectures d'horloge sur le chemin critique.
+ */
+public final class MethodStats implements MethodStatsMXBean {
+
+    private final String component;
+
+    private final String method;
+
+    private static final long NOT_SAMPLED = Long.MIN_VALUE;
+
+    private final int latencySampling;
+
+    private final LongAdder calls = new LongAdder();
+
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    private final ConcurrentHashMap<String, LongAdder> rejections = new ConcurrentHashMap<>();
+
+    // compteurs des statuts de rejet, indexés par ordinal : pas de recherche par nom sur le chemin de rejet
+    private final LongAdder[] statusRejections = new LongAdder[OperationStatus.values().length];
+
+    MethodStats(String component, String method, int latencySampling) {
+        this.component = component;
+        this.method = method;
+        this.latencySampling = latencySampling;
+        for (int i = 0; i < statusRejections.length; i++) {
+            statusRejections[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @return L'instant de début à passer à {@link #stop(long)}
+     */
+    public long start() {
+        if (latencySampling > 1 && ThreadLocalRandom.current().nextInt(latencySampling) != 0) {
+            return NOT_SAMPLED;
+        }
+        return System.nanoTime();
+    }
+
+    public void stop(long start) {
+        calls.increment();
+        if (start != NOT_SAMPLED) {
+            latencies.record(System.nanoTime() - start);
+        }
+    }
+
+    public void recordRejection(String type) {
+        LongAdder counter = rejections.get(type);
+        if (counter == null) {
+            counter = rejections.computeIfAbsent(type, key -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    public void recordRejection(OperationStatus status) {
+        statusRejections[status.ordinal()].increment();
+    }
+
+    public void recordRejection(Throwable rejection) {
+        recordRejection(rejection.getClass().getSimpleName());
+    }
+
+    public MethodStatsSnapshot snapshot() {
+        return new MethodStatsSnapshot(component, method, getCalls(), getRejections(),
+                getP50Nanos(), getP99Nanos(), getP999Nanos(), getMaxNanos());
+    }
+
+    String component() {
+        return component;
+    }
+
+    String method() {
+        return method;
+    }
+
+    @Override
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    @Override
+    public Map<String, Long> getRejections() {
+        Map<String, Long> counts = new TreeMap<>();
+        rejections.forEach((type, counter) -> counts.put(type, counter.sum()));
+        for (OperationStatus status : OperationStatus.values()) {
+            long count = statusRejections[status.ordinal()].sum();
+            if (count > 0) {
+                counts.merge(status.name(), count, Long::sum);
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public long getP50Nanos() {
+        return latencies.valueAt(0.5);
+    }
+
+    @Override
+    public long getP99Nanos() {
+        return latencies.valueAt(0.99);
+    }
+
+    @Override
+    public long getP999Nanos() {
+        return latencies.valueAt(0.999);
+    }
+
+    @Override
+    public long getMaxNanos() {
+        return latencies.max();
+    }
+}
@@ -0,0 +1,18 @@
+package org.account.bank.adapter.instrumentation;
+
+import java.util.Map;
+
+public interface MethodStatsMXBean {
+
+    long getCalls();
+
+    Map<String, Long> getRejections();
+
+    long getP50Nanos();
+
+    long getP99Nanos();
+
+    long getP999Nanos();
+
+    long getMaxNanos();
+}
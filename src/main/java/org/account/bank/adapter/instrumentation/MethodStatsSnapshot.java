@@ -0,0 +1,7 @@
+package org.account.bank.adapter.instrumentation;
+
+import java.util.Map;
+
+public record MethodStatsSnapshot(String component, String method, long calls, Map<String, Long> rejections,
+                                  long p50Nanos, long p99Nanos, long p999Nanos, long maxNanos) {
+}
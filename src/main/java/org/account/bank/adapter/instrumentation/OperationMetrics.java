@@ -0,0 +1,59 @@
+package org.account.bank.adapter.instrumentation;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registre des mesures partagé par les décorateurs instrumentés.
+ * Les mesures sont lisibles par {@link #snapshot()} ou exposées en JMX par {@link #registerMBeans(String)}.
+ */
+public class OperationMetrics {
+
+    private final ConcurrentHashMap<String, MethodStats> methods = new ConcurrentHashMap<>();
+
+    private final int latencySampling;
+
+    public OperationMetrics() {
+        this(1);
+    }
+
+    /**
+     * @param latencySampling : mesurer la latence d'un appel sur latencySampling (1 : tous les appels)
+     */
+    public OperationMetrics(int latencySampling) {
+        if (latencySampling < 1) {
+            throw new IllegalArgumentException("Échantillonnage invalide : " + latencySampling);
+        }
+        this.latencySampling = latencySampling;
+    }
+
+    public MethodStats stats(String component, String method) {
+        return methods.computeIfAbsent(component + "." + method, key -> new MethodStats(component, method, latencySampling));
+    }
+
+    public List<MethodStatsSnapshot> snapshot() {
+        return methods.values().stream()
+                .map(MethodStats::snapshot)
+                .sorted((a, b) -> (a.component() + a.method()).compareTo(b.component() + b.method()))
+                .toList();
+    }
+
+    /**
+     * Enregistre un MXBean par méthode mesurée, sous le nom {@code <domain>:type=Metrics,component=...,method=...}.
+     *
+     * @param domain : le domaine JMX, par exemple "org.account.bank"
+     */
+    public void registerMBeans(String domain) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (MethodStats stats : methods.values()) {
+            ObjectName name = new ObjectName(String.format("%s:type=Metrics,component=%s,method=%s", domain, stats.component(), stats.method()));
+            if (!server.isRegistered(name)) {
+                server.registerMBean(stats, name);
+            }
+        }
+    }
+}
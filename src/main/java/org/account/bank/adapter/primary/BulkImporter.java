@@ -0,0 +1,331 @@
+package org.account.bank.adapter.primary;
+
+import org.account.bank.domain.Operation;
+import org.account.bank.domain.OperationType;
+import org.account.bank.domain.exception.BankAccountNotFoundException;
+import org.account.bank.domain.port.secondary.IAccountRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Chargement en masse d'un export CSV dans un {@link IAccountRepository}, sans passer par le service.
+ * <p>
+ * Une ligne par compte ({@code clientId}) ou par opération ({@code clientId,date,heure,type,montant,solde}),
+ * les opérations d'un compte dans l'ordre chronologique ; une première ligne commençant par {@code clientId,} est un en-tête.
+ * Le fichier est projeté en mémoire et découpé en tranches analysées en parallèle ; les opérations sont ensuite
+ * regroupées par compte, leurs soldes vérifiés de proche en proche et ajoutées en un seul appel par compte.
+ * Un compte dont un solde est incohérent, ou dont une ligne d'opération est illisible, est écarté en entier :
+ * un historique tronqué ne serait pas chargé sans que rien ne le signale.
+ */
+public class BulkImporter {
+
+    static final int MAX_LINE_LENGTH = 4096;
+
+    private static final long DEFAULT_CHUNK_SIZE = 64L << 20;
+
+    private static final String HEADER = "clientId,";
+
+    private static final int FIELDS = 6;
+
+    private static final String INVALID_LINE = "Ligne %d invalide : %s";
+
+    private static final String INVALID_BALANCE = "Compte %s écarté : solde incohérent à l'opération %d";
+
+    private static final String INVALID_ACCOUNT_LINE = "Compte %s écarté : ligne %d invalide";
+
+    private static final String NEGATIVE_AMOUNT = "Compte %s écarté : montant négatif à l'opération %d";
+
+    private final IAccountRepository accountRepository;
+
+    private final ForkJoinPool pool;
+
+    private final long chunkSize;
+
+    public BulkImporter(IAccountRepository accountRepository) {
+        this(accountRepository, ForkJoinPool.commonPool());
+    }
+
+    public BulkImporter(IAccountRepository accountRepository, ForkJoinPool pool) {
+        this(accountRepository, pool, DEFAULT_CHUNK_SIZE);
+    }
+
+    BulkImporter(IAccountRepository accountRepository, ForkJoinPool pool, long chunkSize) {
+        if (chunkSize <= 0 || chunkSize > Integer.MAX_VALUE - MAX_LINE_LENGTH) {
+            throw new IllegalArgumentException("Taille de tranche invalide : " + chunkSize);
+        }
+        this.accountRepository = accountRepository;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @param file : l'export CSV à charger
+     * @return Le bilan du chargement, dont le débit en opérations par seconde
+     */
+    public ImportReport importCsv(Path file) throws IOException {
+
+        long start = System.nanoTime();
+
+        List<Chunk> chunks;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            List<Callable<Chunk>> tasks = new ArrayList<>();
+            for (long position = 0; position < size; position += chunkSize) {
+                long from = position;
+                long to = Math.min(size, position + chunkSize);
+                tasks.add(() -> parse(channel, from, to, size));
+            }
+            chunks = invokeAll(tasks);
+        }
+
+        // fusion dans l'ordre des tranches : chaque compte garde l'ordre du fichier
+        List<String> rejections = new ArrayList<>();
+        Map<String, List<Operation>> operationsByClient = new LinkedHashMap<>();
+        // première ligne invalide de chaque compte identifiable
+        Map<String, Long> invalidLines = new LinkedHashMap<>();
+        long lineOffset = 0;
+        for (Chunk chunk : chunks) {
+            for (LineError error : chunk.errors) {
+                rejections.add(String.format(INVALID_LINE, lineOffset + error.line(), error.reason()));
+                if (error.clientId() != null) {
+                    invalidLines.putIfAbsent(error.clientId(), lineOffset + error.line());
+                }
+            }
+            chunk.operationsByClient.forEach((clientId, operations) ->
+                    operationsByClient.computeIfAbsent(clientId, id -> new ArrayList<>()).addAll(operations));
+            lineOffset += chunk.lines;
+        }
+
+        invalidLines.forEach((clientId, line) -> {
+            rejections.add(String.format(INVALID_ACCOUNT_LINE, clientId, line));
+            operationsByClient.remove(clientId);
+        });
+
+        AtomicLong loadedOperations = new AtomicLong();
+        List<String> accountRejections = submit(() -> operationsByClient.entrySet().parallelStream()
+                .map(entry -> load(entry.getKey(), entry.getValue(), loadedOperations))
+                .filter(Objects::nonNull)
+                .toList());
+        rejections.addAll(accountRejections);
+
+        return new ImportReport(operationsByClient.size() - accountRejections.size(), loadedOperations.get(),
+                List.copyOf(rejections), Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * Analyse les lignes qui commencent dans [from, to) ; la dernière peut déborder de la tranche.
+     */
+    private static Chunk parse(FileChannel channel, long from, long to, long size) throws IOException {
+
+        long mapStart = Math.max(0, from - 1);
+        long mapEnd = Math.min(size, to + MAX_LINE_LENGTH);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart);
+        int limit = (int) (to - mapStart);
+
+        // une ligne commence en début de fichier ou juste après un saut de ligne
+        int position = 0;
+        if (from > 0) {
+            while (position < buffer.limit() && buffer.get(position) != '\n') {
+                position++;
+            }
+            position++;
+        }
+
+        Chunk chunk = new Chunk();
+        byte[] line = new byte[MAX_LINE_LENGTH];
+        while (position < limit && position < buffer.limit()) {
+            int end = position;
+            while (end < buffer.limit() && buffer.get(end) != '\n') {
+                end++;
+            }
+            int length = end - position;
+            if (length > 0 && buffer.get(end - 1) == '\r') {
+                length--;
+            }
+            chunk.lines++;
+            if (length > MAX_LINE_LENGTH || (end == buffer.limit() && mapEnd < size)) {
+                chunk.errors.add(new LineError(chunk.lines, null, "ligne trop longue"));
+            } else if (length > 0) {
+                buffer.get(position, line, 0, length);
+                String text = new String(line, 0, length, StandardCharsets.UTF_8);
+                if (from != 0 || chunk.lines != 1 || !text.startsWith(HEADER)) {
+                    chunk.parseLine(text);
+                }
+            }
+            position = end + 1;
+        }
+        return chunk;
+    }
+
+    /**
+     * @return null si le compte est chargé, sinon le motif du rejet
+     */
+    private String load(String clientId, List<Operation> operations, AtomicLong loadedOperations) {
+
+        Operation last;
+        try {
+            last = accountRepository.findLastOperationByClientId(clientId).orElse(null);
+        } catch (BankAccountNotFoundException e) {
+            last = null;
+        }
+        BigDecimal balance = last != null ? last.balance() : BigDecimal.ZERO;
+        long sequence = last != null ? last.sequence() : 0;
+
+        List<Operation> sequenced = new ArrayList<>(operations.size());
+        for (int index = 0; index < operations.size(); index++) {
+            Operation operation = operations.get(index);
+            if (operation.amount().signum() <= 0) {
+                return String.format(NEGATIVE_AMOUNT, clientId, index + 1);
+            }
+            balance = operation.operationType().isCredit() ? balance.add(operation.amount()) : balance.subtract(operation.amount());
+            if (balance.signum() < 0 || balance.compareTo(operation.balance()) != 0) {
+                return String.format(INVALID_BALANCE, clientId, index + 1);
+            }
+            sequenced.add(new Operation(operation.date(), operation.amount(), operation.operationType(), operation.balance(),
+                    operation.time(), ++sequence));
+        }
+
+        accountRepository.addClient(clientId);
+        try {
+            accountRepository.addOperations(clientId, sequenced);
+        } catch (BankAccountNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+        loadedOperations.addAndGet(sequenced.size());
+        return null;
+    }
+
+    private <T> List<T> invokeAll(List<Callable<T>> tasks) throws IOException {
+        List<T> results = new ArrayList<>(tasks.size());
+        for (Future<T> future : pool.invokeAll(tasks)) {
+            results.add(result(future));
+        }
+        return results;
+    }
+
+    private <T> T submit(Callable<T> task) throws IOException {
+        return result(pool.submit(task));
+    }
+
+    private static <T> T result(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Chargement interrompu", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof UncheckedIOException uncheckedIOException) {
+                throw uncheckedIOException.getCause();
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * @param clientId : le compte de la ligne, ou null si la ligne est trop longue pour en être sûr
+     */
+    private record LineError(long line, String clientId, String reason) {
+    }
+
+    private static final class Chunk {
+
+        private final Map<String, List<Operation>> operationsByClient = new LinkedHashMap<>();
+
+        private final List<LineError> errors = new ArrayList<>();
+
+        private long lines;
+
+        private void parseLine(String line) {
+            int comma = line.indexOf(',');
+            if (comma < 0) {
+                operationsByClient.computeIfAbsent(line, id -> new ArrayList<>());
+                return;
+            }
+            // découpage à la main : String.split et les DateTimeFormatter coûtent plus que tout le reste du chargement
+            int[] ends = new int[FIELDS];
+            int fields = 0;
+            for (int index = 0; index <= line.length() && fields <= FIELDS; index++) {
+                if (index == line.length() || line.charAt(index) == ',') {
+                    if (fields < FIELDS) {
+                        ends[fields] = index;
+                    }
+                    fields++;
+                }
+            }
+            String clientId = line.substring(0, comma);
+            if (fields != FIELDS) {
+                errors.add(new LineError(lines, clientId, FIELDS + " champs attendus"));
+                return;
+            }
+            try {
+                Operation operation = new Operation(
+                        parseDate(line, ends[0] + 1, ends[1]),
+                        new BigDecimal(line.substring(ends[3] + 1, ends[4])),
+                        OperationType.valueOf(line.substring(ends[2] + 1, ends[3])),
+                        new BigDecimal(line.substring(ends[4] + 1, ends[5])),
+                        parseTime(line, ends[1] + 1, ends[2]),
+                        0);
+                operationsByClient.computeIfAbsent(clientId, id -> new ArrayList<>()).add(operation);
+            } catch (DateTimeException | IllegalArgumentException e) {
+                errors.add(new LineError(lines, clientId, e.getMessage()));
+            }
+        }
+
+        // AAAA-MM-JJ
+        private static LocalDate parseDate(String line, int from, int to) {
+            if (to - from != 10 || line.charAt(from + 4) != '-' || line.charAt(from + 7) != '-') {
+                return LocalDate.parse(line.substring(from, to));
+            }
+            return LocalDate.of(digits(line, from, 4), digits(line, from + 5, 2), digits(line, from + 8, 2));
+        }
+
+        // HH:mm ou HH:mm:ss, sinon le format ISO complet
+        private static LocalTime parseTime(String line, int from, int to) {
+            int length = to - from;
+            if ((length != 5 && length != 8) || line.charAt(from + 2) != ':' || (length == 8 && line.charAt(from + 5) != ':')) {
+                return LocalTime.parse(line.substring(from, to));
+            }
+            return LocalTime.of(digits(line, from, 2), digits(line, from + 3, 2), length == 8 ? digits(line, from + 6, 2) : 0);
+        }
+
+        private static int digits(String line, int from, int count) {
+            int value = 0;
+            for (int index = from; index < from + count; index++) {
+                int digit = line.charAt(index) - '0';
+                if (digit < 0 || digit > 9) {
+                    throw new DateTimeException("Chiffre attendu : " + line.substring(from, from + count));
+                }
+                value = value * 10 + digit;
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package org.account.bank.adapter.primary;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Bilan d'un chargement en masse.
+ *
+ * @param accounts   : le nombre de comptes chargés
+ * @param operations : le nombre d'opérations chargées
+ * @param rejections : les lignes illisibles et les comptes écartés, avec leur motif
+ * @param elapsed    : la durée du chargement, lecture comprise
+ */
+public record ImportReport(int accounts, long operations, List<String> rejections, Duration elapsed) {
+
+    public double operationsPerSecond() {
+        long nanos = Math.max(1, elapsed.toNanos());
+        return operations * 1e9 / nanos;
+    }
+}
@@ -0,0 +1,198 @@
+package org.account.bank.adapter.primary;
+
+import org.account.bank.domain.exception.BankAccountNotFoundException;
+import org.account.bank.domain.port.secondary.IAccountRepository;
+import org.account.bank.domain.port.secondary.IOperationPrinter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Édition des relevés de tous les comptes du référentiel, en parallèle sur un ForkJoinPool :
+ * la liste des comptes est coupée en deux jusqu'à des parts de {@value #PARTITION_SIZE} comptes,
+ * que les threads inoccupés viennent voler.
+ * <p>
+ * Un fichier par compte : le relevé est écrit au fil de l'eau, sans être construit en mémoire.
+ * Fichier unique : chaque relevé est imprimé en mémoire puis écrit d'un bloc à la position qui lui est réservée,
+ * dans l'ordre où les relevés sont terminés ; au plus {@code maxStatementsInMemory} relevés sont en mémoire à la fois.
+ */
+public class StatementJob {
+
+    static final int PARTITION_SIZE = 256;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private final IAccountRepository accountRepository;
+
+    private final IOperationPrinter printer;
+
+    private final ForkJoinPool pool;
+
+    private final Semaphore statementsInMemory;
+
+    public StatementJob(IAccountRepository accountRepository, IOperationPrinter printer) {
+        this(accountRepository, printer, ForkJoinPool.commonPool(), 2 * ForkJoinPool.commonPool().getParallelism());
+    }
+
+    public StatementJob(IAccountRepository accountRepository, IOperationPrinter printer, ForkJoinPool pool, int maxStatementsInMemory) {
+        if (maxStatementsInMemory <= 0) {
+            throw new IllegalArgumentException("Nombre de relevés en mémoire invalide : " + maxStatementsInMemory);
+        }
+        this.accountRepository = accountRepository;
+        this.printer = printer;
+        this.pool = pool;
+        this.statementsInMemory = new Semaphore(maxStatementsInMemory);
+    }
+
+    /**
+     * Écrit le relevé de chaque compte dans son propre fichier, {@code <clientId>.txt}, l'identifiant étant échappé
+     * s'il contient d'autres caractères que lettres, chiffres, point et tiret.
+     *
+     * @param directory : le répertoire des relevés, créé au besoin
+     */
+    public StatementReport writePerAccount(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        return run(clientId -> {
+            Path target = directory.resolve(fileName(clientId));
+            try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+                 Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+                printer.print(accountRepository.iterateOperationsNewestFirst(clientId), clientId, writer);
+                writer.flush();
+                return channel.position();
+            }
+        });
+    }
+
+    /**
+     * Écrit les relevés de tous les comptes à la suite, dans un seul fichier.
+     *
+     * @param file : le fichier des relevés, remplacé s'il existe
+     */
+    public StatementReport writeConcatenated(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            AtomicLong nextPosition = new AtomicLong();
+            return run(clientId -> {
+                statementsInMemory.acquireUninterruptibly();
+                try {
+                    StringBuilder statement = new StringBuilder();
+                    printer.print(accountRepository.iterateOperationsNewestFirst(clientId), clientId, statement);
+                    ByteBuffer bytes = StandardCharsets.UTF_8.encode(statement.toString());
+                    // écritures positionnelles : aucun verrou entre les threads, chacun écrit dans sa zone
+                    long position = nextPosition.getAndAdd(bytes.remaining());
+                    int length = bytes.remaining();
+                    while (bytes.hasRemaining()) {
+                        channel.write(bytes, position + bytes.position());
+                    }
+                    return length;
+                } finally {
+                    statementsInMemory.release();
+                }
+            });
+        }
+    }
+
+    private StatementReport run(StatementWriter writer) throws IOException {
+        long start = System.nanoTime();
+        List<String> clientIds = accountRepository.findAllClientIds().stream().sorted().toList();
+        AtomicInteger statements = new AtomicInteger();
+        AtomicLong bytes = new AtomicLong();
+        try {
+            pool.invoke(new Partition(clientIds, 0, clientIds.size(), writer, statements, bytes));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return new StatementReport(statements.get(), bytes.get(), Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * Nom de fichier propre à chaque compte : lettres, chiffres, point et tiret sont gardés, tout autre octet UTF-8,
+     * le souligné compris, devient {@code _} suivi de sa valeur hexadécimale. Deux comptes distincts n'ont jamais le même fichier.
+     */
+    static String fileName(String clientId) {
+        StringBuilder name = new StringBuilder(clientId.length() + 4);
+        for (byte b : clientId.getBytes(StandardCharsets.UTF_8)) {
+            if (b >= 'A' && b <= 'Z' || b >= 'a' && b <= 'z' || b >= '0' && b <= '9' || b == '.' || b == '-') {
+                name.append((char) b);
+            } else {
+                name.append('_').append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
+            }
+        }
+        return name.append(".txt").toString();
+    }
+
+    @FunctionalInterface
+    private interface StatementWriter {
+
+        /**
+         * @return Le nombre d'octets écrits
+         */
+        long write(String clientId) throws IOException, BankAccountNotFoundException;
+    }
+
+    private static final class Partition extends RecursiveAction {
+
+        // tâche jamais sérialisée : elle ne vit que le temps du traitement
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<String> clientIds;
+
+        private final int from;
+
+        private final int to;
+
+        private final transient StatementWriter writer;
+
+        private final AtomicInteger statements;
+
+        private final AtomicLong bytes;
+
+        private Partition(List<String> clientIds, int from, int to, StatementWriter writer, AtomicInteger statements, AtomicLong bytes) {
+            this.clientIds = clientIds;
+            this.from = from;
+            this.to = to;
+            this.writer = writer;
+            this.statements = statements;
+            this.bytes = bytes;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > PARTITION_SIZE) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Partition(clientIds, from, middle, writer, statements, bytes),
+                        new Partition(clientIds, middle, to, writer, statements, bytes));
+                return;
+            }
+            for (int index = from; index < to; index++) {
+                try {
+                    bytes.addAndGet(writer.write(clientIds.get(index)));
+                    statements.incrementAndGet();
+                } catch (BankAccountNotFoundException e) {
+                    // compte supprimé depuis le début du traitement : pas de relevé
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package org.account.bank.adapter.primary;
+
+import java.time.Duration;
+
+/**
+ * Bilan d'une édition de relevés.
+ *
+ * @param statements : le nombre de relevés écrits
+ * @param bytes      : le nombre d'octets écrits
+ * @param elapsed    : la durée de l'édition
+ */
+public record StatementReport(int statements, long bytes, Duration elapsed) {
+}
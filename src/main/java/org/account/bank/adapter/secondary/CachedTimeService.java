@@ -0,0 +1,60 @@
+package org.account.bank.adapter.secondary;
+
+import org.account.bank.domain.port.secondary.ITimeService;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Horloge à gros grain : un thread de fond relit l'horloge système à chaque tick et publie l'heure lue.
+ * Une lecture ne coûte qu'un accès volatile, au prix d'une précision limitée à la période du tick.
+ */
+public class CachedTimeService implements ITimeService, AutoCloseable {
+
+    private final Clock clock;
+
+    private final ScheduledExecutorService ticker;
+
+    private volatile LocalDateTime now;
+
+    public CachedTimeService() {
+        this(Clock.systemUTC(), Duration.ofMillis(1));
+    }
+
+    public CachedTimeService(Clock clock, Duration resolution) {
+        this.clock = clock.withZone(ZoneOffset.UTC);
+        tick();
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cached-time-service");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = resolution.toNanos();
+        ticker.scheduleAtFixedRate(this::tick, period, period, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public LocalDate utcNow() {
+        return now.toLocalDate();
+    }
+
+    @Override
+    public LocalDateTime utcDateTime() {
+        return now;
+    }
+
+    @Override
+    public void close() {
+        ticker.shutdownNow();
+    }
+
+    private void tick() {
+        now = LocalDateTime.now(clock);
+    }
+}
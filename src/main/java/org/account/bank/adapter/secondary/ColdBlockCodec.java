@@ -0,0 +1,184 @@
+package org.account.bank.adapter.secondary;
+
+import org.account.bank.domain.Operation;
+import org.account.bank.domain.OperationType;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encodage d'une suite d'opérations d'un compte en un bloc compact, pour {@link TieredAccountRepository}.
+ * <p>
+ * Chaque champ est écrit en différence avec l'opération précédente du bloc (date, heure, montant, solde, numéro d'ordre),
+ * en entier de longueur variable : un historique régulier tient en quelques octets par opération.
+ * Le résultat est ensuite compressé (deflate). Un bloc se décode seul, sans contexte.
+ */
+final class ColdBlockCodec {
+
+    private static final OperationType[] OPERATION_TYPES = OperationType.values();
+
+    private ColdBlockCodec() {
+    }
+
+    /**
+     * @return Le bloc encodé, ses opérations dans l'ordre de la liste
+     */
+    static Block encode(List<Operation> operations) {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream(8 * operations.size() + 16);
+        long previousDay = 0;
+        long previousNanos = 0;
+        long previousAmount = 0;
+        long previousBalance = 0;
+        long previousSequence = 0;
+        for (Operation operation : operations) {
+            long day = operation.date().toEpochDay();
+            long nanos = operation.time().toNanoOfDay();
+            long amount = unscaled(operation.amount());
+            long balance = unscaled(operation.balance());
+            writeVarLong(raw, day - previousDay);
+            writeVarLong(raw, nanos - previousNanos);
+            raw.write(operation.operationType().ordinal());
+            raw.write(operation.amount().scale());
+            writeVarLong(raw, amount - previousAmount);
+            raw.write(operation.balance().scale());
+            writeVarLong(raw, balance - previousBalance);
+            writeVarLong(raw, operation.sequence() - previousSequence);
+            previousDay = day;
+            previousNanos = nanos;
+            previousAmount = amount;
+            previousBalance = balance;
+            previousSequence = operation.sequence();
+        }
+
+        byte[] input = raw.toByteArray();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(input.length / 2 + 64);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                compressed.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return new Block(compressed.toByteArray(), input.length, operations.size());
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Vérifie qu'une opération pourra être encodée, avant de l'accepter : son déversement ne peut alors plus échouer sur ses valeurs.
+     *
+     * @throws IllegalArgumentException si un montant ou un solde sort des limites des segments
+     */
+    static void checkEncodable(Operation operation) {
+        unscaled(operation.amount());
+        unscaled(operation.balance());
+    }
+
+    static List<Operation> decode(byte[] compressed, int rawLength, int count) {
+        byte[] raw = new byte[rawLength];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int length = 0;
+            while (length < rawLength && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, length, rawLength - length);
+                // plus rien à lire ou dictionnaire attendu : le bloc s'arrête avant sa longueur annoncée
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != rawLength) {
+                throw new IllegalStateException("Bloc tronqué : " + length + " octets sur " + rawLength);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Bloc illisible", e);
+        } finally {
+            inflater.end();
+        }
+
+        Cursor cursor = new Cursor(raw);
+        List<Operation> operations = new ArrayList<>(count);
+        long day = 0;
+        long nanos = 0;
+        long amount = 0;
+        long balance = 0;
+        long sequence = 0;
+        for (int index = 0; index < count; index++) {
+            day += cursor.readVarLong();
+            nanos += cursor.readVarLong();
+            OperationType operationType = OPERATION_TYPES[cursor.readByte()];
+            int amountScale = (byte) cursor.readByte();
+            amount += cursor.readVarLong();
+            int balanceScale = (byte) cursor.readByte();
+            balance += cursor.readVarLong();
+            sequence += cursor.readVarLong();
+            operations.add(new Operation(LocalDate.ofEpochDay(day), BigDecimal.valueOf(amount, amountScale), operationType,
+                    BigDecimal.valueOf(balance, balanceScale), LocalTime.ofNanoOfDay(nanos), sequence));
+        }
+        return operations;
+    }
+
+    private static long unscaled(BigDecimal value) {
+        BigInteger unscaledValue = value.unscaledValue();
+        if (unscaledValue.bitLength() > 63 || value.scale() < Byte.MIN_VALUE || value.scale() > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Montant hors des limites des segments : " + value);
+        }
+        return unscaledValue.longValue();
+    }
+
+    // zigzag puis 7 bits par octet : les petites différences, positives ou négatives, tiennent sur un octet
+    private static void writeVarLong(ByteArrayOutputStream output, long value) {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            output.write((int) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        output.write((int) zigzag);
+    }
+
+    /**
+     * @param compressed : les octets compressés, tels qu'écrits dans le segment
+     * @param rawLength  : la longueur avant compression
+     * @param count      : le nombre d'opérations
+     */
+    record Block(byte[] compressed, int rawLength, int count) {
+    }
+
+    private static final class Cursor {
+
+        private final byte[] bytes;
+
+        private int position;
+
+        private Cursor(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        private int readByte() {
+            return bytes[position++] & 0xFF;
+        }
+
+        private long readVarLong() {
+            long zigzag = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = readByte();
+                zigzag |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+    }
+}
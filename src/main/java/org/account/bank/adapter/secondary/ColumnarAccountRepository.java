@@ -0,0 +1,83 @@
+package org.account.bank.adapter.secondary;
+
+import org.account.bank.domain.Operation;
+import org.account.bank.domain.PeriodTotals;
+import org.account.bank.domain.exception.BankAccountNotFoundException;
+import org.account.bank.domain.port.secondary.IAccountRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Variante de {@link ConcurrentAccountRepository} dont l'historique de chaque compte est rangé
+ * en colonnes primitives ({@link OperationColumns}) : l'empreinte mémoire par opération est divisée
+ * par près de trois (~39 octets, ~52 avec la marge de croissance des colonnes, contre ~150) et les opérations stockées
+ * ne sont plus des objets à parcourir par le GC.
+ */
+public class ColumnarAccountRepository implements IAccountRepository {
+
+    private static final String ACCOUNT_NOT_FOUND = "Compte inexistant : %s";
+
+    private final ConcurrentHashMap<String, OperationColumns> bankAccounts = new ConcurrentHashMap<>();
+
+    @Override
+    public Optional<Operation> findLastOperationByClientId(String clientId) throws BankAccountNotFoundException {
+        return Optional.ofNullable(getColumns(clientId).last());
+    }
+
+    @Override
+    public void addOperation(String clientId, Operation operation) throws BankAccountNotFoundException {
+        getColumns(clientId).append(operation);
+    }
+
+    @Override
+    public void addOperations(String clientId, List<Operation> operations) throws BankAccountNotFoundException {
+        getColumns(clientId).appendAll(operations);
+    }
+
+    @Override
+    public List<Operation> findOperationsByClientId(String clientId) throws BankAccountNotFoundException {
+        return getColumns(clientId).snapshot();
+    }
+
+    @Override
+    public BigDecimal findBalanceAt(String clientId, LocalDate date) throws BankAccountNotFoundException {
+        BigDecimal balance = getColumns(clientId).dayIndex().balanceAt(date);
+        return balance != null ? balance : IAccountRepository.super.findBalanceAt(clientId, date);
+    }
+
+    @Override
+    public PeriodTotals findTotalsBetween(String clientId, LocalDate from, LocalDate to) throws BankAccountNotFoundException {
+        PeriodTotals totals = getColumns(clientId).dayIndex().totalsBetween(from, to);
+        return totals != null ? totals : IAccountRepository.super.findTotalsBetween(clientId, from, to);
+    }
+
+    @Override
+    public void addClient(String clientId) {
+        bankAccounts.putIfAbsent(clientId, new OperationColumns());
+    }
+
+    @Override
+    public void removeClient(String clientId) throws BankAccountNotFoundException {
+        if (bankAccounts.remove(clientId) == null) {
+            throw new BankAccountNotFoundException(String.format(ACCOUNT_NOT_FOUND, clientId));
+        }
+    }
+
+    @Override
+    public Set<String> findAllClientIds() {
+        return Set.copyOf(bankAccounts.keySet());
+    }
+
+    private OperationColumns getColumns(String clientId) throws BankAccountNotFoundException {
+        OperationColumns columns = bankAccounts.get(clientId);
+        if (columns == null) {
+            throw new BankAccountNotFoundException(String.format(ACCOUNT_NOT_FOUND, clientId));
+        }
+        return columns;
+    }
+}
@@ -0,0 +1,81 @@
+package org.account.bank.adapter.secondary;
+
+import org.account.bank.domain.Operation;
+import org.account.bank.domain.PeriodTotals;
+import org.account.bank.domain.exception.BankAccountNotFoundException;
+import org.account.bank.domain.port.secondary.IAccountRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Référentiel en mémoire partagé entre threads : recherche des comptes sans verrou
+ * ({@link ConcurrentHashMap}) et un journal en ajout seul par compte.
+ */
+public class ConcurrentAccountRepository implements IAccountRepository {
+
+    private static final String ACCOUNT_NOT_FOUND = "Compte inexistant : %s";
+
+    private final ConcurrentHashMap<String, OperationLog> bankAccounts = new ConcurrentHashMap<>();
+
+    @Override
+    public Optional<Operation> findLastOperationByClientId(String clientId) throws BankAccountNotFoundException {
+        return Optional.ofNullable(getLog(clientId).last());
+    }
+
+    @Override
+    public void addOperation(String clientId, Operation operation) throws BankAccountNotFoundException {
+        getLog(clientId).append(operation);
+    }
+
+    @Override
+    public void addOperations(String clientId, List<Operation> operations) throws BankAccountNotFoundException {
+        getLog(clientId).appendAll(operations);
+    }
+
+    @Override
+    public List<Operation> findOperationsByClientId(String clientId) throws BankAccountNotFoundException {
+        return getLog(clientId).snapshot();
+    }
+
+    @Override
+    public BigDecimal findBalanceAt(String clientId, LocalDate date) throws BankAccountNotFoundException {
+        BigDecimal balance = getLog(clientId).dayIndex().balanceAt(date);
+        return balance != null ? balance : IAccountRepository.super.findBalanceAt(clientId, date);
+    }
+
+    @Override
+    public PeriodTotals findTotalsBetween(String clientId, LocalDate from, LocalDate to) throws BankAccountNotFoundException {
+        PeriodTotals totals = getLog(clientId).dayIndex().totalsBetween(from, to);
+        return totals != null ? totals : IAccountRepository.super.findTotalsBetween(clientId, from, to);
+    }
+
+    @Override
+    public void addClient(String clientId) {
+        bankAccounts.putIfAbsent(clientId, new OperationLog());
+    }
+
+    @Override
+    public void removeClient(String clientId) throws BankAccountNotFoundException {
+        if (bankAccounts.remove(clientId) == null) {
+            throw new BankAccountNotFoundException(String.format(ACCOUNT_NOT_FOUND, clientId));
+        }
+    }
+
+    @Override
+    public Set<String> findAllClientIds() {
+        return Set.copyOf(bankAccounts.keySet());
+    }
+
+    private OperationLog getLog(String clientId) throws BankAccountNotFoundException {
+        OperationLog log = bankAccounts.get(clientId);
+        if (log == null) {
+            throw new BankAccountNotFoundException(String.format(ACCOUNT_NOT_FOUND, clientId));
+        }
+        return log;
+    }
+}
@@ -0,0 +1,67 @@
+package org.account.bank.adapter.secondary;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Anneau de hachage cohérent : chaque partition y occupe {@code virtualNodes} positions, et une clé
+ * revient à la première partition rencontrée après son hachage. L'ajout d'une partition ne déplace que
+ * les clés qui lui reviennent, soit environ 1/n d'entre elles.
+ * <p>
+ * Non synchronisé : l'appelant protège les modifications.
+ */
+final class ConsistentHashRing {
+
+    private final int virtualNodes;
+
+    private final TreeMap<Long, String> positions = new TreeMap<>();
+
+    ConsistentHashRing(int virtualNodes) {
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("Nombre de nœuds virtuels invalide : " + virtualNodes);
+        }
+        this.virtualNodes = virtualNodes;
+    }
+
+    void add(String partition) {
+        for (int node = 0; node < virtualNodes; node++) {
+            // collision de deux positions : la première partition arrivée la garde
+            positions.putIfAbsent(hash(partition + '#' + node), partition);
+        }
+    }
+
+    /**
+     * Retire les positions de la partition ; les collisions lui ayant été refusées restent aux partitions qui les ont gagnées,
+     * l'anneau redevient donc celui d'avant son ajout.
+     */
+    void remove(String partition) {
+        positions.values().removeIf(partition::equals);
+    }
+
+    /**
+     * @return Le nom de la partition de la clé, ou null si l'anneau est vide
+     */
+    String partitionOf(String key) {
+        if (positions.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, String> entry = positions.ceilingEntry(hash(key));
+        return (entry != null ? entry : positions.firstEntry()).getValue();
+    }
+
+    // FNV-1a 64 bits, puis le mélange final de MurmurHash3 : les identifiants voisins (client1, client2...) se dispersent
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,259 @@
+package org.account.bank.adapter.secondary;
+
+import org.account.bank.domain.Operation;
+import org.account.bank.domain.PeriodTotals;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Index journalier d'un compte : une entrée par jour d'activité, avec le solde de clôture et les cumuls
+ * depuis l'ouverture du compte. Le solde à une date et les totaux d'une période se lisent par recherche
+ * dichotomique sur les jours puis différence de deux cumuls, sans parcourir les opérations.
+ * <p>
+ * Les jours sont rangés en colonnes primitives comme {@link OperationColumns} : 39 octets par jour d'activité, aucun objet.
+ * Les écritures sont sérialisées par le journal qui le porte ; elles prennent le verrou d'écriture d'un {@link StampedLock},
+ * que les lectures ne prennent qu'en cas de conflit : une lecture optimiste validée a vu un jour complet, jamais une mise à jour à moitié écrite.
+ * Les opérations sont supposées ajoutées par date croissante ; une opération antérieure au dernier jour est comptée dans celui-ci.
+ * <p>
+ * Un cumul qui ne tient plus dans une colonne (valeur non échelonnée au-delà de 63 bits, jour hors des int) met l'index hors service :
+ * ses lectures renvoient alors null et le référentiel revient au parcours des opérations.
+ */
+final class DayIndex {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private final StampedLock lock = new StampedLock();
+
+    // champs ordinaires : lus entre tryOptimisticRead et validate, ou sous verrou
+    private Days days = new Days(INITIAL_CAPACITY);
+
+    private int size;
+
+    private boolean overflow;
+
+    void add(Operation operation) {
+        long stamp = lock.writeLock();
+        try {
+            if (!overflow && !append(operation)) {
+                overflow = true;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return Le solde à la fin de la journée, zéro avant la première opération, ou null si l'index est hors service
+     */
+    BigDecimal balanceAt(LocalDate date) {
+        long epochDay = date.toEpochDay();
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            BigDecimal balance = balanceAt(epochDay);
+            if (lock.validate(stamp)) {
+                return balance;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return balanceAt(epochDay);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return Les totaux de la période, ou null si l'index est hors service
+     */
+    PeriodTotals totalsBetween(LocalDate from, LocalDate to) {
+        long fromDay = from.toEpochDay();
+        long toDay = to.toEpochDay();
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            PeriodTotals totals = totalsBetween(fromDay, toDay);
+            if (lock.validate(stamp)) {
+                return totals;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return totalsBetween(fromDay, toDay);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // une lecture optimiste peut voir un état incohérent, invalidé ensuite : aucun accès ne doit sortir des colonnes lues
+    private BigDecimal balanceAt(long epochDay) {
+        if (overflow) {
+            return null;
+        }
+        Days current = days;
+        int index = current.daysUntil(Math.min(size, current.capacity()), epochDay);
+        return index == 0 ? BigDecimal.ZERO : current.balance(index - 1);
+    }
+
+    private PeriodTotals totalsBetween(long fromDay, long toDay) {
+        if (overflow) {
+            return null;
+        }
+        Days current = days;
+        int count = Math.min(size, current.capacity());
+        int last = current.daysUntil(count, toDay);
+        int first = current.daysUntil(count, fromDay - 1);
+        if (last <= first) {
+            return PeriodTotals.EMPTY;
+        }
+        PeriodTotals until = current.totals(last - 1);
+        return first == 0 ? until : until.minus(current.totals(first - 1));
+    }
+
+    /**
+     * @return false si un cumul ne tient plus dans les colonnes
+     */
+    private boolean append(Operation operation) {
+        int count = size;
+        long epochDay = operation.date().toEpochDay();
+        if (epochDay != (int) epochDay) {
+            return false;
+        }
+        Days current = days;
+        int index;
+        if (count > 0 && epochDay <= current.epochDays[count - 1]) {
+            index = count - 1;
+        } else {
+            if (count == current.capacity()) {
+                current = current.copyOf(count << 1);
+                days = current;
+            }
+            index = count;
+            current.epochDays[index] = (int) epochDay;
+            if (count > 0) {
+                current.copyTotals(count - 1, index);
+            }
+        }
+
+        BigDecimal amount = operation.amount();
+        boolean credit = operation.operationType().isCredit();
+        long[] sums = credit ? current.credits : current.debits;
+        byte[] sumScales = credit ? current.creditScales : current.debitScales;
+        BigDecimal balance = operation.balance();
+        BigInteger unscaledBalance = balance.unscaledValue();
+        if (unscaledBalance.bitLength() > 63 || !fitsScale(balance) || !add(sums, sumScales, index, amount)) {
+            return false;
+        }
+        current.balances[index] = unscaledBalance.longValue();
+        current.balanceScales[index] = (byte) balance.scale();
+        current.counts[index]++;
+        size = index + 1;
+        return true;
+    }
+
+    private static boolean add(long[] sums, byte[] scales, int index, BigDecimal amount) {
+        // même échelle et valeur sur 63 bits : addition entière, sans BigDecimal intermédiaire
+        BigInteger unscaled = amount.unscaledValue();
+        if (amount.scale() == scales[index] && unscaled.bitLength() <= 63) {
+            long value = unscaled.longValue();
+            long sum = sums[index] + value;
+            if (((sums[index] ^ sum) & (value ^ sum)) >= 0) {
+                sums[index] = sum;
+                return true;
+            }
+        }
+        BigDecimal sum = BigDecimal.valueOf(sums[index], scales[index]).add(amount);
+        BigInteger unscaledSum = sum.unscaledValue();
+        if (unscaledSum.bitLength() > 63 || !fitsScale(sum)) {
+            return false;
+        }
+        sums[index] = unscaledSum.longValue();
+        scales[index] = (byte) sum.scale();
+        return true;
+    }
+
+    private static boolean fitsScale(BigDecimal value) {
+        return value.scale() >= Byte.MIN_VALUE && value.scale() <= Byte.MAX_VALUE;
+    }
+
+    private static final class Days {
+
+        private final int[] epochDays;
+
+        private final long[] balances;
+
+        private final long[] credits;
+
+        private final long[] debits;
+
+        private final long[] counts;
+
+        private final byte[] balanceScales;
+
+        private final byte[] creditScales;
+
+        private final byte[] debitScales;
+
+        private Days(int capacity) {
+            this(new int[capacity], new long[capacity], new long[capacity], new long[capacity], new long[capacity],
+                    new byte[capacity], new byte[capacity], new byte[capacity]);
+        }
+
+        private Days(int[] epochDays, long[] balances, long[] credits, long[] debits, long[] counts,
+                     byte[] balanceScales, byte[] creditScales, byte[] debitScales) {
+            this.epochDays = epochDays;
+            this.balances = balances;
+            this.credits = credits;
+            this.debits = debits;
+            this.counts = counts;
+            this.balanceScales = balanceScales;
+            this.creditScales = creditScales;
+            this.debitScales = debitScales;
+        }
+
+        private int capacity() {
+            return epochDays.length;
+        }
+
+        private Days copyOf(int capacity) {
+            return new Days(Arrays.copyOf(epochDays, capacity), Arrays.copyOf(balances, capacity), Arrays.copyOf(credits, capacity),
+                    Arrays.copyOf(debits, capacity), Arrays.copyOf(counts, capacity),
+                    Arrays.copyOf(balanceScales, capacity), Arrays.copyOf(creditScales, capacity), Arrays.copyOf(debitScales, capacity));
+        }
+
+        // les cumuls d'un nouveau jour partent de ceux de la veille
+        private void copyTotals(int from, int to) {
+            credits[to] = credits[from];
+            creditScales[to] = creditScales[from];
+            debits[to] = debits[from];
+            debitScales[to] = debitScales[from];
+            counts[to] = counts[from];
+        }
+
+        private BigDecimal balance(int index) {
+            return BigDecimal.valueOf(balances[index], balanceScales[index]);
+        }
+
+        private PeriodTotals totals(int index) {
+            return new PeriodTotals(BigDecimal.valueOf(credits[index], creditScales[index]), BigDecimal.valueOf(debits[index], debitScales[index]),
+                    counts[index]);
+        }
+
+        // nombre de jours indexés jusqu'à epochDay inclus
+        private int daysUntil(int count, long epochDay) {
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (epochDays[middle] <= epochDay) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
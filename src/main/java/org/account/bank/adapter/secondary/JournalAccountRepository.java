@@ -0,0 +1,743 @@
+package org.account.bank.adapter.secondary;
+
+import org.account.bank.domain.Operation;
+import org.account.bank.domain.OperationType;
+import org.account.bank.domain.PeriodTotals;
+import org.account.bank.domain.exception.BankAccountNotFoundException;
+import org.account.bank.domain.port.secondary.IAccountRepository;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Référentiel persistant : chaque compte ouvert et chaque opération est ajouté à un journal binaire
+ * à enregistrements de taille fixe, réparti en segments projetés en mémoire.
+ * <p>
+ * Chaque opération référence l'enregistrement précédent du même compte : seul le dernier enregistrement
+ * et la dernière opération de chaque compte restent en mémoire, l'historique est relu depuis les segments.
+ * Les recherches par période et par page passent par les positions des enregistrements du compte ({@link RecordIndex}),
+ * retrouvées par dichotomie sur la date ou par rang : seules les opérations renvoyées sont relues.
+ * Au démarrage, le dernier instantané ({@link #snapshot()}) est chargé et seule la suite du journal est rejouée ;
+ * un instantané illisible est ignoré et le journal est rejoué en entier.
+ * <p>
+ * La fermeture d'un compte ajoute un enregistrement de fermeture : ses enregistrements restent dans les segments,
+ * mais le compte disparaît au rejeu et un compte rouvert sous le même identifiant repart d'un historique vide.
+ */
+public class JournalAccountRepository implements IAccountRepository, Closeable {
+
+    static final int RECORD_SIZE = 64;
+
+    static final int DEFAULT_RECORDS_PER_SEGMENT = 1 << 20;
+
+    private static final String ACCOUNT_NOT_FOUND = "Compte inexistant : %s";
+
+    private static final String SEGMENT_FILE = "journal-%010d.seg";
+
+    private static final String SNAPSHOT_FILE = "snapshot.bin";
+
+    private static final String ARCHIVE_DIRECTORY = "archive";
+
+    private static final int SNAPSHOT_MAGIC = 0x534E4151;
+
+    // instantanés écrits avant l'ajout de l'heure et du numéro de séquence
+    private static final int LEGACY_SNAPSHOT_MAGIC = 0x534E4150;
+
+    private static final byte EMPTY = 0;
+
+    private static final byte ACCOUNT = 1;
+
+    private static final byte OPERATION = 2;
+
+    private static final byte REMOVED = 3;
+
+    // dernier enregistrement d'un compte fermé, dans l'instantané
+    private static final long REMOVED_RECORD = -2;
+
+    private static final int MAX_CLIENT_ID_LENGTH = RECORD_SIZE - 8;
+
+    private static final OperationType[] OPERATION_TYPES = OperationType.values();
+
+    private final Path directory;
+
+    private final int recordsPerSegment;
+
+    private final int syncEvery;
+
+    private final ConcurrentHashMap<String, Account> accounts = new ConcurrentHashMap<>();
+
+    private final List<Account> accountsByIndex = new ArrayList<>();
+
+    private final List<FileChannel> channels = new ArrayList<>();
+
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+
+    private final Object snapshotLock = new Object();
+
+    private long nextRecord;
+
+    private volatile long snapshotRecord;
+
+    private int unsyncedRecords;
+
+    /**
+     * @param directory         : le répertoire des segments, créé au besoin
+     * @param recordsPerSegment : le nombre d'enregistrements par segment
+     * @param syncEvery         : forcer l'écriture sur disque tous les syncEvery enregistrements (0 : seulement sur {@link #flush()})
+     */
+    public JournalAccountRepository(Path directory, int recordsPerSegment, int syncEvery) throws IOException {
+        if (recordsPerSegment <= 0 || syncEvery < 0) {
+            throw new IllegalArgumentException("Paramètres de journal invalides");
+        }
+        this.directory = directory;
+        this.recordsPerSegment = recordsPerSegment;
+        this.syncEvery = syncEvery;
+
+        Files.createDirectories(directory);
+        recover();
+    }
+
+    public JournalAccountRepository(Path directory) throws IOException {
+        this(directory, DEFAULT_RECORDS_PER_SEGMENT, 0);
+    }
+
+    @Override
+    public Optional<Operation> findLastOperationByClientId(String clientId) throws BankAccountNotFoundException {
+        return Optional.ofNullable(getAccount(clientId).last);
+    }
+
+    @Override
+    public void addOperation(String clientId, Operation operation) throws BankAccountNotFoundException {
+        Account account = getAccount(clientId);
+        checkEncodable(operation);
+        synchronized (this) {
+            checkOpen(clientId, account);
+            appendOperation(account, operation);
+            syncIfNeeded(1);
+        }
+    }
+
+    @Override
+    public void addOperations(String clientId, List<Operation> operations) throws BankAccountNotFoundException {
+        Account account = getAccount(clientId);
+        // tout le lot est vérifié avant la première écriture : un montant refusé n'en laisse aucune partie au journal
+        for (Operation operation : operations) {
+            checkEncodable(operation);
+        }
+        synchronized (this) {
+            checkOpen(clientId, account);
+            for (Operation operation : operations) {
+                appendOperation(account, operation);
+            }
+            syncIfNeeded(operations.size());
+        }
+    }
+
+    @Override
+    public List<Operation> findOperationsByClientId(String clientId) throws BankAccountNotFoundException {
+        Account account = getAccount(clientId);
+        List<Operation> operations = new ArrayList<>();
+        for (long record = account.lastRecord; record >= 0; record = previousRecord(record)) {
+            operations.add(readOperation(record));
+        }
+        Collections.reverse(operations);
+        return Collections.unmodifiableList(operations);
+    }
+
+    @Override
+    public Iterator<Operation> iterateOperationsNewestFirst(String clientId) throws BankAccountNotFoundException {
+        long lastRecord = getAccount(clientId).lastRecord;
+        return new Iterator<>() {
+
+            private long record = lastRecord;
+
+            @Override
+            public boolean hasNext() {
+                return record >= 0;
+            }
+
+            @Override
+            public Operation next() {
+                if (record < 0) {
+                    throw new NoSuchElementException();
+                }
+                Operation operation = readOperation(record);
+                record = previousRecord(record);
+                return operation;
+            }
+        };
+    }
+
+    @Override
+    public List<Operation> findOperationsBetween(String clientId, LocalDate from, LocalDate to) throws BankAccountNotFoundException {
+        RecordIndex recordIndex = recordIndex(getAccount(clientId));
+        int count = recordIndex.size();
+        int fromIndex = countUntil(recordIndex, count, from.toEpochDay() - 1);
+        int toIndex = countUntil(recordIndex, count, to.toEpochDay());
+        List<Operation> operations = new ArrayList<>(Math.max(0, toIndex - fromIndex));
+        for (int index = fromIndex; index < toIndex; index++) {
+            operations.add(readOperation(recordIndex.record(index)));
+        }
+        return Collections.unmodifiableList(operations);
+    }
+
+    @Override
+    public List<Operation> findOperationsPage(String clientId, int page, int size) throws BankAccountNotFoundException {
+        if (page < 0 || size <= 0) {
+            throw new IllegalArgumentException(String.format("Page invalide : %d (taille %d)", page, size));
+        }
+        RecordIndex recordIndex = recordIndex(getAccount(clientId));
+        int count = recordIndex.size();
+        int toIndex = count - (int) Math.min(count, (long) page * size);
+        int fromIndex = Math.max(0, toIndex - size);
+        List<Operation> operations = new ArrayList<>(toIndex - fromIndex);
+        for (int index = toIndex - 1; index >= fromIndex; index--) {
+            operations.add(readOperation(recordIndex.record(index)));
+        }
+        return Collections.unmodifiableList(operations);
+    }
+
+    @Override
+    public BigDecimal findBalanceAt(String clientId, LocalDate date) throws BankAccountNotFoundException {
+        BigDecimal balance = dayIndex(getAccount(clientId)).balanceAt(date);
+        return balance != null ? balance : IAccountRepository.super.findBalanceAt(clientId, date);
+    }
+
+    @Override
+    public PeriodTotals findTotalsBetween(String clientId, LocalDate from, LocalDate to) throws BankAccountNotFoundException {
+        PeriodTotals totals = dayIndex(getAccount(clientId)).totalsBetween(from, to);
+        return totals != null ? totals : IAccountRepository.super.findTotalsBetween(clientId, from, to);
+    }
+
+    @Override
+    public synchronized void addClient(String clientId) {
+        if (accounts.containsKey(clientId)) {
+            return;
+        }
+        byte[] name = clientId.getBytes(StandardCharsets.UTF_8);
+        if (name.length > MAX_CLIENT_ID_LENGTH) {
+            throw new IllegalArgumentException("Identifiant client trop long : " + clientId);
+        }
+
+        Account account = new Account(accountsByIndex.size());
+        MappedByteBuffer segment = claimRecord();
+        int offset = offset(nextRecord);
+        segment.put(offset + 1, (byte) name.length);
+        segment.putInt(offset + 4, account.index);
+        segment.put(offset + 8, name);
+        segment.put(offset, ACCOUNT);
+        nextRecord++;
+
+        register(clientId, account);
+        syncIfNeeded(1);
+    }
+
+    @Override
+    public synchronized void removeClient(String clientId) throws BankAccountNotFoundException {
+        Account account = getAccount(clientId);
+        byte[] name = clientId.getBytes(StandardCharsets.UTF_8);
+        MappedByteBuffer segment = claimRecord();
+        int offset = offset(nextRecord);
+        segment.put(offset + 1, (byte) name.length);
+        segment.putInt(offset + 4, account.index);
+        segment.put(offset + 8, name);
+        segment.put(offset, REMOVED);
+        nextRecord++;
+
+        accounts.remove(clientId, account);
+        syncIfNeeded(1);
+    }
+
+    @Override
+    public Set<String> findAllClientIds() {
+        return Set.copyOf(accounts.keySet());
+    }
+
+    /**
+     * Force l'écriture sur disque du segment courant.
+     */
+    public synchronized void flush() {
+        MappedByteBuffer[] current = segments;
+        if (current.length > 0) {
+            current[current.length - 1].force();
+        }
+        unsyncedRecords = 0;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        for (FileChannel channel : channels) {
+            channel.close();
+        }
+    }
+
+    private void appendOperation(Account account, Operation operation) {
+        MappedByteBuffer segment = claimRecord();
+        int offset = offset(nextRecord);
+        segment.put(offset + 1, (byte) operation.operationType().ordinal());
+        segment.put(offset + 2, (byte) operation.amount().scale());
+        segment.put(offset + 3, (byte) operation.balance().scale());
+        segment.putInt(offset + 4, account.index);
+        segment.putInt(offset + 8, (int) operation.date().toEpochDay());
+        segment.putLong(offset + 16, unscaled(operation.amount()));
+        segment.putLong(offset + 24, unscaled(operation.balance()));
+        segment.putLong(offset + 32, account.lastRecord);
+        segment.putLong(offset + 40, operation.time().toNanoOfDay());
+        segment.putLong(offset + 48, operation.sequence());
+        // le type est écrit en dernier : un enregistrement non vide est toujours complet
+        segment.put(offset, OPERATION);
+
+        DayIndex dayIndex = account.dayIndex;
+        if (dayIndex != null) {
+            dayIndex.add(operation);
+        }
+        RecordIndex recordIndex = account.recordIndex;
+        if (recordIndex != null) {
+            recordIndex.add(nextRecord);
+        }
+        account.lastRecord = nextRecord++;
+        account.last = operation;
+    }
+
+    private MappedByteBuffer claimRecord() {
+        int segmentIndex = (int) (nextRecord / recordsPerSegment);
+        MappedByteBuffer[] current = segments;
+        if (segmentIndex == current.length) {
+            if (current.length > 0) {
+                current[current.length - 1].force();
+                unsyncedRecords = 0;
+            }
+            try {
+                current = Arrays.copyOf(current, segmentIndex + 1);
+                current[segmentIndex] = mapSegment(segmentIndex);
+                segments = current;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return current[segmentIndex];
+    }
+
+    private void syncIfNeeded(int records) {
+        unsyncedRecords += records;
+        if (syncEvery > 0 && unsyncedRecords >= syncEvery) {
+            flush();
+        }
+    }
+
+    private void recover() throws IOException {
+        List<MappedByteBuffer> mapped = new ArrayList<>();
+        Path segment;
+        while ((segment = findSegment(mapped.size())) != null) {
+            mapped.add(mapSegment(segment));
+        }
+        segments = mapped.toArray(new MappedByteBuffer[0]);
+
+        long record = loadSnapshot();
+        snapshotRecord = record;
+        for (int segmentIndex = (int) (record / recordsPerSegment); segmentIndex < mapped.size(); segmentIndex++) {
+            MappedByteBuffer current = mapped.get(segmentIndex);
+            for (int slot = (int) (record % recordsPerSegment); slot < recordsPerSegment; slot++, record++) {
+                int offset = slot * RECORD_SIZE;
+                byte kind = current.get(offset);
+                if (kind == EMPTY) {
+                    nextRecord = record;
+                    return;
+                }
+                if (kind == ACCOUNT) {
+                    byte[] name = new byte[current.get(offset + 1)];
+                    current.get(offset + 8, name);
+                    register(new String(name, StandardCharsets.UTF_8), new Account(current.getInt(offset + 4)));
+                } else if (kind == REMOVED) {
+                    byte[] name = new byte[current.get(offset + 1)];
+                    current.get(offset + 8, name);
+                    accounts.remove(new String(name, StandardCharsets.UTF_8), accountsByIndex.get(current.getInt(offset + 4)));
+                } else {
+                    Account account = accountsByIndex.get(current.getInt(offset + 4));
+                    account.lastRecord = record;
+                    account.last = decode(current, offset);
+                }
+            }
+        }
+        nextRecord = record;
+    }
+
+    /**
+     * Écrit l'instantané des soldes : pour chaque compte, son dernier enregistrement et sa dernière opération.
+     * Un compte fermé n'y garde que sa place, pour que les index des enregistrements suivants restent valides.
+     * Au prochain démarrage, seul le journal écrit après l'instantané est rejoué.
+     */
+    public void snapshot() throws IOException {
+        String[] names;
+        long[] lastRecords;
+        Operation[] lastOperations;
+        long position;
+
+        // copie de l'état sous verrou, écriture du fichier hors verrou
+        synchronized (this) {
+            flush();
+            position = nextRecord;
+            names = new String[accountsByIndex.size()];
+            lastRecords = new long[names.length];
+            lastOperations = new Operation[names.length];
+            accounts.forEach((clientId, account) -> names[account.index] = clientId);
+            for (Account account : accountsByIndex) {
+                lastRecords[account.index] = account.lastRecord;
+                lastOperations[account.index] = account.last;
+            }
+        }
+
+        synchronized (snapshotLock) {
+            if (position <= snapshotRecord) {
+                return;
+            }
+            Path temporary = directory.resolve(SNAPSHOT_FILE + ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                 DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16))) {
+                output.writeInt(SNAPSHOT_MAGIC);
+                output.writeLong(position);
+                output.writeInt(names.length);
+                for (int index = 0; index < names.length; index++) {
+                    if (names[index] == null) {
+                        output.writeUTF("");
+                        output.writeLong(REMOVED_RECORD);
+                        continue;
+                    }
+                    output.writeUTF(names[index]);
+                    output.writeLong(lastRecords[index]);
+                    Operation last = lastOperations[index];
+                    if (last != null) {
+                        output.writeByte(last.operationType().ordinal());
+                        output.writeInt((int) last.date().toEpochDay());
+                        output.writeByte(last.amount().scale());
+                        output.writeLong(unscaled(last.amount()));
+                        output.writeByte(last.balance().scale());
+                        output.writeLong(unscaled(last.balance()));
+                        output.writeLong(last.time().toNanoOfDay());
+                        output.writeLong(last.sequence());
+                    }
+                }
+                // le contenu est sur disque avant que le renommage ne le rende visible
+                output.flush();
+                channel.force(true);
+            }
+            Files.move(temporary, directory.resolve(SNAPSHOT_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory();
+            snapshotRecord = position;
+        }
+    }
+
+    public ScheduledFuture<?> scheduleSnapshots(ScheduledExecutorService scheduler, Duration period) {
+        return scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                snapshot();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, period.toMillis(), period.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Déplace dans le sous-répertoire d'archive les segments entièrement couverts par le dernier instantané :
+     * ils ne sont plus rejoués au démarrage et ne servent plus qu'à relire l'historique.
+     *
+     * @return Le nombre de segments archivés
+     */
+    public int archiveSegments() throws IOException {
+        synchronized (snapshotLock) {
+            Path archive = Files.createDirectories(directory.resolve(ARCHIVE_DIRECTORY));
+            int archived = 0;
+            int coveredSegments = (int) (snapshotRecord / recordsPerSegment);
+            for (int segmentIndex = 0; segmentIndex < coveredSegments; segmentIndex++) {
+                Path segment = directory.resolve(segmentName(segmentIndex));
+                if (Files.exists(segment)) {
+                    // le segment reste projeté en mémoire : le déplacer ne change pas le fichier sous-jacent
+                    Files.move(segment, archive.resolve(segmentName(segmentIndex)), StandardCopyOption.ATOMIC_MOVE);
+                    archived++;
+                }
+            }
+            return archived;
+        }
+    }
+
+    /**
+     * @return La position du journal couverte par l'instantané, ou 0 s'il n'y en a pas ou s'il est illisible :
+     * le journal est alors rejoué en entier, les segments archivés compris
+     */
+    private long loadSnapshot() {
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(snapshot)) {
+            return 0;
+        }
+        try {
+            return readSnapshot(snapshot);
+        } catch (IOException | RuntimeException e) {
+            accounts.clear();
+            accountsByIndex.clear();
+            return 0;
+        }
+    }
+
+    private long readSnapshot(Path snapshot) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot), 1 << 16))) {
+            int magic = input.readInt();
+            if (magic != SNAPSHOT_MAGIC && magic != LEGACY_SNAPSHOT_MAGIC) {
+                throw new IOException("Instantané invalide : " + snapshot);
+            }
+            long position = input.readLong();
+            int count = input.readInt();
+            for (int index = 0; index < count; index++) {
+                Account account = new Account(index);
+                String clientId = input.readUTF();
+                long lastRecord = input.readLong();
+                if (lastRecord == REMOVED_RECORD) {
+                    accountsByIndex.add(account);
+                    continue;
+                }
+                register(clientId, account);
+                account.lastRecord = lastRecord;
+                if (lastRecord >= 0) {
+                    OperationType operationType = OPERATION_TYPES[input.readByte()];
+                    LocalDate date = LocalDate.ofEpochDay(input.readInt());
+                    int amountScale = input.readByte();
+                    BigDecimal amount = BigDecimal.valueOf(input.readLong(), amountScale);
+                    int balanceScale = input.readByte();
+                    BigDecimal balance = BigDecimal.valueOf(input.readLong(), balanceScale);
+                    account.last = magic == SNAPSHOT_MAGIC
+                            ? new Operation(date, amount, operationType, balance, LocalTime.ofNanoOfDay(input.readLong()), input.readLong())
+                            : new Operation(date, amount, operationType, balance);
+                }
+            }
+            return position;
+        }
+    }
+
+    // rend le renommage de l'instantané durable ; sans effet là où un répertoire ne s'ouvre pas
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // système de fichiers sans synchronisation de répertoire
+        }
+    }
+
+    /**
+     * L'index journalier d'un compte est construit à sa première consultation, en remontant son historique hors verrou,
+     * puis tenu à jour à chaque ajout : le démarrage ne relit pas l'historique des comptes jamais consultés.
+     */
+    private DayIndex dayIndex(Account account) {
+        DayIndex dayIndex = account.dayIndex;
+        if (dayIndex != null) {
+            return dayIndex;
+        }
+        long indexedRecord = account.lastRecord;
+        dayIndex = new DayIndex();
+        for (long record : chronologicalRecords(indexedRecord, -1)) {
+            dayIndex.add(readOperation(record));
+        }
+        synchronized (this) {
+            if (account.dayIndex == null) {
+                // les opérations ajoutées pendant la construction
+                for (long record : chronologicalRecords(account.lastRecord, indexedRecord)) {
+                    dayIndex.add(readOperation(record));
+                }
+                account.dayIndex = dayIndex;
+            }
+            return account.dayIndex;
+        }
+    }
+
+    /**
+     * L'index des positions d'un compte est construit comme son index journalier : à la première recherche par période
+     * ou par page, puis tenu à jour à chaque ajout.
+     */
+    private RecordIndex recordIndex(Account account) {
+        RecordIndex recordIndex = account.recordIndex;
+        if (recordIndex != null) {
+            return recordIndex;
+        }
+        long indexedRecord = account.lastRecord;
+        recordIndex = new RecordIndex();
+        for (long record : chronologicalRecords(indexedRecord, -1)) {
+            recordIndex.add(record);
+        }
+        synchronized (this) {
+            if (account.recordIndex == null) {
+                for (long record : chronologicalRecords(account.lastRecord, indexedRecord)) {
+                    recordIndex.add(record);
+                }
+                account.recordIndex = recordIndex;
+            }
+            return account.recordIndex;
+        }
+    }
+
+    /**
+     * @return Les enregistrements de fromRecord inclus à untilRecord exclu, en remontant la chaîne du compte, dans l'ordre chronologique
+     */
+    private long[] chronologicalRecords(long fromRecord, long untilRecord) {
+        long[] records = new long[16];
+        int count = 0;
+        for (long record = fromRecord; record != untilRecord; record = previousRecord(record)) {
+            if (count == records.length) {
+                records = Arrays.copyOf(records, count << 1);
+            }
+            records[count++] = record;
+        }
+        long[] chronological = new long[count];
+        for (int index = 0; index < count; index++) {
+            chronological[index] = records[count - 1 - index];
+        }
+        return chronological;
+    }
+
+    // nombre d'opérations du compte datées au plus tard du jour epochDay, les dates étant croissantes
+    private int countUntil(RecordIndex recordIndex, int count, long epochDay) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (readEpochDay(recordIndex.record(middle)) <= epochDay) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void register(String clientId, Account account) {
+        accountsByIndex.add(account);
+        accounts.put(clientId, account);
+    }
+
+    private MappedByteBuffer mapSegment(int segmentIndex) throws IOException {
+        return mapSegment(directory.resolve(segmentName(segmentIndex)));
+    }
+
+    private MappedByteBuffer mapSegment(Path segment) throws IOException {
+        FileChannel channel = FileChannel.open(segment,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channels.add(channel);
+        return channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_SIZE);
+    }
+
+    private Path findSegment(int segmentIndex) {
+        Path segment = directory.resolve(segmentName(segmentIndex));
+        if (Files.exists(segment)) {
+            return segment;
+        }
+        Path archived = directory.resolve(ARCHIVE_DIRECTORY).resolve(segmentName(segmentIndex));
+        return Files.exists(archived) ? archived : null;
+    }
+
+    private static String segmentName(int segmentIndex) {
+        return String.format(SEGMENT_FILE, segmentIndex);
+    }
+
+    private long previousRecord(long record) {
+        return segments[(int) (record / recordsPerSegment)].getLong(offset(record) + 32);
+    }
+
+    private Operation readOperation(long record) {
+        return decode(segments[(int) (record / recordsPerSegment)], offset(record));
+    }
+
+    private int readEpochDay(long record) {
+        return segments[(int) (record / recordsPerSegment)].getInt(offset(record) + 8);
+    }
+
+    private int offset(long record) {
+        return (int) (record % recordsPerSegment) * RECORD_SIZE;
+    }
+
+    private static Operation decode(MappedByteBuffer segment, int offset) {
+        return new Operation(
+                LocalDate.ofEpochDay(segment.getInt(offset + 8)),
+                BigDecimal.valueOf(segment.getLong(offset + 16), segment.get(offset + 2)),
+                OPERATION_TYPES[segment.get(offset + 1)],
+                BigDecimal.valueOf(segment.getLong(offset + 24), segment.get(offset + 3)),
+                LocalTime.ofNanoOfDay(segment.getLong(offset + 40)),
+                segment.getLong(offset + 48));
+    }
+
+    /**
+     * @throws IllegalArgumentException si un montant ou un solde sort des limites d'un enregistrement
+     */
+    private static void checkEncodable(Operation operation) {
+        unscaled(operation.amount());
+        unscaled(operation.balance());
+    }
+
+    private static long unscaled(BigDecimal value) {
+        BigInteger unscaledValue = value.unscaledValue();
+        if (unscaledValue.bitLength() > 63 || value.scale() < Byte.MIN_VALUE || value.scale() > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Montant hors des limites du journal : " + value);
+        }
+        return unscaledValue.longValue();
+    }
+
+    private Account getAccount(String clientId) throws BankAccountNotFoundException {
+        Account account = accounts.get(clientId);
+        if (account == null) {
+            throw new BankAccountNotFoundException(String.format(ACCOUNT_NOT_FOUND, clientId));
+        }
+        return account;
+    }
+
+    // appelé sous verrou : un compte fermé entre sa recherche et l'ajout ne reçoit plus d'opération
+    private void checkOpen(String clientId, Account account) throws BankAccountNotFoundException {
+        if (accounts.get(clientId) != account) {
+            throw new BankAccountNotFoundException(String.format(ACCOUNT_NOT_FOUND, clientId));
+        }
+    }
+
+    private static final class Account {
+
+        private final int index;
+
+        private volatile long lastRecord = -1;
+
+        private volatile Operation last;
+
+        // construit à la première consultation du solde à une date ou des totaux d'une période
+        private volatile DayIndex dayIndex;
+
+        // construit à la première recherche par période ou par page
+        private volatile RecordIndex recordIndex;
+
+        private Account(int index) {
+            this.index = index;
+        }
+    }
+}
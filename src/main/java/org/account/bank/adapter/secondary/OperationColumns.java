@@ -0,0 +1,176 @@
+package org.account.bank.adapter.secondary;
+
+import org.account.bank.domain.Operation;
+import org.account.bank.domain.OperationType;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Historique d'un compte rangé en colonnes de types primitifs : 39 octets par opération
+ * (jour epoch, nanoseconde du jour, numéro de séquence, montant et solde en valeur non échelonnée + échelle, type), au lieu de plusieurs objets.
+ * Les {@link Operation} ne sont recréées qu'à la lecture.
+ * Même discipline que {@link OperationLog} : écritures sérialisées, lectures sans verrou.
+ */
+final class OperationColumns {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private static final OperationType[] OPERATION_TYPES = OperationType.values();
+
+    private volatile Columns columns = new Columns(INITIAL_CAPACITY);
+
+    private volatile int size;
+
+    private volatile Operation last;
+
+    private final DayIndex dayIndex = new DayIndex();
+
+    synchronized void append(Operation operation) {
+        int index = size;
+        ensureCapacity(index + 1).set(index, operation);
+        last = operation;
+        // l'index est à jour avant que l'opération ne soit publiée
+        dayIndex.add(operation);
+        size = index + 1;
+    }
+
+    synchronized void appendAll(List<Operation> operations) {
+        if (operations.isEmpty()) {
+            return;
+        }
+        int index = size;
+        Columns current = ensureCapacity(index + operations.size());
+        for (Operation operation : operations) {
+            current.set(index++, operation);
+        }
+        operations.forEach(dayIndex::add);
+        last = operations.get(operations.size() - 1);
+        size = index;
+    }
+
+    DayIndex dayIndex() {
+        return dayIndex;
+    }
+
+    Operation last() {
+        return last;
+    }
+
+    List<Operation> snapshot() {
+        // size est lu avant les colonnes : les colonnes lues contiennent au moins size éléments publiés
+        int count = size;
+        return new Snapshot(columns, count);
+    }
+
+    private Columns ensureCapacity(int capacity) {
+        Columns current = columns;
+        if (capacity > current.types.length) {
+            current = current.copyOf(Math.max(capacity, current.types.length << 1));
+            columns = current;
+        }
+        return current;
+    }
+
+    private static final class Columns {
+
+        private final int[] epochDays;
+
+        private final long[] nanosOfDay;
+
+        private final long[] sequences;
+
+        private final long[] amounts;
+
+        private final long[] balances;
+
+        private final byte[] amountScales;
+
+        private final byte[] balanceScales;
+
+        private final byte[] types;
+
+        private Columns(int capacity) {
+            this(new int[capacity], new long[capacity], new long[capacity], new long[capacity], new long[capacity], new byte[capacity], new byte[capacity], new byte[capacity]);
+        }
+
+        private Columns(int[] epochDays, long[] nanosOfDay, long[] sequences, long[] amounts, long[] balances, byte[] amountScales, byte[] balanceScales, byte[] types) {
+            this.epochDays = epochDays;
+            this.nanosOfDay = nanosOfDay;
+            this.sequences = sequences;
+            this.amounts = amounts;
+            this.balances = balances;
+            this.amountScales = amountScales;
+            this.balanceScales = balanceScales;
+            this.types = types;
+        }
+
+        private Columns copyOf(int capacity) {
+            return new Columns(Arrays.copyOf(epochDays, capacity), Arrays.copyOf(nanosOfDay, capacity), Arrays.copyOf(sequences, capacity),
+                    Arrays.copyOf(amounts, capacity), Arrays.copyOf(balances, capacity),
+                    Arrays.copyOf(amountScales, capacity), Arrays.copyOf(balanceScales, capacity), Arrays.copyOf(types, capacity));
+        }
+
+        private void set(int index, Operation operation) {
+            long amount = unscaled(operation.amount());
+            long balance = unscaled(operation.balance());
+            epochDays[index] = Math.toIntExact(operation.date().toEpochDay());
+            nanosOfDay[index] = operation.time().toNanoOfDay();
+            sequences[index] = operation.sequence();
+            amounts[index] = amount;
+            balances[index] = balance;
+            amountScales[index] = (byte) operation.amount().scale();
+            balanceScales[index] = (byte) operation.balance().scale();
+            types[index] = (byte) operation.operationType().ordinal();
+        }
+
+        private Operation get(int index) {
+            return new Operation(
+                    LocalDate.ofEpochDay(epochDays[index]),
+                    BigDecimal.valueOf(amounts[index], amountScales[index]),
+                    OPERATION_TYPES[types[index]],
+                    BigDecimal.valueOf(balances[index], balanceScales[index]),
+                    LocalTime.ofNanoOfDay(nanosOfDay[index]),
+                    sequences[index]);
+        }
+
+        private static long unscaled(BigDecimal value) {
+            BigInteger unscaledValue = value.unscaledValue();
+            if (unscaledValue.bitLength() > 63 || value.scale() < Byte.MIN_VALUE || value.scale() > Byte.MAX_VALUE) {
+                throw new IllegalArgumentException("Montant hors des limites du stockage en colonnes : " + value);
+            }
+            return unscaledValue.longValue();
+        }
+    }
+
+    private static final class Snapshot extends AbstractList<Operation> implements RandomAccess {
+
+        private final Columns columns;
+
+        private final int size;
+
+        private Snapshot(Columns columns, int size) {
+            this.columns = columns;
+            this.size = size;
+        }
+
+        @Override
+        public Operation get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return columns.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.account.bank.adapter.secondary;
+
+import org.account.bank.domain.Operation;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Journal des opérations d'un compte, en ajout seul.
+ * Les écritures sont sérialisées sur l'instance, les lectures ne prennent aucun verrou :
+ * une case publiée (index &lt; size) n'est plus jamais modifiée.
+ */
+final class OperationLog {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private volatile Operation[] operations = new Operation[INITIAL_CAPACITY];
+
+    private volatile int size;
+
+    private final DayIndex dayIndex = new DayIndex();
+
+    synchronized void append(Operation operation) {
+        int index = size;
+        Operation[] current = ensureCapacity(index + 1);
+        current[index] = operation;
+        // l'index est à jour avant que l'opération ne soit publiée
+        dayIndex.add(operation);
+        size = index + 1;
+    }
+
+    synchronized void appendAll(List<Operation> newOperations) {
+        int index = size;
+        Operation[] current = ensureCapacity(index + newOperations.size());
+        for (Operation operation : newOperations) {
+            current[index++] = operation;
+        }
+        newOperations.forEach(dayIndex::add);
+        size = index;
+    }
+
+    DayIndex dayIndex() {
+        return dayIndex;
+    }
+
+    Operation last() {
+        int count = size;
+        return count == 0 ? null : operations[count - 1];
+    }
+
+    int size() {
+        return size;
+    }
+
+    List<Operation> snapshot() {
+        // size est lu avant le tableau : le tableau lu contient donc au moins size éléments publiés
+        int count = size;
+        return new Snapshot(operations, count);
+    }
+
+    private Operation[] ensureCapacity(int capacity) {
+        Operation[] current = operations;
+        if (capacity > current.length) {
+            current = Arrays.copyOf(current, Math.max(capacity, current.length << 1));
+            operations = current;
+        }
+        return current;
+    }
+
+    private static final class Snapshot extends AbstractList<Operation> implements RandomAccess {
+
+        private final Operation[] operations;
+
+        private final int size;
+
+        private Snapshot(Operation[] operations, int size) {
+            this.operations = operations;
+            this.size = size;
+        }
+
+        @Override
+        public Operation get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return operations[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
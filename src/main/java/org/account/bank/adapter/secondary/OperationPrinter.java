@@ -5,8 +5,11 @@ import org.account.bank.domain.Operation;
 import org.account.bank.domain.OperationType;
 import org.account.bank.domain.port.secondary.IOperationPrinter;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Iterator;
 import java.util.List;
 
 public class OperationPrinter implements IOperationPrinter {
@@ -17,20 +20,38 @@ public class OperationPrinter implements IOperationPrinter {
     public String print(List<Operation> operations, String clientId) {
 
         StringBuilder output = new StringBuilder();
-        output.append(header);
-        output.append("\n");
+        try {
+            print(operations.iterator(), clientId, output);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return output.toString();
+    }
+
+    @Override
+    public void print(Iterator<Operation> operations, String clientId, Appendable output) throws IOException {
 
-        for (Operation operation : operations) {
-            OperationType operationType = operation.operationType();
-            BigDecimal amount = operation.amount();
-            LocalDate date = operation.date();
+        output.append(header(clientId));
 
-            output.append(clientId).append(" | ").append(operationType).append(" | ")
-                    .append(amount).append(" | ").append(date);
-            output.append("\n");
+        while (operations.hasNext()) {
+            printLine(operations.next(), clientId, output);
         }
+    }
 
-        return output.toString();
+    @Override
+    public String header(String clientId) {
+        return header + "\n";
     }
-}
 
+    @Override
+    public void printLine(Operation operation, String clientId, Appendable output) throws IOException {
+        OperationType operationType = operation.operationType();
+        BigDecimal amount = operation.amount();
+        LocalDate date = operation.date();
+
+        output.append(clientId).append(" | ").append(operationType.name()).append(" | ")
+                .append(amount.toString()).append(" | ").append(date.toString());
+        output.append("\n");
+    }
+}
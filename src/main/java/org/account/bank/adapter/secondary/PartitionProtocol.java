@@ -0,0 +1,127 @@
+package org.account.bank.adapter.secondary;
+
+import org.account.bank.domain.Operation;
+import org.account.bank.domain.OperationType;
+import org.account.bank.domain.PeriodTotals;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Protocole binaire entre {@link RemoteAccountRepository} et {@link PartitionServer}.
+ * <p>
+ * Requête : un octet de commande suivi de ses arguments. Réponse : un octet de statut, suivi du résultat
+ * si le statut est {@link #OK}, sinon du message de l'erreur. Les montants sont transmis sans perte
+ * (échelle et valeur non mise à l'échelle complète).
+ */
+final class PartitionProtocol {
+
+    static final byte FIND_LAST_OPERATION = 1;
+
+    static final byte ADD_OPERATION = 2;
+
+    static final byte ADD_OPERATIONS = 3;
+
+    static final byte FIND_OPERATIONS = 4;
+
+    static final byte FIND_OPERATIONS_BETWEEN = 5;
+
+    static final byte FIND_OPERATIONS_PAGE = 6;
+
+    static final byte FIND_BALANCE_AT = 7;
+
+    static final byte FIND_TOTALS_BETWEEN = 8;
+
+    static final byte ADD_CLIENT = 9;
+
+    static final byte REMOVE_CLIENT = 10;
+
+    static final byte FIND_ALL_CLIENT_IDS = 11;
+
+    static final byte OK = 0;
+
+    static final byte ACCOUNT_NOT_FOUND = 1;
+
+    static final byte UNSUPPORTED = 2;
+
+    static final byte ERROR = 3;
+
+    private static final OperationType[] OPERATION_TYPES = OperationType.values();
+
+    private PartitionProtocol() {
+    }
+
+    static void writeOperation(DataOutputStream output, Operation operation) throws IOException {
+        writeDate(output, operation.date());
+        writeDecimal(output, operation.amount());
+        output.writeByte(operation.operationType().ordinal());
+        writeDecimal(output, operation.balance());
+        output.writeLong(operation.time().toNanoOfDay());
+        output.writeLong(operation.sequence());
+    }
+
+    static Operation readOperation(DataInputStream input) throws IOException {
+        return new Operation(
+                readDate(input),
+                readDecimal(input),
+                OPERATION_TYPES[input.readUnsignedByte()],
+                readDecimal(input),
+                LocalTime.ofNanoOfDay(input.readLong()),
+                input.readLong());
+    }
+
+    static void writeOperations(DataOutputStream output, List<Operation> operations) throws IOException {
+        output.writeInt(operations.size());
+        for (Operation operation : operations) {
+            writeOperation(output, operation);
+        }
+    }
+
+    static List<Operation> readOperations(DataInputStream input) throws IOException {
+        int size = input.readInt();
+        List<Operation> operations = new ArrayList<>(size);
+        for (int index = 0; index < size; index++) {
+            operations.add(readOperation(input));
+        }
+        return operations;
+    }
+
+    static void writeTotals(DataOutputStream output, PeriodTotals totals) throws IOException {
+        writeDecimal(output, totals.credits());
+        writeDecimal(output, totals.debits());
+        output.writeLong(totals.count());
+    }
+
+    static PeriodTotals readTotals(DataInputStream input) throws IOException {
+        return new PeriodTotals(readDecimal(input), readDecimal(input), input.readLong());
+    }
+
+    static void writeDecimal(DataOutputStream output, BigDecimal value) throws IOException {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        output.writeInt(value.scale());
+        output.writeShort(unscaled.length);
+        output.write(unscaled);
+    }
+
+    static BigDecimal readDecimal(DataInputStream input) throws IOException {
+        int scale = input.readInt();
+        byte[] unscaled = new byte[input.readUnsignedShort()];
+        input.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    static void writeDate(DataOutputStream output, LocalDate date) throws IOException {
+        output.writeLong(date.toEpochDay());
+    }
+
+    static LocalDate readDate(DataInputStream input) throws IOException {
+        return LocalDate.ofEpochDay(input.readLong());
+    }
+}
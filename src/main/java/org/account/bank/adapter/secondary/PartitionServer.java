@@ -0,0 +1,212 @@
+package org.account.bank.adapter.secondary;
+
+import org.account.bank.domain.Operation;
+import org.account.bank.domain.PeriodTotals;
+import org.account.bank.domain.exception.BankAccountNotFoundException;
+import org.account.bank.domain.port.secondary.IAccountRepository;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Expose un {@link IAccountRepository} aux {@link RemoteAccountRepository} sur l'interface de bouclage :
+ * une partition d'un {@link ShardedAccountRepository} tenue par un autre processus, à défaut d'une autre machine.
+ * <p>
+ * Un thread virtuel par connexion, qui traite ses requêtes l'une après l'autre.
+ * Lancé seul ({@link #main}), le serveur écrit son port sur la sortie standard et s'arrête à la fin de l'entrée standard.
+ */
+public class PartitionServer implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final IAccountRepository accountRepository;
+
+    private final ServerSocket serverSocket;
+
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param accountRepository : le référentiel de la partition
+     * @param port              : le port d'écoute, 0 pour un port libre quelconque
+     */
+    public PartitionServer(IAccountRepository accountRepository, int port) throws IOException {
+        this.accountRepository = accountRepository;
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::accept, "partition-server-" + serverSocket.getLocalPort());
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @param args : le port d'écoute (0 par défaut), puis le type de référentiel, {@code concurrent} (par défaut) ou {@code columnar}
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        IAccountRepository accountRepository = args.length > 1 && args[1].equals("columnar")
+                ? new ColumnarAccountRepository()
+                : new ConcurrentAccountRepository();
+        try (PartitionServer server = new PartitionServer(accountRepository, port)) {
+            System.out.println(server.port());
+            System.out.flush();
+            InputStream input = System.in;
+            while (input.read() >= 0) {
+                // le processus parent garde l'entrée standard ouverte tant que la partition doit vivre
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket connection : connections) {
+            connection.close();
+        }
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket connection = serverSocket.accept();
+                connection.setTcpNoDelay(true);
+                connections.add(connection);
+                Thread.ofVirtual().name("partition-connection-" + connection.getPort()).start(() -> serve(connection));
+            } catch (IOException e) {
+                // serveur fermé, ou connexion refusée : on continue tant que le serveur est ouvert
+            }
+        }
+    }
+
+    private void serve(Socket connection) {
+        try (connection;
+             DataInputStream input = new DataInputStream(new BufferedInputStream(connection.getInputStream(), BUFFER_SIZE));
+             DataOutputStream output = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream(), BUFFER_SIZE))) {
+            int command;
+            while ((command = input.read()) >= 0) {
+                if (!handle((byte) command, input, output)) {
+                    return;
+                }
+                output.flush();
+            }
+        } catch (EOFException e) {
+            // client parti au milieu d'une requête
+        } catch (IOException e) {
+            // connexion coupée ou serveur fermé
+        } finally {
+            connections.remove(connection);
+        }
+    }
+
+    /**
+     * Lit les arguments de la commande, l'exécute et écrit la réponse.
+     *
+     * @return false si la commande est inconnue : la suite du flux est illisible et la connexion doit être fermée
+     */
+    private boolean handle(byte command, DataInputStream input, DataOutputStream output) throws IOException {
+        try {
+            switch (command) {
+                case PartitionProtocol.FIND_LAST_OPERATION -> {
+                    Optional<Operation> last = accountRepository.findLastOperationByClientId(input.readUTF());
+                    output.writeByte(PartitionProtocol.OK);
+                    output.writeBoolean(last.isPresent());
+                    if (last.isPresent()) {
+                        PartitionProtocol.writeOperation(output, last.get());
+                    }
+                }
+                case PartitionProtocol.ADD_OPERATION -> {
+                    String clientId = input.readUTF();
+                    accountRepository.addOperation(clientId, PartitionProtocol.readOperation(input));
+                    output.writeByte(PartitionProtocol.OK);
+                }
+                case PartitionProtocol.ADD_OPERATIONS -> {
+                    String clientId = input.readUTF();
+                    accountRepository.addOperations(clientId, PartitionProtocol.readOperations(input));
+                    output.writeByte(PartitionProtocol.OK);
+                }
+                case PartitionProtocol.FIND_OPERATIONS -> writeResult(output, accountRepository.findOperationsByClientId(input.readUTF()));
+                case PartitionProtocol.FIND_OPERATIONS_BETWEEN -> {
+                    String clientId = input.readUTF();
+                    LocalDate from = PartitionProtocol.readDate(input);
+                    LocalDate to = PartitionProtocol.readDate(input);
+                    writeResult(output, accountRepository.findOperationsBetween(clientId, from, to));
+                }
+                case PartitionProtocol.FIND_OPERATIONS_PAGE -> {
+                    String clientId = input.readUTF();
+                    int page = input.readInt();
+                    int size = input.readInt();
+                    writeResult(output, accountRepository.findOperationsPage(clientId, page, size));
+                }
+                case PartitionProtocol.FIND_BALANCE_AT -> {
+                    String clientId = input.readUTF();
+                    BigDecimal balance = accountRepository.findBalanceAt(clientId, PartitionProtocol.readDate(input));
+                    output.writeByte(PartitionProtocol.OK);
+                    PartitionProtocol.writeDecimal(output, balance);
+                }
+                case PartitionProtocol.FIND_TOTALS_BETWEEN -> {
+                    String clientId = input.readUTF();
+                    LocalDate from = PartitionProtocol.readDate(input);
+                    LocalDate to = PartitionProtocol.readDate(input);
+                    PeriodTotals totals = accountRepository.findTotalsBetween(clientId, from, to);
+                    output.writeByte(PartitionProtocol.OK);
+                    PartitionProtocol.writeTotals(output, totals);
+                }
+                case PartitionProtocol.ADD_CLIENT -> {
+                    accountRepository.addClient(input.readUTF());
+                    output.writeByte(PartitionProtocol.OK);
+                }
+                case PartitionProtocol.REMOVE_CLIENT -> {
+                    accountRepository.removeClient(input.readUTF());
+                    output.writeByte(PartitionProtocol.OK);
+                }
+                case PartitionProtocol.FIND_ALL_CLIENT_IDS -> {
+                    Set<String> clientIds = accountRepository.findAllClientIds();
+                    output.writeByte(PartitionProtocol.OK);
+                    output.writeInt(clientIds.size());
+                    for (String clientId : clientIds) {
+                        output.writeUTF(clientId);
+                    }
+                }
+                default -> {
+                    writeError(output, PartitionProtocol.ERROR, "Commande inconnue : " + command);
+                    output.flush();
+                    return false;
+                }
+            }
+        } catch (BankAccountNotFoundException e) {
+            writeError(output, PartitionProtocol.ACCOUNT_NOT_FOUND, e.getMessage());
+        } catch (UnsupportedOperationException e) {
+            writeError(output, PartitionProtocol.UNSUPPORTED, e.getMessage());
+        } catch (RuntimeException e) {
+            writeError(output, PartitionProtocol.ERROR, e.toString());
+        }
+        return true;
+    }
+
+    private static void writeResult(DataOutputStream output, List<Operation> operations) throws IOException {
+        output.writeByte(PartitionProtocol.OK);
+        PartitionProtocol.writeOperations(output, operations);
+    }
+
+    private static void writeError(DataOutputStream output, byte status, String message) throws IOException {
+        output.writeByte(status);
+        output.writeUTF(String.valueOf(message));
+    }
+}
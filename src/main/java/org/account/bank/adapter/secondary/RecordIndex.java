@@ -0,0 +1,41 @@
+package org.account.bank.adapter.secondary;
+
+import java.util.Arrays;
+
+/**
+ * Positions des enregistrements d'un compte dans le journal, dans l'ordre d'ajout : la k-ième opération du compte
+ * se lit directement, sans remonter la chaîne des enregistrements qui la suivent.
+ * Les ajouts sont sérialisés par le journal qui le porte, les lectures ne prennent aucun verrou :
+ * une case publiée (index &lt; size) n'est plus jamais modifiée.
+ */
+final class RecordIndex {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private volatile long[] records = new long[INITIAL_CAPACITY];
+
+    private volatile int size;
+
+    void add(long record) {
+        int index = size;
+        long[] current = records;
+        if (index == current.length) {
+            current = Arrays.copyOf(current, index << 1);
+            records = current;
+        }
+        current[index] = record;
+        size = index + 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param index : un rang inférieur à une taille lue auparavant
+     */
+    long record(int index) {
+        // le tableau lu après la taille contient au moins size positions publiées
+        return records[index];
+    }
+}
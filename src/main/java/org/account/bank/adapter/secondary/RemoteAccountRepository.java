@@ -0,0 +1,259 @@
+package org.account.bank.adapter.secondary;
+
+import org.account.bank.domain.Operation;
+import org.account.bank.domain.PeriodTotals;
+import org.account.bank.domain.exception.BankAccountNotFoundException;
+import org.account.bank.domain.port.secondary.IAccountRepository;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Référentiel tenu par un {@link PartitionServer}, éventuellement dans un autre processus.
+ * <p>
+ * Jusqu'à {@code maxConnections} connexions sont ouvertes à la demande et réutilisées : chaque appel en emprunte une
+ * pour la durée d'un aller-retour. Une connexion coupée est abandonnée et l'appel échoue ({@link UncheckedIOException}) ;
+ * il n'est pas rejoué, une écriture ayant pu être appliquée.
+ */
+public class RemoteAccountRepository implements IAccountRepository, Closeable {
+
+    static final int DEFAULT_MAX_CONNECTIONS = 8;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final InetSocketAddress address;
+
+    private final Semaphore connectionPermits;
+
+    private final ConcurrentLinkedQueue<Connection> idleConnections = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean closed;
+
+    /**
+     * @param port : le port d'un {@link PartitionServer} local
+     */
+    public RemoteAccountRepository(int port) {
+        this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), DEFAULT_MAX_CONNECTIONS);
+    }
+
+    public RemoteAccountRepository(InetSocketAddress address, int maxConnections) {
+        if (maxConnections <= 0) {
+            throw new IllegalArgumentException("Nombre de connexions invalide : " + maxConnections);
+        }
+        this.address = address;
+        this.connectionPermits = new Semaphore(maxConnections);
+    }
+
+    @Override
+    public Optional<Operation> findLastOperationByClientId(String clientId) throws BankAccountNotFoundException {
+        return call(PartitionProtocol.FIND_LAST_OPERATION,
+                output -> output.writeUTF(clientId),
+                input -> input.readBoolean() ? Optional.of(PartitionProtocol.readOperation(input)) : Optional.empty());
+    }
+
+    @Override
+    public void addOperation(String clientId, Operation operation) throws BankAccountNotFoundException {
+        call(PartitionProtocol.ADD_OPERATION, output -> {
+            output.writeUTF(clientId);
+            PartitionProtocol.writeOperation(output, operation);
+        }, input -> null);
+    }
+
+    @Override
+    public void addOperations(String clientId, List<Operation> operations) throws BankAccountNotFoundException {
+        call(PartitionProtocol.ADD_OPERATIONS, output -> {
+            output.writeUTF(clientId);
+            PartitionProtocol.writeOperations(output, operations);
+        }, input -> null);
+    }
+
+    @Override
+    public List<Operation> findOperationsByClientId(String clientId) throws BankAccountNotFoundException {
+        return call(PartitionProtocol.FIND_OPERATIONS,
+                output -> output.writeUTF(clientId),
+                input -> List.copyOf(PartitionProtocol.readOperations(input)));
+    }
+
+    @Override
+    public List<Operation> findOperationsBetween(String clientId, LocalDate from, LocalDate to) throws BankAccountNotFoundException {
+        return call(PartitionProtocol.FIND_OPERATIONS_BETWEEN, output -> {
+            output.writeUTF(clientId);
+            PartitionProtocol.writeDate(output, from);
+            PartitionProtocol.writeDate(output, to);
+        }, input -> List.copyOf(PartitionProtocol.readOperations(input)));
+    }
+
+    @Override
+    public List<Operation> findOperationsPage(String clientId, int page, int size) throws BankAccountNotFoundException {
+        return call(PartitionProtocol.FIND_OPERATIONS_PAGE, output -> {
+            output.writeUTF(clientId);
+            output.writeInt(page);
+            output.writeInt(size);
+        }, input -> List.copyOf(PartitionProtocol.readOperations(input)));
+    }
+
+    @Override
+    public BigDecimal findBalanceAt(String clientId, LocalDate date) throws BankAccountNotFoundException {
+        return call(PartitionProtocol.FIND_BALANCE_AT, output -> {
+            output.writeUTF(clientId);
+            PartitionProtocol.writeDate(output, date);
+        }, PartitionProtocol::readDecimal);
+    }
+
+    @Override
+    public PeriodTotals findTotalsBetween(String clientId, LocalDate from, LocalDate to) throws BankAccountNotFoundException {
+        return call(PartitionProtocol.FIND_TOTALS_BETWEEN, output -> {
+            output.writeUTF(clientId);
+            PartitionProtocol.writeDate(output, from);
+            PartitionProtocol.writeDate(output, to);
+        }, PartitionProtocol::readTotals);
+    }
+
+    @Override
+    public void addClient(String clientId) {
+        try {
+            call(PartitionProtocol.ADD_CLIENT, output -> output.writeUTF(clientId), input -> null);
+        } catch (BankAccountNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void removeClient(String clientId) throws BankAccountNotFoundException {
+        call(PartitionProtocol.REMOVE_CLIENT, output -> output.writeUTF(clientId), input -> null);
+    }
+
+    @Override
+    public Set<String> findAllClientIds() {
+        try {
+            return call(PartitionProtocol.FIND_ALL_CLIENT_IDS, output -> {
+            }, input -> {
+                int size = input.readInt();
+                Set<String> clientIds = new HashSet<>(size * 2);
+                for (int index = 0; index < size; index++) {
+                    clientIds.add(input.readUTF());
+                }
+                return Set.copyOf(clientIds);
+            });
+        } catch (BankAccountNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        Connection connection;
+        while ((connection = idleConnections.poll()) != null) {
+            connection.close();
+        }
+    }
+
+    private <T> T call(byte command, Request request, Response<T> response) throws BankAccountNotFoundException {
+        Connection connection = acquire();
+        boolean reusable = false;
+        byte status;
+        T result = null;
+        String message = null;
+        try {
+            connection.output.writeByte(command);
+            request.write(connection.output);
+            connection.output.flush();
+            status = connection.input.readByte();
+            if (status == PartitionProtocol.OK) {
+                result = response.read(connection.input);
+            } else {
+                message = connection.input.readUTF();
+            }
+            reusable = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Partition injoignable : " + address, e);
+        } finally {
+            release(connection, reusable);
+        }
+        return switch (status) {
+            case PartitionProtocol.OK -> result;
+            case PartitionProtocol.ACCOUNT_NOT_FOUND -> throw new BankAccountNotFoundException(message);
+            case PartitionProtocol.UNSUPPORTED -> throw new UnsupportedOperationException(message);
+            default -> throw new IllegalStateException("Erreur de la partition " + address + " : " + message);
+        };
+    }
+
+    private Connection acquire() {
+        if (closed) {
+            throw new IllegalStateException("Référentiel distant fermé : " + address);
+        }
+        connectionPermits.acquireUninterruptibly();
+        Connection connection = idleConnections.poll();
+        if (connection != null) {
+            return connection;
+        }
+        try {
+            return new Connection(address);
+        } catch (IOException e) {
+            connectionPermits.release();
+            throw new UncheckedIOException("Partition injoignable : " + address, e);
+        }
+    }
+
+    private void release(Connection connection, boolean reusable) {
+        if (reusable && !closed) {
+            idleConnections.offer(connection);
+        } else {
+            connection.close();
+        }
+        connectionPermits.release();
+    }
+
+    @FunctionalInterface
+    private interface Request {
+
+        void write(DataOutputStream output) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Response<T> {
+
+        T read(DataInputStream input) throws IOException;
+    }
+
+    private static final class Connection {
+
+        private final Socket socket;
+
+        private final DataInputStream input;
+
+        private final DataOutputStream output;
+
+        private Connection(InetSocketAddress address) throws IOException {
+            this.socket = new Socket(address.getAddress(), address.getPort());
+            socket.setTcpNoDelay(true);
+            this.input = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE));
+            this.output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE));
+        }
+
+        private void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // connexion déjà perdue
+            }
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package org.account.bank.adapter.secondary;
+
+import org.account.bank.domain.Operation;
+import org.account.bank.domain.PeriodTotals;
+import org.account.bank.domain.SubLedgers;
+import org.account.bank.domain.exception.BankAccountNotFoundException;
+import org.account.bank.domain.port.secondary.IAccountRepository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Référentiel réparti : chaque compte est rangé dans une partition choisie par hachage cohérent de son identifiant
+ * ({@link ConsistentHashRing}). Une partition est n'importe quel {@link IAccountRepository}, en mémoire dans ce
+ * processus ou dans un autre processus joint par {@link RemoteAccountRepository}.
+ * <p>
+ * L'ajout d'une partition déplace les comptes qui lui reviennent désormais : leur historique est recopié
+ * puis fermé dans l'ancienne partition ({@link IAccountRepository#removeClient}). Chaque appel prend en lecture
+ * le verrou de la bande de son compte, le rééquilibrage prend toutes les bandes en écriture :
+ * les appels attendent la fin du déplacement au lieu de voir un compte à moitié recopié.
+ * Les sous-comptes d'un compte chaud ({@link SubLedgers}) sont rangés avec lui, par hachage du compte chaud :
+ * la vue fusionnée et les retraits qui verrouillent tous les sous-comptes ne s'étendent jamais sur deux partitions.
+ * <p>
+ * Un déplacement qui échoue annule le rééquilibrage : les comptes déjà déplacés reviennent à leur partition d'origine
+ * et la partition est retirée de l'anneau.
+ */
+public class ShardedAccountRepository implements IAccountRepository, Closeable {
+
+    static final int DEFAULT_VIRTUAL_NODES = 128;
+
+    private static final int STRIPES = 64;
+
+    private static final String NO_PARTITION = "Aucune partition";
+
+    private static final String DUPLICATE_PARTITION = "Partition déjà présente : %s";
+
+    private final ConsistentHashRing ring;
+
+    private final Map<String, IAccountRepository> partitions = new LinkedHashMap<>();
+
+    private final ReentrantReadWriteLock[] stripes = new ReentrantReadWriteLock[STRIPES];
+
+    private final SubLedgers subLedgers;
+
+    public ShardedAccountRepository() {
+        this(DEFAULT_VIRTUAL_NODES);
+    }
+
+    public ShardedAccountRepository(int virtualNodes) {
+        this(virtualNodes, null);
+    }
+
+    /**
+     * @param subLedgers : les comptes chauds dont les sous-comptes suivent leur compte d'une partition à l'autre, ou null
+     */
+    public ShardedAccountRepository(int virtualNodes, SubLedgers subLedgers) {
+        this.ring = new ConsistentHashRing(virtualNodes);
+        this.subLedgers = subLedgers;
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            stripes[stripe] = new ReentrantReadWriteLock();
+        }
+    }
+
+    /**
+     * Ajoute une partition à l'anneau et y déplace les comptes qui lui reviennent ; les comptes que la partition
+     * contient déjà et qui reviennent à une autre partition y sont déplacés aussi.
+     *
+     * @param name      : le nom de la partition, qui fixe sa place dans l'anneau
+     * @param partition : le référentiel de la partition, dont le cycle de vie est confié à ce référentiel
+     * @return Le nombre de comptes déplacés
+     * @throws IllegalStateException si un déplacement échoue : le référentiel est remis dans son état d'avant l'appel
+     */
+    public int addPartition(String name, IAccountRepository partition) {
+        lockAll(false);
+        try {
+            if (partitions.containsKey(name)) {
+                throw new IllegalArgumentException(String.format(DUPLICATE_PARTITION, name));
+            }
+            partitions.put(name, partition);
+            ring.add(name);
+            List<Move> done = new ArrayList<>();
+            try {
+                for (Move move : plan()) {
+                    move(move.clientId(), move.source(), move.target());
+                    done.add(move);
+                }
+            } catch (RuntimeException e) {
+                rollback(name, done, e);
+                throw e;
+            }
+            return done.size();
+        } finally {
+            unlockAll(false);
+        }
+    }
+
+    /**
+     * @return Le nom de la partition du compte
+     */
+    public String partitionOf(String clientId) {
+        Lock lock = readLock(clientId);
+        lock.lock();
+        try {
+            return partitionName(clientId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Operation> findLastOperationByClientId(String clientId) throws BankAccountNotFoundException {
+        Lock lock = readLock(clientId);
+        lock.lock();
+        try {
+            return partition(clientId).findLastOperationByClientId(clientId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void addOperation(String clientId, Operation operation) throws BankAccountNotFoundException {
+        Lock lock = readLock(clientId);
+        lock.lock();
+        try {
+            partition(clientId).addOperation(clientId, operation);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void addOperations(String clientId, List<Operation> operations) throws BankAccountNotFoundException {
+        Lock lock = readLock(clientId);
+        lock.lock();
+        try {
+            partition(clientId).addOperations(clientId, operations);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Operation> findOperationsByClientId(String clientId) throws BankAccountNotFoundException {
+        Lock lock = readLock(clientId);
+        lock.lock();
+        try {
+            return partition(clientId).findOperationsByClientId(clientId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Iterator<Operation> iterateOperationsNewestFirst(String clientId) throws BankAccountNotFoundException {
+        Lock lock = readLock(clientId);
+        lock.lock();
+        try {
+            return partition(clientId).iterateOperationsNewestFirst(clientId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Operation> findOperationsBetween(String clientId, LocalDate from, LocalDate to) throws BankAccountNotFoundException {
+        Lock lock = readLock(clientId);
+        lock.lock();
+        try {
+            return partition(clientId).findOperationsBetween(clientId, from, to);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Operation> findOperationsPage(String clientId, int page, int size) throws BankAccountNotFoundException {
+        Lock lock = readLock(clientId);
+        lock.lock();
+        try {
+            return partition(clientId).findOperationsPage(clientId, page, size);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public BigDecimal findBalanceAt(String clientId, LocalDate date) throws BankAccountNotFoundException {
+        Lock lock = readLock(clientId);
+        lock.lock();
+        try {
+            return partition(clientId).findBalanceAt(clientId, date);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public PeriodTotals findTotalsBetween(String clientId, LocalDate from, LocalDate to) throws BankAccountNotFoundException {
+        Lock lock = readLock(clientId);
+        lock.lock();
+        try {
+            return partition(clientId).findTotalsBetween(clientId, from, to);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void addClient(String clientId) {
+        Lock lock = readLock(clientId);
+        lock.lock();
+        try {
+            partition(clientId).addClient(clientId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void removeClient(String clientId) throws BankAccountNotFoundException {
+        Lock lock = readLock(clientId);
+        lock.lock();
+        try {
+            partition(clientId).removeClient(clientId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Set<String> findAllClientIds() {
+        lockAll(true);
+        try {
+            Set<String> clientIds = new HashSet<>();
+            for (IAccountRepository partition : partitions.values()) {
+                clientIds.addAll(partition.findAllClientIds());
+            }
+            return Set.copyOf(clientIds);
+        } finally {
+            unlockAll(true);
+        }
+    }
+
+    /**
+     * Ferme les partitions qui doivent l'être, par exemple les connexions aux partitions distantes.
+     */
+    @Override
+    public void close() throws IOException {
+        lockAll(false);
+        try {
+            for (IAccountRepository partition : partitions.values()) {
+                if (partition instanceof Closeable closeable) {
+                    closeable.close();
+                }
+            }
+        } finally {
+            unlockAll(false);
+        }
+    }
+
+    // déplacements calculés d'après l'anneau complet, avant d'en exécuter aucun
+    private List<Move> plan() {
+        List<Move> moves = new ArrayList<>();
+        for (Map.Entry<String, IAccountRepository> source : partitions.entrySet()) {
+            for (String clientId : source.getValue().findAllClientIds()) {
+                String owner = ring.partitionOf(routingKey(clientId));
+                if (!owner.equals(source.getKey())) {
+                    moves.add(new Move(clientId, source.getValue(), partitions.get(owner)));
+                }
+            }
+        }
+        return moves;
+    }
+
+    // ramène les comptes déjà déplacés, du plus récent au plus ancien, puis retire la partition
+    private void rollback(String name, List<Move> done, RuntimeException cause) {
+        for (int index = done.size() - 1; index >= 0; index--) {
+            Move move = done.get(index);
+            try {
+                move(move.clientId(), move.target(), move.source());
+            } catch (RuntimeException e) {
+                cause.addSuppressed(e);
+            }
+        }
+        ring.remove(name);
+        partitions.remove(name);
+    }
+
+    private static void move(String clientId, IAccountRepository source, IAccountRepository target) {
+        List<Operation> operations;
+        try {
+            operations = source.findOperationsByClientId(clientId);
+        } catch (BankAccountNotFoundException e) {
+            throw new IllegalStateException("Compte disparu pendant le rééquilibrage : " + clientId, e);
+        }
+        // recopie avant fermeture : un échec en cours de route retire la copie et laisse le compte dans sa partition d'origine
+        try {
+            target.addClient(clientId);
+            if (!operations.isEmpty()) {
+                target.addOperations(clientId, List.copyOf(operations));
+            }
+            source.removeClient(clientId);
+        } catch (BankAccountNotFoundException | RuntimeException e) {
+            IllegalStateException failure = new IllegalStateException("Déplacement impossible : " + clientId, e);
+            try {
+                target.removeClient(clientId);
+            } catch (BankAccountNotFoundException | RuntimeException removal) {
+                failure.addSuppressed(removal);
+            }
+            throw failure;
+        }
+    }
+
+    private String partitionName(String clientId) {
+        String name = ring.partitionOf(routingKey(clientId));
+        if (name == null) {
+            throw new IllegalStateException(NO_PARTITION);
+        }
+        return name;
+    }
+
+    private String routingKey(String clientId) {
+        return subLedgers == null ? clientId : subLedgers.accountOf(clientId);
+    }
+
+    private IAccountRepository partition(String clientId) {
+        return partitions.get(partitionName(clientId));
+    }
+
+    private Lock readLock(String clientId) {
+        int hash = clientId.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)].readLock();
+    }
+
+    private void lockAll(boolean read) {
+        for (ReentrantReadWriteLock stripe : stripes) {
+            (read ? stripe.readLock() : stripe.writeLock()).lock();
+        }
+    }
+
+    private void unlockAll(boolean read) {
+        for (int stripe = STRIPES - 1; stripe >= 0; stripe--) {
+            (read ? stripes[stripe].readLock() : stripes[stripe].writeLock()).unlock();
+        }
+    }
+
+    private record Move(String clientId, IAccountRepository source, IAccountRepository target) {
+    }
+}
@@ -0,0 +1,741 @@
+package org.account.bank.adapter.secondary;
+
+import org.account.bank.domain.Operation;
+import org.account.bank.domain.PeriodTotals;
+import org.account.bank.domain.exception.BankAccountNotFoundException;
+import org.account.bank.domain.port.secondary.IAccountRepository;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Référentiel à deux niveaux : les opérations récentes des comptes actifs restent en mémoire, l'historique plus ancien
+ * et les comptes inactifs sont déversés dans des segments sur disque, en blocs compressés ({@link ColdBlockCodec}).
+ * <p>
+ * La dernière opération de chaque compte reste en mémoire : dépôts et retraits ne lisent jamais le disque, seul le déversement y écrit.
+ * Au-delà de {@code maxHotOperationsPerAccount} opérations en mémoire, la plus ancienne moitié d'un compte est déversée ;
+ * au-delà de {@code maxHotOperations} pour l'ensemble des comptes, les comptes les moins récemment écrits le sont en entier.
+ * Cet ordre est approché sans verrou commun aux écritures : chaque compte note l'heure de sa dernière écriture, et le déversement
+ * retient le plus ancien d'un échantillon de {@value #SPILL_SAMPLE} comptes en mémoire, pris au fil d'un parcours circulaire des comptes.
+ * La mémoire occupée dépend du nombre de comptes, presque plus de la longueur des historiques.
+ * <p>
+ * Les blocs d'un compte sont fusionnés deux à deux lorsqu'ils atteignent la même taille, jusqu'à {@value #MAX_MERGED_OPERATIONS}
+ * opérations : au-delà, réécrire un bloc coûterait plus aux dépôts qu'il ne fait gagner. Un compte garde ainsi quelques blocs,
+ * plus un par tranche de {@value #MAX_MERGED_OPERATIONS} opérations, décrits en mémoire par une centaine d'octets chacun :
+ * dates extrêmes, solde final et totaux, de quoi répondre au solde à une date et aux totaux d'une période
+ * en ne relisant que les blocs à cheval sur leurs bornes.
+ * <p>
+ * Chaque segment compte les octets de ses blocs encore référencés : un segment plein dont tous les blocs ont été fusionnés
+ * ou fermés est supprimé dès que plus aucune lecture ne l'utilise. {@link #compactSegments()} recopie les blocs encore
+ * référencés des segments pleins occupés à moins de {@value #COMPACTION_PERCENT} %, pour supprimer ces segments à leur tour.
+ * Les segments ne survivent pas à un redémarrage : c'est un débord de la mémoire, pas une persistance (voir {@link JournalAccountRepository}).
+ */
+public class TieredAccountRepository implements IAccountRepository, Closeable {
+
+    public static final long DEFAULT_MAX_HOT_OPERATIONS = 1 << 20;
+
+    public static final int DEFAULT_MAX_HOT_OPERATIONS_PER_ACCOUNT = 1024;
+
+    static final long DEFAULT_SEGMENT_SIZE = 64L << 20;
+
+    static final int MAX_MERGED_OPERATIONS = 1 << 12;
+
+    static final int SPILL_SAMPLE = 8;
+
+    static final int COMPACTION_PERCENT = 25;
+
+    private static final String ACCOUNT_NOT_FOUND = "Compte inexistant : %s";
+
+    private static final String SEGMENT_FILE = "cold-%06d.seg";
+
+    private final Path directory;
+
+    private final long maxHotOperations;
+
+    private final int maxHotOperationsPerAccount;
+
+    private final long segmentSize;
+
+    private final ConcurrentHashMap<String, Account> accounts = new ConcurrentHashMap<>();
+
+    private final AtomicLong hotOperations = new AtomicLong();
+
+    // un seul déversement global à la fois ; les écritures qui le trouvent en cours ne l'attendent pas
+    private final ReentrantLock spillLock = new ReentrantLock();
+
+    // parcours circulaire des comptes, sous spillLock
+    private Iterator<Account> spillHand;
+
+    private final CopyOnWriteArrayList<Segment> segments = new CopyOnWriteArrayList<>();
+
+    private final Object segmentLock = new Object();
+
+    // position d'écriture dans le dernier segment, sous segmentLock
+    private long segmentPosition;
+
+    public TieredAccountRepository(Path directory) throws IOException {
+        this(directory, DEFAULT_MAX_HOT_OPERATIONS, DEFAULT_MAX_HOT_OPERATIONS_PER_ACCOUNT);
+    }
+
+    /**
+     * @param directory                  : le répertoire des segments, créé au besoin
+     * @param maxHotOperations           : le nombre d'opérations gardées en mémoire, tous comptes confondus
+     * @param maxHotOperationsPerAccount : le nombre d'opérations gardées en mémoire pour un compte
+     */
+    public TieredAccountRepository(Path directory, long maxHotOperations, int maxHotOperationsPerAccount) throws IOException {
+        this(directory, maxHotOperations, maxHotOperationsPerAccount, DEFAULT_SEGMENT_SIZE);
+    }
+
+    TieredAccountRepository(Path directory, long maxHotOperations, int maxHotOperationsPerAccount, long segmentSize) throws IOException {
+        if (maxHotOperations <= 0 || maxHotOperationsPerAccount < 2 || segmentSize <= 0) {
+            throw new IllegalArgumentException(String.format("Limites invalides : %d, %d, %d",
+                    maxHotOperations, maxHotOperationsPerAccount, segmentSize));
+        }
+        this.directory = Files.createDirectories(directory);
+        this.maxHotOperations = maxHotOperations;
+        this.maxHotOperationsPerAccount = maxHotOperationsPerAccount;
+        this.segmentSize = segmentSize;
+    }
+
+    @Override
+    public Optional<Operation> findLastOperationByClientId(String clientId) throws BankAccountNotFoundException {
+        Account account = getAccount(clientId);
+        synchronized (account) {
+            checkOpen(account, clientId);
+            return Optional.ofNullable(account.last);
+        }
+    }
+
+    @Override
+    public void addOperation(String clientId, Operation operation) throws BankAccountNotFoundException {
+        addOperations(clientId, List.of(operation));
+    }
+
+    @Override
+    public void addOperations(String clientId, List<Operation> operations) throws BankAccountNotFoundException {
+        if (operations.isEmpty()) {
+            return;
+        }
+        // refusée avant tout ajout : une opération que le déversement ne saurait pas encoder resterait en mémoire à jamais
+        for (Operation operation : operations) {
+            ColdBlockCodec.checkEncodable(operation);
+        }
+        Account account = getAccount(clientId);
+        synchronized (account) {
+            checkOpen(account, clientId);
+            account.hot.addAll(operations);
+            account.last = operations.get(operations.size() - 1);
+            account.lastWrite = System.nanoTime();
+            hotOperations.addAndGet(operations.size());
+            if (account.hot.size() > maxHotOperationsPerAccount) {
+                spill(account, account.hot.size() - maxHotOperationsPerAccount / 2);
+            }
+        }
+        if (hotOperations.get() > maxHotOperations) {
+            spillLeastRecentlyWritten();
+        }
+    }
+
+    @Override
+    public List<Operation> findOperationsByClientId(String clientId) throws BankAccountNotFoundException {
+        Account account = getAccount(clientId);
+        List<ColdBlock> blocks;
+        List<Operation> hot;
+        synchronized (account) {
+            checkOpen(account, clientId);
+            blocks = acquire(account.coldBlocks);
+            hot = List.copyOf(account.hot);
+        }
+        // les blocs ne sont jamais réécrits : la lecture du disque se fait hors du verrou du compte
+        try {
+            List<Operation> operations = new ArrayList<>();
+            for (ColdBlock block : blocks) {
+                operations.addAll(read(block));
+            }
+            operations.addAll(hot);
+            return Collections.unmodifiableList(operations);
+        } finally {
+            release(blocks);
+        }
+    }
+
+    /**
+     * Seuls les blocs dont les dates recoupent la période sont relus.
+     */
+    @Override
+    public List<Operation> findOperationsBetween(String clientId, LocalDate from, LocalDate to) throws BankAccountNotFoundException {
+        Account account = getAccount(clientId);
+        List<ColdBlock> blocks;
+        List<Operation> hot;
+        synchronized (account) {
+            checkOpen(account, clientId);
+            blocks = acquire(account.coldBlocks);
+            hot = List.copyOf(account.hot);
+        }
+        try {
+            long fromDay = from.toEpochDay();
+            long toDay = to.toEpochDay();
+            List<Operation> operations = new ArrayList<>();
+            for (ColdBlock block : blocks) {
+                if (block.lastDay() >= fromDay && block.firstDay() <= toDay) {
+                    addBetween(read(block), from, to, operations);
+                }
+            }
+            addBetween(hot, from, to, operations);
+            return Collections.unmodifiableList(operations);
+        } finally {
+            release(blocks);
+        }
+    }
+
+    /**
+     * Les pages récentes sont servies par la mémoire ; seuls les blocs nécessaires à la page sont relus, du plus récent au plus ancien.
+     */
+    @Override
+    public List<Operation> findOperationsPage(String clientId, int page, int size) throws BankAccountNotFoundException {
+        if (page < 0 || size <= 0) {
+            throw new IllegalArgumentException(String.format("Page invalide : %d (taille %d)", page, size));
+        }
+        Account account = getAccount(clientId);
+        List<ColdBlock> blocks;
+        List<Operation> hot;
+        synchronized (account) {
+            checkOpen(account, clientId);
+            blocks = acquire(account.coldBlocks);
+            hot = List.copyOf(account.hot);
+        }
+        try {
+            long skip = (long) page * size;
+            List<Operation> result = new ArrayList<>(size);
+            List<Operation> source = hot;
+            int nextBlock = blocks.size() - 1;
+            while (true) {
+                for (int index = source.size() - 1; index >= 0 && result.size() < size; index--) {
+                    if (skip > 0) {
+                        skip--;
+                    } else {
+                        result.add(source.get(index));
+                    }
+                }
+                if (result.size() == size || nextBlock < 0) {
+                    return Collections.unmodifiableList(result);
+                }
+                ColdBlock block = blocks.get(nextBlock--);
+                if (skip >= block.count()) {
+                    // bloc entièrement avant la page : inutile de le relire
+                    skip -= block.count();
+                    source = List.of();
+                } else {
+                    source = read(block);
+                }
+            }
+        } finally {
+            release(blocks);
+        }
+    }
+
+    /**
+     * Seul le bloc qui contient la date est relu, et seulement si elle tombe entre sa première et sa dernière opération.
+     */
+    @Override
+    public BigDecimal findBalanceAt(String clientId, LocalDate date) throws BankAccountNotFoundException {
+        Account account = getAccount(clientId);
+        List<ColdBlock> blocks;
+        List<Operation> hot;
+        synchronized (account) {
+            checkOpen(account, clientId);
+            if (account.last == null) {
+                return BigDecimal.ZERO;
+            }
+            if (!date.isBefore(account.last.date())) {
+                return account.last.balance();
+            }
+            blocks = acquire(account.coldBlocks);
+            hot = List.copyOf(account.hot);
+        }
+        try {
+            Operation latest = lastUntil(hot, date);
+            if (latest != null) {
+                return latest.balance();
+            }
+            long day = date.toEpochDay();
+            for (int index = blocks.size() - 1; index >= 0; index--) {
+                ColdBlock block = blocks.get(index);
+                if (block.lastDay() <= day) {
+                    return block.lastBalance();
+                }
+                if (block.firstDay() <= day) {
+                    return lastUntil(read(block), date).balance();
+                }
+            }
+            return BigDecimal.ZERO;
+        } finally {
+            release(blocks);
+        }
+    }
+
+    /**
+     * Les blocs compris dans la période comptent par leurs totaux ; seuls ceux à cheval sur ses bornes sont relus.
+     */
+    @Override
+    public PeriodTotals findTotalsBetween(String clientId, LocalDate from, LocalDate to) throws BankAccountNotFoundException {
+        Account account = getAccount(clientId);
+        List<ColdBlock> blocks;
+        List<Operation> hot;
+        synchronized (account) {
+            checkOpen(account, clientId);
+            blocks = acquire(account.coldBlocks);
+            hot = List.copyOf(account.hot);
+        }
+        try {
+            long fromDay = from.toEpochDay();
+            long toDay = to.toEpochDay();
+            List<Operation> operations = new ArrayList<>();
+            PeriodTotals totals = PeriodTotals.EMPTY;
+            for (ColdBlock block : blocks) {
+                if (block.firstDay() >= fromDay && block.lastDay() <= toDay) {
+                    totals = totals.plus(block.totals());
+                } else if (block.lastDay() >= fromDay && block.firstDay() <= toDay) {
+                    addBetween(read(block), from, to, operations);
+                }
+            }
+            addBetween(hot, from, to, operations);
+            for (Operation operation : operations) {
+                totals = totals.plus(operation);
+            }
+            return totals;
+        } finally {
+            release(blocks);
+        }
+    }
+
+    @Override
+    public void addClient(String clientId) {
+        accounts.putIfAbsent(clientId, new Account());
+    }
+
+    @Override
+    public void removeClient(String clientId) throws BankAccountNotFoundException {
+        Account account = accounts.remove(clientId);
+        if (account == null) {
+            throw new BankAccountNotFoundException(String.format(ACCOUNT_NOT_FOUND, clientId));
+        }
+        synchronized (account) {
+            account.removed = true;
+            account.lastWrite = 0;
+            hotOperations.addAndGet(-account.hot.size());
+            account.hot = new ArrayList<>();
+            discard(account.coldBlocks);
+            account.coldBlocks = List.of();
+        }
+    }
+
+    @Override
+    public Set<String> findAllClientIds() {
+        return Set.copyOf(accounts.keySet());
+    }
+
+    /**
+     * @return Le nombre d'opérations actuellement gardées en mémoire, tous comptes confondus
+     */
+    public long hotOperationCount() {
+        return hotOperations.get();
+    }
+
+    int coldBlockCount(String clientId) throws BankAccountNotFoundException {
+        Account account = getAccount(clientId);
+        synchronized (account) {
+            return account.coldBlocks.size();
+        }
+    }
+
+    /**
+     * @return Le nombre de segments présents sur disque
+     */
+    int segmentCount() {
+        int count = 0;
+        for (Segment segment : segments) {
+            if (segment.channel.isOpen()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Recopie en fin de segment courant les blocs encore référencés des segments pleins occupés à moins de
+     * {@value #COMPACTION_PERCENT} % : ces segments sont supprimés dès que les lectures en cours les ont quittés.
+     * Chaque compte concerné est verrouillé le temps de recopier ses blocs ; les autres ne sont pas interrompus.
+     *
+     * @return Le nombre de segments vidés
+     */
+    public int compactSegments() {
+        Set<Segment> sparse = new HashSet<>();
+        synchronized (segmentLock) {
+            for (Segment segment : segments) {
+                if (segment.sealed && segment.liveBytes > 0 && segment.liveBytes * 100 < segmentSize * COMPACTION_PERCENT) {
+                    sparse.add(segment);
+                }
+            }
+        }
+        if (sparse.isEmpty()) {
+            return 0;
+        }
+        for (Account account : accounts.values()) {
+            synchronized (account) {
+                List<ColdBlock> blocks = account.coldBlocks;
+                List<ColdBlock> moved = new ArrayList<>();
+                List<ColdBlock> kept = new ArrayList<>(blocks.size());
+                for (ColdBlock block : blocks) {
+                    if (sparse.contains(segments.get(block.segment()))) {
+                        moved.add(block);
+                        kept.add(copy(block));
+                    } else {
+                        kept.add(block);
+                    }
+                }
+                if (!moved.isEmpty()) {
+                    account.coldBlocks = List.copyOf(kept);
+                    discard(moved);
+                }
+            }
+        }
+        int emptied = 0;
+        synchronized (segmentLock) {
+            for (Segment segment : sparse) {
+                if (segment.liveBytes == 0) {
+                    emptied++;
+                }
+            }
+        }
+        return emptied;
+    }
+
+    public ScheduledFuture<?> scheduleCompaction(ScheduledExecutorService scheduler, Duration period) {
+        return scheduler.scheduleWithFixedDelay(this::compactSegments, period.toMillis(), period.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (segmentLock) {
+            for (Segment segment : segments) {
+                segment.channel.close();
+            }
+        }
+    }
+
+    /**
+     * Déverse en entier les comptes les moins récemment écrits jusqu'à revenir sous {@code maxHotOperations}.
+     */
+    private void spillLeastRecentlyWritten() {
+        if (!spillLock.tryLock()) {
+            // le déversement en cours continue jusqu'à revenir sous la limite
+            return;
+        }
+        try {
+            while (hotOperations.get() > maxHotOperations) {
+                Account eldest = sampleLeastRecentlyWritten();
+                if (eldest == null) {
+                    return;
+                }
+                synchronized (eldest) {
+                    if (!eldest.removed && !eldest.hot.isEmpty()) {
+                        spill(eldest, eldest.hot.size());
+                    }
+                }
+            }
+        } finally {
+            spillLock.unlock();
+        }
+    }
+
+    /**
+     * @return Le moins récemment écrit des prochains comptes en mémoire du parcours, ou null s'il n'y en a aucun ; sous spillLock
+     */
+    private Account sampleLeastRecentlyWritten() {
+        Account eldest = null;
+        long eldestWrite = 0;
+        int sampled = 0;
+        // au plus un tour complet : les comptes sans opération en mémoire ne comptent pas dans l'échantillon
+        for (int scanned = 0, total = accounts.size(); sampled < SPILL_SAMPLE && scanned < total; scanned++) {
+            if (spillHand == null || !spillHand.hasNext()) {
+                spillHand = accounts.values().iterator();
+                if (!spillHand.hasNext()) {
+                    break;
+                }
+            }
+            Account account = spillHand.next();
+            long lastWrite = account.lastWrite;
+            if (lastWrite == 0) {
+                continue;
+            }
+            sampled++;
+            if (eldest == null || lastWrite - eldestWrite < 0) {
+                eldest = account;
+                eldestWrite = lastWrite;
+            }
+        }
+        return eldest;
+    }
+
+    /**
+     * Écrit les {@code count} plus anciennes opérations en mémoire du compte dans un nouveau bloc, sous le verrou du compte.
+     */
+    private void spill(Account account, int count) {
+        List<Operation> spilled = account.hot.subList(0, count);
+        List<ColdBlock> blocks = new ArrayList<>(account.coldBlocks);
+        List<ColdBlock> replaced = new ArrayList<>();
+        blocks.add(write(spilled));
+        // fusion des deux derniers blocs tant que le plus ancien n'est pas plus gros que le plus récent, dans la limite de taille
+        while (blocks.size() >= 2 && blocks.get(blocks.size() - 2).count() <= blocks.get(blocks.size() - 1).count()
+                && blocks.get(blocks.size() - 2).count() + blocks.get(blocks.size() - 1).count() <= MAX_MERGED_OPERATIONS) {
+            ColdBlock newest = blocks.remove(blocks.size() - 1);
+            ColdBlock older = blocks.remove(blocks.size() - 1);
+            List<Operation> merged = new ArrayList<>(older.count() + newest.count());
+            merged.addAll(read(older));
+            merged.addAll(read(newest));
+            blocks.add(write(merged));
+            replaced.add(older);
+            replaced.add(newest);
+        }
+        account.coldBlocks = List.copyOf(blocks);
+        discard(replaced);
+        spilled.clear();
+        hotOperations.addAndGet(-count);
+        if (account.hot.isEmpty()) {
+            // rend la mémoire du tableau, qui a pu grandir jusqu'à maxHotOperationsPerAccount
+            account.hot = new ArrayList<>();
+            account.lastWrite = 0;
+        }
+    }
+
+    private ColdBlock write(List<Operation> operations) {
+        ColdBlockCodec.Block block = ColdBlockCodec.encode(operations);
+        Operation first = operations.get(0);
+        Operation last = operations.get(operations.size() - 1);
+        PeriodTotals totals = PeriodTotals.EMPTY;
+        for (Operation operation : operations) {
+            totals = totals.plus(operation);
+        }
+        return append(block.compressed(), block.rawLength(), block.count(),
+                first.date().toEpochDay(), last.date().toEpochDay(), last.balance(), totals);
+    }
+
+    // recopie d'un bloc tel quel, sans le décoder
+    private ColdBlock copy(ColdBlock block) {
+        return append(readBytes(block), block.rawLength(), block.count(), block.firstDay(), block.lastDay(), block.lastBalance(), block.totals());
+    }
+
+    private ColdBlock append(byte[] compressed, int rawLength, int count, long firstDay, long lastDay, BigDecimal lastBalance, PeriodTotals totals) {
+        try {
+            synchronized (segmentLock) {
+                if (segments.isEmpty() || (segmentPosition > 0 && segmentPosition + compressed.length > segmentSize)) {
+                    if (!segments.isEmpty()) {
+                        seal(segments.get(segments.size() - 1));
+                    }
+                    Path file = directory.resolve(String.format(SEGMENT_FILE, segments.size()));
+                    segments.add(new Segment(file, FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                            StandardOpenOption.READ, StandardOpenOption.WRITE)));
+                    segmentPosition = 0;
+                }
+                int segmentIndex = segments.size() - 1;
+                Segment segment = segments.get(segmentIndex);
+                long offset = segmentPosition;
+                ByteBuffer buffer = ByteBuffer.wrap(compressed);
+                while (buffer.hasRemaining()) {
+                    segment.channel.write(buffer, offset + buffer.position());
+                }
+                segmentPosition += compressed.length;
+                segment.liveBytes += compressed.length;
+                return new ColdBlock(segmentIndex, offset, compressed.length, rawLength, count, firstDay, lastDay, lastBalance, totals);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<Operation> read(ColdBlock block) {
+        return ColdBlockCodec.decode(readBytes(block), block.rawLength(), block.count());
+    }
+
+    private byte[] readBytes(ColdBlock block) {
+        ByteBuffer buffer = ByteBuffer.allocate(block.length());
+        try {
+            FileChannel channel = segments.get(block.segment()).channel;
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, block.offset() + buffer.position()) < 0) {
+                    throw new EOFException("Segment tronqué : " + block);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Retient les segments des blocs pour une lecture hors du verrou du compte, qui doit être pris :
+     * un bloc encore référencé par le compte garde son segment en vie.
+     */
+    private List<ColdBlock> acquire(List<ColdBlock> blocks) {
+        for (ColdBlock block : blocks) {
+            if (!segments.get(block.segment()).acquire()) {
+                throw new IllegalStateException("Segment supprimé sous un bloc référencé : " + block);
+            }
+        }
+        return blocks;
+    }
+
+    private void release(List<ColdBlock> blocks) {
+        for (ColdBlock block : blocks) {
+            segments.get(block.segment()).release();
+        }
+    }
+
+    // blocs qu'aucun compte ne référence plus
+    private void discard(List<ColdBlock> blocks) {
+        synchronized (segmentLock) {
+            for (ColdBlock block : blocks) {
+                Segment segment = segments.get(block.segment());
+                segment.liveBytes -= block.length();
+                if (segment.sealed && segment.liveBytes == 0) {
+                    segment.release();
+                }
+            }
+        }
+    }
+
+    // sous segmentLock : le segment ne sera plus écrit
+    private static void seal(Segment segment) {
+        segment.sealed = true;
+        if (segment.liveBytes == 0) {
+            segment.release();
+        }
+    }
+
+    // dernière opération datée au plus tard de date, les opérations étant dans l'ordre chronologique
+    private static Operation lastUntil(List<Operation> operations, LocalDate date) {
+        for (int index = operations.size() - 1; index >= 0; index--) {
+            if (!operations.get(index).date().isAfter(date)) {
+                return operations.get(index);
+            }
+        }
+        return null;
+    }
+
+    private static void addBetween(List<Operation> source, LocalDate from, LocalDate to, List<Operation> target) {
+        for (Operation operation : source) {
+            if (!operation.date().isBefore(from) && !operation.date().isAfter(to)) {
+                target.add(operation);
+            }
+        }
+    }
+
+    private Account getAccount(String clientId) throws BankAccountNotFoundException {
+        Account account = accounts.get(clientId);
+        if (account == null) {
+            throw new BankAccountNotFoundException(String.format(ACCOUNT_NOT_FOUND, clientId));
+        }
+        return account;
+    }
+
+    private static void checkOpen(Account account, String clientId) throws BankAccountNotFoundException {
+        // fermé entre la recherche et la prise du verrou
+        if (account.removed) {
+            throw new BankAccountNotFoundException(String.format(ACCOUNT_NOT_FOUND, clientId));
+        }
+    }
+
+    /**
+     * Emplacement d'un bloc dans les segments, et ce qu'il faut savoir de lui sans le relire.
+     */
+    private record ColdBlock(int segment, long offset, int length, int rawLength, int count, long firstDay, long lastDay,
+                             BigDecimal lastBalance, PeriodTotals totals) {
+    }
+
+    /**
+     * Un fichier de blocs, supprimé une fois plein, vidé de ses blocs et quitté par les lectures en cours.
+     */
+    private static final class Segment {
+
+        private final Path file;
+
+        private final FileChannel channel;
+
+        // lectures en cours, plus une tant que le segment peut encore être référencé
+        private final AtomicInteger references = new AtomicInteger(1);
+
+        // octets des blocs encore référencés par un compte, sous segmentLock
+        private long liveBytes;
+
+        // plein : plus aucun bloc n'y sera écrit, sous segmentLock
+        private boolean sealed;
+
+        private Segment(Path file, FileChannel channel) {
+            this.file = file;
+            this.channel = channel;
+        }
+
+        private boolean acquire() {
+            int count;
+            do {
+                count = references.get();
+                if (count == 0) {
+                    return false;
+                }
+            } while (!references.compareAndSet(count, count + 1));
+            return true;
+        }
+
+        private void release() {
+            if (references.decrementAndGet() == 0) {
+                try {
+                    channel.close();
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    private static final class Account {
+
+        private Operation last;
+
+        // opérations pas encore déversées, les plus anciennes en tête
+        private ArrayList<Operation> hot = new ArrayList<>();
+
+        private List<ColdBlock> coldBlocks = List.of();
+
+        private boolean removed;
+
+        // heure de la dernière écriture, ou 0 si le compte n'a pas d'opération en mémoire ; lue sans verrou par le déversement
+        private volatile long lastWrite;
+    }
+}
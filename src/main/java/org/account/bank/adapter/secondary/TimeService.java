@@ -3,11 +3,21 @@ package org.account.bank.adapter.secondary;
 import org.account.bank.domain.port.secondary.ITimeService;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 
 public class TimeService implements ITimeService {
+
+    private static final ZoneId UTC = ZoneOffset.UTC;
+
     @Override
     public LocalDate utcNow() {
-        return LocalDate.now(ZoneId.of("UTC"));
+        return LocalDate.now(UTC);
+    }
+
+    @Override
+    public LocalDateTime utcDateTime() {
+        return LocalDateTime.now(UTC);
     }
 }
@@ -0,0 +1,18 @@
+package org.account.bank.adapter.stream;
+
+import org.account.bank.domain.Operation;
+
+/**
+ * Abonné au flux des opérations ajoutées, appelé sur le thread de son abonnement, un événement après l'autre.
+ */
+@FunctionalInterface
+public interface IOperationConsumer {
+
+    /**
+     * @param clientId   : l'identifiant du compte client
+     * @param operation  : l'opération ajoutée
+     * @param sequence   : la position de l'événement dans le flux, croissante
+     * @param endOfBatch : vrai pour le dernier événement disponible du lot, le moment de vider un tampon
+     */
+    void onOperation(String clientId, Operation operation, long sequence, boolean endOfBatch);
+}
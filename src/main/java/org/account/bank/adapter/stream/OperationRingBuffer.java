@@ -0,0 +1,335 @@
+package org.account.bank.adapter.stream;
+
+import org.account.bank.domain.Operation;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Flux des opérations ajoutées, diffusé à plusieurs abonnés indépendants par un anneau préalloué, sans verrou.
+ * <p>
+ * Un producteur réserve une position par incrément atomique, écrit le compte et l'opération dans les cases de l'anneau,
+ * puis marque la case publiée avec le numéro de tour de la position : aucune allocation, aucun verrou, plusieurs producteurs
+ * à la fois. Chaque abonné a son thread et sa position ; il traite d'un coup tout ce qui est publié depuis son dernier passage
+ * (un lot) et attend selon sa {@link WaitStrategy} quand l'anneau est vide.
+ * <p>
+ * Aucun événement n'est perdu : un producteur qui rattrape l'abonné le plus lent d'un tour complet attend qu'il libère
+ * une case. La taille de l'anneau absorbe les à-coups des abonnés, pas un abonné durablement plus lent que les ajouts.
+ * Tant qu'aucun abonné n'est inscrit, une publication ne coûte qu'une lecture.
+ */
+public class OperationRingBuffer implements Closeable {
+
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private static final int SPIN_TRIES = 100;
+
+    private static final int YIELD_TRIES = 100;
+
+    private static final long SLEEP_NANOS = 100_000;
+
+    private static final long PARK_TIMEOUT_NANOS = 1_000_000;
+
+    // la position d'un abonné occupe la case du milieu : ses voisines l'écartent des autres compteurs sur la ligne de cache
+    private static final int PADDED_LENGTH = 15;
+
+    private static final int PADDED_INDEX = 7;
+
+    private static final Subscription[] NO_SUBSCRIPTIONS = new Subscription[0];
+
+    private final int mask;
+
+    private final int indexShift;
+
+    private final String[] clientIds;
+
+    private final Operation[] operations;
+
+    // numéro de tour de la dernière position publiée dans chaque case, -1 avant le premier tour
+    private final AtomicIntegerArray published;
+
+    // prochaine position à réserver
+    private final AtomicLong claimed = new AtomicLong();
+
+    private final ReentrantLock subscriptionLock = new ReentrantLock();
+
+    private volatile Subscription[] subscriptions = NO_SUBSCRIPTIONS;
+
+    // plus petite position d'abonné vue par les producteurs : évite de relire toutes les positions à chaque publication
+    private volatile long gatingCache = -1;
+
+    public OperationRingBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity : le nombre de cases, une puissance de deux
+     */
+    public OperationRingBuffer(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Taille d'anneau invalide, une puissance de deux est attendue : " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(capacity);
+        this.clientIds = new String[capacity];
+        this.operations = new Operation[capacity];
+        int[] laps = new int[capacity];
+        Arrays.fill(laps, -1);
+        this.published = new AtomicIntegerArray(laps);
+    }
+
+    /**
+     * Publie une opération ajoutée. Les opérations d'un même compte sont reçues dans l'ordre de leurs publications,
+     * donc dans l'ordre d'ajout tant que les ajouts d'un compte sont eux-mêmes ordonnés (verrou du compte dans OperationService).
+     */
+    public void publish(String clientId, Operation operation) {
+        if (subscriptions.length == 0) {
+            return;
+        }
+        long sequence = claimed.getAndIncrement();
+        awaitCapacity(sequence);
+        int index = (int) sequence & mask;
+        clientIds[index] = clientId;
+        operations[index] = operation;
+        published.setRelease(index, (int) (sequence >>> indexShift));
+        wakeUpSubscribers();
+    }
+
+    /**
+     * Publie les opérations ajoutées en un appel, à des positions consécutives.
+     */
+    public void publish(String clientId, List<Operation> operations) {
+        int capacity = mask + 1;
+        for (int from = 0; from < operations.size() && subscriptions.length > 0; from += capacity) {
+            List<Operation> chunk = operations.subList(from, Math.min(operations.size(), from + capacity));
+            long first = claimed.getAndAdd(chunk.size());
+            awaitCapacity(first + chunk.size() - 1);
+            for (int offset = 0; offset < chunk.size(); offset++) {
+                long sequence = first + offset;
+                int index = (int) sequence & mask;
+                clientIds[index] = clientId;
+                this.operations[index] = chunk.get(offset);
+                published.setRelease(index, (int) (sequence >>> indexShift));
+            }
+            wakeUpSubscribers();
+        }
+    }
+
+    /**
+     * Inscrit un abonné, qui reçoit les opérations publiées à partir de maintenant sur un thread dédié.
+     *
+     * @param name         : le nom de l'abonné, repris dans celui de son thread
+     * @param consumer     : l'abonné
+     * @param waitStrategy : son attente lorsque le flux est vide
+     * @return L'abonnement, à fermer pour désinscrire l'abonné
+     */
+    public Subscription subscribe(String name, IOperationConsumer consumer, WaitStrategy waitStrategy) {
+        subscriptionLock.lock();
+        try {
+            Subscription subscription = new Subscription(name, consumer, waitStrategy);
+            Subscription[] current = subscriptions;
+            Subscription[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = subscription;
+            // inscrit avant de lire la prochaine position : un producteur qui réserve au-delà voit forcément l'abonné
+            subscriptions = updated;
+            subscription.sequence.set(PADDED_INDEX, claimed.get() - 1);
+            subscription.thread.start();
+            return subscription;
+        } finally {
+            subscriptionLock.unlock();
+        }
+    }
+
+    /**
+     * Ferme tous les abonnements, chacun après avoir traité ce qui est déjà publié.
+     */
+    @Override
+    public void close() {
+        for (Subscription subscription : subscriptions) {
+            subscription.close();
+        }
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    private void awaitCapacity(long sequence) {
+        long wrapPoint = sequence - (mask + 1);
+        if (wrapPoint <= gatingCache) {
+            return;
+        }
+        long minimum;
+        while (wrapPoint > (minimum = minimumSequence(sequence - 1))) {
+            LockSupport.parkNanos(1);
+        }
+        gatingCache = minimum;
+    }
+
+    private long minimumSequence(long defaultValue) {
+        while (true) {
+            Subscription[] current = subscriptions;
+            long minimum = defaultValue;
+            for (Subscription subscription : current) {
+                minimum = Math.min(minimum, subscription.sequence.get(PADDED_INDEX));
+            }
+            // un abonné inscrit pendant la lecture part peut-être derrière le minimum lu : on recommence
+            if (current == subscriptions) {
+                return minimum;
+            }
+        }
+    }
+
+    private void wakeUpSubscribers() {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.parked) {
+                LockSupport.unpark(subscription.thread);
+            }
+        }
+    }
+
+    private long highestPublished(long from, long to) {
+        for (long sequence = from; sequence <= to; sequence++) {
+            if (published.getAcquire((int) sequence & mask) != (int) (sequence >>> indexShift)) {
+                return sequence - 1;
+            }
+        }
+        return to;
+    }
+
+    private void remove(Subscription subscription) {
+        subscriptionLock.lock();
+        try {
+            subscriptions = Arrays.stream(subscriptions).filter(candidate -> candidate != subscription).toArray(Subscription[]::new);
+        } finally {
+            subscriptionLock.unlock();
+        }
+    }
+
+    /**
+     * Abonnement à un {@link OperationRingBuffer} : le thread de l'abonné et sa position dans le flux.
+     */
+    public final class Subscription implements Closeable {
+
+        private final String name;
+
+        private final IOperationConsumer consumer;
+
+        private final WaitStrategy waitStrategy;
+
+        private final Thread thread;
+
+        // dernière position traitée
+        private final AtomicLongArray sequence = new AtomicLongArray(PADDED_LENGTH);
+
+        private final LongAdder failures = new LongAdder();
+
+        private volatile boolean parked;
+
+        private volatile boolean closed;
+
+        private Subscription(String name, IOperationConsumer consumer, WaitStrategy waitStrategy) {
+            this.name = name;
+            this.consumer = consumer;
+            this.waitStrategy = waitStrategy;
+            this.thread = new Thread(this::consume, "operation-stream-" + name);
+            this.thread.setDaemon(true);
+        }
+
+        public String name() {
+            return name;
+        }
+
+        /**
+         * @return La dernière position traitée
+         */
+        public long sequence() {
+            return sequence.get(PADDED_INDEX);
+        }
+
+        /**
+         * @return Le nombre d'événements réservés par les producteurs et pas encore traités par l'abonné
+         */
+        public long lag() {
+            return Math.max(0, claimed.get() - 1 - sequence());
+        }
+
+        /**
+         * @return Le nombre d'événements sur lesquels l'abonné a levé une exception ; le flux continue après chacun
+         */
+        public long failures() {
+            return failures.sum();
+        }
+
+        /**
+         * Désinscrit l'abonné après qu'il a traité ce qui est déjà publié, et attend la fin de son thread.
+         */
+        @Override
+        public void close() {
+            closed = true;
+            LockSupport.unpark(thread);
+            boolean interrupted = false;
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            remove(this);
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void consume() {
+            long next = sequence() + 1;
+            int attempt = 0;
+            while (true) {
+                boolean closing = closed;
+                long available = highestPublished(next, claimed.get() - 1);
+                if (available >= next) {
+                    for (long position = next; position <= available; position++) {
+                        int index = (int) position & mask;
+                        try {
+                            consumer.onOperation(clientIds[index], operations[index], position, position == available);
+                        } catch (RuntimeException e) {
+                            failures.increment();
+                        }
+                    }
+                    sequence.lazySet(PADDED_INDEX, available);
+                    next = available + 1;
+                    attempt = 0;
+                } else if (closing) {
+                    return;
+                } else {
+                    idle(next, attempt++);
+                }
+            }
+        }
+
+        private void idle(long next, int attempt) {
+            if (attempt < SPIN_TRIES || waitStrategy == WaitStrategy.BUSY_SPIN) {
+                Thread.onSpinWait();
+            } else if (waitStrategy == WaitStrategy.YIELDING || attempt < SPIN_TRIES + YIELD_TRIES && waitStrategy == WaitStrategy.SLEEPING) {
+                Thread.yield();
+            } else if (waitStrategy == WaitStrategy.SLEEPING) {
+                LockSupport.parkNanos(SLEEP_NANOS);
+            } else {
+                // annonce la suspension puis revérifie : un producteur qui publie ensuite voit l'annonce et réveille l'abonné.
+                // La publication n'étant pas une barrière complète, le réveil peut se perdre : la suspension est bornée
+                parked = true;
+                if (highestPublished(next, claimed.get() - 1) < next && !closed) {
+                    LockSupport.parkNanos(this, PARK_TIMEOUT_NANOS);
+                }
+                parked = false;
+            }
+        }
+    }
+}
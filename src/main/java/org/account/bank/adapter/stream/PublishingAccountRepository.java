@@ -0,0 +1,148 @@
+package org.account.bank.adapter.stream;
+
+import org.account.bank.domain.Operation;
+import org.account.bank.domain.PeriodTotals;
+import org.account.bank.domain.SubLedgerAccountRepository;
+import org.account.bank.domain.SubLedgers;
+import org.account.bank.domain.exception.BankAccountNotFoundException;
+import org.account.bank.domain.port.secondary.IAccountRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Publie dans un {@link OperationRingBuffer} chaque opération ajoutée au référentiel décoré, une fois l'ajout réussi.
+ * Appelé sous le verrou du compte par OperationService, l'ajout publie les opérations d'un compte dans leur ordre.
+ * <p>
+ * Placé sous la vue fusionnée des comptes chauds ({@link SubLedgers}), ce référentiel voit leurs sous-comptes et leurs soldes partiels :
+ * il publie alors leurs opérations sous le compte chaud, avec le solde et le rang dans la fusion lus juste après l'ajout.
+ * Exacts pour les écritures qui tiennent tous les verrous du compte, ils peuvent compter, pour un dépôt, des dépôts concurrents
+ * sur les autres sous-comptes, publiés eux-mêmes dans un ordre quelconque.
+ */
+public class PublishingAccountRepository implements IAccountRepository {
+
+    private final IAccountRepository accountRepository;
+
+    private final OperationRingBuffer ringBuffer;
+
+    private final SubLedgers subLedgers;
+
+    // vue fusionnée du référentiel décoré, ou null sans comptes chauds
+    private final SubLedgerAccountRepository mergedView;
+
+    public PublishingAccountRepository(IAccountRepository accountRepository, OperationRingBuffer ringBuffer) {
+        this(accountRepository, ringBuffer, null);
+    }
+
+    /**
+     * @param subLedgers : les comptes chauds dont les sous-comptes sont écrits dans le référentiel décoré, ou null
+     */
+    public PublishingAccountRepository(IAccountRepository accountRepository, OperationRingBuffer ringBuffer, SubLedgers subLedgers) {
+        this.accountRepository = accountRepository;
+        this.ringBuffer = ringBuffer;
+        this.subLedgers = subLedgers;
+        this.mergedView = subLedgers == null ? null : new SubLedgerAccountRepository(accountRepository, subLedgers);
+    }
+
+    @Override
+    public Optional<Operation> findLastOperationByClientId(String clientId) throws BankAccountNotFoundException {
+        return accountRepository.findLastOperationByClientId(clientId);
+    }
+
+    @Override
+    public void addOperation(String clientId, Operation operation) throws BankAccountNotFoundException {
+        accountRepository.addOperation(clientId, operation);
+        String account = accountOf(clientId);
+        if (account == null) {
+            ringBuffer.publish(clientId, operation);
+        } else {
+            ringBuffer.publish(account, withMergedBalances(account, List.of(operation)).get(0));
+        }
+    }
+
+    @Override
+    public void addOperations(String clientId, List<Operation> operations) throws BankAccountNotFoundException {
+        accountRepository.addOperations(clientId, operations);
+        String account = accountOf(clientId);
+        if (account == null) {
+            ringBuffer.publish(clientId, operations);
+        } else if (!operations.isEmpty()) {
+            ringBuffer.publish(account, withMergedBalances(account, operations));
+        }
+    }
+
+    @Override
+    public List<Operation> findOperationsByClientId(String clientId) throws BankAccountNotFoundException {
+        return accountRepository.findOperationsByClientId(clientId);
+    }
+
+    @Override
+    public Iterator<Operation> iterateOperationsNewestFirst(String clientId) throws BankAccountNotFoundException {
+        return accountRepository.iterateOperationsNewestFirst(clientId);
+    }
+
+    @Override
+    public List<Operation> findOperationsBetween(String clientId, LocalDate from, LocalDate to) throws BankAccountNotFoundException {
+        return accountRepository.findOperationsBetween(clientId, from, to);
+    }
+
+    @Override
+    public List<Operation> findOperationsPage(String clientId, int page, int size) throws BankAccountNotFoundException {
+        return accountRepository.findOperationsPage(clientId, page, size);
+    }
+
+    @Override
+    public BigDecimal findBalanceAt(String clientId, LocalDate date) throws BankAccountNotFoundException {
+        return accountRepository.findBalanceAt(clientId, date);
+    }
+
+    @Override
+    public PeriodTotals findTotalsBetween(String clientId, LocalDate from, LocalDate to) throws BankAccountNotFoundException {
+        return accountRepository.findTotalsBetween(clientId, from, to);
+    }
+
+    @Override
+    public void addClient(String clientId) {
+        accountRepository.addClient(clientId);
+    }
+
+    @Override
+    public void removeClient(String clientId) throws BankAccountNotFoundException {
+        accountRepository.removeClient(clientId);
+    }
+
+    @Override
+    public Set<String> findAllClientIds() {
+        return accountRepository.findAllClientIds();
+    }
+
+    /**
+     * @return Le compte chaud dont relève l'identifiant, ou null s'il ne relève d'aucun
+     */
+    private String accountOf(String clientId) {
+        if (subLedgers == null) {
+            return null;
+        }
+        String account = subLedgers.accountOf(clientId);
+        return subLedgers.isHot(account) ? account : null;
+    }
+
+    // soldes fusionnés en remontant depuis celui lu après l'ajout : exacts sous les verrous de tous les sous-comptes
+    private List<Operation> withMergedBalances(String account, List<Operation> operations) throws BankAccountNotFoundException {
+        Operation last = mergedView.findLastOperationByClientId(account).orElseThrow();
+        BigDecimal balance = last.balance();
+        long sequence = last.sequence();
+        Operation[] merged = new Operation[operations.size()];
+        for (int index = operations.size() - 1; index >= 0; index--) {
+            Operation operation = operations.get(index);
+            merged[index] = new Operation(operation.date(), operation.amount(), operation.operationType(), balance, operation.time(),
+                    sequence--);
+            balance = operation.operationType().isCredit() ? balance.subtract(operation.amount()) : balance.add(operation.amount());
+        }
+        return List.of(merged);
+    }
+}
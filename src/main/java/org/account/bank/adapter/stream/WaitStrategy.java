@@ -0,0 +1,28 @@
+package org.account.bank.adapter.stream;
+
+/**
+ * Attente d'un abonné de {@link OperationRingBuffer} lorsque le flux est vide : du plus réactif au plus économe en processeur.
+ */
+public enum WaitStrategy {
+
+    /**
+     * Boucle active : la latence la plus basse, un cœur occupé en permanence par abonné.
+     */
+    BUSY_SPIN,
+
+    /**
+     * Boucle active puis {@link Thread#yield()} : cède le cœur aux autres threads prêts, reste à 100 % sinon.
+     */
+    YIELDING,
+
+    /**
+     * Boucle courte puis sommeils brefs : quelques dizaines de microsecondes de latence, presque pas de processeur au repos.
+     */
+    SLEEPING,
+
+    /**
+     * Boucle courte puis suspension jusqu'à la prochaine publication, qui réveille l'abonné : presque pas de processeur au repos,
+     * un accès mémoire de plus par publication.
+     */
+    BLOCKING
+}
@@ -0,0 +1,107 @@
+package org.account.bank.domain;
+
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * File d'attente d'un compte : les tâches soumises s'exécutent une par une, dans l'ordre,
+ * sur l'exécuteur partagé. Un seul thread à la fois draine la file.
+ * <p>
+ * Une file dont la dernière tâche se termine sans autre tâche en attente est retirée par CAS :
+ * elle refuse ensuite toute soumission, et le propriétaire la remplace par une nouvelle file.
+ */
+final class AccountLane implements Runnable {
+
+    private static final int MAX_BATCH = 64;
+
+    private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+
+    private static final int RETIRED = -1;
+
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    // tâches soumises et non terminées, ou RETIRED
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final Executor executor;
+
+    private final Consumer<AccountLane> onRetired;
+
+    /**
+     * @param onRetired : appelé avec la file une fois celle-ci retirée, sur le thread de sa dernière tâche
+     */
+    AccountLane(Executor executor, Consumer<AccountLane> onRetired) {
+        this.executor = executor;
+        this.onRetired = onRetired;
+    }
+
+    /**
+     * @return Le résultat de la tâche, ou null si la file est retirée : la tâche n'est pas soumise
+     */
+    <T> CompletableFuture<T> submit(Callable<T> task) {
+        if (!retain()) {
+            return null;
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        mailbox.add(() -> {
+            T value = null;
+            Throwable failure = null;
+            try {
+                value = task.call();
+            } catch (Throwable e) {
+                failure = e;
+            }
+            // retirée avant que le futur ne soit terminé : l'appelant qui l'attend voit une file déjà à jour
+            if (pending.decrementAndGet() == 0 && pending.compareAndSet(0, RETIRED)) {
+                onRetired.accept(this);
+            }
+            if (failure != null) {
+                result.completeExceptionally(failure);
+            } else {
+                result.complete(value);
+            }
+        });
+        schedule();
+        return result;
+    }
+
+    private boolean retain() {
+        while (true) {
+            int current = pending.get();
+            if (current == RETIRED) {
+                return false;
+            }
+            if (pending.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        // on rend la main après MAX_BATCH tâches pour ne pas affamer les autres comptes
+        for (int i = 0; i < MAX_BATCH; i++) {
+            Runnable task = mailbox.poll();
+            if (task == null) {
+                break;
+            }
+            task.run();
+        }
+        scheduled.set(false);
+        if (!mailbox.isEmpty()) {
+            schedule();
+        }
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.account.bank.domain;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Verrous des comptes, répartis sur un nombre fixe de bandes : deux comptes de bandes différentes
+ * n'entrent jamais en concurrence. Pour deux comptes, les bandes sont toujours prises dans l'ordre
+ * croissant de leur indice : deux virements croisés ne peuvent pas s'interbloquer.
+ */
+final class AccountLocks {
+
+    static final int DEFAULT_STRIPES = 1024;
+
+    private final ReentrantLock[] stripes;
+
+    private final int mask;
+
+    AccountLocks(int stripes) {
+        if (Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("Le nombre de bandes doit être une puissance de 2 : " + stripes);
+        }
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.mask = stripes - 1;
+    }
+
+    void lock(String clientId) {
+        stripes[stripe(clientId)].lock();
+    }
+
+    void unlock(String clientId) {
+        stripes[stripe(clientId)].unlock();
+    }
+
+    void lock(String clientId, String otherClientId) {
+        int first = stripe(clientId);
+        int second = stripe(otherClientId);
+        stripes[Math.min(first, second)].lock();
+        if (first != second) {
+            stripes[Math.max(first, second)].lock();
+        }
+    }
+
+    void unlock(String clientId, String otherClientId) {
+        int first = stripe(clientId);
+        int second = stripe(otherClientId);
+        if (first != second) {
+            stripes[Math.max(first, second)].unlock();
+        }
+        stripes[Math.min(first, second)].unlock();
+    }
+
+    /**
+     * Verrouille tous les comptes, bandes prises dans l'ordre croissant comme pour deux comptes.
+     */
+    void lockAll(String... clientIds) {
+        for (int stripe : sortedStripes(clientIds)) {
+            stripes[stripe].lock();
+        }
+    }
+
+    void unlockAll(String... clientIds) {
+        int[] sorted = sortedStripes(clientIds);
+        for (int index = sorted.length - 1; index >= 0; index--) {
+            stripes[sorted[index]].unlock();
+        }
+    }
+
+    private int[] sortedStripes(String[] clientIds) {
+        int[] indexes = new int[clientIds.length];
+        for (int i = 0; i < clientIds.length; i++) {
+            indexes[i] = stripe(clientIds[i]);
+        }
+        return Arrays.stream(indexes).sorted().distinct().toArray();
+    }
+
+    private int stripe(String clientId) {
+        int hash = clientId.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,206 @@
+package org.account.bank.domain;
+
+import org.account.bank.domain.port.primary.IAsyncOperationService;
+import org.account.bank.domain.port.primary.IOperationService;
+
+import java.math.BigDecimal;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exécute les appels de {@link IOperationService} sur des threads virtuels : l'appelant ne bloque jamais
+ * un thread de plateforme.
+ * <p>
+ * Le nombre d'appels en cours est borné globalement et par compte. Au-delà, l'appel est refusé aussitôt
+ * (futur terminé par une RejectedExecutionException) au lieu d'accumuler du travail sans limite :
+ * l'appelant décide de réessayer plus tard ou de répondre « service surchargé ».
+ * Seuls les comptes qui ont des appels en cours occupent une place dans la table des limites par compte :
+ * une entrée est retirée dès que son dernier appel se termine, quel que soit l'identifiant soumis.
+ */
+public class AsyncOperationService implements IAsyncOperationService, AutoCloseable {
+
+    private static final String GLOBAL_LIMIT_REACHED = "Trop d'opérations en cours : %d";
+
+    private static final String ACCOUNT_LIMIT_REACHED = "Trop d'opérations en cours pour le compte %s : %d";
+
+    private final IOperationService operationService;
+
+    private final ExecutorService executor;
+
+    private final Semaphore inFlight;
+
+    private final int maxInFlight;
+
+    private final int maxInFlightPerAccount;
+
+    private final ConcurrentHashMap<String, AccountPermits> accountsInFlight = new ConcurrentHashMap<>();
+
+    public AsyncOperationService(IOperationService operationService, int maxInFlight, int maxInFlightPerAccount) {
+        this(operationService, Executors.newVirtualThreadPerTaskExecutor(), maxInFlight, maxInFlightPerAccount);
+    }
+
+    public AsyncOperationService(IOperationService operationService, ExecutorService executor, int maxInFlight, int maxInFlightPerAccount) {
+        if (maxInFlight <= 0 || maxInFlightPerAccount <= 0) {
+            throw new IllegalArgumentException("Limites invalides : " + maxInFlight + ", " + maxInFlightPerAccount);
+        }
+        this.operationService = operationService;
+        this.executor = executor;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.maxInFlight = maxInFlight;
+        this.maxInFlightPerAccount = maxInFlightPerAccount;
+    }
+
+    @Override
+    public CompletableFuture<Void> deposit(String clientId, BigDecimal amount) {
+        return submit(clientId, () -> {
+            operationService.deposit(clientId, amount);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> withdraw(String clientId, BigDecimal amount) {
+        return submit(clientId, () -> {
+            operationService.withdraw(clientId, amount);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> deposit(String clientId, BigDecimal amount, String idempotencyKey) {
+        return submit(clientId, () -> {
+            operationService.deposit(clientId, amount, idempotencyKey);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> withdraw(String clientId, BigDecimal amount, String idempotencyKey) {
+        return submit(clientId, () -> {
+            operationService.withdraw(clientId, amount, idempotencyKey);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<String> printOperations(String clientId) {
+        return submit(clientId, () -> operationService.printOperations(clientId));
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    private <T> CompletableFuture<T> submit(String clientId, Callable<T> task) {
+
+        if (!inFlight.tryAcquire()) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException(String.format(GLOBAL_LIMIT_REACHED, maxInFlight)));
+        }
+        AccountPermits accountInFlight = acquireAccount(clientId);
+        if (accountInFlight == null) {
+            inFlight.release();
+            return CompletableFuture.failedFuture(new RejectedExecutionException(String.format(ACCOUNT_LIMIT_REACHED, clientId, maxInFlightPerAccount)));
+        }
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                T value = null;
+                Throwable failure = null;
+                try {
+                    value = task.call();
+                } catch (Throwable e) {
+                    failure = e;
+                } finally {
+                    // libérés avant de terminer le futur : une suite enchaînée peut aussitôt soumettre un nouvel appel
+                    releaseAccount(clientId, accountInFlight);
+                    inFlight.release();
+                }
+                if (failure != null) {
+                    result.completeExceptionally(failure);
+                } else {
+                    result.complete(value);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            releaseAccount(clientId, accountInFlight);
+            inFlight.release();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * @return Les appels en cours du compte, un de plus compté, ou null si sa limite est atteinte
+     */
+    private AccountPermits acquireAccount(String clientId) {
+        while (true) {
+            AccountPermits permits = accountsInFlight.get(clientId);
+            if (permits == null) {
+                permits = accountsInFlight.computeIfAbsent(clientId, id -> new AccountPermits());
+            }
+            int acquired = permits.tryAcquire(maxInFlightPerAccount);
+            if (acquired > 0) {
+                return permits;
+            }
+            if (acquired == 0) {
+                return null;
+            }
+            // entrée retirée entre sa lecture et l'acquisition : on aide à la retirer et on en crée une autre
+            accountsInFlight.remove(clientId, permits);
+        }
+    }
+
+    private void releaseAccount(String clientId, AccountPermits permits) {
+        if (permits.release()) {
+            accountsInFlight.remove(clientId, permits);
+        }
+    }
+
+    int trackedAccounts() {
+        return accountsInFlight.size();
+    }
+
+    /**
+     * Nombre d'appels en cours d'un compte. Revenu à zéro, il passe à -1 par CAS : une entrée retirée
+     * n'accepte plus d'acquisition, et une acquisition concurrente fait échouer le retrait.
+     */
+    private static final class AccountPermits {
+
+        private static final int RETIRED = -1;
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        /**
+         * @return 1 si l'appel est compté, 0 si la limite est atteinte, -1 si l'entrée est retirée
+         */
+        private int tryAcquire(int max) {
+            while (true) {
+                int current = inFlight.get();
+                if (current == RETIRED) {
+                    return -1;
+                }
+                if (current >= max) {
+                    return 0;
+                }
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    return 1;
+                }
+            }
+        }
+
+        /**
+         * @return true si c'était le dernier appel en cours et que l'entrée est désormais retirée
+         */
+        private boolean release() {
+            return inFlight.decrementAndGet() == 0 && inFlight.compareAndSet(0, RETIRED);
+        }
+    }
+}
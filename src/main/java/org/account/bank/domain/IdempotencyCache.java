@@ -0,0 +1,238 @@
+package org.account.bank.domain;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Issues des commandes déjà traitées, par clé d'idempotence : une commande rejouée avec la même clé reçoit l'issue
+ * de la première, sans être appliquée une seconde fois. Un rejeu qui arrive pendant le traitement de l'original
+ * attend son issue.
+ * <p>
+ * Au plus {@code maxEntries} clés sont retenues, chacune pendant {@code retention} : le délai étant le même pour toutes,
+ * l'ordre d'enregistrement est aussi l'ordre d'expiration, et un anneau suffit à évincer les plus anciennes.
+ * Les clés sont réparties par hachage entre des bandes, chacune avec son anneau et son verrou, pour qu'aucun verrou
+ * ne soit commun à tous les appels ; l'éviction se fait donc par bande, sur sa part de {@code maxEntries}.
+ * Chaque anneau double au besoin jusqu'à sa part.
+ * Une clé en cours de traitement n'expire pas et n'est jamais évincée : arrivée en tête d'un anneau plein, elle est reportée
+ * en fin d'anneau, qui grandit au-delà de sa part si toutes ses clés sont en cours.
+ * Une consultation n'alloue rien ; un enregistrement alloue son entrée et le loquet qu'attendent les rejeux.
+ */
+public class IdempotencyCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 100_000;
+
+    public static final Duration DEFAULT_RETENTION = Duration.ofMinutes(15);
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final int MAX_STRIPES = 64;
+
+    // en deçà, une bande de plus rendrait l'éviction trop éloignée de l'ordre global
+    private static final int MIN_STRIPE_ENTRIES = 1024;
+
+    private static final String KEY_REUSED = "Clé d'idempotence déjà utilisée pour une autre opération : %s";
+
+    private final ConcurrentHashMap<String, Entry> entries;
+
+    private final long retentionNanos;
+
+    private final LongSupplier nanoClock;
+
+    private final Ring[] rings;
+
+    public IdempotencyCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_RETENTION);
+    }
+
+    public IdempotencyCache(int maxEntries, Duration retention) {
+        this(maxEntries, retention, System::nanoTime);
+    }
+
+    IdempotencyCache(int maxEntries, Duration retention, LongSupplier nanoClock) {
+        if (maxEntries <= 0 || retention.isNegative() || retention.isZero()) {
+            throw new IllegalArgumentException("Taille ou durée de rétention invalide : " + maxEntries + ", " + retention);
+        }
+        this.entries = new ConcurrentHashMap<>(Math.min(maxEntries, INITIAL_CAPACITY));
+        this.retentionNanos = retention.toNanos();
+        this.nanoClock = nanoClock;
+        int stripes = Integer.highestOneBit(Math.max(1, Math.min(MAX_STRIPES, maxEntries / MIN_STRIPE_ENTRIES)));
+        this.rings = new Ring[stripes];
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            rings[stripe] = new Ring(maxEntries / stripes, INITIAL_CAPACITY / stripes);
+        }
+    }
+
+    /**
+     * Applique la commande si sa clé est inconnue ou expirée, sinon renvoie l'issue retenue.
+     * Si l'application échoue par une exception, la clé est oubliée : le rejeu suivant l'appliquera.
+     *
+     * @param idempotencyKey : la clé choisie par le client, la même pour tous les rejeux d'une commande
+     * @param command        : la commande, comparée à celle de l'issue retenue
+     * @param operation      : l'application de la commande
+     * @return L'issue de la commande, retenue ou obtenue à l'instant
+     * @throws IllegalArgumentException si la clé a déjà servi pour une autre commande
+     */
+    OperationResult execute(String idempotencyKey, OperationCommand command, Supplier<OperationResult> operation) {
+        while (true) {
+            long now = nanoClock.getAsLong();
+            Entry existing = entries.get(idempotencyKey);
+            if (existing != null && !existing.isExpired(now)) {
+                if (!existing.command.equals(command)) {
+                    throw new IllegalArgumentException(String.format(KEY_REUSED, idempotencyKey));
+                }
+                OperationResult result = existing.await();
+                if (result != null) {
+                    return result;
+                }
+                // l'original a échoué et sa clé est oubliée : ce rejeu peut l'appliquer
+                continue;
+            }
+
+            Entry entry = new Entry(idempotencyKey, command, now + retentionNanos);
+            boolean registered = existing == null
+                    ? entries.putIfAbsent(idempotencyKey, entry) == null
+                    : entries.replace(idempotencyKey, existing, entry);
+            if (!registered) {
+                continue;
+            }
+            ring(idempotencyKey).remember(entry, now);
+
+            OperationResult result;
+            try {
+                result = operation.get();
+            } catch (RuntimeException | Error e) {
+                entries.remove(idempotencyKey, entry);
+                entry.complete(null);
+                throw e;
+            }
+            entry.complete(result);
+            return result;
+        }
+    }
+
+    /**
+     * @return Le nombre de clés retenues, expirées comprises tant qu'elles ne sont pas évincées
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private Ring ring(String idempotencyKey) {
+        int hash = idempotencyKey.hashCode();
+        return rings[(hash ^ (hash >>> 16)) & (rings.length - 1)];
+    }
+
+    private final class Ring {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final int maxEntries;
+
+        // entrées par ordre d'enregistrement, de head (la plus ancienne) à head + size
+        private Entry[] order;
+
+        private int head;
+
+        private int size;
+
+        private Ring(int maxEntries, int initialCapacity) {
+            this.maxEntries = maxEntries;
+            this.order = new Entry[Math.min(maxEntries, initialCapacity)];
+        }
+
+        private void remember(Entry entry, long now) {
+            lock.lock();
+            try {
+                if (size == order.length && order.length < maxEntries) {
+                    grow(Math.min(maxEntries, 2 * order.length));
+                }
+                int postponed = 0;
+                while (size > postponed && (size >= maxEntries || order[head].isExpired(now))) {
+                    Entry oldest = order[head];
+                    order[head] = null;
+                    head = (head + 1) % order.length;
+                    size--;
+                    if (oldest.isDone()) {
+                        // sans effet si la clé a été réenregistrée depuis
+                        entries.remove(oldest.key, oldest);
+                    } else {
+                        // en cours : la retirer laisserait un rejeu l'appliquer une seconde fois
+                        order[(head + size) % order.length] = oldest;
+                        size++;
+                        postponed++;
+                    }
+                }
+                if (size == order.length) {
+                    grow(2 * order.length);
+                }
+                order[(head + size) % order.length] = entry;
+                size++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void grow(int capacity) {
+            Entry[] grown = new Entry[capacity];
+            for (int index = 0; index < size; index++) {
+                grown[index] = order[(head + index) % order.length];
+            }
+            order = grown;
+            head = 0;
+        }
+    }
+
+    private static final class Entry {
+
+        private final String key;
+
+        private final OperationCommand command;
+
+        private final long expiresAt;
+
+        // un loquet plutôt que wait/notify : un thread virtuel qui attend n'immobilise pas son thread porteur
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        // null une fois terminée : l'application a échoué
+        private OperationResult result;
+
+        private Entry(String key, OperationCommand command, long expiresAt) {
+            this.key = key;
+            this.command = command;
+            this.expiresAt = expiresAt;
+        }
+
+        // une entrée en cours n'expire pas : ses rejeux doivent attendre son issue
+        private boolean isExpired(long now) {
+            return now - expiresAt >= 0 && isDone();
+        }
+
+        private boolean isDone() {
+            return done.getCount() == 0;
+        }
+
+        private void complete(OperationResult result) {
+            this.result = result;
+            done.countDown();
+        }
+
+        private OperationResult await() {
+            boolean interrupted = false;
+            while (done.getCount() > 0) {
+                try {
+                    done.await();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            return result;
+        }
+    }
+}
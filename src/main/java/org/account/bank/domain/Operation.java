@@ -2,6 +2,28 @@ package org.account.bank.domain;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Comparator;
 
-public record Operation(LocalDate date, BigDecimal amount, OperationType operationType, BigDecimal balance) {
+/**
+ * @param time     : l'heure UTC de l'opération dans la journée
+ * @param sequence : le numéro d'ordre de l'opération dans le compte, croissant à partir de 1
+ */
+public record Operation(LocalDate date, BigDecimal amount, OperationType operationType, BigDecimal balance, LocalTime time, long sequence) {
+
+    /**
+     * Ordre chronologique, départagé par le numéro d'ordre : permet de fusionner des historiques.
+     */
+    public static final Comparator<Operation> CHRONOLOGICAL = Comparator.comparing(Operation::date)
+            .thenComparing(Operation::time)
+            .thenComparingLong(Operation::sequence);
+
+    public Operation(LocalDate date, BigDecimal amount, OperationType operationType, BigDecimal balance) {
+        this(date, amount, operationType, balance, LocalTime.MIDNIGHT, 0);
+    }
+
+    public LocalDateTime timestamp() {
+        return date.atTime(time);
+    }
 }
@@ -0,0 +1,23 @@
+package org.account.bank.domain;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Deux commandes sont égales si leurs montants le sont en valeur : 10 et 10.00 désignent la même commande.
+ */
+public record OperationCommand(String clientId, OperationType operationType, BigDecimal amount) {
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof OperationCommand command
+                && Objects.equals(clientId, command.clientId)
+                && operationType == command.operationType
+                && (amount == null ? command.amount == null : command.amount != null && amount.compareTo(command.amount) == 0);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(clientId, operationType, amount == null ? null : amount.stripTrailingZeros());
+    }
+}
@@ -0,0 +1,11 @@
+package org.account.bank.domain;
+
+/**
+ * Issue d'une commande : l'opération enregistrée si elle est acceptée, null sinon.
+ */
+public record OperationResult(OperationStatus status, Operation operation) {
+
+    public boolean isAccepted() {
+        return status == OperationStatus.ACCEPTED;
+    }
+}
@@ -8,18 +8,31 @@ import org.account.bank.domain.port.secondary.IAccountRepository;
 import org.account.bank.domain.port.secondary.IOperationPrinter;
 import org.account.bank.domain.port.secondary.ITimeService;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.stream.Collector;
 
 public class OperationService implements IOperationService {
 
-    private static final String NEGATIVE_DEPOSIT_AMOUNT = "Impossible de crediter ou de débiter le compte avec un montant négatif : %f";
 
-    private static final String INSUFFICIENT_CREDIT = "Crédit insuffisant pour retirer le montant : %f";
+    // résultats de rejet partagés : rejeter n'alloue rien
+    private static final OperationResult NEGATIVE_AMOUNT_RESULT = new OperationResult(OperationStatus.NEGATIVE_AMOUNT, null);
 
+    private static final OperationResult INSUFFICIENT_CREDIT_RESULT = new OperationResult(OperationStatus.INSUFFICIENT_CREDIT, null);
+
+    private static final OperationResult UNKNOWN_ACCOUNT_RESULT = new OperationResult(OperationStatus.UNKNOWN_ACCOUNT, null);
+
+    private static final String SAME_ACCOUNT_TRANSFER = "Virement impossible vers le compte débité : %s";
+
+    private static final String UNSUPPORTED_BATCH_TYPE = "Type d'opération non pris en charge dans un lot : %s";
 
     private final ITimeService timeService;
 
@@ -27,42 +40,160 @@ public class OperationService implements IOperationService {
 
     private final IOperationPrinter printer;
 
+    private final StatementCache statementCache;
+
+    private final IdempotencyCache idempotencyCache;
+
+    private final SubLedgers subLedgers;
+
+    // vue fusionnée du référentiel lorsque des comptes sont répartis, sinon null
+    private final SubLedgerAccountRepository subLedgerRepository;
+
+    private final AccountLocks locks = new AccountLocks(AccountLocks.DEFAULT_STRIPES);
+
 
     public OperationService(ITimeService timeService, IAccountRepository accountRepository, IOperationPrinter printer) {
+        this(timeService, accountRepository, printer, null);
+    }
+
+    /**
+     * @param statementCache : le cache des relevés servis par {@link #printOperations(String)}, ou null pour s'en passer
+     */
+    public OperationService(ITimeService timeService, IAccountRepository accountRepository, IOperationPrinter printer, StatementCache statementCache) {
+        this(timeService, accountRepository, printer, statementCache, new IdempotencyCache());
+    }
+
+    /**
+     * @param statementCache   : le cache des relevés servis par {@link #printOperations(String)}, ou null pour s'en passer
+     * @param idempotencyCache : les issues retenues pour les appels portant une clé d'idempotence
+     */
+    public OperationService(ITimeService timeService, IAccountRepository accountRepository, IOperationPrinter printer, StatementCache statementCache,
+                            IdempotencyCache idempotencyCache) {
+        this(timeService, accountRepository, printer, statementCache, idempotencyCache, null);
+    }
+
+    /**
+     * @param statementCache   : le cache des relevés servis par {@link #printOperations(String)}, ou null pour s'en passer
+     * @param idempotencyCache : les issues retenues pour les appels portant une clé d'idempotence
+     * @param subLedgers       : les comptes chauds dont les dépôts sont répartis sur des sous-comptes, ou null ;
+     *                           leurs relevés ne passent pas par le cache
+     */
+    public OperationService(ITimeService timeService, IAccountRepository accountRepository, IOperationPrinter printer, StatementCache statementCache,
+                            IdempotencyCache idempotencyCache, SubLedgers subLedgers) {
         this.timeService = timeService;
-        this.accountRepository = accountRepository;
+        this.subLedgers = subLedgers;
+        this.subLedgerRepository = subLedgers == null ? null : new SubLedgerAccountRepository(accountRepository, subLedgers);
+        this.accountRepository = subLedgerRepository == null ? accountRepository : subLedgerRepository;
         this.printer = printer;
+        this.statementCache = statementCache;
+        this.idempotencyCache = idempotencyCache;
     }
 
     @Override
     public void deposit(String clientId, BigDecimal amount) throws NegativeAmountException, BankAccountNotFoundException {
 
-        checkAmountValue(amount);
+        OperationResult result = applyDeposit(clientId, amount);
+
+        if (result.status() == OperationStatus.NEGATIVE_AMOUNT) {
+            throw new NegativeAmountException(result.status().message(clientId, amount));
+        }
+    }
 
-        BigDecimal balance = getBalance(clientId);
+    @Override
+    public void withdraw(String clientId, BigDecimal amount) throws InsufficientCreditException, NegativeAmountException, BankAccountNotFoundException {
 
-        Operation newOperation = new Operation(timeService.utcNow(), amount, OperationType.DEPOSIT, balance.add(amount));
-        accountRepository.addOperation(clientId, newOperation);
+        OperationResult result = applyWithdraw(clientId, amount);
 
+        switch (result.status()) {
+            case NEGATIVE_AMOUNT -> throw new NegativeAmountException(result.status().message(clientId, amount));
+            case INSUFFICIENT_CREDIT -> throw new InsufficientCreditException(result.status().message(clientId, amount));
+            default -> {
+            }
+        }
     }
 
     @Override
-    public void withdraw(String clientId, BigDecimal amount) throws InsufficientCreditException, NegativeAmountException, BankAccountNotFoundException {
-        checkAmountValue(amount);
+    public void transfer(String fromClientId, String toClientId, BigDecimal amount) throws InsufficientCreditException, NegativeAmountException, BankAccountNotFoundException {
 
-        BigDecimal balance = getBalance(clientId);
+        OperationResult result = applyTransfer(fromClientId, toClientId, amount);
 
-        if (amount.compareTo(balance) <= 0) {
-            Operation newOperation = new Operation(timeService.utcNow(), amount, OperationType.WITHDRAW, balance.subtract(amount));
-            accountRepository.addOperation(clientId, newOperation);
-        } else {
-            String InsufficientCreditMessage = String.format(INSUFFICIENT_CREDIT, amount);
-            throw new InsufficientCreditException(InsufficientCreditMessage);
+        switch (result.status()) {
+            case NEGATIVE_AMOUNT -> throw new NegativeAmountException(result.status().message(fromClientId, amount));
+            case INSUFFICIENT_CREDIT -> throw new InsufficientCreditException(result.status().message(fromClientId, amount));
+            default -> {
+            }
+        }
+    }
+
+    @Override
+    public OperationResult tryDeposit(String clientId, BigDecimal amount) {
+        try {
+            return applyDeposit(clientId, amount);
+        } catch (BankAccountNotFoundException e) {
+            return UNKNOWN_ACCOUNT_RESULT;
         }
     }
 
+    @Override
+    public OperationResult tryWithdraw(String clientId, BigDecimal amount) {
+        try {
+            return applyWithdraw(clientId, amount);
+        } catch (BankAccountNotFoundException e) {
+            return UNKNOWN_ACCOUNT_RESULT;
+        }
+    }
+
+    @Override
+    public void deposit(String clientId, BigDecimal amount, String idempotencyKey) throws NegativeAmountException, BankAccountNotFoundException {
+
+        OperationResult result = tryDeposit(clientId, amount, idempotencyKey);
+
+        switch (result.status()) {
+            case NEGATIVE_AMOUNT -> throw new NegativeAmountException(result.status().message(clientId, amount));
+            case UNKNOWN_ACCOUNT -> throw new BankAccountNotFoundException(result.status().message(clientId, amount));
+            default -> {
+            }
+        }
+    }
+
+    @Override
+    public void withdraw(String clientId, BigDecimal amount, String idempotencyKey) throws InsufficientCreditException, NegativeAmountException, BankAccountNotFoundException {
+
+        OperationResult result = tryWithdraw(clientId, amount, idempotencyKey);
+
+        switch (result.status()) {
+            case NEGATIVE_AMOUNT -> throw new NegativeAmountException(result.status().message(clientId, amount));
+            case INSUFFICIENT_CREDIT -> throw new InsufficientCreditException(result.status().message(clientId, amount));
+            case UNKNOWN_ACCOUNT -> throw new BankAccountNotFoundException(result.status().message(clientId, amount));
+            default -> {
+            }
+        }
+    }
+
+    @Override
+    public OperationResult tryDeposit(String clientId, BigDecimal amount, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return tryDeposit(clientId, amount);
+        }
+        // un rejeu reçoit l'issue retenue, rejet compris, sans lire ni écrire le référentiel
+        return idempotencyCache.execute(idempotencyKey, new OperationCommand(clientId, OperationType.DEPOSIT, amount),
+                () -> tryDeposit(clientId, amount));
+    }
+
+    @Override
+    public OperationResult tryWithdraw(String clientId, BigDecimal amount, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return tryWithdraw(clientId, amount);
+        }
+        return idempotencyCache.execute(idempotencyKey, new OperationCommand(clientId, OperationType.WITHDRAW, amount),
+                () -> tryWithdraw(clientId, amount));
+    }
+
     @Override
     public String printOperations(String clientId) throws BankAccountNotFoundException {
+        if (statementCache != null && !isHot(clientId)) {
+            return printCachedOperations(clientId);
+        }
         List<Operation> operations = accountRepository.findOperationsByClientId(clientId)
                 .stream()
                 .collect(Collector.of(() -> new ArrayDeque<Operation>(), (a, b) -> a.addFirst(b), (a, b)->a))
@@ -72,17 +203,339 @@ public class OperationService implements IOperationService {
         return printer.print(operations, clientId);
 
     }
-    private void checkAmountValue(BigDecimal amount) throws NegativeAmountException {
 
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
-            String amountMessage = String.format(NEGATIVE_DEPOSIT_AMOUNT, amount);
-            throw new NegativeAmountException(amountMessage);
+    private String printCachedOperations(String clientId) throws BankAccountNotFoundException {
+        String statement = statementCache.get(clientId, getLastOperation(clientId));
+        if (statement != null) {
+            return statement;
+        }
+
+        // le relevé est associé à la dernière opération de l'instantané imprimé, pas à celle lue plus haut
+        List<Operation> operations = accountRepository.findOperationsByClientId(clientId);
+        List<Operation> newestFirst = new ArrayList<>(operations.size());
+        for (int index = operations.size() - 1; index >= 0; index--) {
+            newestFirst.add(operations.get(index));
+        }
+        statement = printer.print(newestFirst, clientId);
+        statementCache.put(clientId, newestFirst.isEmpty() ? null : newestFirst.get(0), statement);
+        return statement;
+    }
+
+    @Override
+    public void printOperations(String clientId, Appendable output) throws BankAccountNotFoundException, IOException {
+        // un relevé en cache est écrit tel quel ; sinon il est imprimé au fil de l'historique, sans entrer en cache
+        if (statementCache != null && !isHot(clientId) && statementCache.write(clientId, getLastOperation(clientId), output)) {
+            return;
+        }
+        printer.print(accountRepository.iterateOperationsNewestFirst(clientId), clientId, output);
+    }
+
+    @Override
+    public String printOperations(String clientId, LocalDate from, LocalDate to) throws BankAccountNotFoundException {
+        List<Operation> operations = accountRepository.findOperationsBetween(clientId, from, to);
+
+        List<Operation> newestFirst = new ArrayList<>(operations.size());
+        for (int index = operations.size() - 1; index >= 0; index--) {
+            newestFirst.add(operations.get(index));
+        }
+
+        return printer.print(newestFirst, clientId);
+    }
+
+    @Override
+    public String printOperationsPage(String clientId, int page, int size) throws BankAccountNotFoundException {
+        return printer.print(accountRepository.findOperationsPage(clientId, page, size), clientId);
+    }
+
+    @Override
+    public BigDecimal getBalanceAt(String clientId, LocalDate date) throws BankAccountNotFoundException {
+        return accountRepository.findBalanceAt(clientId, date);
+    }
+
+    @Override
+    public PeriodTotals getTotals(String clientId, LocalDate from, LocalDate to) throws BankAccountNotFoundException {
+        return accountRepository.findTotalsBetween(clientId, from, to);
+    }
+
+    @Override
+    public List<OperationResult> processBatch(List<OperationCommand> commands) {
+
+        checkBatchTypes(commands);
+        Map<String, List<Integer>> commandsByClient = new LinkedHashMap<>();
+        for (int i = 0; i < commands.size(); i++) {
+            commandsByClient.computeIfAbsent(commands.get(i).clientId(), clientId -> new ArrayList<>()).add(i);
+        }
+
+        OperationResult[] results = new OperationResult[commands.size()];
+        commandsByClient.forEach((clientId, indexes) -> processAccountBatch(clientId, indexes, commands, results));
+
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Un lot ne porte que des dépôts et des retraits : un virement passe par {@link #transfer(String, String, BigDecimal)},
+     * qui écrit ses deux côtés. Vérifié avant toute écriture, le lot est rejeté en entier.
+     */
+    static void checkBatchTypes(List<OperationCommand> commands) {
+        for (OperationCommand command : commands) {
+            if (command.operationType() != OperationType.DEPOSIT && command.operationType() != OperationType.WITHDRAW) {
+                throw new IllegalArgumentException(String.format(UNSUPPORTED_BATCH_TYPE, command.operationType()));
+            }
         }
     }
 
-    private BigDecimal getBalance(String clientId) throws BankAccountNotFoundException {
+    private void processAccountBatch(String clientId, List<Integer> indexes, List<OperationCommand> commands, OperationResult[] results) {
+        lockAccount(clientId);
+        try {
+            applyAccountBatch(clientId, indexes, commands, results);
+        } finally {
+            unlockAccount(clientId);
+        }
+    }
+
+    private void applyAccountBatch(String clientId, List<Integer> indexes, List<OperationCommand> commands, OperationResult[] results) {
+
+        Operation lastOperation;
+        try {
+            lastOperation = getLastOperation(clientId);
+        } catch (BankAccountNotFoundException e) {
+            indexes.forEach(index -> results[index] = UNKNOWN_ACCOUNT_RESULT);
+            return;
+        }
+
+        BigDecimal balance = balanceOf(lastOperation);
+        long sequence = sequenceOf(lastOperation);
+        LocalDateTime now = timeService.utcDateTime();
+        List<Operation> newOperations = new ArrayList<>(indexes.size());
+
+        for (int index : indexes) {
+            OperationCommand command = commands.get(index);
+            BigDecimal amount = command.amount();
+
+            if (!isPositive(amount)) {
+                results[index] = NEGATIVE_AMOUNT_RESULT;
+                continue;
+            }
+            boolean credit = command.operationType().isCredit();
+            if (!credit && amount.compareTo(balance) > 0) {
+                results[index] = INSUFFICIENT_CREDIT_RESULT;
+                continue;
+            }
+
+            balance = credit ? balance.add(amount) : balance.subtract(amount);
+            Operation newOperation = new Operation(now.toLocalDate(), amount, command.operationType(), balance, now.toLocalTime(), ++sequence);
+            newOperations.add(newOperation);
+            results[index] = new OperationResult(OperationStatus.ACCEPTED, newOperation);
+        }
+
+        if (newOperations.isEmpty()) {
+            return;
+        }
+
+        try {
+            accountRepository.addOperations(clientId, newOperations);
+            onAppend(clientId, newOperations);
+        } catch (BankAccountNotFoundException e) {
+            indexes.stream().filter(index -> results[index].isAccepted()).forEach(index -> results[index] = UNKNOWN_ACCOUNT_RESULT);
+        }
+    }
+
+    private OperationResult applyDeposit(String clientId, BigDecimal amount) throws BankAccountNotFoundException {
+
+        if (!isPositive(amount)) {
+            return NEGATIVE_AMOUNT_RESULT;
+        }
+        if (isHot(clientId)) {
+            return applySpreadDeposit(clientId, amount);
+        }
+
+        locks.lock(clientId);
+        try {
+            Operation lastOperation = getLastOperation(clientId);
+
+            Operation newOperation = newOperation(amount, OperationType.DEPOSIT, balanceOf(lastOperation).add(amount), lastOperation);
+            accountRepository.addOperation(clientId, newOperation);
+            onAppend(clientId, newOperation);
+            return new OperationResult(OperationStatus.ACCEPTED, newOperation);
+        } finally {
+            locks.unlock(clientId);
+        }
+    }
+
+    /**
+     * Dépôt sur un compte chaud : seul le sous-compte tiré est verrouillé et lu, l'époque du compte est lue sans être écrite.
+     * L'opération renvoyée ne porte pas de solde : le solde fusionné demanderait de lire tous les sous-comptes à chaque dépôt.
+     */
+    private OperationResult applySpreadDeposit(String clientId, BigDecimal amount) throws BankAccountNotFoundException {
+        String ledgerId = subLedgers.pickDepositLedger(clientId);
+        locks.lock(ledgerId);
+        try {
+            BigDecimal balance = balanceOf(getLastOperation(ledgerId));
+            LocalDateTime now = timeService.utcDateTime();
+            long epoch = subLedgerRepository.depositEpoch(clientId);
+            accountRepository.addOperation(ledgerId, new Operation(now.toLocalDate(), amount, OperationType.DEPOSIT, balance.add(amount),
+                    now.toLocalTime(), epoch));
+            return new OperationResult(OperationStatus.ACCEPTED, new Operation(now.toLocalDate(), amount, OperationType.DEPOSIT, null,
+                    now.toLocalTime(), epoch));
+        } finally {
+            locks.unlock(ledgerId);
+        }
+    }
+
+    private OperationResult applyWithdraw(String clientId, BigDecimal amount) throws BankAccountNotFoundException {
+
+        if (!isPositive(amount)) {
+            return NEGATIVE_AMOUNT_RESULT;
+        }
+
+        lockAccount(clientId);
+        try {
+            Operation lastOperation = getLastOperation(clientId);
+            BigDecimal balance = balanceOf(lastOperation);
+
+            if (amount.compareTo(balance) > 0) {
+                return INSUFFICIENT_CREDIT_RESULT;
+            }
+
+            Operation newOperation = newOperation(amount, OperationType.WITHDRAW, balance.subtract(amount), lastOperation);
+            accountRepository.addOperation(clientId, newOperation);
+            onAppend(clientId, newOperation);
+            return new OperationResult(OperationStatus.ACCEPTED, newOperation);
+        } finally {
+            unlockAccount(clientId);
+        }
+    }
+
+    private OperationResult applyTransfer(String fromClientId, String toClientId, BigDecimal amount) throws BankAccountNotFoundException {
+
+        if (!isPositive(amount)) {
+            return NEGATIVE_AMOUNT_RESULT;
+        }
+        if (fromClientId.equals(toClientId)) {
+            throw new IllegalArgumentException(String.format(SAME_ACCOUNT_TRANSFER, fromClientId));
+        }
+
+        lockAccounts(fromClientId, toClientId);
+        try {
+            Operation lastDebited = getLastOperation(fromClientId);
+            Operation lastCredited = getLastOperation(toClientId);
+            BigDecimal balance = balanceOf(lastDebited);
+
+            if (amount.compareTo(balance) > 0) {
+                return INSUFFICIENT_CREDIT_RESULT;
+            }
+
+            // les deux écritures portent le même horodatage
+            LocalDateTime now = timeService.utcDateTime();
+            Operation debit = new Operation(now.toLocalDate(), amount, OperationType.TRANSFER_OUT, balance.subtract(amount),
+                    now.toLocalTime(), sequenceOf(lastDebited) + 1);
+            Operation credit = new Operation(now.toLocalDate(), amount, OperationType.TRANSFER_IN, balanceOf(lastCredited).add(amount),
+                    now.toLocalTime(), sequenceOf(lastCredited) + 1);
+            // les deux comptes ont été lus sous verrou : seul un échec d'écriture du référentiel peut séparer les deux côtés
+            accountRepository.addOperation(fromClientId, debit);
+            onAppend(fromClientId, debit);
+            try {
+                accountRepository.addOperation(toClientId, credit);
+            } catch (BankAccountNotFoundException | RuntimeException e) {
+                compensate(fromClientId, debit, e);
+                throw e;
+            }
+            onAppend(toClientId, credit);
+            return new OperationResult(OperationStatus.ACCEPTED, debit);
+        } finally {
+            unlockAccounts(fromClientId, toClientId);
+        }
+    }
+
+    /**
+     * Le crédit n'a pas pu être écrit : le débit, déjà inscrit à l'historique, est contre-passé par un crédit du même montant.
+     */
+    private void compensate(String fromClientId, Operation debit, Exception cause) {
+        Operation reversal = new Operation(debit.date(), debit.amount(), OperationType.TRANSFER_IN, debit.balance().add(debit.amount()),
+                debit.time(), debit.sequence() + 1);
+        try {
+            accountRepository.addOperation(fromClientId, reversal);
+            onAppend(fromClientId, reversal);
+        } catch (BankAccountNotFoundException | RuntimeException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private boolean isHot(String clientId) {
+        return subLedgers != null && subLedgers.isHot(clientId);
+    }
+
+    // un compte chaud est verrouillé avec tous ses sous-comptes : plus aucun dépôt ne le modifie
+    private void lockAccount(String clientId) {
+        if (isHot(clientId)) {
+            locks.lockAll(subLedgers.ledgerIds(clientId));
+        } else {
+            locks.lock(clientId);
+        }
+    }
+
+    private void unlockAccount(String clientId) {
+        if (isHot(clientId)) {
+            locks.unlockAll(subLedgers.ledgerIds(clientId));
+        } else {
+            locks.unlock(clientId);
+        }
+    }
+
+    private void lockAccounts(String clientId, String otherClientId) {
+        if (isHot(clientId) || isHot(otherClientId)) {
+            locks.lockAll(ledgerIds(clientId, otherClientId));
+        } else {
+            locks.lock(clientId, otherClientId);
+        }
+    }
+
+    private void unlockAccounts(String clientId, String otherClientId) {
+        if (isHot(clientId) || isHot(otherClientId)) {
+            locks.unlockAll(ledgerIds(clientId, otherClientId));
+        } else {
+            locks.unlock(clientId, otherClientId);
+        }
+    }
+
+    private String[] ledgerIds(String clientId, String otherClientId) {
+        List<String> ledgerIds = new ArrayList<>();
+        for (String id : List.of(clientId, otherClientId)) {
+            ledgerIds.addAll(isHot(id) ? Arrays.asList(subLedgers.ledgerIds(id)) : List.of(id));
+        }
+        return ledgerIds.toArray(String[]::new);
+    }
+
+    private void onAppend(String clientId, Operation operation) {
+        if (statementCache != null && !isHot(clientId)) {
+            statementCache.onAppend(clientId, operation);
+        }
+    }
+
+    private void onAppend(String clientId, List<Operation> operations) {
+        if (statementCache != null && !isHot(clientId)) {
+            statementCache.onAppend(clientId, operations);
+        }
+    }
+
+    private static boolean isPositive(BigDecimal amount) {
+        return amount.signum() > 0;
+    }
+
+    private Operation newOperation(BigDecimal amount, OperationType operationType, BigDecimal balance, Operation lastOperation) {
+        LocalDateTime now = timeService.utcDateTime();
+        return new Operation(now.toLocalDate(), amount, operationType, balance, now.toLocalTime(), sequenceOf(lastOperation) + 1);
+    }
+
+    private Operation getLastOperation(String clientId) throws BankAccountNotFoundException {
+        return accountRepository.findLastOperationByClientId(clientId).orElse(null);
+    }
+
+    private static BigDecimal balanceOf(Operation lastOperation) {
+        return lastOperation != null ? lastOperation.balance() : BigDecimal.ZERO;
+    }
 
-        Optional<Operation> lastOperation = accountRepository.findLastOperationByClientId(clientId);
-        return lastOperation.map(Operation::balance).orElse(BigDecimal.ZERO);
+    private static long sequenceOf(Operation lastOperation) {
+        return lastOperation != null ? lastOperation.sequence() : 0;
     }
 }
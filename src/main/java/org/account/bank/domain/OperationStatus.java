@@ -0,0 +1,26 @@
+package org.account.bank.domain;
+
+import java.math.BigDecimal;
+
+public enum OperationStatus {
+    ACCEPTED("Opération acceptée : %2$f"),
+    INSUFFICIENT_CREDIT("Crédit insuffisant pour retirer le montant : %2$f"),
+    NEGATIVE_AMOUNT("Impossible de crediter ou de débiter le compte avec un montant négatif : %2$f"),
+    UNKNOWN_ACCOUNT("Compte inexistant : %1$s");
+
+    private final String messageFormat;
+
+    OperationStatus(String messageFormat) {
+        this.messageFormat = messageFormat;
+    }
+
+    /**
+     * Le message n'est formaté qu'à la demande : le chemin de rejet n'a rien à construire.
+     *
+     * @param clientId : l'identifiant du compte client
+     * @param amount   : le montant de l'opération
+     */
+    public String message(String clientId, BigDecimal amount) {
+        return String.format(messageFormat, clientId, amount);
+    }
+}
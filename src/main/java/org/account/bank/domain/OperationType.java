@@ -1,5 +1,13 @@
 package org.account.bank.domain;
 
 public enum OperationType {
-    DEPOSIT, WITHDRAW
+    // l'ordinal est persisté par les référentiels : ajouter les nouveaux types à la fin
+    DEPOSIT, WITHDRAW, TRANSFER_OUT, TRANSFER_IN;
+
+    /**
+     * @return true si l'opération augmente le solde du compte
+     */
+    public boolean isCredit() {
+        return this == DEPOSIT || this == TRANSFER_IN;
+    }
 }
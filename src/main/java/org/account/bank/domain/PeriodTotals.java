@@ -0,0 +1,29 @@
+package org.account.bank.domain;
+
+import java.math.BigDecimal;
+
+/**
+ * Cumul des mouvements d'un compte sur une période.
+ *
+ * @param credits : la somme des dépôts et virements reçus
+ * @param debits  : la somme des retraits et virements émis
+ * @param count   : le nombre d'opérations
+ */
+public record PeriodTotals(BigDecimal credits, BigDecimal debits, long count) {
+
+    public static final PeriodTotals EMPTY = new PeriodTotals(BigDecimal.ZERO, BigDecimal.ZERO, 0);
+
+    public PeriodTotals plus(Operation operation) {
+        return operation.operationType().isCredit()
+                ? new PeriodTotals(credits.add(operation.amount()), debits, count + 1)
+                : new PeriodTotals(credits, debits.add(operation.amount()), count + 1);
+    }
+
+    public PeriodTotals plus(PeriodTotals other) {
+        return new PeriodTotals(credits.add(other.credits), debits.add(other.debits), count + other.count);
+    }
+
+    public PeriodTotals minus(PeriodTotals other) {
+        return new PeriodTotals(credits.subtract(other.credits), debits.subtract(other.debits), count - other.count);
+    }
+}
@@ -0,0 +1,246 @@
+package org.account.bank.domain;
+
+import org.account.bank.domain.exception.BankAccountNotFoundException;
+import org.account.bank.domain.exception.InsufficientCreditException;
+import org.account.bank.domain.exception.NegativeAmountException;
+import org.account.bank.domain.port.primary.IOperationService;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Sérialise les mouvements de chaque compte dans sa propre file ({@link AccountLane}) :
+ * la lecture du solde et l'ajout de l'opération ne peuvent plus être entrelacés
+ * pour un même compte, tandis que des comptes différents avancent en parallèle.
+ * Une file n'existe que tant que son compte a des mouvements en attente : elle est retirée dès qu'elle se vide,
+ * si bien que les identifiants inconnus ou fermés n'occupent aucune place durable.
+ * <p>
+ * Les dépôts sur un compte chaud ({@link SubLedgers}) ne passent pas par la file : le service délégué, construit avec
+ * les mêmes {@link SubLedgers}, les répartit déjà sur des sous-comptes verrouillés séparément, et la file les sérialiserait à nouveau.
+ */
+public class SerializedOperationService implements IOperationService {
+
+    private final IOperationService operationService;
+
+    private final Executor executor;
+
+    private final SubLedgers subLedgers;
+
+    private final ConcurrentHashMap<String, AccountLane> lanes = new ConcurrentHashMap<>();
+
+    public SerializedOperationService(IOperationService operationService) {
+        this(operationService, ForkJoinPool.commonPool());
+    }
+
+    public SerializedOperationService(IOperationService operationService, Executor executor) {
+        this(operationService, executor, null);
+    }
+
+    /**
+     * @param subLedgers : les comptes chauds du service délégué, dont les dépôts ne passent pas par la file ; ou null
+     */
+    public SerializedOperationService(IOperationService operationService, Executor executor, SubLedgers subLedgers) {
+        this.operationService = operationService;
+        this.executor = executor;
+        this.subLedgers = subLedgers;
+    }
+
+    @Override
+    public void deposit(String clientId, BigDecimal amount) throws NegativeAmountException, BankAccountNotFoundException {
+        if (isSpread(clientId)) {
+            operationService.deposit(clientId, amount);
+            return;
+        }
+        try {
+            execute(clientId, () -> {
+                operationService.deposit(clientId, amount);
+                return null;
+            });
+        } catch (InsufficientCreditException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void withdraw(String clientId, BigDecimal amount) throws InsufficientCreditException, NegativeAmountException, BankAccountNotFoundException {
+        execute(clientId, () -> {
+            operationService.withdraw(clientId, amount);
+            return null;
+        });
+    }
+
+    @Override
+    public void transfer(String fromClientId, String toClientId, BigDecimal amount) throws InsufficientCreditException, NegativeAmountException, BankAccountNotFoundException {
+        // un virement touche deux files : attendre l'une depuis l'autre pourrait bloquer les threads de l'exécuteur.
+        // Le service délégué prend lui-même les verrous des deux comptes, dans un ordre fixe.
+        operationService.transfer(fromClientId, toClientId, amount);
+    }
+
+    @Override
+    public OperationResult tryDeposit(String clientId, BigDecimal amount) {
+        if (isSpread(clientId)) {
+            return operationService.tryDeposit(clientId, amount);
+        }
+        return submit(clientId, () -> operationService.tryDeposit(clientId, amount)).join();
+    }
+
+    @Override
+    public OperationResult tryWithdraw(String clientId, BigDecimal amount) {
+        return submit(clientId, () -> operationService.tryWithdraw(clientId, amount)).join();
+    }
+
+    @Override
+    public void deposit(String clientId, BigDecimal amount, String idempotencyKey) throws NegativeAmountException, BankAccountNotFoundException {
+        if (isSpread(clientId)) {
+            operationService.deposit(clientId, amount, idempotencyKey);
+            return;
+        }
+        try {
+            execute(clientId, () -> {
+                operationService.deposit(clientId, amount, idempotencyKey);
+                return null;
+            });
+        } catch (InsufficientCreditException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void withdraw(String clientId, BigDecimal amount, String idempotencyKey) throws InsufficientCreditException, NegativeAmountException, BankAccountNotFoundException {
+        execute(clientId, () -> {
+            operationService.withdraw(clientId, amount, idempotencyKey);
+            return null;
+        });
+    }
+
+    @Override
+    public OperationResult tryDeposit(String clientId, BigDecimal amount, String idempotencyKey) {
+        if (isSpread(clientId)) {
+            return operationService.tryDeposit(clientId, amount, idempotencyKey);
+        }
+        return submit(clientId, () -> operationService.tryDeposit(clientId, amount, idempotencyKey)).join();
+    }
+
+    @Override
+    public OperationResult tryWithdraw(String clientId, BigDecimal amount, String idempotencyKey) {
+        return submit(clientId, () -> operationService.tryWithdraw(clientId, amount, idempotencyKey)).join();
+    }
+
+    @Override
+    public String printOperations(String clientId) throws BankAccountNotFoundException {
+        // les lectures ne modifient rien : inutile de passer par la file du compte
+        return operationService.printOperations(clientId);
+    }
+
+    @Override
+    public void printOperations(String clientId, Appendable output) throws BankAccountNotFoundException, IOException {
+        operationService.printOperations(clientId, output);
+    }
+
+    @Override
+    public String printOperations(String clientId, LocalDate from, LocalDate to) throws BankAccountNotFoundException {
+        return operationService.printOperations(clientId, from, to);
+    }
+
+    @Override
+    public String printOperationsPage(String clientId, int page, int size) throws BankAccountNotFoundException {
+        return operationService.printOperationsPage(clientId, page, size);
+    }
+
+    @Override
+    public BigDecimal getBalanceAt(String clientId, LocalDate date) throws BankAccountNotFoundException {
+        return operationService.getBalanceAt(clientId, date);
+    }
+
+    @Override
+    public PeriodTotals getTotals(String clientId, LocalDate from, LocalDate to) throws BankAccountNotFoundException {
+        return operationService.getTotals(clientId, from, to);
+    }
+
+    @Override
+    public List<OperationResult> processBatch(List<OperationCommand> commands) {
+
+        // rejeté avant de répartir le lot : aucune file n'a encore écrit
+        OperationService.checkBatchTypes(commands);
+        Map<String, List<Integer>> commandsByClient = new LinkedHashMap<>();
+        for (int i = 0; i < commands.size(); i++) {
+            commandsByClient.computeIfAbsent(commands.get(i).clientId(), clientId -> new ArrayList<>()).add(i);
+        }
+
+        // chaque compte traite sa part du lot dans sa file, les comptes en parallèle
+        List<CompletableFuture<List<OperationResult>>> pending = new ArrayList<>(commandsByClient.size());
+        commandsByClient.forEach((clientId, indexes) -> {
+            List<OperationCommand> accountCommands = indexes.stream().map(commands::get).toList();
+            pending.add(submit(clientId, () -> operationService.processBatch(accountCommands)));
+        });
+
+        OperationResult[] results = new OperationResult[commands.size()];
+        int account = 0;
+        for (List<Integer> indexes : commandsByClient.values()) {
+            List<OperationResult> accountResults = pending.get(account++).join();
+            for (int i = 0; i < indexes.size(); i++) {
+                results[indexes.get(i)] = accountResults.get(i);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private <T> CompletableFuture<T> submit(String clientId, Callable<T> task) {
+        while (true) {
+            AccountLane lane = lanes.get(clientId);
+            if (lane == null) {
+                lane = lanes.computeIfAbsent(clientId, id -> new AccountLane(executor, retired -> lanes.remove(id, retired)));
+            }
+            CompletableFuture<T> result = lane.submit(task);
+            if (result != null) {
+                return result;
+            }
+            // file retirée entre sa lecture et la soumission : on aide à la retirer et on en crée une autre
+            lanes.remove(clientId, lane);
+        }
+    }
+
+    private boolean isSpread(String clientId) {
+        return subLedgers != null && subLedgers.isHot(clientId);
+    }
+
+    int laneCount() {
+        return lanes.size();
+    }
+
+    private <T> T execute(String clientId, Callable<T> task) throws InsufficientCreditException, NegativeAmountException, BankAccountNotFoundException {
+        try {
+            return submit(clientId, task).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof InsufficientCreditException insufficientCreditException) {
+                throw insufficientCreditException;
+            }
+            if (cause instanceof NegativeAmountException negativeAmountException) {
+                throw negativeAmountException;
+            }
+            if (cause instanceof BankAccountNotFoundException bankAccountNotFoundException) {
+                throw bankAccountNotFoundException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
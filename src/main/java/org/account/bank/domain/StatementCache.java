@@ -0,0 +1,237 @@
+package org.account.bank.domain;
+
+import org.account.bank.domain.port.secondary.IOperationPrinter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Relevés déjà imprimés, par compte, dans la limite d'environ {@code maxStatements} comptes.
+ * <p>
+ * Les opérations ajoutées à un compte en cache sont mises en attente ({@link #onAppend}) et seules leurs lignes
+ * sont imprimées à la lecture suivante. Un relevé n'est servi que si sa dernière opération connue est toujours
+ * la dernière du compte : un ajout qui n'est pas passé par le cache provoque une réimpression complète.
+ * <p>
+ * Aucun verrou n'est commun à tous les comptes : la table est concurrente et chaque relevé a son propre verrou.
+ * L'éviction suit l'algorithme de l'horloge (seconde chance) : un relevé lu depuis le dernier passage est épargné une fois.
+ * Les lignes d'un relevé sont gardées par tranches, la plus récente en tête, fusionnées lorsque deux tranches voisines
+ * sont de tailles comparables : une mise à jour n'imprime que les nouvelles lignes et ne recopie pas l'historique,
+ * qui n'est assemblé qu'à la demande du texte complet.
+ */
+public class StatementCache {
+
+    private final IOperationPrinter printer;
+
+    private final int maxStatements;
+
+    private final ConcurrentHashMap<String, Statement> statements = new ConcurrentHashMap<>();
+
+    // relevés dans leur ordre d'entrée, parcourus par l'horloge ; ceux remplacés ou invalidés y restent jusqu'à leur passage
+    private final ConcurrentLinkedQueue<Statement> clock = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger clockSize = new AtomicInteger();
+
+    public StatementCache(IOperationPrinter printer, int maxStatements) {
+        if (maxStatements <= 0) {
+            throw new IllegalArgumentException("Taille de cache invalide : " + maxStatements);
+        }
+        this.printer = printer;
+        this.maxStatements = maxStatements;
+    }
+
+    /**
+     * @param clientId      : l'identifiant du compte client
+     * @param lastOperation : la dernière opération actuelle du compte, ou null si le compte est vide
+     * @return Le relevé à jour, ou null s'il n'est pas en cache ou ne correspond plus au compte
+     */
+    String get(String clientId, Operation lastOperation) {
+        Statement statement = statements.get(clientId);
+        if (statement == null) {
+            return null;
+        }
+        synchronized (statement) {
+            if (!Objects.equals(statement.last, lastOperation)) {
+                return null;
+            }
+            update(statement);
+            statement.referenced = true;
+            if (statement.text == null) {
+                statement.text = statement.assemble();
+            }
+            return statement.text;
+        }
+    }
+
+    /**
+     * Écrit le relevé en cache dans la sortie, tranche par tranche, sans assembler le texte complet.
+     *
+     * @param clientId      : l'identifiant du compte client
+     * @param lastOperation : la dernière opération actuelle du compte, ou null si le compte est vide
+     * @param output        : la sortie du relevé
+     * @return false si le relevé n'est pas en cache ou ne correspond plus au compte : rien n'a été écrit
+     */
+    boolean write(String clientId, Operation lastOperation, Appendable output) throws IOException {
+        Statement statement = statements.get(clientId);
+        if (statement == null) {
+            return false;
+        }
+        String header;
+        String[] chunks;
+        synchronized (statement) {
+            if (!Objects.equals(statement.last, lastOperation)) {
+                return false;
+            }
+            update(statement);
+            statement.referenced = true;
+            header = statement.header;
+            chunks = statement.chunks.toArray(String[]::new);
+        }
+        // les tranches sont immuables : la sortie, peut-être lente, est écrite hors verrou
+        output.append(header);
+        for (String chunk : chunks) {
+            output.append(chunk);
+        }
+        return true;
+    }
+
+    /**
+     * @param clientId      : l'identifiant du compte client
+     * @param lastOperation : la dernière opération imprimée dans le relevé, ou null si le compte est vide
+     * @param text          : le relevé complet
+     */
+    void put(String clientId, Operation lastOperation, String text) {
+        Statement statement = new Statement(clientId, printer.header(clientId), lastOperation, text);
+        statements.put(clientId, statement);
+        clock.offer(statement);
+        clockSize.incrementAndGet();
+        sweep();
+    }
+
+    /**
+     * À appeler après chaque ajout, sous le verrou du compte, avec les opérations ajoutées dans l'ordre chronologique.
+     */
+    void onAppend(String clientId, List<Operation> operations) {
+        Statement statement = statements.get(clientId);
+        if (statement == null) {
+            return;
+        }
+        synchronized (statement) {
+            for (Operation operation : operations) {
+                // numéro de séquence inattendu : le relevé a été imprimé après cet ajout, ou un ajout nous a échappé
+                if (operation.sequence() != (statement.last != null ? statement.last.sequence() : 0) + 1) {
+                    statements.remove(clientId, statement);
+                    return;
+                }
+                statement.pending.add(operation);
+                statement.last = operation;
+            }
+        }
+    }
+
+    void onAppend(String clientId, Operation operation) {
+        onAppend(clientId, List.of(operation));
+    }
+
+    /**
+     * Tour d'horloge : évince les relevés non lus depuis le dernier passage tant que le cache déborde,
+     * et purge la file des relevés remplacés ou invalidés lorsqu'elle dépasse le double de la capacité.
+     */
+    private void sweep() {
+        while (statements.size() > maxStatements || clockSize.get() > 2 * maxStatements) {
+            Statement candidate = clock.poll();
+            if (candidate == null) {
+                return;
+            }
+            clockSize.decrementAndGet();
+            if (statements.get(candidate.clientId) != candidate) {
+                continue;
+            }
+            if (statements.size() <= maxStatements || candidate.referenced) {
+                if (statements.size() > maxStatements) {
+                    candidate.referenced = false;
+                }
+                clock.offer(candidate);
+                clockSize.incrementAndGet();
+            } else {
+                statements.remove(candidate.clientId, candidate);
+            }
+        }
+    }
+
+    /**
+     * Imprime les opérations en attente en une nouvelle tranche de tête ; appelé sous le verrou du relevé.
+     */
+    private void update(Statement statement) {
+        if (statement.pending.isEmpty()) {
+            return;
+        }
+        StringBuilder chunk = new StringBuilder(64 * statement.pending.size());
+        try {
+            for (int index = statement.pending.size() - 1; index >= 0; index--) {
+                printer.printLine(statement.pending.get(index), statement.clientId, chunk);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        statement.pending.clear();
+        statement.text = null;
+
+        // fusion façon compteur binaire : O(log n) tranches, chaque caractère recopié O(log n) fois au plus
+        String head = chunk.toString();
+        while (!statement.chunks.isEmpty() && statement.chunks.peekFirst().length() <= 2 * head.length()) {
+            head = head.concat(statement.chunks.pollFirst());
+        }
+        statement.chunks.addFirst(head);
+    }
+
+    private static final class Statement {
+
+        private final String clientId;
+
+        private final String header;
+
+        // lignes imprimées, la tranche la plus récente en tête ; l'en-tête n'en fait pas partie
+        private final ArrayDeque<String> chunks = new ArrayDeque<>();
+
+        // dernière opération connue du relevé, imprimée ou en attente
+        private Operation last;
+
+        private final List<Operation> pending = new ArrayList<>();
+
+        // texte complet assemblé, null tant qu'il n'a pas été demandé depuis la dernière mise à jour
+        private String text;
+
+        // lu depuis le dernier passage de l'horloge
+        private volatile boolean referenced;
+
+        private Statement(String clientId, String header, Operation last, String text) {
+            if (!text.startsWith(header)) {
+                throw new IllegalArgumentException("Relevé sans en-tête : " + clientId);
+            }
+            this.clientId = clientId;
+            this.header = header;
+            this.last = last;
+            this.text = text;
+            if (text.length() > header.length()) {
+                chunks.add(text.substring(header.length()));
+            }
+        }
+
+        private String assemble() {
+            int length = header.length();
+            for (String chunk : chunks) {
+                length += chunk.length();
+            }
+            StringBuilder output = new StringBuilder(length).append(header);
+            chunks.forEach(output::append);
+            return output.toString();
+        }
+    }
+}
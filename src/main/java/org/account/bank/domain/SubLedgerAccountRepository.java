@@ -0,0 +1,458 @@
+package org.account.bank.domain;
+
+import org.account.bank.domain.exception.BankAccountNotFoundException;
+import org.account.bank.domain.port.secondary.IAccountRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Vue d'un référentiel dans laquelle chaque compte chaud de {@link SubLedgers} apparaît comme un seul compte :
+ * ses sous-comptes sont fusionnés par époque, horodatage puis sous-compte, le solde est recalculé le long de la fusion
+ * et les opérations sont renumérotées à partir de 1.
+ * Les sous-comptes de dépôt restent accessibles sous leur propre identifiant et sont ouverts à leur première lecture.
+ * <p>
+ * Une écriture sur le compte chaud lui-même va dans l'historique principal, à une nouvelle époque, le solde de l'opération
+ * ramené au solde partiel de celui-ci : l'appelant doit tenir les verrous de tous les sous-comptes.
+ * <p>
+ * {@link OperationService} construit cette vue lorsqu'on lui donne des {@link SubLedgers} ; les autres composants qui lisent
+ * ou écrivent par compte, relevés et import en masse, doivent envelopper une vue semblable sur le même référentiel,
+ * avec la même instance de {@link SubLedgers}, pour ne voir ni les sous-comptes, ni le solde partiel de l'historique principal.
+ */
+public final class SubLedgerAccountRepository implements IAccountRepository {
+
+    // époque, puis horodatage ; à égalité, le sous-compte de plus petit rang puis l'ordre d'ajout
+    private static final Comparator<Operation> MERGE_ORDER = Comparator.comparingLong(Operation::sequence)
+            .thenComparing(Operation::date)
+            .thenComparing(Operation::time);
+
+    private final IAccountRepository accountRepository;
+
+    private final SubLedgers subLedgers;
+
+    public SubLedgerAccountRepository(IAccountRepository accountRepository, SubLedgers subLedgers) {
+        this.accountRepository = accountRepository;
+        this.subLedgers = subLedgers;
+    }
+
+    /**
+     * Époque d'un dépôt sur un compte chaud, lue sans écriture partagée ; l'appelant tient le verrou du sous-compte de dépôt.
+     */
+    long depositEpoch(String clientId) throws BankAccountNotFoundException {
+        AtomicLong epoch = subLedgers.epoch(clientId);
+        long current = epoch.get();
+        return current == SubLedgers.UNKNOWN_EPOCH ? loadEpoch(clientId, epoch) : current;
+    }
+
+    @Override
+    public Optional<Operation> findLastOperationByClientId(String clientId) throws BankAccountNotFoundException {
+        String[] ledgerIds = subLedgers.ledgerIds(clientId);
+        if (ledgerIds == null) {
+            String owner = subLedgers.ownerOf(clientId);
+            return owner == null ? accountRepository.findLastOperationByClientId(clientId) : findLastOfDepositLedger(owner, clientId);
+        }
+
+        Operation latest = accountRepository.findLastOperationByClientId(clientId).orElse(null);
+        BigDecimal balance = latest == null ? BigDecimal.ZERO : latest.balance();
+        long count = latest == null ? 0 : countOf(clientId);
+        for (int index = 1; index < ledgerIds.length; index++) {
+            Operation last = findLastIfOpen(ledgerIds[index]);
+            if (last != null) {
+                balance = balance.add(last.balance());
+                count += countOfOpen(ledgerIds[index]);
+                // à égalité, le sous-compte de plus grand rang est fusionné en dernier
+                latest = latest == null || MERGE_ORDER.compare(last, latest) >= 0 ? last : latest;
+            }
+        }
+        // numéro d'ordre : le rang de la dernière opération dans la fusion
+        return latest == null
+                ? Optional.empty()
+                : Optional.of(new Operation(latest.date(), latest.amount(), latest.operationType(), balance, latest.time(), count));
+    }
+
+    @Override
+    public void addOperation(String clientId, Operation operation) throws BankAccountNotFoundException {
+        if (!subLedgers.isHot(clientId)) {
+            accountRepository.addOperation(clientId, operation);
+            return;
+        }
+        long epoch = nextEpoch(clientId);
+        BigDecimal balance = accountRepository.findLastOperationByClientId(clientId).map(Operation::balance).orElse(BigDecimal.ZERO);
+        accountRepository.addOperation(clientId, rebase(operation, apply(balance, operation), epoch));
+    }
+
+    @Override
+    public void addOperations(String clientId, List<Operation> operations) throws BankAccountNotFoundException {
+        if (!subLedgers.isHot(clientId)) {
+            accountRepository.addOperations(clientId, operations);
+            return;
+        }
+        if (operations.isEmpty()) {
+            return;
+        }
+        // un lot entier partage une époque : il n'est vu des dépôts qu'une fois écrit
+        long epoch = nextEpoch(clientId);
+        BigDecimal balance = accountRepository.findLastOperationByClientId(clientId).map(Operation::balance).orElse(BigDecimal.ZERO);
+        List<Operation> rebased = new ArrayList<>(operations.size());
+        for (Operation operation : operations) {
+            balance = apply(balance, operation);
+            rebased.add(rebase(operation, balance, epoch));
+        }
+        accountRepository.addOperations(clientId, rebased);
+    }
+
+    @Override
+    public List<Operation> findOperationsByClientId(String clientId) throws BankAccountNotFoundException {
+        String[] ledgerIds = subLedgers.ledgerIds(clientId);
+        if (ledgerIds == null) {
+            return accountRepository.findOperationsByClientId(clientId);
+        }
+
+        List<List<Operation>> histories = new ArrayList<>(ledgerIds.length);
+        int size = 0;
+        for (int index = 0; index < ledgerIds.length; index++) {
+            List<Operation> history = index == 0
+                    ? accountRepository.findOperationsByClientId(clientId)
+                    : readIfOpen(ledgerIds[index], accountRepository::findOperationsByClientId, List.of());
+            histories.add(history);
+            size += history.size();
+        }
+        List<Iterator<Operation>> ledgers = new ArrayList<>(histories.size());
+        for (List<Operation> history : histories) {
+            ledgers.add(history.iterator());
+        }
+        return rebaseOldestFirst(new MergingIterator(ledgers, false), BigDecimal.ZERO, 0, new ArrayList<>(size));
+    }
+
+    /**
+     * Fusion des historiques des sous-comptes parcourus de la plus récente à la plus ancienne opération, en partant
+     * du solde et du nombre d'opérations du compte : O(log k) par opération pour k sous-comptes.
+     */
+    @Override
+    public Iterator<Operation> iterateOperationsNewestFirst(String clientId) throws BankAccountNotFoundException {
+        String[] ledgerIds = subLedgers.ledgerIds(clientId);
+        if (ledgerIds == null) {
+            return accountRepository.iterateOperationsNewestFirst(clientId);
+        }
+
+        MergingIterator merged = new MergingIterator(iterators(ledgerIds, accountRepository::iterateOperationsNewestFirst), true);
+        // le solde vient des têtes déjà lues ; un dépôt concurrent peut seulement décaler les numéros d'ordre
+        BigDecimal last = merged.balanceOfHeads();
+        long count = countOf(clientId);
+        for (int index = 1; index < ledgerIds.length; index++) {
+            count += countOfOpen(ledgerIds[index]);
+        }
+        long lastSequence = count;
+        return new Iterator<>() {
+
+            private BigDecimal balance = last;
+
+            private long sequence = lastSequence;
+
+            @Override
+            public boolean hasNext() {
+                return merged.hasNext();
+            }
+
+            @Override
+            public Operation next() {
+                Operation operation = merged.next();
+                Operation rebased = rebase(operation, balance, sequence--);
+                balance = unapply(balance, operation);
+                return rebased;
+            }
+        };
+    }
+
+    /**
+     * Fusion des opérations de la période dans chaque sous-compte : l'historique fusionné suit l'ordre des dates,
+     * le solde et le numéro d'ordre de départ sont les cumuls des jours précédents.
+     */
+    @Override
+    public List<Operation> findOperationsBetween(String clientId, LocalDate from, LocalDate to) throws BankAccountNotFoundException {
+        String[] ledgerIds = subLedgers.ledgerIds(clientId);
+        if (ledgerIds == null) {
+            return accountRepository.findOperationsBetween(clientId, from, to);
+        }
+
+        List<Iterator<Operation>> ledgers = iterators(ledgerIds, ledgerId -> accountRepository.findOperationsBetween(ledgerId, from, to).iterator());
+        if (from.isAfter(to)) {
+            return List.of();
+        }
+        PeriodTotals before = from.equals(LocalDate.MIN) ? PeriodTotals.EMPTY : findTotalsBetween(clientId, LocalDate.MIN, from.minusDays(1));
+        return rebaseOldestFirst(new MergingIterator(ledgers, false), before.credits().subtract(before.debits()), before.count(),
+                new ArrayList<>());
+    }
+
+    @Override
+    public List<Operation> findOperationsPage(String clientId, int page, int size) throws BankAccountNotFoundException {
+        if (!subLedgers.isHot(clientId)) {
+            return accountRepository.findOperationsPage(clientId, page, size);
+        }
+        if (page < 0 || size <= 0) {
+            throw new IllegalArgumentException(String.format("Page invalide : %d (taille %d)", page, size));
+        }
+
+        Iterator<Operation> operations = iterateOperationsNewestFirst(clientId);
+        for (long skipped = (long) page * size; skipped > 0 && operations.hasNext(); skipped--) {
+            operations.next();
+        }
+        List<Operation> result = new ArrayList<>();
+        while (result.size() < size && operations.hasNext()) {
+            result.add(operations.next());
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Somme des soldes de chaque sous-compte à la date, lus par leurs index.
+     */
+    @Override
+    public BigDecimal findBalanceAt(String clientId, LocalDate date) throws BankAccountNotFoundException {
+        String[] ledgerIds = subLedgers.ledgerIds(clientId);
+        if (ledgerIds == null) {
+            return accountRepository.findBalanceAt(clientId, date);
+        }
+
+        BigDecimal balance = accountRepository.findBalanceAt(clientId, date);
+        for (int index = 1; index < ledgerIds.length; index++) {
+            balance = balance.add(readIfOpen(ledgerIds[index], ledgerId -> accountRepository.findBalanceAt(ledgerId, date), BigDecimal.ZERO));
+        }
+        return balance;
+    }
+
+    /**
+     * Somme des cumuls de chaque sous-compte sur la période, lus par leurs index.
+     */
+    @Override
+    public PeriodTotals findTotalsBetween(String clientId, LocalDate from, LocalDate to) throws BankAccountNotFoundException {
+        String[] ledgerIds = subLedgers.ledgerIds(clientId);
+        if (ledgerIds == null) {
+            return accountRepository.findTotalsBetween(clientId, from, to);
+        }
+
+        PeriodTotals totals = accountRepository.findTotalsBetween(clientId, from, to);
+        for (int index = 1; index < ledgerIds.length; index++) {
+            totals = totals.plus(readIfOpen(ledgerIds[index], ledgerId -> accountRepository.findTotalsBetween(ledgerId, from, to), PeriodTotals.EMPTY));
+        }
+        return totals;
+    }
+
+    /**
+     * @throws IllegalArgumentException si l'identifiant contient le séparateur des sous-comptes
+     */
+    @Override
+    public void addClient(String clientId) {
+        SubLedgers.checkClientId(clientId);
+        String[] ledgerIds = subLedgers.ledgerIds(clientId);
+        if (ledgerIds == null) {
+            accountRepository.addClient(clientId);
+            return;
+        }
+        for (String ledgerId : ledgerIds) {
+            accountRepository.addClient(ledgerId);
+        }
+    }
+
+    @Override
+    public void removeClient(String clientId) throws BankAccountNotFoundException {
+        accountRepository.removeClient(clientId);
+        String[] ledgerIds = subLedgers.ledgerIds(clientId);
+        if (ledgerIds == null) {
+            return;
+        }
+        for (int index = 1; index < ledgerIds.length; index++) {
+            try {
+                accountRepository.removeClient(ledgerIds[index]);
+            } catch (BankAccountNotFoundException e) {
+                // sous-compte jamais ouvert
+            }
+        }
+    }
+
+    @Override
+    public Set<String> findAllClientIds() {
+        return accountRepository.findAllClientIds().stream()
+                .filter(clientId -> subLedgers.ownerOf(clientId) == null)
+                .collect(Collectors.toSet());
+    }
+
+    private Optional<Operation> findLastOfDepositLedger(String owner, String ledgerId) throws BankAccountNotFoundException {
+        try {
+            return accountRepository.findLastOperationByClientId(ledgerId);
+        } catch (BankAccountNotFoundException e) {
+            // le compte chaud a été ouvert directement dans le référentiel : son sous-compte est ouvert au premier dépôt
+            accountRepository.findLastOperationByClientId(owner);
+            accountRepository.addClient(ledgerId);
+            return Optional.empty();
+        }
+    }
+
+    private Operation findLastIfOpen(String ledgerId) {
+        return readIfOpen(ledgerId, id -> accountRepository.findLastOperationByClientId(id).orElse(null), null);
+    }
+
+    /**
+     * @return Un itérateur par sous-compte, à son rang ; vide pour un sous-compte de dépôt jamais ouvert
+     */
+    private List<Iterator<Operation>> iterators(String[] ledgerIds, LedgerRead<Iterator<Operation>> read) throws BankAccountNotFoundException {
+        List<Iterator<Operation>> ledgers = new ArrayList<>(ledgerIds.length);
+        ledgers.add(read.read(ledgerIds[0]));
+        for (int index = 1; index < ledgerIds.length; index++) {
+            ledgers.add(readIfOpen(ledgerIds[index], read, Collections.emptyIterator()));
+        }
+        return ledgers;
+    }
+
+    private <T> T readIfOpen(String ledgerId, LedgerRead<T> read, T whenClosed) {
+        try {
+            return read.read(ledgerId);
+        } catch (BankAccountNotFoundException e) {
+            return whenClosed;
+        }
+    }
+
+    private long countOf(String ledgerId) throws BankAccountNotFoundException {
+        return accountRepository.findTotalsBetween(ledgerId, LocalDate.MIN, LocalDate.MAX).count();
+    }
+
+    private long countOfOpen(String ledgerId) {
+        return readIfOpen(ledgerId, this::countOf, 0L);
+    }
+
+    /**
+     * Avance l'époque d'un compte chaud avant une écriture dans son historique principal ;
+     * l'appelant tient les verrous de tous les sous-comptes.
+     */
+    private long nextEpoch(String clientId) throws BankAccountNotFoundException {
+        AtomicLong epoch = subLedgers.epoch(clientId);
+        if (epoch.get() == SubLedgers.UNKNOWN_EPOCH) {
+            loadEpoch(clientId, epoch);
+        }
+        return epoch.incrementAndGet();
+    }
+
+    /**
+     * Lit l'époque dans les sous-comptes : la plus grande des dernières opérations, les époques ne reculant dans aucun sous-compte.
+     * Les écritures qui l'avanceraient tiennent tous les verrous, dont celui de l'appelant : la valeur lue reste à jour.
+     */
+    private long loadEpoch(String clientId, AtomicLong epoch) throws BankAccountNotFoundException {
+        long last = accountRepository.findLastOperationByClientId(clientId).map(Operation::sequence).orElse(0L);
+        String[] ledgerIds = subLedgers.ledgerIds(clientId);
+        for (int index = 1; index < ledgerIds.length; index++) {
+            Operation operation = findLastIfOpen(ledgerIds[index]);
+            if (operation != null) {
+                last = Math.max(last, operation.sequence());
+            }
+        }
+        epoch.compareAndSet(SubLedgers.UNKNOWN_EPOCH, last);
+        return epoch.get();
+    }
+
+    private static BigDecimal apply(BigDecimal balance, Operation operation) {
+        return operation.operationType().isCredit() ? balance.add(operation.amount()) : balance.subtract(operation.amount());
+    }
+
+    private static BigDecimal unapply(BigDecimal balance, Operation operation) {
+        return operation.operationType().isCredit() ? balance.subtract(operation.amount()) : balance.add(operation.amount());
+    }
+
+    private static List<Operation> rebaseOldestFirst(Iterator<Operation> merged, BigDecimal balance, long sequence, List<Operation> operations) {
+        while (merged.hasNext()) {
+            Operation operation = merged.next();
+            balance = apply(balance, operation);
+            operations.add(rebase(operation, balance, ++sequence));
+        }
+        return Collections.unmodifiableList(operations);
+    }
+
+    private static Operation rebase(Operation operation, BigDecimal balance, long sequence) {
+        return new Operation(operation.date(), operation.amount(), operation.operationType(), balance, operation.time(), sequence);
+    }
+
+    @FunctionalInterface
+    private interface LedgerRead<T> {
+
+        T read(String ledgerId) throws BankAccountNotFoundException;
+    }
+
+    /**
+     * Fusion en k voies d'historiques de sous-comptes, chacun dans l'ordre demandé : O(log k) par opération.
+     * À égalité d'époque et d'horodatage, le sous-compte de plus petit rang passe en premier dans l'ordre chronologique.
+     */
+    private static final class MergingIterator implements Iterator<Operation> {
+
+        private static final Comparator<Head> OLDEST_FIRST = Comparator.comparing((Head head) -> head.operation, MERGE_ORDER)
+                .thenComparingInt(head -> head.ledger);
+
+        private final PriorityQueue<Head> heads;
+
+        private MergingIterator(List<Iterator<Operation>> ledgers, boolean newestFirst) {
+            heads = new PriorityQueue<>(ledgers.size(), newestFirst ? OLDEST_FIRST.reversed() : OLDEST_FIRST);
+            for (int ledger = 0; ledger < ledgers.size(); ledger++) {
+                Iterator<Operation> operations = ledgers.get(ledger);
+                if (operations.hasNext()) {
+                    heads.add(new Head(ledger, operations));
+                }
+            }
+        }
+
+        /**
+         * @return La somme des soldes partiels des têtes : avant la première lecture de la plus récente à la plus ancienne,
+         * le solde fusionné du compte
+         */
+        private BigDecimal balanceOfHeads() {
+            BigDecimal balance = BigDecimal.ZERO;
+            for (Head head : heads) {
+                balance = balance.add(head.operation.balance());
+            }
+            return balance;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public Operation next() {
+            Head head = heads.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            Operation operation = head.operation;
+            if (head.operations.hasNext()) {
+                head.operation = head.operations.next();
+                heads.add(head);
+            }
+            return operation;
+        }
+    }
+
+    private static final class Head {
+
+        private final int ledger;
+
+        private final Iterator<Operation> operations;
+
+        private Operation operation;
+
+        private Head(int ledger, Iterator<Operation> operations) {
+            this.ledger = ledger;
+            this.operations = operations;
+            this.operation = operations.next();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package org.account.bank.domain;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Comptes désignés comme chauds, dont les dépôts sont répartis sur plusieurs sous-comptes pour ne plus se sérialiser
+ * derrière le dernier solde du compte.
+ * <p>
+ * Un compte chaud {@code c} garde son historique principal sous {@code c} et reçoit ses dépôts sous {@code c␟0} à
+ * {@code c␟(n-1)}, chacun avec son verrou et son solde partiel : deux dépôts sur des sous-comptes différents ne s'attendent pas.
+ * Le séparateur, le caractère de contrôle U+001F, est refusé dans les identifiants de compte : aucun compte ne peut prendre
+ * le nom d'un sous-compte.
+ * Les retraits, virements et lots prennent les verrous de tous les sous-comptes et vérifient le solde total ;
+ * ils s'écrivent dans l'historique principal, dont le solde partiel peut devenir négatif.
+ * <p>
+ * Chaque écriture porte, à la place de son numéro d'ordre, l'époque du compte : un compteur qui n'avance qu'à une écriture
+ * dans l'historique principal, sous les verrous de tous les sous-comptes. Un dépôt ne fait que la lire, aucune écriture partagée.
+ * Fusionner les sous-comptes par époque, puis par horodatage, puis par sous-compte (l'historique principal d'abord), chacun
+ * dans son ordre d'ajout, redonne un ordre où chaque retrait suit tous les dépôts qu'il a vus : le solde recalculé le long
+ * de la fusion n'est jamais négatif. Les lectures passent par cette fusion ({@link SubLedgerAccountRepository}), qui renumérote
+ * les opérations à partir de 1 ; les composants placés sous la fusion, qui voient les sous-comptes, les rattachent à leur compte
+ * par {@link #accountOf(String)}.
+ * <p>
+ * L'époque de chaque compte chaud est tenue ici, et non dans une vue : toutes les vues construites sur un même référentiel
+ * avec la même instance la partagent. Une instance ne sert donc qu'un seul référentiel.
+ */
+public class SubLedgers {
+
+    // époque pas encore lue dans les sous-comptes
+    static final long UNKNOWN_EPOCH = -1;
+
+    private static final char SEPARATOR = '\u001F';
+
+    private final Map<String, HotAccount> accounts = new HashMap<>();
+
+    // compte chaud de chaque sous-compte de dépôt
+    private final Map<String, String> owners = new HashMap<>();
+
+    private final int stripes;
+
+    /**
+     * @param hotClientIds : les comptes à répartir
+     * @param stripes      : le nombre de sous-comptes de dépôt par compte, de l'ordre du nombre de cœurs
+     */
+    public SubLedgers(Set<String> hotClientIds, int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Nombre de sous-comptes invalide : " + stripes);
+        }
+        this.stripes = stripes;
+        for (String clientId : hotClientIds) {
+            checkClientId(clientId);
+            String[] ids = new String[stripes + 1];
+            ids[0] = clientId;
+            for (int stripe = 0; stripe < stripes; stripe++) {
+                ids[stripe + 1] = clientId + SEPARATOR + stripe;
+                owners.put(ids[stripe + 1], clientId);
+            }
+            accounts.put(clientId, new HotAccount(ids));
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException si l'identifiant contient le séparateur des sous-comptes
+     */
+    static void checkClientId(String clientId) {
+        if (clientId.indexOf(SEPARATOR) >= 0) {
+            throw new IllegalArgumentException("Identifiant client réservé aux sous-comptes : " + clientId.replace(SEPARATOR, '␟'));
+        }
+    }
+
+    public boolean isHot(String clientId) {
+        return accounts.containsKey(clientId);
+    }
+
+    public int stripes() {
+        return stripes;
+    }
+
+    /**
+     * @return Le compte chaud d'un sous-compte de dépôt, sinon l'identifiant lui-même : la clé sous laquelle ranger ou publier ses opérations
+     */
+    public String accountOf(String clientId) {
+        return owners.getOrDefault(clientId, clientId);
+    }
+
+    /**
+     * @return Le compte principal puis ses sous-comptes de dépôt, ou null si le compte n'est pas chaud
+     */
+    String[] ledgerIds(String clientId) {
+        HotAccount account = accounts.get(clientId);
+        return account == null ? null : account.ledgerIds;
+    }
+
+    /**
+     * @return L'époque d'un compte chaud, {@link #UNKNOWN_EPOCH} tant qu'elle n'a pas été lue dans ses sous-comptes
+     */
+    AtomicLong epoch(String clientId) {
+        return accounts.get(clientId).epoch;
+    }
+
+    /**
+     * @return Le sous-compte de dépôt d'un compte chaud, tiré au hasard pour étaler les threads
+     */
+    String pickDepositLedger(String clientId) {
+        return accounts.get(clientId).ledgerIds[1 + ThreadLocalRandom.current().nextInt(stripes)];
+    }
+
+    /**
+     * @return Le compte chaud dont l'identifiant est un sous-compte de dépôt, ou null
+     */
+    String ownerOf(String ledgerId) {
+        return owners.get(ledgerId);
+    }
+
+    private static final class HotAccount {
+
+        private final String[] ledgerIds;
+
+        private final AtomicLong epoch = new AtomicLong(UNKNOWN_EPOCH);
+
+        private HotAccount(String[] ledgerIds) {
+            this.ledgerIds = ledgerIds;
+        }
+    }
+}
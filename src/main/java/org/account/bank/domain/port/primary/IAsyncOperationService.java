@@ -0,0 +1,49 @@
+package org.account.bank.domain.port.primary;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Variante non bloquante de {@link IOperationService} : chaque appel rend la main immédiatement.
+ * Les rejets métier (NegativeAmountException, InsufficientCreditException, BankAccountNotFoundException)
+ * terminent le futur en erreur ; une surcharge le termine par une RejectedExecutionException.
+ */
+public interface IAsyncOperationService {
+
+    /**
+     * @param clientId : l'identifiant du compte client
+     * @param amount   : le montant à deposer
+     */
+    CompletableFuture<Void> deposit(String clientId, BigDecimal amount);
+
+    /**
+     * @param clientId : l'identifiant du compte client
+     * @param amount   : le montant à retirer
+     */
+    CompletableFuture<Void> withdraw(String clientId, BigDecimal amount);
+
+    /**
+     * Dépôt rejouable : un futur refusé pour surcharge ou expiré chez l'appelant peut être redemandé avec la même clé
+     * sans risque de double dépôt.
+     *
+     * @param clientId       : l'identifiant du compte client
+     * @param amount         : le montant à deposer
+     * @param idempotencyKey : la clé choisie par l'appelant pour cette commande
+     */
+    CompletableFuture<Void> deposit(String clientId, BigDecimal amount, String idempotencyKey);
+
+    /**
+     * Retrait rejouable, voir {@link #deposit(String, BigDecimal, String)}.
+     *
+     * @param clientId       : l'identifiant du compte client
+     * @param amount         : le montant à retirer
+     * @param idempotencyKey : la clé choisie par l'appelant pour cette commande
+     */
+    CompletableFuture<Void> withdraw(String clientId, BigDecimal amount, String idempotencyKey);
+
+    /**
+     * @param clientId : l'identifiant du compte client
+     * @return Le relevé des opérations effectuées sur le compte client
+     */
+    CompletableFuture<String> printOperations(String clientId);
+}
@@ -1,10 +1,16 @@
 package org.account.bank.domain.port.primary;
 
+import org.account.bank.domain.OperationCommand;
+import org.account.bank.domain.OperationResult;
+import org.account.bank.domain.PeriodTotals;
 import org.account.bank.domain.exception.BankAccountNotFoundException;
 import org.account.bank.domain.exception.InsufficientCreditException;
 import org.account.bank.domain.exception.NegativeAmountException;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
 
 public interface IOperationService {
 
@@ -31,6 +37,78 @@ public interface IOperationService {
      */
     void withdraw(String clientId, BigDecimal amount) throws InsufficientCreditException, NegativeAmountException, BankAccountNotFoundException;
 
+    /**
+     * Virement d'un compte à un autre : le débit et le crédit sont enregistrés ensemble,
+     * aucun autre mouvement de ces deux comptes ne peut s'intercaler entre eux.
+     *
+     * @param fromClientId : l'identifiant du compte débité
+     * @param toClientId   : l'identifiant du compte crédité
+     * @param amount       : le montant à virer
+     */
+    void transfer(String fromClientId, String toClientId, BigDecimal amount) throws InsufficientCreditException, NegativeAmountException, BankAccountNotFoundException;
+
+    /**
+     * Variante de {@link #deposit(String, BigDecimal)} sans exception : le rejet est renvoyé sous forme de statut,
+     * sans trace de pile ni message formaté (voir {@link org.account.bank.domain.OperationStatus#message}).
+     * <p>
+     * Sur un compte chaud ({@link org.account.bank.domain.SubLedgers}), l'opération renvoyée n'a pas de solde et son numéro d'ordre
+     * est l'époque du compte : le solde se demande à part, par {@link #getBalanceAt} ou un relevé. Un dépôt rejouable renvoie
+     * la même opération à chaque rejeu.
+     *
+     * @param clientId : l'identifiant du compte client
+     * @param amount   : le montant à deposer
+     * @return Le statut et l'opération enregistrée si elle est acceptée
+     */
+    OperationResult tryDeposit(String clientId, BigDecimal amount);
+
+    /**
+     * Variante de {@link #withdraw(String, BigDecimal)} sans exception.
+     *
+     * @param clientId : l'identifiant du compte client
+     * @param amount   : le montant à retirer
+     * @return Le statut et l'opération enregistrée si elle est acceptée
+     */
+    OperationResult tryWithdraw(String clientId, BigDecimal amount);
+
+    /**
+     * Dépôt rejouable : un rejeu avec la même clé d'idempotence n'est pas appliqué une seconde fois
+     * et reçoit l'issue du premier appel.
+     *
+     * @param clientId       : l'identifiant du compte client
+     * @param amount         : le montant à deposer
+     * @param idempotencyKey : la clé choisie par l'appelant pour cette commande, ou null pour un dépôt ordinaire
+     */
+    void deposit(String clientId, BigDecimal amount, String idempotencyKey) throws NegativeAmountException, BankAccountNotFoundException;
+
+    /**
+     * Retrait rejouable, voir {@link #deposit(String, BigDecimal, String)}.
+     *
+     * @param clientId       : l'identifiant du compte client
+     * @param amount         : le montant à retirer
+     * @param idempotencyKey : la clé choisie par l'appelant pour cette commande, ou null pour un retrait ordinaire
+     */
+    void withdraw(String clientId, BigDecimal amount, String idempotencyKey) throws InsufficientCreditException, NegativeAmountException, BankAccountNotFoundException;
+
+    /**
+     * Variante de {@link #deposit(String, BigDecimal, String)} sans exception.
+     *
+     * @param clientId       : l'identifiant du compte client
+     * @param amount         : le montant à deposer
+     * @param idempotencyKey : la clé choisie par l'appelant pour cette commande, ou null pour un dépôt ordinaire
+     * @return L'issue du premier appel portant cette clé
+     */
+    OperationResult tryDeposit(String clientId, BigDecimal amount, String idempotencyKey);
+
+    /**
+     * Variante de {@link #withdraw(String, BigDecimal, String)} sans exception.
+     *
+     * @param clientId       : l'identifiant du compte client
+     * @param amount         : le montant à retirer
+     * @param idempotencyKey : la clé choisie par l'appelant pour cette commande, ou null pour un retrait ordinaire
+     * @return L'issue du premier appel portant cette clé
+     */
+    OperationResult tryWithdraw(String clientId, BigDecimal amount, String idempotencyKey);
+
     /**
      * In order to check my operations
      * As a bank client
@@ -41,4 +119,64 @@ public interface IOperationService {
      */
     String printOperations(String clientId) throws BankAccountNotFoundException;
 
+    /**
+     * Écrit l'historique des opérations, de la plus récente à la plus ancienne, directement dans la sortie :
+     * la mémoire utilisée ne dépend pas de la longueur de l'historique.
+     * Pour un OutputStream, passer un Writer tamponné qui l'enveloppe.
+     *
+     * @param clientId : l'identifiant du compte client
+     * @param output   : la sortie du relevé (Writer, StringBuilder...)
+     */
+    void printOperations(String clientId, Appendable output) throws BankAccountNotFoundException, IOException;
+
+    /**
+     * Consulter les opérations d'une période, de la plus récente à la plus ancienne
+     *
+     * @param clientId : l'identifiant du compte client
+     * @param from     : la première date incluse
+     * @param to       : la dernière date incluse
+     * @return Les opérations effectuées sur le compte client pendant la période
+     */
+    String printOperations(String clientId, LocalDate from, LocalDate to) throws BankAccountNotFoundException;
+
+    /**
+     * Consulter une page de l'historique, de la plus récente à la plus ancienne opération
+     *
+     * @param clientId : l'identifiant du compte client
+     * @param page     : le numéro de page, à partir de 0
+     * @param size     : le nombre d'opérations par page
+     * @return Les opérations de la page demandée
+     */
+    String printOperationsPage(String clientId, int page, int size) throws BankAccountNotFoundException;
+
+    /**
+     * Consulter le solde du compte à une date passée
+     *
+     * @param clientId : l'identifiant du compte client
+     * @param date     : le jour dont on veut le solde de clôture
+     * @return Le solde à la fin de la journée, zéro avant la première opération
+     */
+    BigDecimal getBalanceAt(String clientId, LocalDate date) throws BankAccountNotFoundException;
+
+    /**
+     * Consulter le total des crédits et débits d'une période, un mois par exemple
+     *
+     * @param clientId : l'identifiant du compte client
+     * @param from     : la première date incluse
+     * @param to       : la dernière date incluse
+     * @return Les sommes des crédits et des débits et le nombre d'opérations de la période
+     */
+    PeriodTotals getTotals(String clientId, LocalDate from, LocalDate to) throws BankAccountNotFoundException;
+
+    /**
+     * Traite un lot de dépôts et de retraits : les commandes sont regroupées par compte,
+     * les soldes calculés en une passe et les opérations acceptées ajoutées en un seul appel par compte.
+     * Les commandes d'un même compte sont appliquées dans l'ordre du lot.
+     *
+     * @param commands : les commandes à traiter
+     * @return L'issue de chaque commande, dans l'ordre du lot
+     * @throws IllegalArgumentException si une commande n'est ni un dépôt ni un retrait ; rien n'est alors appliqué
+     */
+    List<OperationResult> processBatch(List<OperationCommand> commands);
+
 }
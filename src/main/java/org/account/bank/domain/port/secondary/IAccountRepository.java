@@ -1,10 +1,19 @@
 package org.account.bank.domain.port.secondary;
 
 import org.account.bank.domain.Operation;
+import org.account.bank.domain.PeriodTotals;
 import org.account.bank.domain.exception.BankAccountNotFoundException;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.ListIterator;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
 
 public interface IAccountRepository {
 
@@ -12,7 +21,138 @@ public interface IAccountRepository {
 
     void addOperation(String clientId, Operation operation) throws BankAccountNotFoundException;
 
+    /**
+     * Ajoute les opérations au compte en un seul appel, dans l'ordre de la liste.
+     *
+     * @param clientId   : l'identifiant du compte client
+     * @param operations : les opérations à ajouter
+     */
+    void addOperations(String clientId, List<Operation> operations) throws BankAccountNotFoundException;
+
     List<Operation> findOperationsByClientId(String accountId) throws BankAccountNotFoundException;
 
+    /**
+     * Parcourt les opérations du compte de la plus récente à la plus ancienne, sans copier l'historique.
+     *
+     * @param clientId : l'identifiant du compte client
+     */
+    default Iterator<Operation> iterateOperationsNewestFirst(String clientId) throws BankAccountNotFoundException {
+        List<Operation> history = findOperationsByClientId(clientId);
+        ListIterator<Operation> operations = history.listIterator(history.size());
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return operations.hasPrevious();
+            }
+
+            @Override
+            public Operation next() {
+                return operations.previous();
+            }
+        };
+    }
+
+    /**
+     * Recherche les opérations datées entre deux dates incluses, dans l'ordre d'ajout.
+     * Les opérations étant ajoutées par date croissante, les bornes sont trouvées par recherche dichotomique :
+     * O(log n + k) lorsque l'historique est une liste à accès direct.
+     *
+     * @param clientId : l'identifiant du compte client
+     * @param from     : la première date incluse
+     * @param to       : la dernière date incluse
+     */
+    default List<Operation> findOperationsBetween(String clientId, LocalDate from, LocalDate to) throws BankAccountNotFoundException {
+        List<Operation> operations = findOperationsByClientId(clientId);
+        int fromIndex = firstIndexMatching(operations, date -> !date.isBefore(from));
+        int toIndex = firstIndexMatching(operations, date -> date.isAfter(to));
+        return fromIndex < toIndex ? Collections.unmodifiableList(operations.subList(fromIndex, toIndex)) : List.of();
+    }
+
+    /**
+     * Renvoie une page de l'historique, de la plus récente à la plus ancienne opération.
+     *
+     * @param clientId : l'identifiant du compte client
+     * @param page     : le numéro de page, à partir de 0
+     * @param size     : le nombre d'opérations par page
+     */
+    default List<Operation> findOperationsPage(String clientId, int page, int size) throws BankAccountNotFoundException {
+        checkPage(page, size);
+        List<Operation> operations = findOperationsByClientId(clientId);
+        int toIndex = operations.size() - (int) Math.min(operations.size(), (long) page * size);
+        int fromIndex = Math.max(0, toIndex - size);
+        List<Operation> result = new ArrayList<>(toIndex - fromIndex);
+        for (int index = toIndex - 1; index >= fromIndex; index--) {
+            result.add(operations.get(index));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Solde du compte à la fin d'une journée, zéro avant la première opération.
+     * Par défaut, recherche dichotomique de la dernière opération du jour ou d'avant.
+     *
+     * @param clientId : l'identifiant du compte client
+     * @param date     : le jour dont on veut le solde de clôture
+     */
+    default BigDecimal findBalanceAt(String clientId, LocalDate date) throws BankAccountNotFoundException {
+        List<Operation> operations = findOperationsByClientId(clientId);
+        int index = firstIndexMatching(operations, operationDate -> operationDate.isAfter(date));
+        return index == 0 ? BigDecimal.ZERO : operations.get(index - 1).balance();
+    }
+
+    /**
+     * Cumul des crédits et débits datés entre deux dates incluses.
+     * Par défaut, somme des opérations renvoyées par {@link #findOperationsBetween}.
+     *
+     * @param clientId : l'identifiant du compte client
+     * @param from     : la première date incluse
+     * @param to       : la dernière date incluse
+     */
+    default PeriodTotals findTotalsBetween(String clientId, LocalDate from, LocalDate to) throws BankAccountNotFoundException {
+        PeriodTotals totals = PeriodTotals.EMPTY;
+        for (Operation operation : findOperationsBetween(clientId, from, to)) {
+            totals = totals.plus(operation);
+        }
+        return totals;
+    }
+
+    /**
+     * Ouvre le compte s'il n'existe pas encore ; sans effet sur un compte existant.
+     *
+     * @param clientId : l'identifiant du compte client
+     */
+    void addClient(String clientId);
+
+    /**
+     * Ferme le compte et oublie son historique, par exemple une fois celui-ci recopié dans une autre partition.
+     *
+     * @param clientId : l'identifiant du compte client
+     */
+    void removeClient(String clientId) throws BankAccountNotFoundException;
+
+    /**
+     * @return Les identifiants de tous les comptes ouverts au moment de l'appel
+     */
+    Set<String> findAllClientIds();
+
+    private static void checkPage(int page, int size) {
+        if (page < 0 || size <= 0) {
+            throw new IllegalArgumentException(String.format("Page invalide : %d (taille %d)", page, size));
+        }
+    }
+
+    private static int firstIndexMatching(List<Operation> operations, Predicate<LocalDate> condition) {
+        int low = 0;
+        int high = operations.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (condition.test(operations.get(middle).date())) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
 
 }
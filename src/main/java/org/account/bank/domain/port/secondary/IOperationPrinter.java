@@ -2,8 +2,34 @@ package org.account.bank.domain.port.secondary;
 
 import org.account.bank.domain.Operation;
 
+import java.io.IOException;
+import java.util.Iterator;
 import java.util.List;
 
 public interface IOperationPrinter {
     String print(List<Operation> operations, String clientId);
+
+    /**
+     * Écrit le relevé ligne par ligne dans la sortie, dans l'ordre de l'itérateur, sans construire le texte complet.
+     *
+     * @param operations : les opérations à imprimer
+     * @param clientId   : l'identifiant du compte client
+     * @param output     : la sortie du relevé
+     */
+    void print(Iterator<Operation> operations, String clientId, Appendable output) throws IOException;
+
+    /**
+     * @param clientId : l'identifiant du compte client
+     * @return L'en-tête du relevé, qui précède toutes les lignes
+     */
+    String header(String clientId);
+
+    /**
+     * Écrit la ligne d'une seule opération : un relevé est son en-tête suivi des lignes de ses opérations.
+     *
+     * @param operation : l'opération à imprimer
+     * @param clientId  : l'identifiant du compte client
+     * @param output    : la sortie de la ligne
+     */
+    void printLine(Operation operation, String clientId, Appendable output) throws IOException;
 }
@@ -1,7 +1,15 @@
 package org.account.bank.domain.port.secondary;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 public interface ITimeService {
     LocalDate utcNow();
+
+    /**
+     * @return La date et l'heure UTC courantes ; minuit du jour courant par défaut
+     */
+    default LocalDateTime utcDateTime() {
+        return utcNow().atStartOfDay();
+    }
 }
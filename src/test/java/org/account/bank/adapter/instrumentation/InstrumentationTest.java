@@ -0,0 +1,123 @@
+package org.account.bank.adapter.instrumentation;
+
+import org.account.bank.adapter.secondary.ConcurrentAccountRepository;
+import org.account.bank.adapter.secondary.OperationPrinter;
+import org.account.bank.domain.OperationCommand;
+import org.account.bank.domain.OperationService;
+import org.account.bank.domain.OperationType;
+import org.account.bank.domain.port.primary.IOperationService;
+import org.account.bank.domain.port.secondary.IAccountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DisplayName("Instrumentation Tests")
+public class InstrumentationTest {
+
+    private static final String CLIENT_01 = "client01";
+
+    private OperationMetrics metrics;
+
+    private IOperationService operationService;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new OperationMetrics();
+        IAccountRepository accountRepository = new InstrumentedAccountRepository(new ConcurrentAccountRepository(), metrics);
+        accountRepository.addClient(CLIENT_01);
+        operationService = new InstrumentedOperationService(
+                new OperationService(new InstrumentedTimeService(() -> LocalDate.EPOCH, metrics), accountRepository,
+                        new InstrumentedOperationPrinter(new OperationPrinter(), metrics)),
+                metrics);
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on effectue des opérations, les appels et les rejets sont comptés par méthode")
+    void testCallsAndRejections_areCounted() throws Exception {
+
+        operationService.deposit(CLIENT_01, BigDecimal.TEN);
+        operationService.tryWithdraw(CLIENT_01, BigDecimal.valueOf(100));
+        assertThatThrownBy(() -> operationService.withdraw(CLIENT_01, BigDecimal.valueOf(-1)));
+        assertThatThrownBy(() -> operationService.deposit("unknown", BigDecimal.ONE));
+        operationService.printOperations(CLIENT_01);
+
+        assertThat(metrics.snapshot())
+                .filteredOn(stats -> stats.component().equals("IOperationService"))
+                .extracting(MethodStatsSnapshot::method, MethodStatsSnapshot::calls)
+                .contains(
+                        tuple("deposit", 2L),
+                        tuple("withdraw", 1L),
+                        tuple("tryWithdraw", 1L),
+                        tuple("printOperations", 1L));
+
+        MethodStats deposit = metrics.stats("IOperationService", "deposit");
+        assertThat(deposit.getRejections()).containsEntry("BankAccountNotFoundException", 1L);
+        assertThat(metrics.stats("IOperationService", "withdraw").getRejections()).containsEntry("NegativeAmountException", 1L);
+        assertThat(metrics.stats("IOperationService", "tryWithdraw").getRejections()).containsEntry("INSUFFICIENT_CREDIT", 1L);
+        assertThat(metrics.stats("IAccountRepository", "addOperation").getCalls()).isEqualTo(1);
+        assertThat(metrics.stats("ITimeService", "utcDateTime").getCalls()).isEqualTo(1);
+        assertThat(metrics.stats("IOperationPrinter", "print").getCalls()).isEqualTo(1);
+        assertThat(deposit.getMaxNanos()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Lorsque le service lève une exception inattendue, l'appel est tout de même compté")
+    void testUnexpectedException_isCounted() {
+
+        assertThatThrownBy(() -> operationService.processBatch(List.of(new OperationCommand(CLIENT_01, OperationType.TRANSFER_IN, BigDecimal.ONE))))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(metrics.stats("IOperationService", "processBatch").getCalls()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on lit les percentiles, l'erreur relative reste sous 6,25 %")
+    void testHistogram_percentiles() {
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value);
+        }
+
+        assertThat(histogram.count()).isEqualTo(100_000);
+        assertThat(histogram.valueAt(0.5)).isBetween(50_000L, 53_125L);
+        assertThat(histogram.valueAt(0.99)).isBetween(99_000L, 100_000L);
+        assertThat(histogram.valueAt(0.999)).isBetween(99_900L, 100_000L);
+        assertThat(histogram.max()).isEqualTo(100_000);
+        assertThat(new LatencyHistogram().valueAt(0.99)).isZero();
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on enregistre les MBeans, les mesures sont lisibles en JMX")
+    void testMBeans_areRegistered() throws Exception {
+
+        operationService.deposit(CLIENT_01, BigDecimal.TEN);
+        metrics.registerMBeans("org.account.bank.test");
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("org.account.bank.test:type=Metrics,component=IOperationService,method=deposit");
+        try {
+            assertThat(server.getAttribute(name, "Calls")).isEqualTo(1L);
+            assertThat((Long) server.getAttribute(name, "P99Nanos")).isPositive();
+        } finally {
+            server.queryNames(new ObjectName("org.account.bank.test:*"), null).forEach(registered -> {
+                try {
+                    server.unregisterMBean(registered);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+    }
+}
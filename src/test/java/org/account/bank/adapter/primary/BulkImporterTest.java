@@ -0,0 +1,102 @@
+package org.account.bank.adapter.primary;
+
+import org.account.bank.adapter.secondary.ConcurrentAccountRepository;
+import org.account.bank.domain.Operation;
+import org.account.bank.domain.OperationType;
+import org.account.bank.domain.exception.BankAccountNotFoundException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("BulkImporter Tests")
+public class BulkImporterTest {
+
+    private static final int ACCOUNTS = 50;
+
+    private static final int OPERATIONS_PER_ACCOUNT = 40;
+
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest
+    @ValueSource(longs = {37, 1024, 1 << 20})
+    @DisplayName("Lorsque l'on charge un export découpé en tranches, chaque compte retrouve son historique dans l'ordre")
+    void testImport(long chunkSize) throws IOException, BankAccountNotFoundException {
+
+        StringBuilder csv = new StringBuilder("clientId,date,time,type,amount,balance\n");
+        csv.append("empty\n");
+        // opérations entrelacées entre les comptes, comme dans un export chronologique
+        for (int i = 0; i < OPERATIONS_PER_ACCOUNT; i++) {
+            for (int account = 0; account < ACCOUNTS; account++) {
+                OperationType operationType = i % 2 == 0 ? OperationType.DEPOSIT : OperationType.WITHDRAW;
+                BigDecimal balance = i % 2 == 0 ? new BigDecimal("10.50") : BigDecimal.ZERO.setScale(2);
+                csv.append("client").append(account).append(",2023-08-10,10:15:").append(String.format("%02d", i))
+                        .append(',').append(operationType).append(",10.50,").append(balance).append("\r\n");
+            }
+        }
+        Path file = Files.writeString(directory.resolve("export.csv"), csv);
+
+        ConcurrentAccountRepository accountRepository = new ConcurrentAccountRepository();
+        ImportReport report = new BulkImporter(accountRepository, ForkJoinPool.commonPool(), chunkSize).importCsv(file);
+
+        assertThat(report.rejections()).isEmpty();
+        assertThat(report.accounts()).isEqualTo(ACCOUNTS + 1);
+        assertThat(report.operations()).isEqualTo((long) ACCOUNTS * OPERATIONS_PER_ACCOUNT);
+        assertThat(report.operationsPerSecond()).isPositive();
+        assertThat(accountRepository.findOperationsByClientId("empty")).isEmpty();
+        List<Operation> operations = accountRepository.findOperationsByClientId("client7");
+        assertThat(operations).hasSize(OPERATIONS_PER_ACCOUNT);
+        assertThat(operations.get(1)).isEqualTo(new Operation(LocalDate.of(2023, 8, 10), new BigDecimal("10.50"),
+                OperationType.WITHDRAW, new BigDecimal("0.00"), LocalTime.of(10, 15, 1), 2));
+        assertThat(operations).extracting(Operation::sequence).doesNotHaveDuplicates().endsWith((long) OPERATIONS_PER_ACCOUNT);
+    }
+
+    @Test
+    @DisplayName("Lorsque l'export contient des lignes invalides, seuls les comptes concernés sont écartés")
+    void testImport_whenLines_areInvalid() throws IOException, BankAccountNotFoundException {
+
+        Path file = Files.writeString(directory.resolve("export.csv"), """
+                client01,2023-08-10,09:00,DEPOSIT,100,100
+                client02,2023-08-10,09:00,DEPOSIT,100,100
+                client01,2023-08-11,09:00,WITHDRAW,40,60
+                client02,2023-08-11,09:00,WITHDRAW,40,50
+                client03,2023-08-11,09:00,DEPOSIT,abc,10
+                client04,2023-08-11
+                client05,2023-08-10,09:00,DEPOSIT,100,100
+                client05,2023-08-11,09:00,WITHDRAW,40,60
+                client05,2023-08-12,09:00,WITHDRAW,??,50
+                """);
+
+        ConcurrentAccountRepository accountRepository = new ConcurrentAccountRepository();
+        ImportReport report = new BulkImporter(accountRepository).importCsv(file);
+
+        assertThat(report.accounts()).isEqualTo(1);
+        assertThat(report.operations()).isEqualTo(2);
+        assertThat(report.rejections()).hasSize(7)
+                .anySatisfy(rejection -> assertThat(rejection).startsWith("Ligne 5 invalide"))
+                .anySatisfy(rejection -> assertThat(rejection).startsWith("Ligne 6 invalide"))
+                .anySatisfy(rejection -> assertThat(rejection).startsWith("Ligne 9 invalide"))
+                .contains("Compte client02 écarté : solde incohérent à l'opération 2",
+                        "Compte client03 écarté : ligne 5 invalide",
+                        "Compte client04 écarté : ligne 6 invalide",
+                        // l'historique lisible de client05 est cohérent, mais il lui manque sa dernière opération
+                        "Compte client05 écarté : ligne 9 invalide");
+        assertThat(accountRepository.findLastOperationByClientId("client01")).map(Operation::balance).contains(BigDecimal.valueOf(60));
+        assertThatThrownBy(() -> accountRepository.findOperationsByClientId("client02")).isInstanceOf(BankAccountNotFoundException.class);
+        assertThatThrownBy(() -> accountRepository.findOperationsByClientId("client05")).isInstanceOf(BankAccountNotFoundException.class);
+    }
+}
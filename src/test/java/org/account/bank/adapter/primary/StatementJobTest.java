@@ -0,0 +1,111 @@
+package org.account.bank.adapter.primary;
+
+import org.account.bank.adapter.secondary.ConcurrentAccountRepository;
+import org.account.bank.adapter.secondary.OperationPrinter;
+import org.account.bank.domain.OperationService;
+import org.account.bank.domain.exception.BankAccountNotFoundException;
+import org.account.bank.domain.exception.NegativeAmountException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("StatementJob Tests")
+public class StatementJobTest {
+
+    // plus d'une part par thread : le découpage et le vol de travail sont exercés
+    private static final int ACCOUNTS = 3 * StatementJob.PARTITION_SIZE + 7;
+
+    @TempDir
+    Path directory;
+
+    private ConcurrentAccountRepository accountRepository;
+
+    private OperationService operationService;
+
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    void setUp() throws NegativeAmountException, BankAccountNotFoundException {
+        accountRepository = new ConcurrentAccountRepository();
+        operationService = new OperationService(() -> LocalDate.of(2023, 8, 10), accountRepository, new OperationPrinter());
+        for (int account = 0; account < ACCOUNTS; account++) {
+            accountRepository.addClient("client" + account);
+            for (int i = 0; i <= account % 5; i++) {
+                operationService.deposit("client" + account, BigDecimal.valueOf(account + i + 1));
+            }
+        }
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on édite un relevé par compte, chaque fichier contient le relevé du compte")
+    void testWritePerAccount() throws IOException, BankAccountNotFoundException {
+
+        StatementReport report = new StatementJob(accountRepository, new OperationPrinter(), pool, 2).writePerAccount(directory.resolve("statements"));
+
+        assertThat(report.statements()).isEqualTo(ACCOUNTS);
+        assertThat(Files.readString(directory.resolve("statements/client42.txt"))).isEqualTo(operationService.printOperations("client42"));
+        try (var files = Files.list(directory.resolve("statements"))) {
+            assertThat(files.count()).isEqualTo(ACCOUNTS);
+        }
+    }
+
+    @Test
+    @DisplayName("Lorsque des identifiants ne diffèrent que par des caractères échappés, chaque compte a son propre fichier")
+    void testWritePerAccount_escapedNames() throws IOException, BankAccountNotFoundException, NegativeAmountException {
+
+        ConcurrentAccountRepository repository = new ConcurrentAccountRepository();
+        OperationService service = new OperationService(() -> LocalDate.of(2023, 8, 10), repository, new OperationPrinter());
+        String[] clientIds = {"a/b", "a b", "a_b", "a_2Fb", "é"};
+        for (int i = 0; i < clientIds.length; i++) {
+            repository.addClient(clientIds[i]);
+            service.deposit(clientIds[i], BigDecimal.valueOf(i + 1));
+        }
+
+        Path statements = directory.resolve("statements");
+        new StatementJob(repository, new OperationPrinter(), pool, 2).writePerAccount(statements);
+
+        assertThat(StatementJob.fileName("a/b")).isEqualTo("a_2Fb.txt");
+        assertThat(StatementJob.fileName("a_b")).isEqualTo("a_5Fb.txt");
+        assertThat(StatementJob.fileName("a_2Fb")).isEqualTo("a_5F2Fb.txt");
+        assertThat(StatementJob.fileName("é")).isEqualTo("_C3_A9.txt");
+        for (String clientId : clientIds) {
+            assertThat(Files.readString(statements.resolve(StatementJob.fileName(clientId)))).isEqualTo(service.printOperations(clientId));
+        }
+        try (var files = Files.list(statements)) {
+            assertThat(files.count()).isEqualTo(clientIds.length);
+        }
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on édite tous les relevés dans un seul fichier, aucun relevé n'est perdu ni mélangé")
+    void testWriteConcatenated() throws IOException, BankAccountNotFoundException {
+
+        Path file = directory.resolve("statements.txt");
+        StatementReport report = new StatementJob(accountRepository, new OperationPrinter(), pool, 1).writeConcatenated(file);
+
+        String content = Files.readString(file);
+        assertThat(report.statements()).isEqualTo(ACCOUNTS);
+        assertThat(report.bytes()).isEqualTo(content.getBytes(StandardCharsets.UTF_8).length);
+        for (int account = 0; account < ACCOUNTS; account += 97) {
+            assertThat(content).contains(operationService.printOperations("client" + account));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.account.bank.adapter.secondary;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("CachedTimeService Tests")
+public class CachedTimeServiceTest {
+
+    @Test
+    @DisplayName("Lorsque l'on lit l'horloge en cache, l'heure est exprimée en UTC")
+    void testUtcDateTime_isReadFromClock() {
+
+        Clock clock = Clock.fixed(Instant.parse("2023-08-10T23:30:00Z"), ZoneId.of("Europe/Paris"));
+
+        try (CachedTimeService timeService = new CachedTimeService(clock, Duration.ofSeconds(1))) {
+            assertThat(timeService.utcDateTime()).isEqualTo(LocalDateTime.of(2023, 8, 10, 23, 30));
+            assertThat(timeService.utcNow()).isEqualTo(LocalDate.of(2023, 8, 10));
+        }
+    }
+
+    @Test
+    @DisplayName("Lorsque le tick s'écoule, l'heure publiée avance")
+    void testUtcDateTime_advancesWithTicks() throws InterruptedException {
+
+        MutableClock clock = new MutableClock(Instant.parse("2023-08-10T10:00:00Z"), ZoneOffset.UTC);
+
+        try (CachedTimeService timeService = new CachedTimeService(clock, Duration.ofMillis(1))) {
+            assertThat(timeService.utcDateTime()).isEqualTo(LocalDateTime.of(2023, 8, 10, 10, 0));
+
+            clock.set(Instant.parse("2023-08-10T10:01:00Z"));
+
+            // le tick tourne sur un thread de fond : on attend la publication, dans la limite d'un délai généreux
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (timeService.utcDateTime().equals(LocalDateTime.of(2023, 8, 10, 10, 0)) && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertThat(timeService.utcDateTime()).isEqualTo(LocalDateTime.of(2023, 8, 10, 10, 1));
+        }
+    }
+
+    /**
+     * Horloge dont l'instant est fixé par le test ; ses vues dans d'autres fuseaux partagent cet instant.
+     */
+    private static final class MutableClock extends Clock {
+
+        private final AtomicReference<Instant> instant;
+
+        private final ZoneId zone;
+
+        private MutableClock(Instant instant, ZoneId zone) {
+            this(new AtomicReference<>(instant), zone);
+        }
+
+        private MutableClock(AtomicReference<Instant> instant, ZoneId zone) {
+            this.instant = instant;
+            this.zone = zone;
+        }
+
+        private void set(Instant now) {
+            instant.set(now);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return new MutableClock(instant, zone);
+        }
+
+        @Override
+        public Instant instant() {
+            return instant.get();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.account.bank.adapter.secondary;
+
+import org.account.bank.domain.Operation;
+import org.account.bank.domain.OperationType;
+import org.account.bank.domain.exception.BankAccountNotFoundException;
+import org.account.bank.domain.port.secondary.IAccountRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ColumnarAccountRepository Tests")
+public class ColumnarAccountRepositoryTest {
+
+    private static final String CLIENT_01 = "client01";
+
+    private static final int OPERATIONS = 200_000;
+
+
+    @Test
+    @DisplayName("Lorsque l'on relit les opérations, elles sont identiques à celles ajoutées")
+    void testRoundTrip() throws BankAccountNotFoundException {
+
+        ColumnarAccountRepository accountRepository = new ColumnarAccountRepository();
+        accountRepository.addClient(CLIENT_01);
+
+        Operation deposit = new Operation(LocalDate.of(2023, 8, 10), new BigDecimal("100.50"), OperationType.DEPOSIT, new BigDecimal("100.50"));
+        Operation withdraw = new Operation(LocalDate.of(2023, 8, 11), BigDecimal.valueOf(40), OperationType.WITHDRAW, new BigDecimal("60.50"));
+
+        accountRepository.addOperation(CLIENT_01, deposit);
+        accountRepository.addOperations(CLIENT_01, List.of(withdraw));
+
+        assertThat(accountRepository.findOperationsByClientId(CLIENT_01)).containsExactly(deposit, withdraw);
+        assertThat(accountRepository.findLastOperationByClientId(CLIENT_01)).contains(withdraw);
+        assertThat(accountRepository.findOperationsPage(CLIENT_01, 0, 1)).containsExactly(withdraw);
+    }
+
+    @Test
+    @DisplayName("Lorsque le montant dépasse la capacité d'une colonne")
+    void testAddOperation_whenAmount_isTooLarge() {
+
+        ColumnarAccountRepository accountRepository = new ColumnarAccountRepository();
+        accountRepository.addClient(CLIENT_01);
+        BigDecimal tooLarge = new BigDecimal("1e30").setScale(2);
+
+        assertThatThrownBy(() -> accountRepository.addOperation(CLIENT_01,
+                new Operation(LocalDate.EPOCH, tooLarge, OperationType.DEPOSIT, tooLarge)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on compare l'empreinte mémoire avec le stockage par objets")
+    void testFootprint_isSmallerThan_objectStorage() throws BankAccountNotFoundException {
+
+        long objectBytes = retainedBytes(new ConcurrentAccountRepository());
+        long columnarBytes = retainedBytes(new ColumnarAccountRepository());
+
+        // ~39 octets par opération en colonnes, ~52 avec la marge de croissance des tableaux, contre près de 150
+        // pour les objets Operation : un rapport mesuré de 2,8 à 2,9, borné à 2 pour absorber l'imprécision du tas mesuré
+        assertThat(columnarBytes * 2).isLessThan(objectBytes);
+    }
+
+    private static long retainedBytes(IAccountRepository accountRepository) throws BankAccountNotFoundException {
+        long before = usedHeap();
+        accountRepository.addClient(CLIENT_01);
+        BigDecimal balance = BigDecimal.ZERO;
+        for (int i = 0; i < OPERATIONS; i++) {
+            BigDecimal amount = BigDecimal.valueOf(i % 1000 + 1, 2);
+            balance = balance.add(amount);
+            accountRepository.addOperation(CLIENT_01, new Operation(LocalDate.EPOCH.plusDays(i / 100), amount, OperationType.DEPOSIT, balance));
+        }
+        long retained = usedHeap() - before;
+        assertThat(accountRepository.findOperationsByClientId(CLIENT_01)).hasSize(OPERATIONS);
+        return retained;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
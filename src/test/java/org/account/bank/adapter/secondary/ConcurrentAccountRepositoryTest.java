@@ -0,0 +1,106 @@
+package org.account.bank.adapter.secondary;
+
+import org.account.bank.domain.Operation;
+import org.account.bank.domain.OperationType;
+import org.account.bank.domain.exception.BankAccountNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ConcurrentAccountRepository Tests")
+public class ConcurrentAccountRepositoryTest {
+
+    private static final String CLIENT_01 = "client01";
+
+    private ConcurrentAccountRepository accountRepository;
+
+    @BeforeEach
+    void setUp() {
+        accountRepository = new ConcurrentAccountRepository();
+        accountRepository.addClient(CLIENT_01);
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on ajoute des opérations au compte client '01'")
+    void testAddOperations() throws BankAccountNotFoundException {
+
+        Operation deposit = new Operation(LocalDate.EPOCH, BigDecimal.valueOf(100), OperationType.DEPOSIT, BigDecimal.valueOf(100));
+        Operation withdraw = new Operation(LocalDate.EPOCH, BigDecimal.valueOf(40), OperationType.WITHDRAW, BigDecimal.valueOf(60));
+
+        assertThat(accountRepository.findLastOperationByClientId(CLIENT_01)).isEmpty();
+
+        accountRepository.addOperation(CLIENT_01, deposit);
+        List<Operation> snapshot = accountRepository.findOperationsByClientId(CLIENT_01);
+        accountRepository.addOperation(CLIENT_01, withdraw);
+
+        assertThat(accountRepository.findLastOperationByClientId(CLIENT_01)).contains(withdraw);
+        assertThat(accountRepository.findOperationsByClientId(CLIENT_01)).containsExactly(deposit, withdraw);
+        assertThat(snapshot).containsExactly(deposit);
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on ouvre une seconde fois un compte existant")
+    void testAddClient_whenAccount_alreadyExists() throws BankAccountNotFoundException {
+
+        Operation deposit = new Operation(LocalDate.EPOCH, BigDecimal.TEN, OperationType.DEPOSIT, BigDecimal.TEN);
+        accountRepository.addOperation(CLIENT_01, deposit);
+
+        accountRepository.addClient(CLIENT_01);
+
+        assertThat(accountRepository.findOperationsByClientId(CLIENT_01)).containsExactly(deposit);
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on consulte un compte client non existant")
+    void testFind_whenAccount_isNotFound() {
+
+        assertThatThrownBy(() -> accountRepository.findLastOperationByClientId("unknown"))
+                .isInstanceOf(BankAccountNotFoundException.class)
+                .hasMessage("Compte inexistant : unknown");
+        assertThatThrownBy(() -> accountRepository.findOperationsByClientId("unknown"))
+                .isInstanceOf(BankAccountNotFoundException.class);
+        assertThatThrownBy(() -> accountRepository.addOperation("unknown", null))
+                .isInstanceOf(BankAccountNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Lorsque plusieurs threads ajoutent et lisent des opérations en parallèle")
+    void testConcurrentAppends() throws Exception {
+
+        int threads = 8;
+        int operationsPerThread = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    Operation operation = new Operation(LocalDate.EPOCH, BigDecimal.ONE, OperationType.DEPOSIT, BigDecimal.ONE);
+                    for (int i = 0; i < operationsPerThread; i++) {
+                        accountRepository.addOperation(CLIENT_01, operation);
+                        List<Operation> operations = accountRepository.findOperationsByClientId(CLIENT_01);
+                        assertThat(operations.get(operations.size() - 1)).isNotNull();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(accountRepository.findOperationsByClientId(CLIENT_01)).hasSize(threads * operationsPerThread);
+    }
+}
@@ -0,0 +1,88 @@
+package org.account.bank.adapter.secondary;
+
+import org.account.bank.domain.Operation;
+import org.account.bank.domain.OperationType;
+import org.account.bank.domain.PeriodTotals;
+import org.account.bank.domain.exception.BankAccountNotFoundException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("DayIndex Tests")
+public class DayIndexTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2023, 8, 10);
+
+    @Test
+    @DisplayName("Lorsque le jour courant est mis à jour pendant des lectures, chaque lecture voit un jour complet et à jour")
+    void testConcurrentReads_seeConsistentDays() throws Exception {
+
+        DayIndex dayIndex = new DayIndex();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+            for (int reader = 0; reader < 2; reader++) {
+                readers.add(executor.submit(() -> {
+                    long seen = 0;
+                    while (writing.get()) {
+                        PeriodTotals totals = dayIndex.totalsBetween(TODAY.minusDays(10), TODAY.plusDays(10));
+                        // un dépôt de 2 puis un retrait de 1, en boucle : crédits, débits et nombre sont lus ensemble
+                        long deposits = (totals.count() + 1) / 2;
+                        assertThat(totals.credits()).isEqualByComparingTo(BigDecimal.valueOf(2 * deposits));
+                        assertThat(totals.debits()).isEqualByComparingTo(BigDecimal.valueOf(totals.count() - deposits));
+                        assertThat(totals.count()).isGreaterThanOrEqualTo(seen);
+                        seen = totals.count();
+                    }
+                }));
+            }
+            BigDecimal balance = BigDecimal.ZERO;
+            for (int i = 0; i < 50_000; i++) {
+                LocalDate date = TODAY.plusDays(i / 10_000 - 2);
+                dayIndex.add(new Operation(date, BigDecimal.valueOf(2), OperationType.DEPOSIT, balance = balance.add(BigDecimal.valueOf(2))));
+                dayIndex.add(new Operation(date, BigDecimal.ONE, OperationType.WITHDRAW, balance = balance.subtract(BigDecimal.ONE)));
+            }
+            writing.set(false);
+            for (Future<?> reader : readers) {
+                reader.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(dayIndex.balanceAt(TODAY.plusDays(2))).isEqualByComparingTo("50000");
+        assertThat(dayIndex.totalsBetween(TODAY.minusDays(2), TODAY.minusDays(2))).isEqualTo(new PeriodTotals(BigDecimal.valueOf(20_000), BigDecimal.valueOf(10_000), 20_000));
+    }
+
+    @Test
+    @DisplayName("Lorsqu'un cumul dépasse la capacité des colonnes, le référentiel revient au parcours des opérations")
+    void testOverflow_fallsBackToScan() throws BankAccountNotFoundException {
+
+        BigDecimal huge = BigDecimal.valueOf(Long.MAX_VALUE);
+        Operation first = new Operation(TODAY, huge, OperationType.DEPOSIT, huge);
+        Operation second = new Operation(TODAY.plusDays(1), huge, OperationType.DEPOSIT, huge.add(huge));
+        DayIndex dayIndex = new DayIndex();
+        dayIndex.add(first);
+        assertThat(dayIndex.balanceAt(TODAY)).isEqualByComparingTo(huge);
+        dayIndex.add(second);
+        assertThat(dayIndex.balanceAt(TODAY)).isNull();
+        assertThat(dayIndex.totalsBetween(TODAY, TODAY)).isNull();
+
+        ConcurrentAccountRepository accountRepository = new ConcurrentAccountRepository();
+        accountRepository.addClient("client01");
+        accountRepository.addOperations("client01", List.of(first, second));
+        assertThat(accountRepository.findBalanceAt("client01", TODAY.plusDays(1))).isEqualByComparingTo(huge.add(huge));
+        assertThat(accountRepository.findTotalsBetween("client01", TODAY, TODAY.plusDays(1)))
+                .isEqualTo(new PeriodTotals(huge.add(huge), BigDecimal.ZERO, 2));
+    }
+}
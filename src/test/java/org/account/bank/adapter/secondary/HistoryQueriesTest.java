@@ -0,0 +1,161 @@
+package org.account.bank.adapter.secondary;
+
+import org.account.bank.domain.Operation;
+import org.account.bank.domain.OperationType;
+import org.account.bank.domain.PeriodTotals;
+import org.account.bank.domain.exception.BankAccountNotFoundException;
+import org.account.bank.domain.port.secondary.IAccountRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Recherches par période et par page")
+public class HistoryQueriesTest {
+
+    private static final String CLIENT_01 = "client01";
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2023, 8, 1);
+
+    private final List<Closeable> resources = new ArrayList<>();
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (Closeable resource : resources) {
+            resource.close();
+        }
+    }
+
+    static Stream<String> repositories() {
+        return Stream.of("concurrent", "columnar", "journal", "tiered");
+    }
+
+    @ParameterizedTest
+    @MethodSource("repositories")
+    @DisplayName("Lorsque l'on recherche les opérations d'une période")
+    void testFindOperationsBetween(String repositoryType) throws Exception {
+
+        IAccountRepository accountRepository = createRepository(repositoryType);
+        List<Operation> operations = twoOperationsPerDay(accountRepository, 10);
+
+        assertThat(accountRepository.findOperationsBetween(CLIENT_01, FIRST_DAY.plusDays(2), FIRST_DAY.plusDays(4)))
+                .containsExactlyElementsOf(operations.subList(4, 10));
+        assertThat(accountRepository.findOperationsBetween(CLIENT_01, FIRST_DAY.minusDays(5), FIRST_DAY))
+                .containsExactlyElementsOf(operations.subList(0, 2));
+        assertThat(accountRepository.findOperationsBetween(CLIENT_01, FIRST_DAY.plusDays(20), FIRST_DAY.plusDays(30))).isEmpty();
+        assertThat(accountRepository.findOperationsBetween(CLIENT_01, FIRST_DAY.plusDays(4), FIRST_DAY.plusDays(2))).isEmpty();
+
+        // l'index des positions, construit ou non à la première recherche, suit les ajouts suivants
+        Operation late = new Operation(FIRST_DAY.plusDays(12), BigDecimal.ONE, OperationType.DEPOSIT, BigDecimal.valueOf(21));
+        accountRepository.addOperation(CLIENT_01, late);
+        assertThat(accountRepository.findOperationsBetween(CLIENT_01, FIRST_DAY.plusDays(9), FIRST_DAY.plusDays(20)))
+                .containsExactly(operations.get(18), operations.get(19), late);
+    }
+
+    @ParameterizedTest
+    @MethodSource("repositories")
+    @DisplayName("Lorsque l'on consulte l'historique page par page")
+    void testFindOperationsPage(String repositoryType) throws Exception {
+
+        IAccountRepository accountRepository = createRepository(repositoryType);
+        List<Operation> operations = twoOperationsPerDay(accountRepository, 5);
+
+        assertThat(accountRepository.findOperationsPage(CLIENT_01, 0, 3))
+                .containsExactly(operations.get(9), operations.get(8), operations.get(7));
+        assertThat(accountRepository.findOperationsPage(CLIENT_01, 3, 3))
+                .containsExactly(operations.get(0));
+        assertThat(accountRepository.findOperationsPage(CLIENT_01, 4, 3)).isEmpty();
+        Operation late = new Operation(FIRST_DAY.plusDays(6), BigDecimal.ONE, OperationType.DEPOSIT, BigDecimal.valueOf(11));
+        accountRepository.addOperation(CLIENT_01, late);
+        assertThat(accountRepository.findOperationsPage(CLIENT_01, 0, 2)).containsExactly(late, operations.get(9));
+        assertThat(accountRepository.findOperationsPage(CLIENT_01, 3, 3)).containsExactly(operations.get(1), operations.get(0));
+        assertThatThrownBy(() -> accountRepository.findOperationsPage(CLIENT_01, -1, 3))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @ParameterizedTest
+    @MethodSource("repositories")
+    @DisplayName("Lorsque l'on consulte le solde à une date et les totaux d'une période")
+    void testBalanceAt_andTotalsBetween(String repositoryType) throws Exception {
+
+        IAccountRepository accountRepository = createRepository(repositoryType);
+        accountRepository.addClient(CLIENT_01);
+        // chaque jour d'activité : dépôt de 10 puis retrait de 3 ; aucune opération le jour 2
+        BigDecimal balance = BigDecimal.ZERO;
+        for (int day : new int[]{0, 1, 3, 4}) {
+            LocalDate date = FIRST_DAY.plusDays(day);
+            Operation deposit = new Operation(date, BigDecimal.TEN, OperationType.DEPOSIT, balance = balance.add(BigDecimal.TEN));
+            Operation withdraw = new Operation(date, BigDecimal.valueOf(3), OperationType.WITHDRAW, balance = balance.subtract(BigDecimal.valueOf(3)));
+            if (day % 2 == 0) {
+                accountRepository.addOperations(CLIENT_01, List.of(deposit, withdraw));
+            } else {
+                accountRepository.addOperation(CLIENT_01, deposit);
+                accountRepository.addOperation(CLIENT_01, withdraw);
+            }
+        }
+
+        assertThat(accountRepository.findBalanceAt(CLIENT_01, FIRST_DAY.minusDays(1))).isEqualByComparingTo("0");
+        assertThat(accountRepository.findBalanceAt(CLIENT_01, FIRST_DAY)).isEqualByComparingTo("7");
+        assertThat(accountRepository.findBalanceAt(CLIENT_01, FIRST_DAY.plusDays(2))).isEqualByComparingTo("14");
+        assertThat(accountRepository.findBalanceAt(CLIENT_01, FIRST_DAY.plusDays(30))).isEqualByComparingTo("28");
+
+        assertThat(accountRepository.findTotalsBetween(CLIENT_01, FIRST_DAY.plusDays(1), FIRST_DAY.plusDays(3)))
+                .isEqualTo(new PeriodTotals(BigDecimal.valueOf(20), BigDecimal.valueOf(6), 4));
+        assertThat(accountRepository.findTotalsBetween(CLIENT_01, FIRST_DAY.minusDays(10), FIRST_DAY.plusDays(10)))
+                .isEqualTo(new PeriodTotals(BigDecimal.valueOf(40), BigDecimal.valueOf(12), 8));
+        assertThat(accountRepository.findTotalsBetween(CLIENT_01, FIRST_DAY.plusDays(2), FIRST_DAY.plusDays(2))).isEqualTo(PeriodTotals.EMPTY);
+        assertThat(accountRepository.findTotalsBetween(CLIENT_01, FIRST_DAY.plusDays(4), FIRST_DAY)).isEqualTo(PeriodTotals.EMPTY);
+
+        // l'index, construit ou non à la première consultation, suit les ajouts suivants
+        accountRepository.addOperation(CLIENT_01, new Operation(FIRST_DAY.plusDays(4), BigDecimal.ONE, OperationType.DEPOSIT, BigDecimal.valueOf(29)));
+        accountRepository.addOperation(CLIENT_01, new Operation(FIRST_DAY.plusDays(6), BigDecimal.ONE, OperationType.WITHDRAW, BigDecimal.valueOf(28)));
+        assertThat(accountRepository.findBalanceAt(CLIENT_01, FIRST_DAY.plusDays(5))).isEqualByComparingTo("29");
+        assertThat(accountRepository.findTotalsBetween(CLIENT_01, FIRST_DAY.plusDays(4), FIRST_DAY.plusDays(6)))
+                .isEqualTo(new PeriodTotals(BigDecimal.valueOf(11), BigDecimal.valueOf(4), 4));
+    }
+
+    private IAccountRepository createRepository(String repositoryType) throws IOException {
+        if (repositoryType.equals("journal")) {
+            JournalAccountRepository journal = new JournalAccountRepository(directory, 8, 0);
+            resources.add(journal);
+            return journal;
+        }
+        if (repositoryType.equals("tiered")) {
+            // limites minimales : presque tout l'historique est relu depuis les segments
+            TieredAccountRepository tiered = new TieredAccountRepository(directory, 4, 2);
+            resources.add(tiered);
+            return tiered;
+        }
+        return repositoryType.equals("columnar") ? new ColumnarAccountRepository() : new ConcurrentAccountRepository();
+    }
+
+    private static List<Operation> twoOperationsPerDay(IAccountRepository accountRepository, int days) throws BankAccountNotFoundException {
+        accountRepository.addClient(CLIENT_01);
+        List<Operation> operations = new ArrayList<>();
+        for (int day = 0; day < days; day++) {
+            for (int i = 0; i < 2; i++) {
+                BigDecimal balance = BigDecimal.valueOf(operations.size() + 1L);
+                Operation operation = new Operation(FIRST_DAY.plusDays(day), BigDecimal.ONE, OperationType.DEPOSIT, balance);
+                accountRepository.addOperation(CLIENT_01, operation);
+                operations.add(operation);
+            }
+        }
+        return operations;
+    }
+}
@@ -0,0 +1,208 @@
+package org.account.bank.adapter.secondary;
+
+import org.account.bank.domain.Operation;
+import org.account.bank.domain.OperationType;
+import org.account.bank.domain.exception.BankAccountNotFoundException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("JournalAccountRepository Tests")
+public class JournalAccountRepositoryTest {
+
+    private static final String CLIENT_01 = "client01";
+
+    private static final String CLIENT_02 = "client02";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Lorsque l'on rouvre le journal, les comptes et leurs opérations sont restaurés")
+    void testRecovery() throws IOException, BankAccountNotFoundException {
+
+        Operation deposit = new Operation(LocalDate.of(2023, 8, 10), new BigDecimal("100.50"), OperationType.DEPOSIT, new BigDecimal("100.50"),
+                LocalTime.of(9, 30, 15, 123_456_789), 1);
+        Operation withdraw = new Operation(LocalDate.of(2023, 8, 11), new BigDecimal("40.25"), OperationType.WITHDRAW, new BigDecimal("60.25"),
+                LocalTime.of(17, 5), 2);
+        Operation otherDeposit = new Operation(LocalDate.of(2023, 8, 12), BigDecimal.TEN, OperationType.DEPOSIT, BigDecimal.TEN);
+
+        try (JournalAccountRepository accountRepository = new JournalAccountRepository(directory, 4, 1)) {
+            accountRepository.addClient(CLIENT_01);
+            accountRepository.addClient(CLIENT_02);
+            accountRepository.addOperation(CLIENT_01, deposit);
+            accountRepository.addOperation(CLIENT_02, otherDeposit);
+            accountRepository.addOperations(CLIENT_01, List.of(withdraw));
+        }
+
+        try (JournalAccountRepository accountRepository = new JournalAccountRepository(directory, 4, 1)) {
+            assertThat(accountRepository.findLastOperationByClientId(CLIENT_01)).contains(withdraw);
+            assertThat(accountRepository.findOperationsByClientId(CLIENT_01)).containsExactly(deposit, withdraw);
+            assertThat(accountRepository.findOperationsByClientId(CLIENT_02)).containsExactly(otherDeposit);
+
+            accountRepository.addOperation(CLIENT_02, otherDeposit);
+            assertThat(accountRepository.findOperationsByClientId(CLIENT_02)).containsExactly(otherDeposit, otherDeposit);
+            assertThat(accountRepository.iterateOperationsNewestFirst(CLIENT_01)).toIterable().containsExactly(withdraw, deposit);
+        }
+    }
+
+    @Test
+    @DisplayName("Lorsque le segment courant est plein, un nouveau segment est créé")
+    void testSegmentRollover() throws IOException, BankAccountNotFoundException {
+
+        Operation deposit = new Operation(LocalDate.EPOCH, BigDecimal.ONE, OperationType.DEPOSIT, BigDecimal.ONE);
+
+        try (JournalAccountRepository accountRepository = new JournalAccountRepository(directory, 2, 0)) {
+            accountRepository.addClient(CLIENT_01);
+            for (int i = 0; i < 5; i++) {
+                accountRepository.addOperation(CLIENT_01, deposit);
+            }
+            assertThat(accountRepository.findOperationsByClientId(CLIENT_01)).hasSize(5);
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).hasSize(3);
+        }
+        try (JournalAccountRepository accountRepository = new JournalAccountRepository(directory, 2, 0)) {
+            assertThat(accountRepository.findOperationsByClientId(CLIENT_01)).hasSize(5);
+        }
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on rouvre le journal après un instantané, seule la suite est rejouée et les segments couverts sont archivés")
+    void testSnapshot_andArchive() throws IOException, BankAccountNotFoundException {
+
+        Operation deposit = new Operation(LocalDate.EPOCH, BigDecimal.ONE, OperationType.DEPOSIT, BigDecimal.ONE);
+        Operation lastDeposit = new Operation(LocalDate.EPOCH, BigDecimal.TEN, OperationType.DEPOSIT, new BigDecimal(15));
+
+        try (JournalAccountRepository accountRepository = new JournalAccountRepository(directory, 2, 0)) {
+            accountRepository.addClient(CLIENT_01);
+            accountRepository.addClient(CLIENT_02);
+            for (int i = 0; i < 5; i++) {
+                accountRepository.addOperation(CLIENT_01, deposit);
+            }
+            accountRepository.snapshot();
+            assertThat(accountRepository.archiveSegments()).isEqualTo(3);
+
+            accountRepository.addOperation(CLIENT_01, lastDeposit);
+            assertThat(accountRepository.findOperationsByClientId(CLIENT_01)).hasSize(6);
+        }
+
+        assertThat(directory.resolve("archive")).isDirectoryContaining(path -> path.getFileName().toString().startsWith("journal-"));
+
+        try (JournalAccountRepository accountRepository = new JournalAccountRepository(directory, 2, 0)) {
+            assertThat(accountRepository.findLastOperationByClientId(CLIENT_01)).contains(lastDeposit);
+            assertThat(accountRepository.findLastOperationByClientId(CLIENT_02)).isEmpty();
+            assertThat(accountRepository.findOperationsByClientId(CLIENT_01)).hasSize(6).endsWith(lastDeposit);
+
+            accountRepository.addClient("client03");
+            accountRepository.addOperation("client03", deposit);
+            assertThat(accountRepository.findOperationsByClientId("client03")).containsExactly(deposit);
+        }
+    }
+
+    @Test
+    @DisplayName("Lorsque l'instantané est tronqué, le journal est rejoué en entier, segments archivés compris")
+    void testTruncatedSnapshot_fallsBackToFullReplay() throws IOException, BankAccountNotFoundException {
+
+        Operation deposit = new Operation(LocalDate.EPOCH, BigDecimal.ONE, OperationType.DEPOSIT, BigDecimal.ONE);
+
+        try (JournalAccountRepository accountRepository = new JournalAccountRepository(directory, 2, 0)) {
+            accountRepository.addClient(CLIENT_01);
+            for (int i = 0; i < 5; i++) {
+                accountRepository.addOperation(CLIENT_01, deposit);
+            }
+            accountRepository.snapshot();
+            accountRepository.archiveSegments();
+        }
+        Path snapshot = directory.resolve("snapshot.bin");
+        Files.write(snapshot, Arrays.copyOf(Files.readAllBytes(snapshot), 10));
+
+        try (JournalAccountRepository accountRepository = new JournalAccountRepository(directory, 2, 0)) {
+            assertThat(accountRepository.findAllClientIds()).containsExactly(CLIENT_01);
+            assertThat(accountRepository.findOperationsByClientId(CLIENT_01)).hasSize(5);
+            assertThat(accountRepository.findLastOperationByClientId(CLIENT_01)).contains(deposit);
+        }
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on ferme un compte, il reste fermé au rejeu du journal comme après un instantané")
+    void testRemoveClient() throws IOException, BankAccountNotFoundException {
+
+        Operation deposit = new Operation(LocalDate.EPOCH, BigDecimal.ONE, OperationType.DEPOSIT, BigDecimal.ONE);
+        Operation otherDeposit = new Operation(LocalDate.EPOCH, BigDecimal.TEN, OperationType.DEPOSIT, BigDecimal.TEN);
+
+        try (JournalAccountRepository accountRepository = new JournalAccountRepository(directory, 4, 0)) {
+            accountRepository.addClient(CLIENT_01);
+            accountRepository.addClient(CLIENT_02);
+            accountRepository.addOperation(CLIENT_01, deposit);
+            accountRepository.addOperation(CLIENT_02, deposit);
+            accountRepository.removeClient(CLIENT_01);
+
+            assertThat(accountRepository.findAllClientIds()).containsExactly(CLIENT_02);
+            assertThatThrownBy(() -> accountRepository.addOperation(CLIENT_01, deposit)).isInstanceOf(BankAccountNotFoundException.class);
+            assertThatThrownBy(() -> accountRepository.removeClient(CLIENT_01)).isInstanceOf(BankAccountNotFoundException.class);
+        }
+
+        try (JournalAccountRepository accountRepository = new JournalAccountRepository(directory, 4, 0)) {
+            assertThat(accountRepository.findAllClientIds()).containsExactly(CLIENT_02);
+            assertThatThrownBy(() -> accountRepository.findOperationsByClientId(CLIENT_01)).isInstanceOf(BankAccountNotFoundException.class);
+
+            accountRepository.addClient(CLIENT_01);
+            accountRepository.addOperation(CLIENT_01, otherDeposit);
+            accountRepository.removeClient(CLIENT_02);
+            accountRepository.snapshot();
+            accountRepository.addOperation(CLIENT_01, otherDeposit);
+        }
+
+        try (JournalAccountRepository accountRepository = new JournalAccountRepository(directory, 4, 0)) {
+            assertThat(accountRepository.findAllClientIds()).containsExactly(CLIENT_01);
+            assertThat(accountRepository.findOperationsByClientId(CLIENT_01)).containsExactly(otherDeposit, otherDeposit);
+        }
+    }
+
+    @Test
+    @DisplayName("Lorsqu'un lot contient un montant hors des limites du journal, aucune de ses opérations n'est écrite")
+    void testAddOperations_rejectsWholeBatch() throws IOException, BankAccountNotFoundException {
+
+        Operation deposit = new Operation(LocalDate.of(2023, 8, 10), BigDecimal.TEN, OperationType.DEPOSIT, BigDecimal.TEN);
+        BigDecimal huge = BigDecimal.valueOf(Long.MAX_VALUE).add(BigDecimal.ONE);
+        Operation unencodable = new Operation(LocalDate.of(2023, 8, 10), huge, OperationType.DEPOSIT, huge.add(BigDecimal.TEN));
+
+        try (JournalAccountRepository accountRepository = new JournalAccountRepository(directory, 4, 1)) {
+            accountRepository.addClient(CLIENT_01);
+            assertThatThrownBy(() -> accountRepository.addOperations(CLIENT_01, List.of(deposit, deposit, unencodable)))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThat(accountRepository.findOperationsByClientId(CLIENT_01)).isEmpty();
+            assertThat(accountRepository.findLastOperationByClientId(CLIENT_01)).isEmpty();
+        }
+
+        try (JournalAccountRepository accountRepository = new JournalAccountRepository(directory, 4, 1)) {
+            assertThat(accountRepository.findOperationsByClientId(CLIENT_01)).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on consulte un compte client non existant")
+    void testFind_whenAccount_isNotFound() throws IOException {
+
+        try (JournalAccountRepository accountRepository = new JournalAccountRepository(directory)) {
+            assertThatThrownBy(() -> accountRepository.findLastOperationByClientId(CLIENT_01))
+                    .isInstanceOf(BankAccountNotFoundException.class)
+                    .hasMessage("Compte inexistant : client01");
+        }
+    }
+}
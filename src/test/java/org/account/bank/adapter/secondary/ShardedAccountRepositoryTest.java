@@ -0,0 +1,258 @@
+package org.account.bank.adapter.secondary;
+
+import org.account.bank.domain.Operation;
+import org.account.bank.domain.OperationService;
+import org.account.bank.domain.OperationType;
+import org.account.bank.domain.PeriodTotals;
+import org.account.bank.domain.exception.BankAccountNotFoundException;
+import org.account.bank.domain.exception.InsufficientCreditException;
+import org.account.bank.domain.exception.NegativeAmountException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ShardedAccountRepository Tests")
+public class ShardedAccountRepositoryTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2023, 8, 10);
+
+    private static final int ACCOUNTS = 1_000;
+
+    private final List<PartitionServer> servers = new ArrayList<>();
+
+    private final ShardedAccountRepository accountRepository = new ShardedAccountRepository();
+
+    @AfterEach
+    void tearDown() throws IOException {
+        accountRepository.close();
+        for (PartitionServer server : servers) {
+            server.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on répartit des comptes entre trois partitions")
+    void testRouting() throws BankAccountNotFoundException {
+
+        Map<String, ConcurrentAccountRepository> partitions = new HashMap<>();
+        for (String name : List.of("p0", "p1", "p2")) {
+            partitions.put(name, new ConcurrentAccountRepository());
+            accountRepository.addPartition(name, partitions.get(name));
+        }
+
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountRepository.addClient("client" + i);
+            accountRepository.addOperation("client" + i, deposit(i + 1, i + 1));
+        }
+
+        assertThat(accountRepository.findAllClientIds()).hasSize(ACCOUNTS);
+        for (Map.Entry<String, ConcurrentAccountRepository> partition : partitions.entrySet()) {
+            // chaque partition reçoit sa part, à la dispersion du hachage près
+            assertThat(partition.getValue().findAllClientIds()).hasSizeBetween(ACCOUNTS / 6, ACCOUNTS / 2)
+                    .allMatch(clientId -> accountRepository.partitionOf(clientId).equals(partition.getKey()));
+        }
+        assertThat(accountRepository.findLastOperationByClientId("client41")).contains(deposit(42, 42));
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on ajoute une partition, seuls les comptes qui lui reviennent sont déplacés")
+    void testAddPartition_movesOnlyItsAccounts() throws BankAccountNotFoundException {
+
+        accountRepository.addPartition("p0", new ConcurrentAccountRepository());
+        accountRepository.addPartition("p1", new ConcurrentAccountRepository());
+        Map<String, String> before = new HashMap<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountRepository.addClient("client" + i);
+            accountRepository.addOperations("client" + i, List.of(deposit(10, 10), deposit(i, 10 + i)));
+            before.put("client" + i, accountRepository.partitionOf("client" + i));
+        }
+
+        ColumnarAccountRepository added = new ColumnarAccountRepository();
+        int moved = accountRepository.addPartition("p2", added);
+
+        assertThat(moved).isEqualTo(added.findAllClientIds().size()).isBetween(ACCOUNTS / 6, ACCOUNTS / 2);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            String clientId = "client" + i;
+            String after = accountRepository.partitionOf(clientId);
+            assertThat(after).isIn(before.get(clientId), "p2");
+            assertThat(accountRepository.findOperationsByClientId(clientId)).containsExactly(deposit(10, 10), deposit(i, 10 + i));
+        }
+        assertThat(accountRepository.findAllClientIds()).hasSize(ACCOUNTS);
+    }
+
+    @Test
+    @DisplayName("Lorsqu'un déplacement échoue, l'ajout de partition est annulé et les comptes déjà déplacés reviennent")
+    void testAddPartition_rollsBackOnFailure() throws BankAccountNotFoundException {
+
+        accountRepository.addPartition("p0", new ConcurrentAccountRepository());
+        accountRepository.addPartition("p1", new ConcurrentAccountRepository());
+        Map<String, String> before = new HashMap<>();
+        for (int i = 0; i < 200; i++) {
+            accountRepository.addClient("client" + i);
+            accountRepository.addOperation("client" + i, deposit(i + 1, i + 1));
+            before.put("client" + i, accountRepository.partitionOf("client" + i));
+        }
+
+        AtomicInteger copies = new AtomicInteger();
+        ConcurrentAccountRepository failing = new ConcurrentAccountRepository() {
+            @Override
+            public void addOperations(String clientId, List<Operation> operations) throws BankAccountNotFoundException {
+                if (copies.incrementAndGet() == 10) {
+                    throw new UncheckedIOException(new IOException("Partition injoignable"));
+                }
+                super.addOperations(clientId, operations);
+            }
+        };
+
+        assertThatThrownBy(() -> accountRepository.addPartition("p2", failing))
+                .isInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage("Partition injoignable");
+
+        assertThat(failing.findAllClientIds()).isEmpty();
+        assertThat(accountRepository.findAllClientIds()).hasSize(200);
+        for (int i = 0; i < 200; i++) {
+            String clientId = "client" + i;
+            assertThat(accountRepository.partitionOf(clientId)).isEqualTo(before.get(clientId));
+            assertThat(accountRepository.findOperationsByClientId(clientId)).containsExactly(deposit(i + 1, i + 1));
+        }
+
+        // la partition retirée peut être ajoutée de nouveau
+        assertThat(accountRepository.addPartition("p2", new ConcurrentAccountRepository())).isPositive();
+        assertThat(accountRepository.findAllClientIds()).hasSize(200);
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on ajoute une partition pendant des dépôts concurrents")
+    void testAddPartition_whileWriting() throws Exception {
+
+        accountRepository.addPartition("p0", new ConcurrentAccountRepository());
+        for (int i = 0; i < 64; i++) {
+            accountRepository.addClient("client" + i);
+        }
+        OperationService operationService = new OperationService(() -> TODAY, accountRepository, new OperationPrinter());
+
+        int threads = 4;
+        int depositsPerThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < depositsPerThread; i++) {
+                        operationService.deposit("client" + (i % 64), BigDecimal.ONE);
+                    }
+                    return null;
+                }));
+            }
+            accountRepository.addPartition("p1", new ConcurrentAccountRepository());
+            accountRepository.addPartition("p2", new ConcurrentAccountRepository());
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // aucun dépôt perdu ni dupliqué par les déplacements
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < 64; i++) {
+            total = total.add(balance("client" + i));
+        }
+        assertThat(total).isEqualByComparingTo(BigDecimal.valueOf((long) threads * depositsPerThread));
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on utilise le service sur des partitions tenues par des serveurs distants")
+    void testOperationService_overRemotePartitions()
+            throws IOException, BankAccountNotFoundException, NegativeAmountException, InsufficientCreditException {
+
+        for (String name : List.of("p0", "p1")) {
+            PartitionServer server = new PartitionServer(new ConcurrentAccountRepository(), 0);
+            servers.add(server);
+            accountRepository.addPartition(name, new RemoteAccountRepository(server.port()));
+        }
+        OperationService operationService = new OperationService(() -> TODAY, accountRepository, new OperationPrinter());
+        for (int i = 0; i < 20; i++) {
+            accountRepository.addClient("client" + i);
+            operationService.deposit("client" + i, BigDecimal.valueOf(100));
+        }
+
+        operationService.withdraw("client3", new BigDecimal("25.50"));
+        operationService.transfer("client3", "client4", BigDecimal.TEN);
+
+        assertThat(balance("client3")).isEqualByComparingTo("64.50");
+        assertThat(balance("client4")).isEqualByComparingTo("110");
+        assertThat(operationService.getBalanceAt("client3", TODAY.minusDays(1))).isEqualByComparingTo("0");
+        assertThat(operationService.getTotals("client3", TODAY, TODAY))
+                .isEqualTo(new PeriodTotals(new BigDecimal("100"), new BigDecimal("35.50"), 3));
+        assertThat(accountRepository.findOperationsByClientId("client3"))
+                .extracting(Operation::sequence)
+                .containsExactly(1L, 2L, 3L);
+        assertThat(operationService.printOperations("client3")).contains("25.50");
+        assertThat(accountRepository.findAllClientIds()).hasSize(20);
+
+        assertThatThrownBy(() -> operationService.deposit("unknown", BigDecimal.ONE))
+                .isInstanceOf(BankAccountNotFoundException.class)
+                .hasMessage("Compte inexistant : unknown");
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on ajoute une partition distante à des partitions en mémoire")
+    void testAddPartition_remote() throws IOException, BankAccountNotFoundException {
+
+        accountRepository.addPartition("p0", new ConcurrentAccountRepository());
+        for (int i = 0; i < 200; i++) {
+            accountRepository.addClient("client" + i);
+            accountRepository.addOperation("client" + i, deposit(i + 1, i + 1));
+        }
+
+        ConcurrentAccountRepository remotePartition = new ConcurrentAccountRepository();
+        PartitionServer server = new PartitionServer(remotePartition, 0);
+        servers.add(server);
+        int moved = accountRepository.addPartition("p1", new RemoteAccountRepository(server.port()));
+
+        assertThat(moved).isPositive().isEqualTo(remotePartition.findAllClientIds().size());
+        for (String clientId : remotePartition.findAllClientIds()) {
+            int i = Integer.parseInt(clientId.substring("client".length()));
+            assertThat(accountRepository.findLastOperationByClientId(clientId)).contains(deposit(i + 1, i + 1));
+        }
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on ajoute deux fois la même partition, ou que l'on consulte sans partition")
+    void testInvalidPartitions() {
+
+        assertThatThrownBy(() -> accountRepository.addClient("client01"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Aucune partition");
+
+        accountRepository.addPartition("p0", new ConcurrentAccountRepository());
+        assertThatThrownBy(() -> accountRepository.addPartition("p0", new ConcurrentAccountRepository()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Partition déjà présente : p0");
+    }
+
+    private BigDecimal balance(String clientId) throws BankAccountNotFoundException {
+        return accountRepository.findLastOperationByClientId(clientId).map(Operation::balance).orElse(BigDecimal.ZERO);
+    }
+
+    private static Operation deposit(long amount, long balance) {
+        return new Operation(TODAY, BigDecimal.valueOf(amount), OperationType.DEPOSIT, BigDecimal.valueOf(balance));
+    }
+}
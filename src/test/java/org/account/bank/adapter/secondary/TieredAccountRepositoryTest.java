@@ -0,0 +1,262 @@
+package org.account.bank.adapter.secondary;
+
+import org.account.bank.domain.Operation;
+import org.account.bank.domain.OperationService;
+import org.account.bank.domain.OperationType;
+import org.account.bank.domain.PeriodTotals;
+import org.account.bank.domain.exception.BankAccountNotFoundException;
+import org.account.bank.domain.exception.InsufficientCreditException;
+import org.account.bank.domain.exception.NegativeAmountException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("TieredAccountRepository Tests")
+public class TieredAccountRepositoryTest {
+
+    private static final String CLIENT_01 = "client01";
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2023, 8, 1);
+
+    @TempDir
+    Path directory;
+
+    private TieredAccountRepository accountRepository;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (accountRepository != null) {
+            accountRepository.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Lorsque l'historique d'un compte dépasse sa part de mémoire, il est déversé puis relu à l'identique")
+    void testLongHistory_isSpilledAndReadBack() throws IOException, BankAccountNotFoundException {
+
+        accountRepository = new TieredAccountRepository(directory, 1_000, 64);
+        accountRepository.addClient(CLIENT_01);
+        List<Operation> operations = history(10_000);
+        for (int i = 0; i < operations.size(); i += 7) {
+            accountRepository.addOperations(CLIENT_01, operations.subList(i, Math.min(operations.size(), i + 7)));
+        }
+
+        assertThat(accountRepository.hotOperationCount()).isLessThanOrEqualTo(64);
+        // fusions deux à deux jusqu'à 4096 opérations par bloc : deux blocs pleins et quelques petits
+        assertThat(accountRepository.coldBlockCount(CLIENT_01)).isBetween(1, 12);
+        assertThat(accountRepository.findOperationsByClientId(CLIENT_01)).containsExactlyElementsOf(operations);
+        assertThat(accountRepository.findLastOperationByClientId(CLIENT_01)).contains(operations.get(operations.size() - 1));
+        assertThat(accountRepository.findOperationsBetween(CLIENT_01, FIRST_DAY.plusDays(100), FIRST_DAY.plusDays(101)))
+                .containsExactlyElementsOf(operations.stream()
+                        .filter(operation -> !operation.date().isBefore(FIRST_DAY.plusDays(100)) && !operation.date().isAfter(FIRST_DAY.plusDays(101)))
+                        .toList());
+        assertThat(accountRepository.findOperationsPage(CLIENT_01, 200, 10))
+                .containsExactlyElementsOf(operations.subList(7_990, 8_000).reversed());
+        // soldes et totaux servis par les résumés des blocs, à cheval sur leurs bornes comme à l'intérieur
+        for (int day = -1; day <= 201; day += 7) {
+            LocalDate date = FIRST_DAY.plusDays(day);
+            assertThat(accountRepository.findBalanceAt(CLIENT_01, date))
+                    .isEqualByComparingTo(day < 0 ? BigDecimal.ZERO : lastOfDay(operations, date).balance());
+            PeriodTotals expected = PeriodTotals.EMPTY;
+            for (Operation operation : operations) {
+                if (!operation.date().isBefore(date.minusDays(60)) && !operation.date().isAfter(date)) {
+                    expected = expected.plus(operation);
+                }
+            }
+            assertThat(accountRepository.findTotalsBetween(CLIENT_01, date.minusDays(60), date)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    @DisplayName("Lorsque de nombreux comptes sont actifs, la mémoire reste bornée et les moins récemment écrits sont déversés")
+    void testHotTier_isBounded() throws IOException, BankAccountNotFoundException {
+
+        accountRepository = new TieredAccountRepository(directory, 500, 64);
+        List<List<Operation>> histories = new ArrayList<>();
+        for (int account = 0; account < 200; account++) {
+            accountRepository.addClient("client" + account);
+            histories.add(history(20 + account % 7));
+        }
+        for (int round = 0; round < 26; round++) {
+            for (int account = 0; account < 200; account++) {
+                List<Operation> history = histories.get(account);
+                if (round < history.size()) {
+                    accountRepository.addOperation("client" + account, history.get(round));
+                }
+                assertThat(accountRepository.hotOperationCount()).isLessThanOrEqualTo(500);
+            }
+        }
+
+        for (int account = 0; account < 200; account++) {
+            List<Operation> history = histories.get(account);
+            assertThat(accountRepository.findOperationsByClientId("client" + account)).containsExactlyElementsOf(history);
+            assertThat(accountRepository.findLastOperationByClientId("client" + account)).contains(history.get(history.size() - 1));
+        }
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on utilise le service sur le référentiel à deux niveaux")
+    void testOperationService_overTieredRepository()
+            throws IOException, NegativeAmountException, BankAccountNotFoundException, InsufficientCreditException {
+
+        accountRepository = new TieredAccountRepository(directory, 8, 4);
+        ConcurrentAccountRepository reference = new ConcurrentAccountRepository();
+        OperationService tieredService = new OperationService(() -> FIRST_DAY, accountRepository, new OperationPrinter());
+        OperationService referenceService = new OperationService(() -> FIRST_DAY, reference, new OperationPrinter());
+        for (int account = 0; account < 5; account++) {
+            accountRepository.addClient("client" + account);
+            reference.addClient("client" + account);
+        }
+
+        for (int i = 0; i < 100; i++) {
+            String clientId = "client" + i % 5;
+            for (OperationService operationService : List.of(tieredService, referenceService)) {
+                operationService.deposit(clientId, new BigDecimal("10.25"));
+                operationService.withdraw(clientId, new BigDecimal("3.5"));
+            }
+        }
+
+        for (int account = 0; account < 5; account++) {
+            assertThat(tieredService.printOperations("client" + account)).isEqualTo(referenceService.printOperations("client" + account));
+        }
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on ferme un compte déversé")
+    void testRemoveClient() throws IOException, BankAccountNotFoundException {
+
+        accountRepository = new TieredAccountRepository(directory, 10, 4);
+        accountRepository.addClient(CLIENT_01);
+        accountRepository.addOperations(CLIENT_01, history(20));
+
+        accountRepository.removeClient(CLIENT_01);
+
+        assertThat(accountRepository.hotOperationCount()).isZero();
+        assertThat(accountRepository.findAllClientIds()).isEmpty();
+        assertThatThrownBy(() -> accountRepository.findOperationsByClientId(CLIENT_01))
+                .isInstanceOf(BankAccountNotFoundException.class)
+                .hasMessage("Compte inexistant : client01");
+    }
+
+    @Test
+    @DisplayName("Lorsque des blocs sont fusionnés ou des comptes fermés, les segments vidés sont supprimés et les autres compactés")
+    void testSegments_areReclaimed() throws IOException, BankAccountNotFoundException {
+
+        accountRepository = new TieredAccountRepository(directory, 10_000, 4, 512);
+        List<Operation> history = history(60);
+        for (int account = 0; account < 40; account++) {
+            accountRepository.addClient("client" + account);
+        }
+        for (Operation operation : history) {
+            for (int account = 0; account < 40; account++) {
+                accountRepository.addOperation("client" + account, operation);
+            }
+        }
+        int written = accountRepository.segmentCount();
+        try (Stream<Path> files = Files.list(directory)) {
+            // les blocs fusionnés ont déjà libéré des segments
+            assertThat(files.count()).isEqualTo(written);
+        }
+
+        for (int account = 0; account < 40; account++) {
+            if (account % 8 != 0) {
+                accountRepository.removeClient("client" + account);
+            }
+        }
+        int afterRemoval = accountRepository.segmentCount();
+        assertThat(afterRemoval).isLessThan(written);
+
+        assertThat(accountRepository.compactSegments()).isPositive();
+        assertThat(accountRepository.segmentCount()).isLessThan(afterRemoval);
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.count()).isEqualTo(accountRepository.segmentCount());
+        }
+        for (int account = 0; account < 40; account += 8) {
+            assertThat(accountRepository.findOperationsByClientId("client" + account)).containsExactlyElementsOf(history);
+        }
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on ajoute un montant que les segments ne savent pas encoder, il est refusé sans toucher au compte")
+    void testUnencodableAmount_isRejectedBeforeAppend() throws IOException, BankAccountNotFoundException {
+
+        accountRepository = new TieredAccountRepository(directory, 100, 4);
+        accountRepository.addClient(CLIENT_01);
+        List<Operation> operations = history(3);
+        accountRepository.addOperations(CLIENT_01, operations);
+        Operation tiny = new Operation(FIRST_DAY, new BigDecimal("1E-130"), OperationType.DEPOSIT, new BigDecimal("1E-130"));
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> accountRepository.addOperation(CLIENT_01, tiny))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Montant hors des limites des segments : 1E-130");
+        }
+
+        assertThat(accountRepository.hotOperationCount()).isEqualTo(3);
+        assertThat(accountRepository.findLastOperationByClientId(CLIENT_01)).contains(operations.get(2));
+        accountRepository.addOperations(CLIENT_01, history(6).subList(3, 6));
+        assertThat(accountRepository.findOperationsByClientId(CLIENT_01)).containsExactlyElementsOf(history(6));
+        assertThat(accountRepository.coldBlockCount(CLIENT_01)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on encode un historique régulier, il tient en quelques octets par opération")
+    void testCodec_roundTrip_andSize() {
+
+        List<Operation> operations = new ArrayList<>(history(5_000));
+        // valeurs irrégulières : échelles différentes, soldes négatifs, grands écarts
+        operations.add(new Operation(FIRST_DAY.minusYears(30), new BigDecimal("-0.001"), OperationType.TRANSFER_IN,
+                new BigDecimal("123456789012.345"), LocalTime.MAX, Long.MAX_VALUE));
+        operations.add(new Operation(LocalDate.EPOCH, new BigDecimal("1E+3"), OperationType.TRANSFER_OUT,
+                BigDecimal.valueOf(Long.MIN_VALUE), LocalTime.MIDNIGHT, 0));
+
+        ColdBlockCodec.Block block = ColdBlockCodec.encode(operations);
+
+        assertThat(ColdBlockCodec.decode(block.compressed(), block.rawLength(), block.count())).containsExactlyElementsOf(operations);
+        assertThat(block.compressed().length).isLessThan(4 * operations.size());
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on décode un bloc tronqué, le décodage échoue au lieu de boucler")
+    void testCodec_truncatedBlock_isRejected() {
+
+        ColdBlockCodec.Block block = ColdBlockCodec.encode(history(100));
+        byte[] truncated = Arrays.copyOf(block.compressed(), block.compressed().length / 2);
+
+        assertThatThrownBy(() -> ColdBlockCodec.decode(truncated, block.rawLength(), block.count()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageStartingWith("Bloc tronqué");
+    }
+
+    // dépôts et retraits en alternance, cinquante par jour, à une minute d'intervalle
+    private static List<Operation> history(int count) {
+        List<Operation> operations = new ArrayList<>(count);
+        BigDecimal balance = BigDecimal.ZERO;
+        for (int i = 0; i < count; i++) {
+            BigDecimal amount = BigDecimal.valueOf(100 + i % 13, 2);
+            OperationType type = i % 3 == 2 ? OperationType.WITHDRAW : OperationType.DEPOSIT;
+            balance = type == OperationType.DEPOSIT ? balance.add(amount) : balance.subtract(amount);
+            operations.add(new Operation(FIRST_DAY.plusDays(i / 50), amount, type, balance, LocalTime.of(8, 0).plusMinutes(i % 50), i + 1));
+        }
+        return operations;
+    }
+
+    private static Operation lastOfDay(List<Operation> operations, LocalDate date) {
+        return operations.stream().filter(operation -> !operation.date().isAfter(date)).reduce((first, second) -> second).orElseThrow();
+    }
+}
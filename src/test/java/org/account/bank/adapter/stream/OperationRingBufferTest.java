@@ -0,0 +1,228 @@
+package org.account.bank.adapter.stream;
+
+import org.account.bank.adapter.secondary.ConcurrentAccountRepository;
+import org.account.bank.adapter.secondary.OperationPrinter;
+import org.account.bank.domain.Operation;
+import org.account.bank.domain.OperationService;
+import org.account.bank.domain.OperationType;
+import org.account.bank.domain.exception.BankAccountNotFoundException;
+import org.account.bank.domain.exception.InsufficientCreditException;
+import org.account.bank.domain.exception.NegativeAmountException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("OperationRingBuffer Tests")
+public class OperationRingBufferTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2023, 8, 10);
+
+    private final OperationRingBuffer ringBuffer = new OperationRingBuffer(64);
+
+    @AfterEach
+    void tearDown() {
+        ringBuffer.close();
+    }
+
+    @Test
+    @DisplayName("Lorsque plusieurs producteurs font plusieurs fois le tour de l'anneau, chaque abonné reçoit tout, dans l'ordre de chaque producteur")
+    void testProducersAndConsumers_noEventLost() throws Exception {
+
+        List<Received> consumers = new ArrayList<>();
+        for (WaitStrategy waitStrategy : WaitStrategy.values()) {
+            Received received = new Received();
+            ringBuffer.subscribe(waitStrategy.name(), received, waitStrategy);
+            consumers.add(received);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> producers = new ArrayList<>();
+            for (int producer = 0; producer < 4; producer++) {
+                String clientId = "client" + producer;
+                producers.add(executor.submit(() -> {
+                    for (int i = 1; i <= 2_000; i++) {
+                        if (i % 100 == 1) {
+                            ringBuffer.publish(clientId, List.of(deposit(i), deposit(i + 1)));
+                            i++;
+                        } else {
+                            ringBuffer.publish(clientId, deposit(i));
+                        }
+                    }
+                }));
+            }
+            for (Future<?> producer : producers) {
+                producer.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        // la fermeture attend que chaque abonné ait traité ce qui est publié
+        ringBuffer.close();
+
+        for (Received received : consumers) {
+            assertThat(received.sequences).hasSize(8_000);
+            for (int i = 0; i < received.sequences.size(); i++) {
+                assertThat(received.sequences.get(i)).isEqualTo(i);
+            }
+            for (int producer = 0; producer < 4; producer++) {
+                String clientId = "client" + producer;
+                assertThat(received.amountsOf(clientId)).hasSize(2_000).isSorted();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Lorsqu'un abonné est occupé, ce qui est publié entre-temps lui parvient en un seul lot")
+    void testBatching() throws InterruptedException {
+
+        CountDownLatch busy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Received received = new Received() {
+            @Override
+            public void onOperation(String clientId, Operation operation, long sequence, boolean endOfBatch) {
+                super.onOperation(clientId, operation, sequence, endOfBatch);
+                if (sequence == 0) {
+                    busy.countDown();
+                    await(release);
+                }
+            }
+        };
+        ringBuffer.subscribe("batch", received, WaitStrategy.BLOCKING);
+
+        ringBuffer.publish("client01", deposit(1));
+        busy.await();
+        for (int i = 2; i <= 11; i++) {
+            ringBuffer.publish("client01", deposit(i));
+        }
+        release.countDown();
+        ringBuffer.close();
+
+        assertThat(received.endOfBatch).containsExactly(true, false, false, false, false, false, false, false, false, false, true);
+    }
+
+    @Test
+    @DisplayName("Lorsqu'un abonné lève une exception, le flux continue et l'échec est compté")
+    void testConsumerFailure_doesNotStopStream() {
+
+        List<Long> sequences = Collections.synchronizedList(new ArrayList<>());
+        OperationRingBuffer.Subscription subscription = ringBuffer.subscribe("failing", (clientId, operation, sequence, endOfBatch) -> {
+            if (sequence % 2 == 1) {
+                throw new IllegalStateException("abonné indisponible");
+            }
+            sequences.add(sequence);
+        }, WaitStrategy.SLEEPING);
+
+        for (int i = 1; i <= 100; i++) {
+            ringBuffer.publish("client01", deposit(i));
+        }
+        subscription.close();
+
+        assertThat(subscription.failures()).isEqualTo(50);
+        assertThat(sequences).hasSize(50);
+        assertThat(subscription.lag()).isZero();
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on abonne un consommateur, il reçoit ce qui est publié ensuite, et plus rien une fois désinscrit")
+    void testSubscribe_fromNowOn() {
+
+        ringBuffer.publish("client01", deposit(1));
+        Received received = new Received();
+        OperationRingBuffer.Subscription subscription = ringBuffer.subscribe("late", received, WaitStrategy.YIELDING);
+        ringBuffer.publish("client01", deposit(2));
+        subscription.close();
+        ringBuffer.publish("client01", deposit(3));
+
+        assertThat(received.amountsOf("client01")).containsExactly(2L);
+        assertThat(subscription.sequence()).isEqualTo(0);
+        assertThatThrownBy(() -> new OperationRingBuffer(100))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Taille d'anneau invalide, une puissance de deux est attendue : 100");
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on utilise le service sur un référentiel publiant, seules les opérations ajoutées sont publiées")
+    void testPublishingRepository_withOperationService()
+            throws NegativeAmountException, BankAccountNotFoundException, InsufficientCreditException {
+
+        PublishingAccountRepository accountRepository = new PublishingAccountRepository(new ConcurrentAccountRepository(), ringBuffer);
+        accountRepository.addClient("client01");
+        accountRepository.addClient("client02");
+        OperationService operationService = new OperationService(() -> TODAY, accountRepository, new OperationPrinter());
+        Received received = new Received();
+        ringBuffer.subscribe("ledger", received, WaitStrategy.BLOCKING);
+
+        operationService.deposit("client01", BigDecimal.valueOf(100));
+        assertThatThrownBy(() -> operationService.withdraw("client01", BigDecimal.valueOf(500)))
+                .isInstanceOf(InsufficientCreditException.class);
+        assertThatThrownBy(() -> operationService.deposit("unknown", BigDecimal.TEN))
+                .isInstanceOf(BankAccountNotFoundException.class);
+        operationService.transfer("client01", "client02", BigDecimal.valueOf(30));
+        ringBuffer.close();
+
+        assertThat(received.clientIds).containsExactly("client01", "client01", "client02");
+        assertThat(received.operations)
+                .extracting(Operation::operationType)
+                .containsExactly(OperationType.DEPOSIT, OperationType.TRANSFER_OUT, OperationType.TRANSFER_IN);
+        assertThat(received.operations).containsExactly(
+                accountRepository.findOperationsByClientId("client01").get(0),
+                accountRepository.findOperationsByClientId("client01").get(1),
+                accountRepository.findOperationsByClientId("client02").get(0));
+    }
+
+    private static Operation deposit(long amount) {
+        return new Operation(TODAY, BigDecimal.valueOf(amount), OperationType.DEPOSIT, BigDecimal.valueOf(amount));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // appelé par le seul thread de l'abonnement, relu après sa fermeture
+    private static class Received implements IOperationConsumer {
+
+        private final List<String> clientIds = new ArrayList<>();
+
+        private final List<Operation> operations = new ArrayList<>();
+
+        private final List<Long> sequences = new ArrayList<>();
+
+        private final List<Boolean> endOfBatch = new ArrayList<>();
+
+        @Override
+        public void onOperation(String clientId, Operation operation, long sequence, boolean endOfBatch) {
+            clientIds.add(clientId);
+            operations.add(operation);
+            sequences.add(sequence);
+            this.endOfBatch.add(endOfBatch);
+        }
+
+        private List<Long> amountsOf(String clientId) {
+            List<Long> amounts = new ArrayList<>();
+            for (int i = 0; i < clientIds.size(); i++) {
+                if (clientIds.get(i).equals(clientId)) {
+                    amounts.add(operations.get(i).amount().longValueExact());
+                }
+            }
+            return amounts;
+        }
+    }
+}
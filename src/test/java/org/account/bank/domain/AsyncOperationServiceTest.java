@@ -0,0 +1,123 @@
+package org.account.bank.domain;
+
+import org.account.bank.adapter.secondary.ConcurrentAccountRepository;
+import org.account.bank.adapter.secondary.OperationPrinter;
+import org.account.bank.domain.exception.InsufficientCreditException;
+import org.account.bank.domain.port.secondary.IAccountRepository;
+import org.account.bank.domain.port.secondary.ITimeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("AsyncOperationService Tests")
+public class AsyncOperationServiceTest {
+
+    private static final String CLIENT_01 = "client01";
+
+    private static final String CLIENT_02 = "client02";
+
+    private final CountDownLatch clockReleased = new CountDownLatch(1);
+
+    private IAccountRepository accountRepository;
+
+    private AsyncOperationService operationService;
+
+    @BeforeEach
+    void setUp() {
+        accountRepository = new ConcurrentAccountRepository();
+        accountRepository.addClient(CLIENT_01);
+        accountRepository.addClient(CLIENT_02);
+    }
+
+    @AfterEach
+    void tearDown() {
+        clockReleased.countDown();
+        operationService.close();
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on enchaîne des opérations asynchrones, les rejets terminent le futur en erreur")
+    void testAsyncOperations() {
+
+        operationService = new AsyncOperationService(service(() -> LocalDate.EPOCH), 16, 4);
+
+        String statement = operationService.deposit(CLIENT_01, BigDecimal.TEN)
+                .thenCompose(ignored -> operationService.withdraw(CLIENT_01, BigDecimal.ONE))
+                .thenCompose(ignored -> operationService.printOperations(CLIENT_01))
+                .join();
+
+        assertThat(statement).contains("client01 | DEPOSIT | 10", "client01 | WITHDRAW | 1");
+        assertThat(operationService.withdraw(CLIENT_01, BigDecimal.valueOf(100)))
+                .failsWithin(Duration.ofSeconds(5))
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(InsufficientCreditException.class);
+    }
+
+    @Test
+    @DisplayName("Lorsque les limites d'appels en cours sont atteintes, les nouveaux appels sont refusés aussitôt")
+    void testInFlightLimits() {
+
+        operationService = new AsyncOperationService(service(this::blockedClock), 3, 2);
+
+        List<CompletableFuture<Void>> accepted = new ArrayList<>();
+        accepted.add(operationService.deposit(CLIENT_01, BigDecimal.ONE));
+        accepted.add(operationService.deposit(CLIENT_01, BigDecimal.ONE));
+        CompletableFuture<Void> accountLimit = operationService.deposit(CLIENT_01, BigDecimal.ONE);
+        accepted.add(operationService.deposit(CLIENT_02, BigDecimal.ONE));
+        CompletableFuture<Void> globalLimit = operationService.deposit(CLIENT_02, BigDecimal.ONE);
+
+        assertThat(accountLimit).isCompletedExceptionally();
+        assertThat(globalLimit).isCompletedExceptionally();
+        assertThat(accountLimit.exceptionNow()).isInstanceOf(RejectedExecutionException.class);
+
+        clockReleased.countDown();
+        CompletableFuture.allOf(accepted.toArray(CompletableFuture[]::new)).join();
+
+        assertThat(operationService.deposit(CLIENT_01, BigDecimal.ONE)).succeedsWithin(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Lorsque les appels d'un compte sont terminés, sa limite n'occupe plus de place, compte inconnu compris")
+    void testAccountLimits_areReleased() {
+
+        operationService = new AsyncOperationService(service(() -> LocalDate.EPOCH), 1_000, 2);
+
+        List<CompletableFuture<Void>> calls = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            calls.add(operationService.deposit("unknown" + i, BigDecimal.ONE));
+            calls.add(operationService.deposit(i % 2 == 0 ? CLIENT_01 : CLIENT_02, BigDecimal.ONE));
+        }
+        for (CompletableFuture<Void> call : calls) {
+            call.handle((value, failure) -> null).join();
+        }
+
+        assertThat(calls).filteredOn(call -> !call.isCompletedExceptionally()).isNotEmpty();
+        assertThat(operationService.trackedAccounts()).isZero();
+    }
+
+    private OperationService service(ITimeService timeService) {
+        return new OperationService(timeService, accountRepository, new OperationPrinter());
+    }
+
+    private LocalDate blockedClock() {
+        try {
+            clockReleased.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return LocalDate.EPOCH;
+    }
+}
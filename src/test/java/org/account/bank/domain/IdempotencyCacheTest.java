@@ -0,0 +1,237 @@
+package org.account.bank.domain;
+
+import org.account.bank.adapter.secondary.OperationPrinter;
+import org.account.bank.domain.exception.BankAccountNotFoundException;
+import org.account.bank.domain.exception.InsufficientCreditException;
+import org.account.bank.domain.exception.NegativeAmountException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@DisplayName("IdempotencyCache Tests")
+public class IdempotencyCacheTest {
+
+    private static final String CLIENT_01 = "client01";
+
+    private static final LocalDate TODAY = LocalDate.of(2023, 8, 10);
+
+    private static final OperationCommand DEPOSIT = new OperationCommand(CLIENT_01, OperationType.DEPOSIT, BigDecimal.TEN);
+
+    private static final OperationResult ACCEPTED = new OperationResult(OperationStatus.ACCEPTED, null);
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private InMemoryAccountRepository accountRepository;
+
+    private OperationService operationService;
+
+    @BeforeEach
+    void setUp() {
+        accountRepository = spy(new InMemoryAccountRepository());
+        accountRepository.addClient(CLIENT_01);
+        operationService = new OperationService(() -> TODAY, accountRepository, new OperationPrinter(), null,
+                new IdempotencyCache(100, Duration.ofMinutes(1), clock::get));
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on rejoue un dépôt et un retrait avec leur clé, ils ne sont appliqués qu'une fois")
+    void testRetry_isAppliedOnce() throws NegativeAmountException, BankAccountNotFoundException, InsufficientCreditException {
+
+        OperationResult deposit = operationService.tryDeposit(CLIENT_01, BigDecimal.valueOf(100), "d-1");
+        operationService.withdraw(CLIENT_01, BigDecimal.valueOf(30), "w-1");
+        clearInvocations(accountRepository);
+
+        assertThat(operationService.tryDeposit(CLIENT_01, BigDecimal.valueOf(100), "d-1")).isSameAs(deposit);
+        operationService.deposit(CLIENT_01, BigDecimal.valueOf(100), "d-1");
+        operationService.withdraw(CLIENT_01, BigDecimal.valueOf(30), "w-1");
+
+        verifyNoInteractions(accountRepository);
+        assertThat(accountRepository.findOperationsByClientId(CLIENT_01))
+                .extracting(Operation::balance)
+                .containsExactly(BigDecimal.valueOf(100), BigDecimal.valueOf(70));
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on rejoue un retrait refusé, le refus d'origine est renvoyé même si le solde a changé")
+    void testRetry_returnsOriginalRejection() throws NegativeAmountException, BankAccountNotFoundException {
+
+        assertThat(operationService.tryWithdraw(CLIENT_01, BigDecimal.TEN, "w-1").status()).isEqualTo(OperationStatus.INSUFFICIENT_CREDIT);
+        operationService.deposit(CLIENT_01, BigDecimal.valueOf(100));
+
+        assertThatThrownBy(() -> operationService.withdraw(CLIENT_01, BigDecimal.TEN, "w-1"))
+                .isInstanceOf(InsufficientCreditException.class);
+        assertThatThrownBy(() -> operationService.deposit("unknown", BigDecimal.TEN, "d-unknown"))
+                .isInstanceOf(BankAccountNotFoundException.class)
+                .hasMessage("Compte inexistant : unknown");
+
+        // sans clé, rien n'est retenu
+        assertThat(operationService.tryWithdraw(CLIENT_01, BigDecimal.TEN, null).isAccepted()).isTrue();
+        assertThat(operationService.tryWithdraw(CLIENT_01, BigDecimal.TEN, null).isAccepted()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on réutilise une clé pour une autre opération")
+    void testKey_reusedForAnotherCommand() {
+
+        operationService.tryDeposit(CLIENT_01, BigDecimal.TEN, "k-1");
+
+        assertThatThrownBy(() -> operationService.tryDeposit(CLIENT_01, BigDecimal.ONE, "k-1"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Clé d'idempotence déjà utilisée pour une autre opération : k-1");
+        assertThatThrownBy(() -> operationService.tryWithdraw(CLIENT_01, BigDecimal.TEN, "k-1"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Lorsqu'une clé a expiré ou a été évincée par de plus récentes, l'opération est de nouveau appliquée")
+    void testEviction_byTimeAndSize() {
+
+        IdempotencyCache cache = new IdempotencyCache(2, Duration.ofSeconds(10), clock::get);
+        AtomicInteger applied = new AtomicInteger();
+
+        cache.execute("k-1", DEPOSIT, () -> count(applied));
+        cache.execute("k-1", DEPOSIT, () -> count(applied));
+        assertThat(applied).hasValue(1);
+
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        cache.execute("k-1", DEPOSIT, () -> count(applied));
+        assertThat(applied).hasValue(2);
+
+        // au-delà de deux clés, la plus ancienne est évincée
+        cache.execute("k-2", DEPOSIT, () -> count(applied));
+        cache.execute("k-3", DEPOSIT, () -> count(applied));
+        assertThat(cache.size()).isEqualTo(2);
+        cache.execute("k-1", DEPOSIT, () -> count(applied));
+        assertThat(applied).hasValue(5);
+    }
+
+    @Test
+    @DisplayName("Lorsque l'application échoue, la clé est oubliée et le rejeu l'applique")
+    void testFailure_forgetsKey() {
+
+        IdempotencyCache cache = new IdempotencyCache(10, Duration.ofMinutes(1), clock::get);
+
+        assertThatThrownBy(() -> cache.execute("k-1", DEPOSIT, () -> {
+            throw new IllegalStateException("référentiel indisponible");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(cache.execute("k-1", DEPOSIT, () -> ACCEPTED)).isSameAs(ACCEPTED);
+    }
+
+    @Test
+    @DisplayName("Lorsque des rejeux concurrents arrivent pendant le traitement de l'original, ils attendent son issue")
+    void testConcurrentRetries_waitForOriginal() throws Exception {
+
+        IdempotencyCache cache = new IdempotencyCache(10, Duration.ofMinutes(1), clock::get);
+        AtomicInteger applied = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<OperationResult> original = executor.submit(() -> cache.execute("k-1", DEPOSIT, () -> {
+                started.countDown();
+                await(release);
+                return count(applied);
+            }));
+            started.await();
+            List<Future<OperationResult>> retries = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                retries.add(executor.submit(() -> cache.execute("k-1", DEPOSIT, () -> count(applied))));
+            }
+            release.countDown();
+
+            OperationResult result = original.get();
+            for (Future<OperationResult> retry : retries) {
+                assertThat(retry.get()).isSameAs(result);
+            }
+            assertThat(applied).hasValue(1);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Lorsque l'anneau est plein, une clé en cours de traitement n'est pas évincée et son rejeu attend son issue")
+    void testFullRing_keepsInFlightKey() throws Exception {
+
+        IdempotencyCache cache = new IdempotencyCache(1, Duration.ofSeconds(10), clock::get);
+        AtomicInteger applied = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<OperationResult> original = executor.submit(() -> cache.execute("k-1", DEPOSIT, () -> {
+                started.countDown();
+                await(release);
+                return count(applied);
+            }));
+            started.await();
+            // l'anneau, d'une seule clé, est plein et la rétention écoulée : k-1 reste retenue tant qu'elle est en cours
+            clock.addAndGet(Duration.ofSeconds(10).toNanos());
+            cache.execute("k-2", DEPOSIT, () -> count(applied));
+            assertThat(cache.size()).isEqualTo(2);
+            // de retour dans la rétention : le rejeu reçoit l'issue de l'original, qu'il arrive avant ou après elle
+            clock.addAndGet(-Duration.ofSeconds(10).toNanos());
+
+            Future<OperationResult> retry = executor.submit(() -> cache.execute("k-1", DEPOSIT, () -> count(applied)));
+            release.countDown();
+
+            assertThat(retry.get()).isSameAs(original.get());
+            assertThat(applied).hasValue(2);
+        } finally {
+            executor.shutdown();
+        }
+
+        // terminées, k-1 et k-2 sont évincées par la clé suivante
+        cache.execute("k-3", DEPOSIT, () -> count(applied));
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on rejoue une commande avec un montant de même valeur mais d'autre échelle, l'issue retenue est renvoyée")
+    void testRetry_withEqualAmountOfAnotherScale() {
+
+        IdempotencyCache cache = new IdempotencyCache(10, Duration.ofMinutes(1), clock::get);
+        AtomicInteger applied = new AtomicInteger();
+
+        OperationResult result = cache.execute("k-1", DEPOSIT, () -> count(applied));
+
+        assertThat(cache.execute("k-1", new OperationCommand(CLIENT_01, OperationType.DEPOSIT, new BigDecimal("10.00")), () -> count(applied)))
+                .isSameAs(result);
+        assertThat(applied).hasValue(1);
+        assertThat(new OperationCommand(CLIENT_01, OperationType.DEPOSIT, new BigDecimal("10.00"))).isEqualTo(DEPOSIT).hasSameHashCodeAs(DEPOSIT);
+    }
+
+    private static OperationResult count(AtomicInteger applied) {
+        applied.incrementAndGet();
+        return new OperationResult(OperationStatus.ACCEPTED, null);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
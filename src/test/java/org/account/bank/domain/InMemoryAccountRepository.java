@@ -30,6 +30,15 @@ public class InMemoryAccountRepository implements IAccountRepository {
         bankAccounts.get(clientId).add(operation);
     }
 
+    @Override
+    public void addOperations(String clientId, List<Operation> operations) throws BankAccountNotFoundException {
+        if(!bankAccounts.containsKey(clientId)) {
+            throw new BankAccountNotFoundException(String.format(ACCOUNT_NOT_FOUND, clientId));
+        }
+
+        bankAccounts.get(clientId).addAll(operations);
+    }
+
     @Override
     public List<Operation> findOperationsByClientId(String clientId) throws BankAccountNotFoundException {
         if(!bankAccounts.containsKey(clientId))
@@ -38,7 +47,19 @@ public class InMemoryAccountRepository implements IAccountRepository {
         return Collections.unmodifiableList(bankAccounts.get(clientId));
     }
 
+    @Override
     public void addClient(String clientId) {
-        bankAccounts.put(clientId, new ArrayList<>());
+        bankAccounts.putIfAbsent(clientId, new ArrayList<>());
+    }
+
+    @Override
+    public void removeClient(String clientId) throws BankAccountNotFoundException {
+        if(bankAccounts.remove(clientId) == null)
+            throw new BankAccountNotFoundException(String.format(ACCOUNT_NOT_FOUND, clientId));
+    }
+
+    @Override
+    public Set<String> findAllClientIds() {
+        return Set.copyOf(bankAccounts.keySet());
     }
 }
@@ -0,0 +1,109 @@
+package org.account.bank.domain;
+
+import org.account.bank.adapter.secondary.OperationPrinter;
+import org.account.bank.domain.exception.BankAccountNotFoundException;
+import org.account.bank.domain.port.primary.IOperationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("OperationService Batch Tests")
+public class OperationServiceBatchTest {
+
+    private static final String CLIENT_01 = "client01";
+
+    private static final String CLIENT_02 = "client02";
+
+    private static final LocalDate TODAY = LocalDate.of(2023, 8, 10);
+
+    private InMemoryAccountRepository accountRepository;
+
+    private IOperationService operationService;
+
+    @BeforeEach
+    void setUp() {
+        accountRepository = new InMemoryAccountRepository();
+        accountRepository.addClient(CLIENT_01);
+        accountRepository.addClient(CLIENT_02);
+        operationService = new OperationService(() -> TODAY, accountRepository, new OperationPrinter());
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on traite un lot de commandes sur plusieurs comptes")
+    void testProcessBatch() throws BankAccountNotFoundException {
+
+        List<OperationCommand> commands = List.of(
+                new OperationCommand(CLIENT_01, OperationType.DEPOSIT, BigDecimal.valueOf(100)),
+                new OperationCommand(CLIENT_02, OperationType.DEPOSIT, BigDecimal.valueOf(20)),
+                new OperationCommand(CLIENT_01, OperationType.WITHDRAW, BigDecimal.valueOf(30)),
+                new OperationCommand(CLIENT_02, OperationType.WITHDRAW, BigDecimal.valueOf(50)),
+                new OperationCommand(CLIENT_01, OperationType.DEPOSIT, BigDecimal.valueOf(-5)),
+                new OperationCommand("unknown", OperationType.DEPOSIT, BigDecimal.TEN),
+                new OperationCommand(CLIENT_01, OperationType.WITHDRAW, BigDecimal.valueOf(70))
+        );
+
+        List<OperationResult> results = operationService.processBatch(commands);
+
+        assertThat(results).extracting(OperationResult::status).containsExactly(
+                OperationStatus.ACCEPTED,
+                OperationStatus.ACCEPTED,
+                OperationStatus.ACCEPTED,
+                OperationStatus.INSUFFICIENT_CREDIT,
+                OperationStatus.NEGATIVE_AMOUNT,
+                OperationStatus.UNKNOWN_ACCOUNT,
+                OperationStatus.ACCEPTED);
+
+        assertThat(accountRepository.findOperationsByClientId(CLIENT_01)).containsExactly(
+                new Operation(TODAY, BigDecimal.valueOf(100), OperationType.DEPOSIT, BigDecimal.valueOf(100), LocalTime.MIDNIGHT, 1),
+                new Operation(TODAY, BigDecimal.valueOf(30), OperationType.WITHDRAW, BigDecimal.valueOf(70), LocalTime.MIDNIGHT, 2),
+                new Operation(TODAY, BigDecimal.valueOf(70), OperationType.WITHDRAW, BigDecimal.valueOf(0), LocalTime.MIDNIGHT, 3));
+        assertThat(accountRepository.findOperationsByClientId(CLIENT_02)).containsExactly(
+                new Operation(TODAY, BigDecimal.valueOf(20), OperationType.DEPOSIT, BigDecimal.valueOf(20), LocalTime.MIDNIGHT, 1));
+        assertThat(results.get(6).operation()).isEqualTo(accountRepository.findLastOperationByClientId(CLIENT_01).get());
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on traite un lot en sérialisant chaque compte dans sa file")
+    void testProcessBatch_serialized() throws BankAccountNotFoundException {
+
+        IOperationService serializedService = new SerializedOperationService(operationService);
+
+        List<OperationResult> results = serializedService.processBatch(List.of(
+                new OperationCommand(CLIENT_02, OperationType.WITHDRAW, BigDecimal.ONE),
+                new OperationCommand(CLIENT_01, OperationType.DEPOSIT, BigDecimal.TEN),
+                new OperationCommand(CLIENT_02, OperationType.DEPOSIT, BigDecimal.ONE)));
+
+        assertThat(results).extracting(OperationResult::status).containsExactly(
+                OperationStatus.INSUFFICIENT_CREDIT, OperationStatus.ACCEPTED, OperationStatus.ACCEPTED);
+        assertThat(accountRepository.findLastOperationByClientId(CLIENT_01).get().balance()).isEqualTo(BigDecimal.TEN);
+        assertThat(accountRepository.findLastOperationByClientId(CLIENT_02).get().balance()).isEqualTo(BigDecimal.ONE);
+    }
+
+    @Test
+    @DisplayName("Lorsque le lot contient une commande de virement, il est rejeté sans rien appliquer")
+    void testProcessBatch_withTransferCommand() throws BankAccountNotFoundException {
+
+        for (IOperationService service : List.of(operationService, new SerializedOperationService(operationService))) {
+            for (OperationType transferType : List.of(OperationType.TRANSFER_OUT, OperationType.TRANSFER_IN)) {
+                List<OperationCommand> commands = List.of(
+                        new OperationCommand(CLIENT_02, OperationType.DEPOSIT, BigDecimal.TEN),
+                        new OperationCommand(CLIENT_01, transferType, BigDecimal.valueOf(500)));
+
+                assertThatThrownBy(() -> service.processBatch(commands))
+                        .isInstanceOf(IllegalArgumentException.class)
+                        .hasMessage("Type d'opération non pris en charge dans un lot : " + transferType);
+            }
+        }
+
+        assertThat(accountRepository.findOperationsByClientId(CLIENT_01)).isEmpty();
+        assertThat(accountRepository.findOperationsByClientId(CLIENT_02)).isEmpty();
+    }
+}
@@ -9,9 +9,12 @@ import org.account.bank.domain.port.secondary.IOperationPrinter;
 import org.account.bank.domain.port.secondary.ITimeService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
@@ -68,4 +71,50 @@ public class OperationServiceIntegrationTest {
         assertThat(operationsHistory).isEqualTo(expected);
 
     }
+
+    @ParameterizedTest
+    @CsvSource({"100, 40, 30", "200, 150, 50"})
+    @DisplayName("Lorsque l'on écrit l'historique des opérations du compte '01' dans un Writer")
+    void testPrintOperations_toWriter(BigDecimal firstDeposit, BigDecimal firstWithdraw, BigDecimal secondWithdraw) throws NegativeAmountException, BankAccountNotFoundException, InsufficientCreditException, IOException {
+
+        operationService.deposit(CLIENT_ID, firstDeposit);
+        operationService.withdraw(CLIENT_ID, firstWithdraw);
+        operationService.withdraw(CLIENT_ID, secondWithdraw);
+
+        StringWriter output = new StringWriter();
+        operationService.printOperations(CLIENT_ID, output);
+
+        assertThat(output.toString()).isEqualTo(operationService.printOperations(CLIENT_ID));
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on consulte l'historique du compte '01' par période et par page")
+    void testPrintOperations_byPeriod_andPage() throws NegativeAmountException, BankAccountNotFoundException, InsufficientCreditException {
+
+        operationService.deposit(CLIENT_ID, BigDecimal.valueOf(100));
+        operationService.withdraw(CLIENT_ID, BigDecimal.valueOf(40));
+        operationService.deposit(CLIENT_ID, BigDecimal.valueOf(5));
+
+        assertThat(operationService.printOperations(CLIENT_ID, LocalDate.of(2023, 8, 1), LocalDate.of(2023, 8, 31)))
+                .isEqualTo(operationService.printOperations(CLIENT_ID));
+        assertThat(operationService.printOperations(CLIENT_ID, LocalDate.of(2023, 9, 1), LocalDate.of(2023, 9, 30)))
+                .isEqualTo("Client ID | OperationType | Amount | Date\n");
+        assertThat(operationService.printOperationsPage(CLIENT_ID, 1, 2)).isEqualTo("""
+                Client ID | OperationType | Amount | Date
+                client01 | DEPOSIT | 100 | 2023-08-10
+                """);
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on consulte le solde du compte '01' à une date et les totaux du mois")
+    void testBalanceAt_andMonthlyTotals() throws NegativeAmountException, BankAccountNotFoundException, InsufficientCreditException {
+
+        operationService.deposit(CLIENT_ID, BigDecimal.valueOf(100));
+        operationService.withdraw(CLIENT_ID, BigDecimal.valueOf(40));
+
+        assertThat(operationService.getBalanceAt(CLIENT_ID, LocalDate.of(2023, 8, 9))).isEqualByComparingTo("0");
+        assertThat(operationService.getBalanceAt(CLIENT_ID, LocalDate.of(2023, 8, 10))).isEqualByComparingTo("60");
+        assertThat(operationService.getTotals(CLIENT_ID, LocalDate.of(2023, 8, 1), LocalDate.of(2023, 8, 31)))
+                .isEqualTo(new PeriodTotals(BigDecimal.valueOf(100), BigDecimal.valueOf(40), 2));
+    }
 }
@@ -15,6 +15,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,6 +30,9 @@ import static org.mockito.Mockito.*;
 public class OperationServiceTest {
 
     private static final String CLIENT_01 = "client01";
+
+    private static final LocalDateTime NOW = LocalDate.EPOCH.atTime(LocalTime.NOON);
+
     @InjectMocks
     private OperationService operationService;
 
@@ -47,9 +52,9 @@ public class OperationServiceTest {
 
         BigDecimal depositAmount = BigDecimal.valueOf(50);
 
-        Operation operation = new Operation(LocalDate.EPOCH, depositAmount, OperationType.DEPOSIT, depositAmount);
+        Operation operation = new Operation(LocalDate.EPOCH, depositAmount, OperationType.DEPOSIT, depositAmount, LocalTime.NOON, 1);
         when(accountRepository.findLastOperationByClientId(CLIENT_01)).thenReturn(Optional.empty());
-        when(timeService.utcNow()).thenReturn(LocalDate.EPOCH);
+        when(timeService.utcDateTime()).thenReturn(NOW);
 
         operationService.deposit(CLIENT_01, depositAmount);
 
@@ -107,13 +112,13 @@ public class OperationServiceTest {
     @DisplayName("Lorsque l'on débite le compte client '01' dans le crédit est suffisant")
     void testSimpleWithdraw() throws NegativeAmountException, BankAccountNotFoundException, InsufficientCreditException {
 
-        Operation lastOperation = new Operation(LocalDate.EPOCH, BigDecimal.valueOf(500), OperationType.DEPOSIT, BigDecimal.valueOf(500));
+        Operation lastOperation = new Operation(LocalDate.EPOCH, BigDecimal.valueOf(500), OperationType.DEPOSIT, BigDecimal.valueOf(500), LocalTime.MIDNIGHT, 7);
 
         BigDecimal withdrawalAmount = BigDecimal.valueOf(400);
 
-        Operation operation = new Operation(LocalDate.EPOCH, withdrawalAmount, OperationType.WITHDRAW, BigDecimal.valueOf(100));
+        Operation operation = new Operation(LocalDate.EPOCH, withdrawalAmount, OperationType.WITHDRAW, BigDecimal.valueOf(100), LocalTime.NOON, 8);
         when(accountRepository.findLastOperationByClientId(CLIENT_01)).thenReturn(Optional.of(lastOperation));
-        when(timeService.utcNow()).thenReturn(LocalDate.EPOCH);
+        when(timeService.utcDateTime()).thenReturn(NOW);
 
         operationService.withdraw(CLIENT_01, withdrawalAmount);
 
@@ -239,5 +244,45 @@ public class OperationServiceTest {
         verifyNoMoreInteractions(accountRepository);
     }
 
+    @Test
+    @DisplayName("Lorsque l'on tente un dépôt ou un retrait rejeté, un statut est renvoyé sans exception")
+    void testTryOperations_whenRejected() throws BankAccountNotFoundException {
 
+        Operation lastOperation = new Operation(LocalDate.EPOCH, BigDecimal.valueOf(40), OperationType.DEPOSIT, BigDecimal.valueOf(40));
+        when(accountRepository.findLastOperationByClientId(CLIENT_01)).thenReturn(Optional.of(lastOperation));
+        when(accountRepository.findLastOperationByClientId("unknown"))
+                .thenThrow(new BankAccountNotFoundException(String.format("Compte inexistant : %s", "unknown")));
+
+        OperationResult negativeAmount = operationService.tryDeposit(CLIENT_01, BigDecimal.valueOf(-5));
+        OperationResult insufficientCredit = operationService.tryWithdraw(CLIENT_01, BigDecimal.valueOf(500));
+        OperationResult unknownAccount = operationService.tryWithdraw("unknown", BigDecimal.TEN);
+
+        assertThat(negativeAmount.status()).isEqualTo(OperationStatus.NEGATIVE_AMOUNT);
+        assertThat(insufficientCredit.status()).isEqualTo(OperationStatus.INSUFFICIENT_CREDIT);
+        assertThat(unknownAccount.status()).isEqualTo(OperationStatus.UNKNOWN_ACCOUNT);
+        assertThat(insufficientCredit.operation()).isNull();
+
+        assertThat(insufficientCredit.status().message(CLIENT_01, BigDecimal.valueOf(500)))
+                .isEqualTo(String.format("Crédit insuffisant pour retirer le montant : %f", BigDecimal.valueOf(500)));
+        assertThat(unknownAccount.status().message("unknown", BigDecimal.TEN)).isEqualTo("Compte inexistant : unknown");
+
+        verify(accountRepository, never()).addOperation(anyString(), any());
+        verifyNoInteractions(operationsPrinter);
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on tente un retrait accepté, l'opération enregistrée est renvoyée")
+    void testTryWithdraw_whenAccepted() throws BankAccountNotFoundException {
+
+        Operation lastOperation = new Operation(LocalDate.EPOCH, BigDecimal.valueOf(500), OperationType.DEPOSIT, BigDecimal.valueOf(500));
+        Operation operation = new Operation(LocalDate.EPOCH, BigDecimal.valueOf(400), OperationType.WITHDRAW, BigDecimal.valueOf(100), LocalTime.NOON, 1);
+        when(accountRepository.findLastOperationByClientId(CLIENT_01)).thenReturn(Optional.of(lastOperation));
+        when(timeService.utcDateTime()).thenReturn(NOW);
+
+        OperationResult result = operationService.tryWithdraw(CLIENT_01, BigDecimal.valueOf(400));
+
+        assertThat(result.isAccepted()).isTrue();
+        assertThat(result.operation()).isEqualTo(operation);
+        verify(accountRepository).addOperation(CLIENT_01, operation);
+    }
 }
@@ -0,0 +1,158 @@
+package org.account.bank.domain;
+
+import org.account.bank.adapter.secondary.ConcurrentAccountRepository;
+import org.account.bank.adapter.secondary.OperationPrinter;
+import org.account.bank.domain.exception.BankAccountNotFoundException;
+import org.account.bank.domain.exception.InsufficientCreditException;
+import org.account.bank.domain.exception.NegativeAmountException;
+import org.account.bank.domain.port.primary.IOperationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DisplayName("OperationService Transfer Tests")
+public class OperationServiceTransferTest {
+
+    private static final String CLIENT_01 = "client01";
+
+    private static final String CLIENT_02 = "client02";
+
+    private static final LocalDate TODAY = LocalDate.of(2023, 8, 10);
+
+    private InMemoryAccountRepository accountRepository;
+
+    private IOperationService operationService;
+
+    @BeforeEach
+    void setUp() throws NegativeAmountException, BankAccountNotFoundException {
+        accountRepository = new InMemoryAccountRepository();
+        accountRepository.addClient(CLIENT_01);
+        accountRepository.addClient(CLIENT_02);
+        operationService = new OperationService(() -> TODAY, accountRepository, new OperationPrinter());
+        operationService.deposit(CLIENT_01, BigDecimal.valueOf(100));
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on vire un montant couvert par le solde, les deux comptes sont mis à jour")
+    void testTransfer() throws InsufficientCreditException, NegativeAmountException, BankAccountNotFoundException {
+
+        operationService.transfer(CLIENT_01, CLIENT_02, BigDecimal.valueOf(30));
+
+        assertThat(accountRepository.findLastOperationByClientId(CLIENT_01)).contains(
+                new Operation(TODAY, BigDecimal.valueOf(30), OperationType.TRANSFER_OUT, BigDecimal.valueOf(70), LocalTime.MIDNIGHT, 2));
+        assertThat(accountRepository.findOperationsByClientId(CLIENT_02)).containsExactly(
+                new Operation(TODAY, BigDecimal.valueOf(30), OperationType.TRANSFER_IN, BigDecimal.valueOf(30), LocalTime.MIDNIGHT, 1));
+    }
+
+    @Test
+    @DisplayName("Lorsque le virement est rejeté, aucun des deux comptes n'est modifié")
+    void testTransfer_whenRejected() throws BankAccountNotFoundException {
+
+        assertThatThrownBy(() -> operationService.transfer(CLIENT_01, CLIENT_02, BigDecimal.valueOf(150)))
+                .isInstanceOf(InsufficientCreditException.class);
+        assertThatThrownBy(() -> operationService.transfer(CLIENT_01, CLIENT_02, BigDecimal.valueOf(-1)))
+                .isInstanceOf(NegativeAmountException.class);
+        assertThatThrownBy(() -> operationService.transfer(CLIENT_01, "unknown", BigDecimal.ONE))
+                .isInstanceOf(BankAccountNotFoundException.class);
+        assertThatThrownBy(() -> operationService.transfer(CLIENT_01, CLIENT_01, BigDecimal.ONE))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(accountRepository.findOperationsByClientId(CLIENT_01)).hasSize(1);
+        assertThat(accountRepository.findOperationsByClientId(CLIENT_02)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Lorsque des virements croisés sont concurrents, la somme des soldes est conservée")
+    void testConcurrentTransfers_preserveTotal() throws Exception {
+
+        ConcurrentAccountRepository concurrentRepository = new ConcurrentAccountRepository();
+        OperationService service = new OperationService(() -> TODAY, concurrentRepository, new OperationPrinter());
+        int accounts = 8;
+        for (int i = 0; i < accounts; i++) {
+            concurrentRepository.addClient("client" + i);
+            service.deposit("client" + i, BigDecimal.valueOf(100));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int task = 0; task < 4; task++) {
+                futures.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 2_000; i++) {
+                        int from = random.nextInt(accounts);
+                        int to = (from + 1 + random.nextInt(accounts - 1)) % accounts;
+                        try {
+                            service.transfer("client" + from, "client" + to, BigDecimal.valueOf(random.nextInt(1, 30)));
+                        } catch (InsufficientCreditException e) {
+                            // rejet attendu lorsque le compte débité est vide
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < accounts; i++) {
+            Operation last = concurrentRepository.findLastOperationByClientId("client" + i).orElseThrow();
+            assertThat(last.balance().signum()).isNotNegative();
+            assertThat(last.sequence()).isEqualTo(concurrentRepository.findOperationsByClientId("client" + i).size());
+            total = total.add(last.balance());
+        }
+        assertThat(total).isEqualTo(BigDecimal.valueOf(100L * accounts));
+    }
+
+    @Test
+    @DisplayName("Lorsque l'écriture du crédit échoue, le débit est contre-passé et le solde du compte débité rétabli")
+    void testTransfer_whenCreditFails_debitIsReversed() throws BankAccountNotFoundException {
+
+        UncheckedIOException failure = new UncheckedIOException(new IOException("disque plein"));
+        IOperationService failingService = new OperationService(() -> TODAY, new InMemoryAccountRepository() {
+            @Override
+            public void addOperation(String clientId, Operation operation) throws BankAccountNotFoundException {
+                if (clientId.equals(CLIENT_02)) {
+                    throw failure;
+                }
+                accountRepository.addOperation(clientId, operation);
+            }
+
+            @Override
+            public Optional<Operation> findLastOperationByClientId(String clientId) throws BankAccountNotFoundException {
+                return accountRepository.findLastOperationByClientId(clientId);
+            }
+        }, new OperationPrinter());
+
+        assertThatThrownBy(() -> failingService.transfer(CLIENT_01, CLIENT_02, BigDecimal.valueOf(30)))
+                .isSameAs(failure);
+
+        assertThat(accountRepository.findOperationsByClientId(CLIENT_01)).extracting(Operation::operationType, Operation::balance, Operation::sequence)
+                .containsExactly(
+                        tuple(OperationType.DEPOSIT, BigDecimal.valueOf(100), 1L),
+                        tuple(OperationType.TRANSFER_OUT, BigDecimal.valueOf(70), 2L),
+                        tuple(OperationType.TRANSFER_IN, BigDecimal.valueOf(100), 3L));
+        assertThat(accountRepository.findOperationsByClientId(CLIENT_02)).isEmpty();
+    }
+}
@@ -0,0 +1,197 @@
+package org.account.bank.domain;
+
+import org.account.bank.adapter.secondary.ConcurrentAccountRepository;
+import org.account.bank.adapter.secondary.OperationPrinter;
+import org.account.bank.domain.exception.BankAccountNotFoundException;
+import org.account.bank.domain.exception.InsufficientCreditException;
+import org.account.bank.domain.exception.NegativeAmountException;
+import org.account.bank.domain.port.primary.IOperationService;
+import org.account.bank.domain.port.secondary.IAccountRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("SerializedOperationService Tests")
+public class SerializedOperationServiceTest {
+
+    private static final String CLIENT_01 = "client01";
+
+    private static final int THREADS = 8;
+
+    private IAccountRepository accountRepository;
+
+    private IOperationService operationService;
+
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() {
+        accountRepository = new ConcurrentAccountRepository();
+        accountRepository.addClient(CLIENT_01);
+        OperationService delegate = new OperationService(() -> LocalDate.EPOCH, accountRepository, new OperationPrinter());
+        operationService = new SerializedOperationService(delegate);
+        callers = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Lorsque plusieurs retraits concurrents visent le même compte, il n'est jamais à découvert")
+    void testConcurrentWithdraws_neverOverdraw() throws Exception {
+
+        operationService.deposit(CLIENT_01, BigDecimal.valueOf(1000));
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(250, () -> {
+            try {
+                operationService.withdraw(CLIENT_01, BigDecimal.ONE);
+                accepted.incrementAndGet();
+            } catch (InsufficientCreditException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertThat(accepted.get()).isEqualTo(1000);
+        assertThat(rejected.get()).isEqualTo(THREADS * 250 - 1000);
+        assertThat(accountRepository.findLastOperationByClientId(CLIENT_01).get().balance()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(accountRepository.findOperationsByClientId(CLIENT_01))
+                .allSatisfy(operation -> assertThat(operation.balance()).isNotNegative());
+    }
+
+    @Test
+    @DisplayName("Lorsque plusieurs dépôts concurrents visent le même compte, aucun n'est perdu")
+    void testConcurrentDeposits_noLostUpdate() throws Exception {
+
+        int depositsPerThread = 500;
+
+        runConcurrently(depositsPerThread, () -> operationService.deposit(CLIENT_01, BigDecimal.ONE));
+
+        List<Operation> operations = accountRepository.findOperationsByClientId(CLIENT_01);
+        assertThat(operations).hasSize(THREADS * depositsPerThread);
+        assertThat(operations.get(operations.size() - 1).balance()).isEqualByComparingTo(BigDecimal.valueOf(THREADS * depositsPerThread));
+    }
+
+    @Test
+    @DisplayName("Lorsque des comptes différents sont crédités en parallèle")
+    void testDeposits_onDistinctAccounts() throws Exception {
+
+        int depositsPerThread = 2_000;
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            String clientId = "client" + t;
+            accountRepository.addClient(clientId);
+            tasks.add(() -> {
+                for (int i = 0; i < depositsPerThread; i++) {
+                    operationService.deposit(clientId, BigDecimal.ONE);
+                }
+                return null;
+            });
+        }
+
+        for (Future<Void> future : callers.invokeAll(tasks)) {
+            future.get();
+        }
+
+        for (int t = 0; t < THREADS; t++) {
+            assertThat(accountRepository.findLastOperationByClientId("client" + t).get().balance())
+                    .isEqualByComparingTo(BigDecimal.valueOf(depositsPerThread));
+        }
+    }
+
+    @Test
+    @DisplayName("Lorsque l'opération est rejetée, l'exception d'origine est propagée à l'appelant")
+    void testRejections_arePropagated() {
+
+        assertThatThrownBy(() -> operationService.deposit(CLIENT_01, BigDecimal.valueOf(-1)))
+                .isInstanceOf(NegativeAmountException.class);
+        assertThatThrownBy(() -> operationService.withdraw(CLIENT_01, BigDecimal.TEN))
+                .isInstanceOf(InsufficientCreditException.class);
+        assertThatThrownBy(() -> operationService.deposit("unknown", BigDecimal.TEN))
+                .isInstanceOf(BankAccountNotFoundException.class)
+                .hasMessage("Compte inexistant : unknown");
+    }
+
+    @Test
+    @DisplayName("Lorsque les files se vident, elles sont retirées, comptes inconnus compris, sans perdre de mouvement")
+    void testLanes_areRetiredWhenIdle() throws Exception {
+
+        int depositsPerThread = 500;
+        AtomicInteger unknown = new AtomicInteger();
+
+        runConcurrently(depositsPerThread, () -> {
+            operationService.deposit(CLIENT_01, BigDecimal.ONE);
+            assertThatThrownBy(() -> operationService.deposit("unknown" + unknown.incrementAndGet(), BigDecimal.ONE))
+                    .isInstanceOf(BankAccountNotFoundException.class);
+        });
+
+        assertThat(((SerializedOperationService) operationService).laneCount()).isZero();
+        assertThat(accountRepository.findLastOperationByClientId(CLIENT_01).get().balance())
+                .isEqualByComparingTo(BigDecimal.valueOf(THREADS * depositsPerThread));
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on dépose sur un compte chaud, le dépôt ne passe pas par la file du compte")
+    void testHotDeposits_bypassLane() throws Exception {
+
+        SubLedgers subLedgers = new SubLedgers(Set.of(CLIENT_01), 4);
+        AtomicInteger laneTasks = new AtomicInteger();
+        Executor executor = task -> {
+            laneTasks.incrementAndGet();
+            ForkJoinPool.commonPool().execute(task);
+        };
+        OperationService delegate = new OperationService(() -> LocalDate.EPOCH, accountRepository, new OperationPrinter(), null,
+                new IdempotencyCache(), subLedgers);
+        SerializedOperationService serialized = new SerializedOperationService(delegate, executor, subLedgers);
+
+        runConcurrently(100, () -> {
+            serialized.deposit(CLIENT_01, BigDecimal.ONE);
+            assertThat(serialized.tryDeposit(CLIENT_01, BigDecimal.ONE).isAccepted()).isTrue();
+        });
+
+        assertThat(laneTasks).hasValue(0);
+        assertThat(serialized.getBalanceAt(CLIENT_01, LocalDate.EPOCH)).isEqualByComparingTo(BigDecimal.valueOf(2 * THREADS * 100));
+        // les retraits prennent tous les sous-comptes et restent sérialisés
+        serialized.withdraw(CLIENT_01, BigDecimal.TEN);
+        assertThat(laneTasks.get()).isPositive();
+    }
+
+    private void runConcurrently(int iterations, ThrowingRunnable action) throws Exception {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            tasks.add(() -> {
+                for (int i = 0; i < iterations; i++) {
+                    action.run();
+                }
+                return null;
+            });
+        }
+        for (Future<Void> future : callers.invokeAll(tasks)) {
+            future.get();
+        }
+    }
+
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
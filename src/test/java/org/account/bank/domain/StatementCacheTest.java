@@ -0,0 +1,166 @@
+package org.account.bank.domain;
+
+import org.account.bank.adapter.secondary.OperationPrinter;
+import org.account.bank.domain.exception.BankAccountNotFoundException;
+import org.account.bank.domain.exception.InsufficientCreditException;
+import org.account.bank.domain.exception.NegativeAmountException;
+import org.account.bank.domain.port.primary.IOperationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("StatementCache Tests")
+public class StatementCacheTest {
+
+    private static final String CLIENT_01 = "client01";
+
+    private static final String CLIENT_02 = "client02";
+
+    private static final LocalDate TODAY = LocalDate.of(2023, 8, 10);
+
+    private InMemoryAccountRepository accountRepository;
+
+    private OperationPrinter printer;
+
+    private IOperationService operationService;
+
+    private IOperationService uncachedService;
+
+    @BeforeEach
+    void setUp() {
+        accountRepository = new InMemoryAccountRepository();
+        accountRepository.addClient(CLIENT_01);
+        accountRepository.addClient(CLIENT_02);
+        printer = spy(new OperationPrinter());
+        operationService = new OperationService(() -> TODAY, accountRepository, printer, new StatementCache(printer, 1));
+        uncachedService = new OperationService(() -> TODAY, accountRepository, new OperationPrinter());
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on relit un relevé après de nouvelles opérations, seules les nouvelles lignes sont imprimées")
+    void testStatement_isUpdatedIncrementally() throws NegativeAmountException, BankAccountNotFoundException, InsufficientCreditException, IOException {
+
+        operationService.deposit(CLIENT_01, BigDecimal.valueOf(100));
+        operationService.printOperations(CLIENT_01);
+        operationService.withdraw(CLIENT_01, BigDecimal.valueOf(40));
+        operationService.processBatch(List.of(
+                new OperationCommand(CLIENT_01, OperationType.DEPOSIT, BigDecimal.TEN),
+                new OperationCommand(CLIENT_01, OperationType.WITHDRAW, BigDecimal.ONE)));
+        operationService.transfer(CLIENT_01, CLIENT_02, BigDecimal.valueOf(5));
+        clearInvocations(printer);
+
+        String statement = operationService.printOperations(CLIENT_01);
+
+        assertThat(statement).isEqualTo(uncachedService.printOperations(CLIENT_01));
+        assertThat(operationService.printOperations(CLIENT_01)).isSameAs(statement);
+        verify(printer, never()).print(anyList(), anyString());
+        verify(printer, times(4)).printLine(any(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Lorsqu'une opération est ajoutée sans passer par le service, le relevé est réimprimé")
+    void testStatement_whenAppendedOutsideService() throws NegativeAmountException, BankAccountNotFoundException {
+
+        operationService.deposit(CLIENT_01, BigDecimal.valueOf(100));
+        operationService.printOperations(CLIENT_01);
+        accountRepository.addOperation(CLIENT_01, new Operation(TODAY, BigDecimal.TEN, OperationType.DEPOSIT, BigDecimal.valueOf(110)));
+        operationService.deposit(CLIENT_01, BigDecimal.ONE);
+
+        assertThat(operationService.printOperations(CLIENT_01)).isEqualTo(uncachedService.printOperations(CLIENT_01));
+        verify(printer, times(2)).print(anyList(), anyString());
+    }
+
+    @Test
+    @DisplayName("Lorsque le cache est plein, le relevé le moins récemment lu est évincé")
+    void testStatement_isEvicted() throws NegativeAmountException, BankAccountNotFoundException {
+
+        operationService.deposit(CLIENT_01, BigDecimal.valueOf(100));
+        operationService.printOperations(CLIENT_01);
+        operationService.printOperations(CLIENT_02);
+        operationService.printOperations(CLIENT_01);
+
+        verify(printer, times(3)).print(anyList(), anyString());
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on alterne opérations et lectures, le relevé mis à jour par tranches reste identique au relevé complet")
+    void testStatement_manyIncrementalUpdates() throws NegativeAmountException, BankAccountNotFoundException, IOException {
+
+        operationService.printOperations(CLIENT_01);
+        for (int i = 1; i <= 200; i++) {
+            for (int j = 0; j < i % 3 + 1; j++) {
+                operationService.deposit(CLIENT_01, BigDecimal.valueOf(i));
+            }
+            if (i % 7 == 0) {
+                StringBuilder streamed = new StringBuilder();
+                operationService.printOperations(CLIENT_01, streamed);
+                assertThat(streamed.toString()).isEqualTo(uncachedService.printOperations(CLIENT_01));
+            } else {
+                assertThat(operationService.printOperations(CLIENT_01)).isEqualTo(uncachedService.printOperations(CLIENT_01));
+            }
+        }
+
+        verify(printer, times(1)).print(anyList(), anyString());
+        // l'impression initiale passe par l'impression au fil de l'itérateur, aucune autre
+        verify(printer, times(1)).print(ArgumentMatchers.<Iterator<Operation>>any(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Lorsque des comptes sont lus et modifiés en concurrence, chaque relevé servi est à jour")
+    void testStatement_concurrentReadsAndAppends() throws Exception {
+
+        StatementCache cache = new StatementCache(new OperationPrinter(), 4);
+        IOperationService cachedService = new OperationService(() -> TODAY, accountRepository, new OperationPrinter(), cache);
+        List<String> clientIds = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            clientIds.add("client" + i);
+            accountRepository.addClient("client" + i);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                tasks.add(executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        String clientId = clientIds.get(ThreadLocalRandom.current().nextInt(clientIds.size()));
+                        cachedService.deposit(clientId, BigDecimal.ONE);
+                        cachedService.printOperations(clientId);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        for (String clientId : clientIds) {
+            assertThat(cachedService.printOperations(clientId)).isEqualTo(uncachedService.printOperations(clientId));
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package org.account.bank.domain;
+
+import org.account.bank.adapter.primary.BulkImporter;
+import org.account.bank.adapter.primary.ImportReport;
+import org.account.bank.adapter.primary.StatementJob;
+import org.account.bank.adapter.primary.StatementReport;
+import org.account.bank.adapter.secondary.ConcurrentAccountRepository;
+import org.account.bank.adapter.secondary.OperationPrinter;
+import org.account.bank.adapter.secondary.ShardedAccountRepository;
+import org.account.bank.adapter.stream.OperationRingBuffer;
+import org.account.bank.adapter.stream.PublishingAccountRepository;
+import org.account.bank.adapter.stream.WaitStrategy;
+import org.account.bank.domain.exception.BankAccountNotFoundException;
+import org.account.bank.domain.exception.InsufficientCreditException;
+import org.account.bank.domain.exception.NegativeAmountException;
+import org.account.bank.domain.port.secondary.ITimeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("SubLedgers Tests")
+public class SubLedgersTest {
+
+    private static final String HOT = "corporate";
+
+    private static final String CLIENT_01 = "client01";
+
+    private static final LocalDate TODAY = LocalDate.of(2023, 8, 10);
+
+    private final SubLedgers subLedgers = new SubLedgers(Set.of(HOT, "closed"), 4);
+
+    // horloge qui avance à chaque lecture : la fusion des sous-comptes suit l'ordre des écritures
+    private final ITimeService clock = new ITimeService() {
+
+        private final AtomicLong ticks = new AtomicLong();
+
+        @Override
+        public LocalDate utcNow() {
+            return TODAY;
+        }
+
+        @Override
+        public LocalDateTime utcDateTime() {
+            return TODAY.atStartOfDay().plusNanos(ticks.incrementAndGet() * 1_000);
+        }
+    };
+
+    private ConcurrentAccountRepository accountRepository;
+
+    private OperationService operationService;
+
+    @BeforeEach
+    void setUp() {
+        accountRepository = new ConcurrentAccountRepository();
+        accountRepository.addClient(HOT);
+        accountRepository.addClient(CLIENT_01);
+        operationService = new OperationService(clock, accountRepository, new OperationPrinter(), null, new IdempotencyCache(), subLedgers);
+    }
+
+    @Test
+    @DisplayName("Lorsque des dépôts et des retraits concurrents visent un compte chaud, le solde fusionné est exact et jamais négatif")
+    void testConcurrentDepositsAndWithdrawals() throws Exception {
+
+        AtomicInteger acceptedWithdrawals = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                boolean withdrawing = thread % 4 == 3;
+                tasks.add(executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        if (withdrawing) {
+                            if (operationService.tryWithdraw(HOT, BigDecimal.valueOf(3)).isAccepted()) {
+                                acceptedWithdrawals.incrementAndGet();
+                            }
+                        } else {
+                            operationService.tryDeposit(HOT, BigDecimal.ONE);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        BigDecimal expected = BigDecimal.valueOf(6 * 500 - 3L * acceptedWithdrawals.get());
+        assertThat(operationService.getBalanceAt(HOT, TODAY)).isEqualByComparingTo(expected);
+        List<Operation> history = historyOf(HOT);
+        assertThat(history).hasSize(6 * 500 + acceptedWithdrawals.get());
+        for (int i = 0; i < history.size(); i++) {
+            assertThat(history.get(i).sequence()).isEqualTo(i + 1);
+            assertThat(history.get(i).balance().signum()).isNotNegative();
+        }
+        assertThat(history.get(history.size() - 1).balance()).isEqualByComparingTo(expected);
+        // les dépôts sont bien répartis, l'historique principal ne porte que les retraits
+        assertThat(accountRepository.findOperationsByClientId(HOT)).allMatch(operation -> operation.operationType() == OperationType.WITHDRAW);
+        assertThat(accountRepository.findAllClientIds()).contains(subLedgers.ledgerIds(HOT)[1], subLedgers.ledgerIds(HOT)[4]);
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on retire d'un compte chaud, le solde de tous ses sous-comptes est pris en compte")
+    void testWithdraw_checksTotalBalance() throws NegativeAmountException, BankAccountNotFoundException, InsufficientCreditException {
+
+        for (int i = 0; i < 20; i++) {
+            operationService.deposit(HOT, BigDecimal.TEN);
+        }
+
+        assertThatThrownBy(() -> operationService.withdraw(HOT, BigDecimal.valueOf(201)))
+                .isInstanceOf(InsufficientCreditException.class);
+        operationService.withdraw(HOT, BigDecimal.valueOf(200));
+
+        assertThat(operationService.getBalanceAt(HOT, TODAY)).isEqualByComparingTo(BigDecimal.ZERO);
+        // le retrait est inscrit à l'historique principal, dont le solde partiel devient négatif
+        assertThat(accountRepository.findLastOperationByClientId(HOT).orElseThrow().balance()).isEqualByComparingTo("-200");
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on imprime le relevé d'un compte chaud, il est identique à celui d'un compte ordinaire")
+    void testPrintOperations_sameAsPlainAccount() throws NegativeAmountException, BankAccountNotFoundException, InsufficientCreditException {
+
+        InMemoryAccountRepository plainRepository = new InMemoryAccountRepository();
+        plainRepository.addClient(HOT);
+        plainRepository.addClient(CLIENT_01);
+        OperationService plainService = new OperationService(() -> TODAY, plainRepository, new OperationPrinter());
+
+        for (OperationService service : List.of(operationService, plainService)) {
+            for (int i = 1; i <= 12; i++) {
+                service.deposit(HOT, BigDecimal.valueOf(i));
+                if (i % 4 == 0) {
+                    service.withdraw(HOT, BigDecimal.valueOf(5));
+                }
+            }
+            service.transfer(HOT, CLIENT_01, BigDecimal.valueOf(20));
+            service.processBatch(List.of(new OperationCommand(HOT, OperationType.DEPOSIT, BigDecimal.ONE),
+                    new OperationCommand(HOT, OperationType.WITHDRAW, BigDecimal.valueOf(1_000))));
+        }
+
+        assertThat(operationService.printOperations(HOT)).isEqualTo(plainService.printOperations(HOT));
+        assertThat(operationService.printOperationsPage(HOT, 1, 5)).isEqualTo(plainService.printOperationsPage(HOT, 1, 5));
+        assertThat(operationService.getTotals(HOT, TODAY, TODAY)).isEqualTo(plainService.getTotals(HOT, TODAY, TODAY));
+        assertThat(operationService.printOperations(CLIENT_01)).isEqualTo(plainService.printOperations(CLIENT_01));
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on interroge l'historique d'un compte chaud par période ou par page, il répond comme un compte ordinaire")
+    void testHistoryQueries_sameAsPlainAccount() throws NegativeAmountException, BankAccountNotFoundException, InsufficientCreditException {
+
+        AtomicLong ticks = new AtomicLong();
+        LocalDate[] day = {TODAY};
+        ITimeService calendar = new ITimeService() {
+
+            @Override
+            public LocalDate utcNow() {
+                return day[0];
+            }
+
+            @Override
+            public LocalDateTime utcDateTime() {
+                return day[0].atStartOfDay().plusNanos(ticks.incrementAndGet() * 1_000);
+            }
+        };
+        InMemoryAccountRepository plainRepository = new InMemoryAccountRepository();
+        plainRepository.addClient(HOT);
+        plainRepository.addClient(CLIENT_01);
+        OperationService hotService = new OperationService(calendar, accountRepository, new OperationPrinter(), null, new IdempotencyCache(), subLedgers);
+        OperationService plainService = new OperationService(calendar, plainRepository, new OperationPrinter());
+
+        for (int i = 1; i <= 30; i++) {
+            day[0] = TODAY.plusDays(i / 6);
+            for (OperationService service : List.of(hotService, plainService)) {
+                service.deposit(HOT, BigDecimal.valueOf(i));
+                if (i % 5 == 0) {
+                    service.withdraw(HOT, BigDecimal.valueOf(7));
+                }
+            }
+        }
+
+        SubLedgerAccountRepository mergedView = new SubLedgerAccountRepository(accountRepository, subLedgers);
+        for (LocalDate date = TODAY.minusDays(1); !date.isAfter(TODAY.plusDays(6)); date = date.plusDays(1)) {
+            assertThat(mergedView.findBalanceAt(HOT, date)).isEqualByComparingTo(plainRepository.findBalanceAt(HOT, date));
+            assertThat(mergedView.findTotalsBetween(HOT, TODAY.plusDays(1), date)).isEqualTo(plainRepository.findTotalsBetween(HOT, TODAY.plusDays(1), date));
+            assertThat(mergedView.findOperationsBetween(HOT, date, date.plusDays(1)))
+                    .usingRecursiveFieldByFieldElementComparatorIgnoringFields("time")
+                    .containsExactlyElementsOf(plainRepository.findOperationsBetween(HOT, date, date.plusDays(1)));
+        }
+        for (int page = 0; page < 5; page++) {
+            assertThat(mergedView.findOperationsPage(HOT, page, 8))
+                    .usingRecursiveFieldByFieldElementComparatorIgnoringFields("time")
+                    .containsExactlyElementsOf(plainRepository.findOperationsPage(HOT, page, 8));
+        }
+        assertThatThrownBy(() -> mergedView.findOperationsPage(HOT, -1, 8)).isInstanceOf(IllegalArgumentException.class);
+        List<Operation> newestFirst = new ArrayList<>();
+        mergedView.iterateOperationsNewestFirst(HOT).forEachRemaining(newestFirst::add);
+        List<Operation> history = new ArrayList<>(historyOf(HOT));
+        Collections.reverse(history);
+        assertThat(newestFirst).hasSize(36).containsExactlyElementsOf(history);
+    }
+
+    @Test
+    @DisplayName("Lorsqu'un compte avec historique devient chaud, son historique est conservé")
+    void testExistingHistory_isKept() throws NegativeAmountException, BankAccountNotFoundException {
+
+        accountRepository.addOperation(HOT, new Operation(TODAY, BigDecimal.valueOf(50), OperationType.DEPOSIT, BigDecimal.valueOf(50)));
+        accountRepository.addOperation(HOT, new Operation(TODAY, BigDecimal.valueOf(20), OperationType.WITHDRAW, BigDecimal.valueOf(30)));
+
+        operationService.deposit(HOT, BigDecimal.valueOf(5));
+
+        assertThat(historyOf(HOT)).extracting(Operation::balance)
+                .containsExactly(BigDecimal.valueOf(50), BigDecimal.valueOf(30), BigDecimal.valueOf(35));
+        // compte chaud jamais ouvert
+        assertThatThrownBy(() -> operationService.deposit("closed", BigDecimal.ONE))
+                .isInstanceOf(BankAccountNotFoundException.class);
+        assertThat(accountRepository.findAllClientIds()).noneMatch(clientId -> clientId.startsWith("closed"));
+        assertThatThrownBy(() -> new SubLedgers(Set.of(HOT), 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Nombre de sous-comptes invalide : 0");
+    }
+
+    @Test
+    @DisplayName("Lorsqu'un identifiant pourrait désigner un sous-compte, il est refusé")
+    void testClientId_cannotClashWithSubLedger() throws NegativeAmountException, BankAccountNotFoundException {
+
+        SubLedgerAccountRepository mergedView = new SubLedgerAccountRepository(accountRepository, subLedgers);
+        String depositLedger = subLedgers.ledgerIds(HOT)[1];
+
+        assertThatThrownBy(() -> mergedView.addClient(depositLedger))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Identifiant client réservé aux sous-comptes : " + HOT + "␟0");
+        assertThatThrownBy(() -> new SubLedgers(Set.of(depositLedger), 2)).isInstanceOf(IllegalArgumentException.class);
+
+        // l'ancien nom d'un sous-compte est un compte ordinaire
+        mergedView.addClient(HOT + "#0");
+        operationService.deposit(HOT + "#0", BigDecimal.TEN);
+        operationService.deposit(HOT, BigDecimal.ONE);
+        assertThat(operationService.getBalanceAt(HOT, TODAY)).isEqualByComparingTo(BigDecimal.ONE);
+        assertThat(operationService.getBalanceAt(HOT + "#0", TODAY)).isEqualByComparingTo(BigDecimal.TEN);
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on dépose sur un compte chaud, le résultat et son rejeu ne portent pas de solde")
+    void testDepositResult_hasNoBalance() throws NegativeAmountException, BankAccountNotFoundException, InsufficientCreditException {
+
+        for (int i = 0; i < 8; i++) {
+            operationService.deposit(HOT, BigDecimal.TEN);
+        }
+        operationService.withdraw(HOT, BigDecimal.valueOf(30));
+
+        OperationResult result = operationService.tryDeposit(HOT, BigDecimal.valueOf(5), "d-1");
+
+        assertThat(result.isAccepted()).isTrue();
+        assertThat(result.operation().balance()).isNull();
+        // le retrait a ouvert une époque, que le dépôt lit sans l'avancer
+        assertThat(result.operation().sequence()).isEqualTo(1);
+        assertThat(operationService.tryDeposit(HOT, BigDecimal.valueOf(5), "d-1")).isSameAs(result);
+        assertThat(operationService.getBalanceAt(HOT, TODAY)).isEqualByComparingTo("55");
+        Operation last = historyOf(HOT).get(9);
+        assertThat(last.amount()).isEqualByComparingTo("5");
+        assertThat(last.balance()).isEqualByComparingTo("55");
+        assertThat(last.sequence()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Lorsqu'un import en masse écrit par une autre vue, les dépôts suivants voient son époque")
+    void testImportThroughAnotherView_sharesEpoch(@TempDir Path directory)
+            throws IOException, NegativeAmountException, BankAccountNotFoundException, InsufficientCreditException {
+
+        for (int i = 0; i < 5; i++) {
+            operationService.deposit(HOT, BigDecimal.TEN);
+        }
+        Path file = Files.writeString(directory.resolve("export.csv"), HOT + ",2023-08-10,00:00,WITHDRAW,30,20\n");
+
+        ImportReport report = new BulkImporter(new SubLedgerAccountRepository(accountRepository, subLedgers)).importCsv(file);
+
+        assertThat(report.operations()).isEqualTo(1);
+        long importEpoch = accountRepository.findLastOperationByClientId(HOT).orElseThrow().sequence();
+        assertThat(operationService.tryDeposit(HOT, BigDecimal.ONE).operation().sequence()).isEqualTo(importEpoch);
+        operationService.withdraw(HOT, BigDecimal.valueOf(21));
+        assertThat(accountRepository.findLastOperationByClientId(HOT).orElseThrow().sequence()).isEqualTo(importEpoch + 1);
+
+        List<Operation> history = historyOf(HOT);
+        assertThat(history).extracting(Operation::sequence).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L);
+        assertThat(history).allMatch(operation -> operation.balance().signum() >= 0);
+        assertThat(history.get(7).balance()).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    @DisplayName("Lorsque l'on publie les opérations d'un compte chaud, elles le sont sous son identifiant avec le solde fusionné")
+    void testPublishing_underHotAccount() throws NegativeAmountException, BankAccountNotFoundException, InsufficientCreditException {
+
+        OperationRingBuffer ringBuffer = new OperationRingBuffer(64);
+        List<String> clientIds = new ArrayList<>();
+        List<Operation> published = new ArrayList<>();
+        ringBuffer.subscribe("test", (clientId, operation, sequence, endOfBatch) -> {
+            clientIds.add(clientId);
+            published.add(operation);
+        }, WaitStrategy.BLOCKING);
+        OperationService publishingService = new OperationService(clock, new PublishingAccountRepository(accountRepository, ringBuffer, subLedgers),
+                new OperationPrinter(), null, new IdempotencyCache(), subLedgers);
+
+        for (int i = 1; i <= 6; i++) {
+            publishingService.deposit(HOT, BigDecimal.valueOf(i));
+        }
+        publishingService.withdraw(HOT, BigDecimal.valueOf(15));
+        publishingService.processBatch(List.of(new OperationCommand(HOT, OperationType.DEPOSIT, BigDecimal.ONE),
+                new OperationCommand(HOT, OperationType.WITHDRAW, BigDecimal.valueOf(2))));
+        ringBuffer.close();
+
+        assertThat(clientIds).hasSize(9).containsOnly(HOT);
+        // sans dépôt concurrent, chaque opération est publiée avec son solde et son rang dans la fusion
+        assertThat(published).containsExactlyElementsOf(historyOf(HOT));
+    }
+
+    @Test
+    @DisplayName("Lorsque les relevés et les partitions enveloppent la vue fusionnée, un compte chaud reste un seul compte")
+    void testStatementsAndPartitions_keepHotAccountWhole(@TempDir Path directory)
+            throws IOException, NegativeAmountException, BankAccountNotFoundException, InsufficientCreditException {
+
+        // une instance par référentiel : l'époque d'un compte chaud y est tenue
+        SubLedgers subLedgers = new SubLedgers(Set.of(HOT), 4);
+        ShardedAccountRepository sharded = new ShardedAccountRepository(128, subLedgers);
+        sharded.addPartition("p0", new ConcurrentAccountRepository());
+        sharded.addClient(HOT);
+        sharded.addClient(CLIENT_01);
+        OperationService shardedService = new OperationService(clock, sharded, new OperationPrinter(), null, new IdempotencyCache(), subLedgers);
+        for (int i = 0; i < 40; i++) {
+            shardedService.deposit(HOT, BigDecimal.TEN);
+        }
+        shardedService.withdraw(HOT, BigDecimal.valueOf(100));
+        for (String partition : List.of("p1", "p2", "p3", "p4", "p5")) {
+            sharded.addPartition(partition, new ConcurrentAccountRepository());
+        }
+
+        for (String ledgerId : subLedgers.ledgerIds(HOT)) {
+            assertThat(sharded.partitionOf(ledgerId)).isEqualTo(sharded.partitionOf(HOT));
+        }
+        assertThat(shardedService.getBalanceAt(HOT, TODAY)).isEqualByComparingTo("300");
+
+        SubLedgerAccountRepository mergedView = new SubLedgerAccountRepository(sharded, subLedgers);
+        StatementReport report = new StatementJob(mergedView, new OperationPrinter()).writePerAccount(directory);
+        assertThat(report.statements()).isEqualTo(2);
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.map(file -> file.getFileName().toString())).containsExactlyInAnyOrder(HOT + ".txt", CLIENT_01 + ".txt");
+        }
+        assertThat(Files.readString(directory.resolve(HOT + ".txt"))).isEqualTo(shardedService.printOperations(HOT));
+    }
+
+    private List<Operation> historyOf(String clientId) throws BankAccountNotFoundException {
+        return new SubLedgerAccountRepository(accountRepository, subLedgers).findOperationsByClientId(clientId);
+    }
+}